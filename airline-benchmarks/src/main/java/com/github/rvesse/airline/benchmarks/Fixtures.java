@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.examples.ExampleRunnable;
+import com.github.rvesse.airline.examples.cli.GroupCli;
+import com.github.rvesse.airline.examples.cli.commands.Help;
+import com.github.rvesse.airline.examples.inheritance.Child;
+import com.github.rvesse.airline.examples.inheritance.GoodGrandchild;
+import com.github.rvesse.airline.examples.inheritance.Parent;
+import com.github.rvesse.airline.examples.sendit.SendItCli;
+import com.github.rvesse.airline.examples.simple.Required;
+import com.github.rvesse.airline.examples.simple.RequiredArguments;
+import com.github.rvesse.airline.examples.simple.Simple;
+
+/**
+ * Provides the CLIs used as benchmark fixtures, these are built from the
+ * commands in the {@code airline-examples} module
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Arguments for a valid invocation of the {@code send} command of
+     * {@link SendItCli}
+     */
+    public static final String[] SEND_ARGS = { "send", "--recipient", "A. Person", "--number", "1", "-a",
+            "Some Street", "-a", "Some Town", "--postcode", "AB1 2CD", "-w", "1.5", "-s", "SecondClass" };
+
+    /**
+     * Arguments for an invocation of the {@link #abbreviated()} CLI that
+     * abbreviates the group, command and option names
+     */
+    public static final String[] ABBREVIATED_ARGS = { "in", "g", "--pa", "--ch", "1.5" };
+
+    /**
+     * Creates the {@link SendItCli} CLI
+     * 
+     * @return CLI
+     */
+    public static Cli<ExampleRunnable> sendIt() {
+        return new Cli<ExampleRunnable>(SendItCli.class);
+    }
+
+    /**
+     * Creates the {@link GroupCli} CLI
+     * 
+     * @return CLI
+     */
+    public static Cli<ExampleRunnable> groups() {
+        return new Cli<ExampleRunnable>(GroupCli.class);
+    }
+
+    /**
+     * Creates a CLI with command and option abbreviation enabled
+     * 
+     * @return CLI
+     */
+    public static Cli<ExampleRunnable> abbreviated() {
+        CliBuilder<ExampleRunnable> builder = baseBuilder("cli");
+        builder.withParser().withCommandAbbreviation().withOptionAbbreviation();
+        return builder.build();
+    }
+
+    /**
+     * Creates a CLI with a number of aliases defined, each alias refers to the
+     * next one with the last referring to the {@code simple} command, aliases
+     * are resolved using the default alias chaining behaviour
+     * 
+     * @param aliases
+     *            Number of aliases
+     * @return CLI
+     */
+    public static Cli<ExampleRunnable> aliased(int aliases) {
+        CliBuilder<ExampleRunnable> builder = baseBuilder("cli");
+        builder.withParser().withAliasesChaining();
+        for (int i = 0; i < aliases - 1; i++) {
+            builder.withParser().withAlias("alias" + i).withArguments("alias" + (i + 1));
+        }
+        builder.withParser().withAlias("alias" + (aliases - 1)).withArguments("basic", "simple", "--name", "alias");
+        return builder.build();
+    }
+
+    /**
+     * Creates a CLI builder for a large synthetic CLI, this consists of the
+     * given number of groups each of which contains all the example commands
+     * 
+     * @param groups
+     *            Number of groups
+     * @return CLI builder
+     */
+    public static CliBuilder<ExampleRunnable> synthetic(int groups) {
+        CliBuilder<ExampleRunnable> builder = Cli.<ExampleRunnable> builder("synthetic")
+                .withDescription("A large synthetic CLI").withCommand(Help.class);
+        for (int i = 0; i < groups; i++) {
+            builder.withGroup("group" + i).withDescription("Synthetic group " + i).withCommands(commands());
+        }
+        return builder;
+    }
+
+    /**
+     * Creates arguments for the {@link Simple} command with many positional
+     * arguments
+     * 
+     * @param count
+     *            Number of positional arguments
+     * @return Arguments
+     */
+    public static String[] longArguments(int count) {
+        String[] args = new String[count + 3];
+        args[0] = "--flag";
+        args[1] = "--name";
+        args[2] = "value";
+        for (int i = 0; i < count; i++) {
+            args[i + 3] = "argument" + i;
+        }
+        return args;
+    }
+
+    private static List<Class<? extends ExampleRunnable>> commands() {
+        List<Class<? extends ExampleRunnable>> commands = new ArrayList<>();
+        commands.addAll(basicCommands());
+        commands.addAll(inheritanceCommands());
+        return commands;
+    }
+
+    private static List<Class<? extends ExampleRunnable>> basicCommands() {
+        List<Class<? extends ExampleRunnable>> commands = new ArrayList<>();
+        commands.add(Simple.class);
+        commands.add(Required.class);
+        commands.add(RequiredArguments.class);
+        return commands;
+    }
+
+    private static List<Class<? extends ExampleRunnable>> inheritanceCommands() {
+        List<Class<? extends ExampleRunnable>> commands = new ArrayList<>();
+        commands.add(Parent.class);
+        commands.add(Child.class);
+        commands.add(GoodGrandchild.class);
+        return commands;
+    }
+
+    private static CliBuilder<ExampleRunnable> baseBuilder(String name) {
+        CliBuilder<ExampleRunnable> builder = Cli.<ExampleRunnable> builder(name)
+                .withDescription("A simple CLI with several commands available in groups");
+        builder.withGroup("basic").withDescription("Basic commands").withCommands(basicCommands());
+        builder.withGroup("inheritance").withDescription("Commands that demonstrate option inheritance")
+                .withCommands(inheritanceCommands());
+        builder.withCommand(Help.class);
+        return builder;
+    }
+}
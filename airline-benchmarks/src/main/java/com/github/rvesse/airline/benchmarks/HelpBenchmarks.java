@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.examples.ExampleRunnable;
+import com.github.rvesse.airline.help.GlobalUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliGlobalUsageGenerator;
+import com.github.rvesse.airline.help.cli.bash.BashCompletionGenerator;
+import com.github.rvesse.airline.help.man.ManGlobalUsageGenerator;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * Benchmarks for generating help and completion scripts
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HelpBenchmarks {
+
+    /**
+     * The CLI to generate help for
+     */
+    @Param({ "send-it", "groups" })
+    public String cli;
+
+    private GlobalMetadata<ExampleRunnable> metadata;
+    private final OutputStream output = OutputStream.nullOutputStream();
+
+    @Setup
+    public void setup() {
+        switch (this.cli) {
+        case "send-it":
+            this.metadata = Fixtures.sendIt().getMetadata();
+            break;
+        case "groups":
+            this.metadata = Fixtures.groups().getMetadata();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown CLI " + this.cli);
+        }
+    }
+
+    private void usage(GlobalUsageGenerator<ExampleRunnable> generator) throws IOException {
+        generator.usage(this.metadata, this.output);
+    }
+
+    @Benchmark
+    public void cliUsage() throws IOException {
+        usage(new CliGlobalUsageGenerator<ExampleRunnable>());
+    }
+
+    @Benchmark
+    public void manUsage() throws IOException {
+        usage(new ManGlobalUsageGenerator<ExampleRunnable>());
+    }
+
+    @Benchmark
+    public void bashCompletion() throws IOException {
+        usage(new BashCompletionGenerator<ExampleRunnable>());
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.examples.ExampleRunnable;
+import com.github.rvesse.airline.examples.cli.GroupCli;
+import com.github.rvesse.airline.examples.sendit.SendItCli;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+
+/**
+ * Benchmarks for loading CLI metadata
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataLoadBenchmarks {
+
+    /**
+     * State for the synthetic CLI benchmark
+     */
+    @State(Scope.Benchmark)
+    public static class Synthetic {
+        /**
+         * Number of groups in the synthetic CLI
+         */
+        @Param({ "10", "100" })
+        public int groups;
+    }
+
+    @Benchmark
+    public GlobalMetadata<ExampleRunnable> loadSendIt() {
+        return MetadataLoader.loadGlobal(SendItCli.class);
+    }
+
+    @Benchmark
+    public GlobalMetadata<ExampleRunnable> loadGroups() {
+        return MetadataLoader.loadGlobal(GroupCli.class);
+    }
+
+    @Benchmark
+    public Cli<ExampleRunnable> loadSynthetic(Synthetic state) {
+        return Fixtures.synthetic(state.groups).build();
+    }
+}
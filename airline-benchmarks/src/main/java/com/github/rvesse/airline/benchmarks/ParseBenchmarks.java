@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.examples.ExampleRunnable;
+import com.github.rvesse.airline.examples.simple.Simple;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * Benchmarks for parsing command lines
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmarks {
+
+    private Cli<ExampleRunnable> sendIt, groups, abbreviated;
+    private SingleCommand<Simple> simple;
+
+    /**
+     * State for the long argument list benchmark
+     */
+    @State(Scope.Benchmark)
+    public static class LongArguments {
+        /**
+         * Number of positional arguments
+         */
+        @Param({ "10", "10000" })
+        public int arguments;
+
+        private String[] args;
+
+        @Setup
+        public void setup() {
+            this.args = Fixtures.longArguments(this.arguments);
+        }
+    }
+
+    /**
+     * State for the alias benchmark
+     */
+    @State(Scope.Benchmark)
+    public static class Aliases {
+        /**
+         * Number of chained aliases
+         */
+        @Param({ "1", "10" })
+        public int aliases;
+
+        private Cli<ExampleRunnable> cli;
+
+        @Setup
+        public void setup() {
+            this.cli = Fixtures.aliased(this.aliases);
+        }
+    }
+
+    /**
+     * State for the superseded parse state benchmark, a state the parser
+     * returns to after later states have counted further option values
+     */
+    @State(Scope.Benchmark)
+    public static class Superseded {
+        /**
+         * Number of option values counted after the superseded state
+         */
+        @Param({ "10", "10000" })
+        public int later;
+
+        private ParseState<Object> state;
+        private OptionMetadata flag, name;
+
+        @Setup
+        public void setup() {
+            CommandMetadata command = SingleCommand.singleCommand(Simple.class).getCommandMetadata();
+            this.flag = command.getOptionIndex().find("--flag");
+            this.name = command.getOptionIndex().find("--name");
+            this.state = ParseState.<Object> newInstance().withCommand(command).withOptionValue(this.name, "value");
+            ParseState<Object> tip = this.state;
+            for (int i = 0; i < this.later; i++) {
+                tip = tip.withOptionValue(this.flag, "true");
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        this.sendIt = Fixtures.sendIt();
+        this.groups = Fixtures.groups();
+        this.abbreviated = Fixtures.abbreviated();
+        this.simple = SingleCommand.singleCommand(Simple.class);
+
+        // Make sure we are measuring successful parses
+        ParseResult<ExampleRunnable> result = parseSendIt();
+        if (!result.wasSuccessful())
+            throw new IllegalStateException("SendIt fixture failed to parse: " + result.getErrors());
+    }
+
+    @Benchmark
+    public ParseResult<ExampleRunnable> parseSendIt() {
+        // SendIt uses the collect all error handler so parse with result
+        return this.sendIt.parseWithResult(Fixtures.SEND_ARGS);
+    }
+
+    @Benchmark
+    public ExampleRunnable parseGroupCommand() {
+        return this.groups.parse("inheritance", "child", "--parent", "--child", "1.5");
+    }
+
+    @Benchmark
+    public Simple parseSingleCommand() {
+        return this.simple.parse("--flag", "--name", "value", "--number", "1", "argument");
+    }
+
+    @Benchmark
+    public Simple parseLongArguments(LongArguments state) {
+        return this.simple.parse(state.args);
+    }
+
+    @Benchmark
+    public ExampleRunnable parseAbbreviated() {
+        return this.abbreviated.parse(Fixtures.ABBREVIATED_ARGS);
+    }
+
+    @Benchmark
+    public ExampleRunnable parseAliased(Aliases state) {
+        return state.cli.parse("alias0", "extra");
+    }
+
+    @Benchmark
+    public int readSupersededState(Superseded state) {
+        return state.state.getOptionValuesSeen(state.name) + state.state.getOptionValuesSeen(state.flag);
+    }
+}
@@ -20,6 +20,9 @@ import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -27,19 +30,32 @@ import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class Accessor
 {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
     private final String name;
     private final Class<?> javaType;
     private final List<Field> path;
     private boolean multiValued;
+    private final boolean streamed;
+    /**
+     * Method handles for getting and setting each field in the path, {@code null} if they could not be created in
+     * which case we fall back to reflection
+     */
+    private final MethodHandle[] getters, setters;
 
     public Accessor(Iterable<Field> path) {
         this(StreamSupport
@@ -62,8 +78,50 @@ public class Accessor
         this.name = nameBuilder.toString();
 
         Field field = this.path.get(this.path.size() - 1);
-        multiValued = Collection.class.isAssignableFrom(field.getType());
+        streamed = Stream.class.equals(field.getType()) || Iterator.class.equals(field.getType());
+        multiValued = streamed || Collection.class.isAssignableFrom(field.getType());
         javaType = getItemType(name, field.getGenericType());
+
+        // Try to compile the path into method handles once up front so that injection need not go through
+        // reflection for every value
+        MethodHandle[] getters = new MethodHandle[this.path.size()];
+        MethodHandle[] setters = new MethodHandle[this.path.size()];
+        if (compile(this.path, getters, setters)) {
+            this.getters = getters;
+            this.setters = setters;
+        } else {
+            this.getters = null;
+            this.setters = null;
+        }
+    }
+
+    private static boolean compile(List<Field> path, MethodHandle[] getters, MethodHandle[] setters) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            for (int i = 0; i < path.size(); i++) {
+                Field field = path.get(i);
+                // Method handles created from a field honour its accessible flag, if we can't make it accessible
+                // then we can't compile it
+                if (!field.trySetAccessible()) {
+                    return false;
+                }
+                getters[i] = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                setters[i] = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            }
+            return true;
+        } catch (IllegalAccessException | RuntimeException e) {
+            // e.g. final fields, fall back to reflection
+            return false;
+        }
+    }
+
+    /**
+     * Gets whether this accessor was compiled into method handles, if not it falls back to using reflection
+     *
+     * @return True if compiled, false otherwise
+     */
+    public boolean isCompiled() {
+        return getters != null;
     }
 
     public String getName()
@@ -71,6 +129,34 @@ public class Accessor
         return name;
     }
 
+    /**
+     * Gets the path of fields this accessor navigates to reach its target
+     *
+     * @return Fields
+     */
+    public List<Field> getPath()
+    {
+        return path;
+    }
+
+    /**
+     * Gets an accessor that reaches the same target as this accessor but starting from an object further up, i.e. one
+     * that has the given path prefixed to this accessor's path
+     *
+     * @param prefix Path prefix
+     * @return Accessor, this accessor if the prefix is empty
+     */
+    public Accessor withPathPrefix(List<Field> prefix)
+    {
+        if (prefix.isEmpty()) {
+            return this;
+        }
+        List<Field> path = new ArrayList<>(prefix.size() + this.path.size());
+        path.addAll(prefix);
+        path.addAll(this.path);
+        return new Accessor(path);
+    }
+
     public Class<?> getJavaType()
     {
         return javaType;
@@ -81,29 +167,50 @@ public class Accessor
         return multiValued;
     }
 
-    public Object getValue(Object instance)
+    /**
+     * Gets whether the target field is a {@link Stream} or {@link Iterator} which receives its values lazily
+     *
+     * @return True if streamed, false otherwise
+     */
+    public boolean isStreamed()
     {
-        StringBuilder pathName = new StringBuilder();
-        for (Field intermediateField : path.subList(0, path.size() - 1)) {
-            if (pathName.length() != 0) {
-                pathName.append(".");
-            }
-            pathName.append(intermediateField.getName());
+        return streamed;
+    }
 
+    public Object getValue(Object instance)
+    {
+        for (int i = 0; i < path.size() - 1; i++) {
+            Field intermediateField = path.get(i);
             try {
-                Object nextInstance = intermediateField.get(instance);
+                Object nextInstance = getters != null ? (Object) getters[i].invokeExact(instance)
+                                                      : intermediateField.get(instance);
                 if (nextInstance == null) {
                     nextInstance = ParserUtil.createInstance(intermediateField.getType());
-                    intermediateField.set(instance, nextInstance);
+                    if (setters != null) {
+                        setters[i].invokeExact(instance, nextInstance);
+                    } else {
+                        intermediateField.set(instance, nextInstance);
+                    }
                 }
                 instance = nextInstance;
             }
-            catch (Exception e) {
-                throw new ParseException(e, "Error getting value of %s", pathName);
+            catch (Throwable e) {
+                throw wrap(e, "Error getting value of %s", getPathName(i));
             }
         }
         return instance;
     }
+
+    private String getPathName(int index) {
+        StringBuilder pathName = new StringBuilder();
+        for (Field intermediateField : path.subList(0, index + 1)) {
+            if (pathName.length() != 0) {
+                pathName.append(".");
+            }
+            pathName.append(intermediateField.getName());
+        }
+        return pathName.toString();
+    }
     
     public <T extends Annotation> T getAnnotation(Class<T> annotationCls) {
         Field lastField = path.get(path.size() - 1);
@@ -112,6 +219,10 @@ public class Accessor
 
     public void addValues(Object commandInstance, Iterable<?> values)
     {
+        if (streamed) {
+            setStream(commandInstance, values.iterator());
+            return;
+        }
         if (!values.iterator().hasNext()) {
             return;
         }
@@ -120,6 +231,11 @@ public class Accessor
         Object instance = getValue(commandInstance);
 
         Field field = path.get(path.size() - 1);
+        if (getters != null) {
+            addValuesCompiled(instance, field, values);
+            return;
+        }
+
         field.setAccessible(true);
         if (Collection.class.isAssignableFrom(field.getType())) {
             Collection<Object> collection = getOrCreateCollectionField(name, instance, field);
@@ -136,6 +252,90 @@ public class Accessor
 
     }
 
+    @SuppressWarnings("unchecked")
+    private void addValuesCompiled(Object instance, Field field, Iterable<?> values) {
+        MethodHandle getter = getters[getters.length - 1];
+        MethodHandle setter = setters[setters.length - 1];
+        if (multiValued) {
+            Collection<Object> collection;
+            try {
+                collection = (Collection<Object>) (Object) getter.invokeExact(instance);
+            }
+            catch (Throwable e) {
+                throw wrap(e, "Error getting collection field %s for argument %s", field.getName(), name);
+            }
+
+            if (collection == null) {
+                collection = newCollection(field.getType());
+                try {
+                    setter.invokeExact(instance, (Object) collection);
+                }
+                catch (Throwable e) {
+                    throw wrap(e, "Error setting collection field %s for argument %s", field.getName(), name);
+                }
+            }
+            collection.addAll((Collection<?>) values);
+        }
+        else {
+            try {
+                setter.invokeExact(instance, (Object) AirlineUtils.last(values));
+            }
+            catch (Throwable e) {
+                throw wrap(e, "Error setting %s for argument %s", field.getName(), name);
+            }
+        }
+    }
+
+    /**
+     * Sets a {@link Stream} or {@link Iterator} field to lazily produce the given values
+     *
+     * @param commandInstance Command instance
+     * @param values          Values
+     */
+    private void setStream(Object commandInstance, Iterator<?> values)
+    {
+        Object instance = getValue(commandInstance);
+        Field field = path.get(path.size() - 1);
+        Object value = values;
+        if (!Iterator.class.equals(field.getType())) {
+            Stream<?> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(values, Spliterator.ORDERED),
+                    false);
+            if (values instanceof AutoCloseable) {
+                // Closing the stream releases the source of the values
+                final AutoCloseable source = (AutoCloseable) values;
+                stream = stream.onClose(() -> close(source));
+            }
+            value = stream;
+        }
+        try {
+            if (setters != null) {
+                setters[setters.length - 1].invokeExact(instance, value);
+            } else {
+                field.setAccessible(true);
+                field.set(instance, value);
+            }
+        }
+        catch (Throwable e) {
+            throw wrap(e, "Error setting %s for argument %s", field.getName(), name);
+        }
+    }
+
+    private void close(AutoCloseable source) {
+        try {
+            source.close();
+        }
+        catch (Exception e) {
+            throw e instanceof ParseException ? (ParseException) e : wrap(e, "Error closing argument %s", name);
+        }
+    }
+
+    private static ParseException wrap(Throwable e, String format, Object... args) {
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new ParseException(e instanceof Exception ? (Exception) e : new RuntimeException(e), format, args);
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -223,11 +423,14 @@ public class Accessor
             throw new ParseException("Type of option %s be an exact type", name);
         }
 
-        if (!Collection.class.isAssignableFrom(rawClass)) {
+        Class<?> containerType = Collection.class;
+        if (Stream.class.equals(rawClass) || Iterator.class.equals(rawClass)) {
+            containerType = rawClass;
+        } else if (!Collection.class.isAssignableFrom(rawClass)) {
             return rawClass;
         }
 
-        Type[] types = getTypeParameters(Collection.class, type);
+        Type[] types = getTypeParameters(containerType, type);
         if ((types == null) || (types.length != 1)) {
             throw new ParseException("Unable to get item type of Collection option %s", name);
         }
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+/**
+ * A scope within which the {@link Channels} come from a specific {@link ChannelFactory}, see
+ * {@link Channels#scope(ChannelFactory)}
+ * <p>
+ * Closing the scope restores the channels that were in effect when it was opened.
+ * </p>
+ */
+public final class ChannelScope implements AutoCloseable {
+
+    private final ChannelFactory channels;
+    private final ChannelScope previous;
+    private final Thread owner;
+    private boolean closed;
+
+    ChannelScope(ChannelFactory channels, ChannelScope previous) {
+        this.channels = channels;
+        this.previous = previous;
+        this.owner = Thread.currentThread();
+    }
+
+    /**
+     * Gets the channels for this scope
+     *
+     * @return Channel factory
+     */
+    public ChannelFactory getChannels() {
+        return this.channels;
+    }
+
+    /**
+     * Closes the scope
+     * <p>
+     * If a scope opened within this scope is still open it is closed as well before the exception is thrown, so the
+     * channels in effect are always those from before this scope was opened.
+     * </p>
+     *
+     * @throws IllegalStateException Thrown if called from a thread other than the one that opened the scope, or if a
+     *                               scope opened within this scope is still open
+     */
+    @Override
+    public void close() {
+        if (this.closed)
+            return;
+        if (Thread.currentThread() != this.owner)
+            throw new IllegalStateException("A channel scope must be closed by the thread that opened it");
+        ChannelScope current = Channels.scoped();
+        if (current != this) {
+            // Unwind any scopes opened within this one so none of them are left in effect
+            ChannelScope scope = current;
+            while (scope != null && scope != this) {
+                scope = scope.previous;
+            }
+            if (scope == this) {
+                for (scope = current; scope != this; scope = scope.previous) {
+                    scope.closed = true;
+                }
+                Channels.restore(this.previous);
+            }
+            this.closed = true;
+            throw new IllegalStateException(
+                    "Channel scopes must be closed in the reverse order to which they were opened");
+        }
+        this.closed = true;
+        Channels.restore(this.previous);
+    }
+}
@@ -19,15 +19,26 @@ import java.io.InputStream;
 import java.io.PrintStream;
 import java.util.Iterator;
 import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
 
 /**
  * Channels provides methods for the cli output, error and input channels. The implementation of the channels can be
  * changed with an implementation of {@link ChannelFactory} which must be registered via {@link ServiceLoader}. The
  * default implementation is {@link SystemChannelFactory}.
+ * <p>
+ * Different channels may be scoped to some part of an application, e.g. a single parse and execution of a command, by
+ * opening a {@link ChannelScope} via {@link #scope(ChannelFactory)} or by using
+ * {@link #withChannels(ChannelFactory, Callable)}. This allows several commands running concurrently in one JVM to each
+ * have their own channels, including for any help and error output Airline itself produces. A scope applies to the
+ * thread that opened it and is inherited by any threads, including virtual threads, that thread starts while the scope
+ * is open. Note that pooled threads keep whatever scope was open when they were started so tasks handed to a thread
+ * pool should capture the {@link #current()} channels and run within a scope for them.
+ * </p>
  */
 public final class Channels {
 
     private static ChannelFactory FACTORY;
+    private static final InheritableThreadLocal<ChannelScope> SCOPED = new InheritableThreadLocal<>();
 
     static {
         ServiceLoader<ChannelFactory> serviceLoader = ServiceLoader.load(ChannelFactory.class);
@@ -48,7 +59,7 @@ public final class Channels {
      * @return output channel
      */
     public static PrintStream output() {
-        return FACTORY.createOutput();
+        return current().createOutput();
     }
 
     /**
@@ -57,7 +68,7 @@ public final class Channels {
      * @return error channel
      */
     public static PrintStream error() {
-        return FACTORY.createError();
+        return current().createError();
     }
 
     /**
@@ -66,8 +77,106 @@ public final class Channels {
      * @return input channel
      */
     public static InputStream input() {
-        return FACTORY.createInput();
+        return current().createInput();
     }
 
+    /**
+     * Gets the channels currently in effect for the calling thread, this is the factory of the innermost open scope or
+     * the default factory if there is no open scope
+     *
+     * @return Channel factory
+     */
+    public static ChannelFactory current() {
+        ChannelScope scoped = SCOPED.get();
+        return scoped != null ? scoped.getChannels() : FACTORY;
+    }
+
+    /**
+     * Opens a scope in which the channels come from the given factory, the scope must be closed by the same thread
+     * that opened it and scopes must be closed in the reverse order to which they were opened so using
+     * try-with-resources is recommended
+     *
+     * @param channels Channel factory
+     * @return Scope
+     */
+    public static ChannelScope scope(ChannelFactory channels) {
+        if (channels == null)
+            throw new NullPointerException("channels cannot be null");
+        ChannelScope scope = new ChannelScope(channels, SCOPED.get());
+        SCOPED.set(scope);
+        return scope;
+    }
+
+    /**
+     * Opens a scope in which the channels are the given streams, any stream that is {@code null} is inherited from the
+     * channels in effect when the scope is opened
+     *
+     * @param output Output channel
+     * @param error  Error channel
+     * @param input  Input channel
+     * @return Scope
+     * @see #scope(ChannelFactory)
+     */
+    public static ChannelScope scope(PrintStream output, PrintStream error, InputStream input) {
+        ChannelFactory enclosing = current();
+        return scope(new FixedChannelFactory(output != null ? output : enclosing.createOutput(),
+                error != null ? error : enclosing.createError(), input != null ? input : enclosing.createInput()));
+    }
+
+    /**
+     * Runs an action within a scope in which the channels come from the given factory
+     *
+     * @param channels Channel factory
+     * @param action   Action
+     * @param <T>      Result type
+     * @return Result of the action
+     * @throws Exception Thrown if the action fails
+     */
+    public static <T> T withChannels(ChannelFactory channels, Callable<T> action) throws Exception {
+        try (ChannelScope scope = scope(channels)) {
+            return action.call();
+        }
+    }
+
+    static ChannelScope scoped() {
+        return SCOPED.get();
+    }
+
+    static void restore(ChannelScope previous) {
+        if (previous != null) {
+            SCOPED.set(previous);
+        } else {
+            SCOPED.remove();
+        }
+    }
+
+    /**
+     * Channel factory that always returns the same channels
+     */
+    private static final class FixedChannelFactory implements ChannelFactory {
+        private final PrintStream output, error;
+        private final InputStream input;
+
+        FixedChannelFactory(PrintStream output, PrintStream error, InputStream input) {
+            this.output = output;
+            this.error = error;
+            this.input = input;
+        }
+
+        @Override
+        public PrintStream createOutput() {
+            return this.output;
+        }
+
+        @Override
+        public PrintStream createError() {
+            return this.error;
+        }
+
+        @Override
+        public InputStream createInput() {
+            return this.input;
+        }
+    }
 
 }
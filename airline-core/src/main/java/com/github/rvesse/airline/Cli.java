@@ -19,15 +19,24 @@ package com.github.rvesse.airline;
 import com.github.rvesse.airline.builder.CliBuilder;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataSnapshot;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.command.CliParser;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
 /**
  * Class for encapsulating and parsing CLIs
+ * <p>
+ * Instances may safely be shared by multiple threads, each parse is independent
+ * of any others running concurrently including the collection of errors by the
+ * built-in error handlers. This assumes that any custom extensions in the
+ * parser configuration, e.g. error handlers, type converters, option parsers
+ * and command factories, are themselves thread safe.
+ * </p>
  *
  * @param <C> Command type
  * @author rvesse
@@ -69,6 +78,35 @@ public class Cli<C> {
         this(MetadataLoader.<C>loadGlobal(cliClass, parserConfig));
     }
 
+    /**
+     * Creates a new CLI from a class annotated with the {@link com.github.rvesse.airline.annotations.Cli} annotation
+     * using a metadata snapshot file, if the snapshot is missing or stale then the metadata is loaded from the
+     * annotations and the snapshot file rebuilt, see {@link MetadataSnapshot}
+     *
+     * @param cliClass     CLI class
+     * @param parserConfig Parser configuration, may be {@code null} in which case the configuration specified by the
+     *                     {@link com.github.rvesse.airline.annotations.Cli#parserConfiguration()} field is used
+     * @param snapshot     Snapshot file
+     */
+    public Cli(Class<?> cliClass, ParserMetadata<C> parserConfig, Path snapshot) {
+        this(MetadataSnapshot.<C>loadGlobal(cliClass, parserConfig, snapshot));
+    }
+
+    /**
+     * Creates a new CLI from a class annotated with the {@link com.github.rvesse.airline.annotations.Cli} annotation
+     * using a metadata snapshot resource, if the snapshot is missing or stale then the metadata is loaded from the
+     * annotations, see {@link MetadataSnapshot}
+     *
+     * @param cliClass         CLI class
+     * @param parserConfig     Parser configuration, may be {@code null} in which case the configuration specified by
+     *                         the {@link com.github.rvesse.airline.annotations.Cli#parserConfiguration()} field is
+     *                         used
+     * @param snapshotResource Snapshot resource, resolved relative to the CLI class
+     */
+    public Cli(Class<?> cliClass, ParserMetadata<C> parserConfig, String snapshotResource) {
+        this(MetadataSnapshot.<C>loadGlobal(cliClass, parserConfig, snapshotResource));
+    }
+
     /**
      * Creates a new CLI
      *
@@ -105,10 +143,15 @@ public class Cli<C> {
      * Parses the arguments to produce a command instance, this may be {@code null} if the arguments don't identify a
      * command and there was no appropriate default command configured
      *
+     * <p>
+     * The arguments are consumed lazily as they are parsed, so this may be used with an {@link Iterable} that produces
+     * its arguments on demand rather than holding them all in memory.
+     * </p>
+     *
      * @param args Arguments
      * @return Command instance
      */
-    private C parse(Iterable<String> args) {
+    public C parse(Iterable<String> args) {
         CliParser<C> parser = new CliParser<>();
         return parser.parse(metadata, args);
     }
@@ -137,4 +180,19 @@ public class Cli<C> {
         CliParser<C> parser = new CliParser<>();
         return parser.parseWithResult(metadata, args);
     }
+
+    /**
+     * Performs a training run, this loads all the metadata (including any commands that would otherwise be loaded
+     * lazily) and generates help before parsing the given representative arguments. No command is run, see
+     * {@link Training} for how this is used to speed up JVM startup.
+     *
+     * @param args Representative arguments
+     * @return Parse result
+     * @throws com.github.rvesse.airline.parser.errors.ParseException Thrown if the arguments fail to parse and the
+     *                                                                 configured error handler throws
+     */
+    public ParseResult<C> train(String... args) {
+        Training.train(metadata);
+        return parseWithResult(args);
+    }
 }
@@ -27,6 +27,7 @@ import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.errors.ParseException;
 
 import java.io.IOException;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -128,10 +129,11 @@ public class HelpOption<C> {
             // Some errors
             if (printErrors) {
                 // Print the errors if requested
-                System.err.println(String.format("%d parse errors were encountered:", result.getErrors().size()));
+                PrintStream error = Channels.error();
+                error.println(String.format("%d parse errors were encountered:", result.getErrors().size()));
                 for (ParseException e : result.getErrors()) {
-                    System.err.print(" -");
-                    System.err.println(e.getMessage());
+                    error.print(" -");
+                    error.println(e.getMessage());
                 }
             }
 
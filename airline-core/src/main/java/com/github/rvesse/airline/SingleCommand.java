@@ -23,6 +23,7 @@ import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataLoadPhase;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.command.SingleCommandParser;
@@ -31,6 +32,13 @@ import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
 
 /**
  * Class for encapsulating and parsing single commands
+ * <p>
+ * Instances may safely be shared by multiple threads, each parse is independent
+ * of any others running concurrently including the collection of errors by the
+ * built-in error handlers. This assumes that any custom extensions in the
+ * parser configuration, e.g. error handlers, type converters, option parsers
+ * and command factories, are themselves thread safe.
+ * </p>
  *
  * @param <C>
  *            Command type
@@ -72,12 +80,14 @@ public class SingleCommand<C> {
     private SingleCommand(Class<C> command, Iterable<GlobalRestriction> restrictions, ParserMetadata<C> parserConfig) {
         if (command == null)
             throw new NullPointerException("command is null");
+        long start = System.nanoTime();
         this.parserConfig = parserConfig != null ? parserConfig : MetadataLoader.loadParser(command);
         
         // Dynamically obtain restrictions if annotated onto the class
         this.restrictions = createRestrictions(command, restrictions);
 
         commandMetadata = MetadataLoader.loadCommand(command, this.parserConfig);
+        MetadataLoader.notifyListeners(this.parserConfig, MetadataLoadPhase.CLI, command.getName(), start);
     }
     
     private List<GlobalRestriction> createRestrictions(Class<C> commandClass, Iterable<GlobalRestriction> restrictions) {
@@ -91,14 +101,15 @@ public class SingleCommand<C> {
         }
         
         // Look for annotation declared restrictions
-        for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                .getGlobalRestrictionAnnotationClasses()) {
-            Annotation annotation = commandClass.getAnnotation(annotationClass);
-            if (annotation == null)
-                continue;
-            GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(annotationClass, annotation);
-            if (restriction != null)
+        for (Annotation annotation : commandClass.getAnnotations()) {
+            long start = System.nanoTime();
+            GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(annotation.annotationType(),
+                    annotation);
+            if (restriction != null) {
+                MetadataLoader.notifyListeners(parserConfig, MetadataLoadPhase.RESTRICTION,
+                                               annotation.annotationType().getName(), start);
                 foundRestrictions.add(restriction);
+            }
         }
         
         // Add defaults if none found
@@ -176,4 +187,21 @@ public class SingleCommand<C> {
         SingleCommandParser<C> parser = new SingleCommandParser<>();
         return parser.parseWithResult(parserConfig, commandMetadata, restrictions, args);
     }
+
+    /**
+     * Performs a training run, this loads all the metadata and generates help
+     * before parsing the given representative arguments. No command is run,
+     * see {@link Training} for how this is used to speed up JVM startup.
+     * 
+     * @param args
+     *            Representative arguments
+     * @return Parse result
+     * @throws com.github.rvesse.airline.parser.errors.ParseException
+     *             Thrown if the arguments fail to parse and the configured
+     *             error handler throws
+     */
+    public ParseResult<C> train(String... args) {
+        Training.train(commandMetadata);
+        return parseWithResult(args);
+    }
 }
@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.help.sections.factories.HelpSectionRegistry;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+
+/**
+ * Support for training runs of Airline based CLIs
+ * <p>
+ * Short-lived CLI tools spend a large proportion of their runtime starting the JVM, loading and linking classes and
+ * then loading the Airline metadata. A training run does all of this work once, without running any command, so that
+ * the JVM can record what was loaded. When run with the appropriate JVM options the recording can then be used to
+ * start subsequent invocations with those classes already loaded and linked, for example:
+ * </p>
+ * <ul>
+ * <li>{@code -XX:DumpLoadedClassList=app.classlist} records a class list that can be turned into a CDS archive via
+ * {@code -Xshare:dump}</li>
+ * <li>{@code -XX:ArchiveClassesAtExit=app.jsa} (JDK 13+) directly produces a dynamic AppCDS archive to be used via
+ * {@code -XX:SharedArchiveFile=app.jsa}</li>
+ * <li>{@code -XX:AOTCacheOutput=app.aot} (JDK 25+) produces an AOT cache to be used via
+ * {@code -XX:AOTCache=app.aot}</li>
+ * </ul>
+ * <p>
+ * A training run may be performed programmatically via {@link Cli#train(String...)} or
+ * {@link SingleCommand#train(String...)}, or by using this class as the main class of the JVM, in which case the
+ * arguments are one/more class names annotated with either {@link com.github.rvesse.airline.annotations.Cli} or
+ * {@link Command} optionally followed by {@code --} and the representative arguments to parse. The
+ * {@code airline-maven-plugin} provides a {@code train} goal that forks a JVM in this way as part of your build.
+ * </p>
+ * <p>
+ * Note that the recorded archives are only usable by JVMs of the same version started with the same class path as the
+ * training run, so training is best done against the packaged application.
+ * </p>
+ */
+public final class Training {
+
+    private Training() {
+    }
+
+    /**
+     * Trains a CLI
+     * <p>
+     * Loads all the registries, forces full loading of all command metadata (even if lazy command loading was
+     * configured) and generates help, discarding the output.
+     * </p>
+     *
+     * @param metadata CLI metadata
+     */
+    public static void train(GlobalMetadata<?> metadata) {
+        loadRegistries();
+
+        load(metadata.getDefaultCommand());
+        load(metadata.getDefaultGroupCommands());
+        List<CommandGroupMetadata> groups = new ArrayList<>(metadata.getCommandGroups());
+        while (!groups.isEmpty()) {
+            CommandGroupMetadata group = groups.remove(groups.size() - 1);
+            load(group.getDefaultCommand());
+            load(group.getCommands());
+            groups.addAll(group.getSubGroups());
+        }
+
+        try {
+            Help.help(metadata, List.of(), OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Trains a single command
+     * <p>
+     * Loads all the registries and generates help, discarding the output.
+     * </p>
+     *
+     * @param command Command metadata
+     */
+    public static void train(CommandMetadata command) {
+        loadRegistries();
+        load(command);
+
+        try {
+            Help.help(command, OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void loadRegistries() {
+        // Both registries discover their factories via ServiceLoader when first used
+        RestrictionRegistry.getOptionRestrictionAnnotationClasses();
+        HelpSectionRegistry.getAnnotationClasses();
+    }
+
+    private static void load(List<CommandMetadata> commands) {
+        for (CommandMetadata command : commands) {
+            load(command);
+        }
+    }
+
+    private static void load(CommandMetadata command) {
+        if (command != null) {
+            command.getAllOptions();
+        }
+    }
+
+    /**
+     * Performs a training run for each of the given classes
+     *
+     * @param classes Classes annotated with either {@link com.github.rvesse.airline.annotations.Cli} or
+     *                {@link Command}
+     * @param args    Representative arguments to parse
+     * @param output  Output to report progress to
+     * @return Number of classes for which parsing the representative arguments failed
+     * @throws ClassNotFoundException Thrown if a class cannot be found
+     */
+    public static int train(List<String> classes, List<String> args, PrintStream output)
+            throws ClassNotFoundException {
+        String[] argsArray = args.toArray(new String[0]);
+        int failures = 0;
+        for (String className : classes) {
+            Class<?> cls = Class.forName(className, true, Training.class.getClassLoader());
+            try {
+                if (cls.isAnnotationPresent(com.github.rvesse.airline.annotations.Cli.class)) {
+                    new Cli<Object>(cls).train(argsArray);
+                } else if (cls.isAnnotationPresent(Command.class)) {
+                    SingleCommand.singleCommand(cls).train(argsArray);
+                } else {
+                    throw new IllegalArgumentException(
+                            String.format("Class %s is not annotated with @Cli or @Command", className));
+                }
+                output.println(String.format("Trained %s", className));
+            } catch (ParseException e) {
+                // Still useful as the error handling path has been exercised
+                failures++;
+                output.println(String.format("Trained %s, representative arguments failed to parse: %s", className,
+                                             e.getMessage()));
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Entry point for training runs
+     *
+     * @param args Arguments, one/more class names optionally followed by {@code --} and the representative arguments
+     *             to parse
+     * @throws ClassNotFoundException Thrown if a class cannot be found
+     */
+    public static void main(String[] args) throws ClassNotFoundException {
+        int separator = Arrays.asList(args).indexOf("--");
+        List<String> classes = Arrays.asList(args).subList(0, separator >= 0 ? separator : args.length);
+        List<String> representativeArgs = separator >= 0 ? Arrays.asList(args).subList(separator + 1, args.length)
+                                                         : List.of();
+        if (classes.isEmpty()) {
+            Channels.error().println(
+                    "Usage: java " + Training.class.getName() + " <class> [<class> ...] [-- <args> ...]");
+            System.exit(1);
+        }
+
+        train(classes, representativeArgs, Channels.output());
+    }
+}
@@ -25,6 +25,37 @@ import static java.lang.annotation.ElementType.FIELD;
 
 import java.lang.annotation.Documented;
 
+/**
+ * Annotation that marks a field as receiving the arguments of a command
+ * <p>
+ * The field is typically a {@link java.util.List} or {@link java.util.Set}
+ * which is populated with all the converted arguments after parsing. For
+ * commands that process very large numbers of arguments the field may instead
+ * be a {@link java.util.stream.Stream} or {@link java.util.Iterator}, in which
+ * case the arguments are <strong>streamed</strong>: the parser stops when it
+ * reaches the first argument, and the remaining tokens are only converted and
+ * validated as the command pulls them so memory use stays flat regardless of
+ * the number of arguments. Note that when streaming:
+ * </p>
+ * <ul>
+ * <li>All tokens from the first argument onwards are treated as arguments,
+ * options must appear before the arguments</li>
+ * <li>Restrictions that need to see all the arguments, e.g. required or
+ * occurrence restrictions, are validated when the stream is exhausted, any
+ * validation failure is thrown as a
+ * {@link com.github.rvesse.airline.parser.errors.ParseException} from the
+ * stream regardless of the configured error handler</li>
+ * <li>Global restrictions are validated before the stream is consumed, the
+ * exception is
+ * {@link com.github.rvesse.airline.annotations.restrictions.NoOptionLikeValues}
+ * which is applied to each value as the command pulls it</li>
+ * <li>The stream may only be consumed once, even if several command instances
+ * are created from the same parse result</li>
+ * <li>The command should close the stream once done with it, e.g. via
+ * try-with-resources, so that any response file still being read is closed,
+ * an {@link java.util.Iterator} field is also {@link AutoCloseable}</li>
+ * </ul>
+ */
 @Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
 @Target({ FIELD })
 @Documented
@@ -25,6 +25,7 @@ import java.lang.annotation.Target;
 import com.github.rvesse.airline.CommandFactory;
 import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.model.MetadataLoadListener;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.errors.handlers.FailFast;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
@@ -267,4 +268,48 @@ public @interface Parser {
      * @return Flag negation prefix
      */
     String flagNegationPrefix() default "";
+
+    /**
+     * Sets whether response files are expanded
+     * <p>
+     * If set any argument of the form {@code @file} is replaced by the arguments read from that file, and {@code @-} by
+     * those read from standard input. Response files are read lazily as the parser consumes arguments.
+     * </p>
+     *
+     * @return True if response files are expanded, false otherwise
+     */
+    boolean responseFiles() default false;
+
+    /**
+     * Sets whether the full metadata for commands is loaded lazily
+     * <p>
+     * If set commands are initially loaded as lightweight stubs and their options, arguments, restrictions and help
+     * sections are only loaded when first needed, typically when the parser selects the command. This can reduce
+     * startup time for CLIs with very many commands.
+     * </p>
+     *
+     * @return True if commands are loaded lazily, false otherwise
+     */
+    boolean lazyCommandLoading() default false;
+
+    /**
+     * Sets whether the metadata for commands is loaded in parallel
+     * <p>
+     * If set the commands declared by the CLI and its groups are loaded concurrently, the resulting metadata is
+     * identical to loading them sequentially. This can reduce startup time for CLIs with very many commands.
+     * </p>
+     *
+     * @return True if commands are loaded in parallel, false otherwise
+     */
+    boolean parallelCommandLoading() default false;
+
+    /**
+     * Sets the listeners to notify as each phase of metadata loading completes
+     * <p>
+     * Listener classes must have a public no-argument constructor.
+     * </p>
+     *
+     * @return Metadata load listener classes
+     */
+    Class<? extends MetadataLoadListener>[] metadataLoadListeners() default {};
 }
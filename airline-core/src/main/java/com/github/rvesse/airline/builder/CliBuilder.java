@@ -148,6 +148,8 @@ public class CliBuilder<C> extends AbstractBuilder<Cli<C>> {
 
     @Override
     public Cli<C> build() {
+        long start = System.nanoTime();
+
         // Need Parser Configuration available up front
         ParserMetadata<C> parserConfig = this.parserBuilder.build();
 
@@ -215,6 +217,7 @@ public class CliBuilder<C> extends AbstractBuilder<Cli<C>> {
                                                                    List.copyOf(defaultCommandGroup), List.copyOf(commandGroups),
                                                                    List.copyOf(restrictions), List.copyOf(baseHelpSections.values()),
                                                                    parserConfig);
+        MetadataLoader.notifyListeners(parserConfig, MetadataLoadPhase.CLI, name, start);
 
         return new Cli<C>(metadata);
     }
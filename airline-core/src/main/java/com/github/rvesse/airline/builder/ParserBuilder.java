@@ -22,6 +22,8 @@ import com.github.rvesse.airline.CommandFactory;
 import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.annotations.AirlineModule;
 import com.github.rvesse.airline.model.AliasMetadata;
+import com.github.rvesse.airline.model.MetadataLoadListener;
+import com.github.rvesse.airline.model.MetadataLoadPhase;
 import com.github.rvesse.airline.model.MetadataLoader;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
@@ -47,13 +49,15 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
     protected NumericTypeConverter numericTypeConverter = new DefaultNumericConverter();
     protected final Map<String, AliasBuilder<C>> aliases = new HashMap<>();
     protected CommandFactory<C> commandFactory = new DefaultCommandFactory<C>();
-    protected boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain;
+    protected boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain,
+            lazyCommandLoading, parallelCommandLoading, responseFiles;
     private char forceBuiltInPrefix = '!';
     protected final List<OptionParser<C>> optionParsers = new ArrayList<>();
     protected String argsSeparator, flagNegationPrefix;
     protected UserAliasSourceBuilder<C> userAliasesBuilder = new UserAliasSourceBuilder<>(this);
     protected ParserErrorHandler errorHandler;
     protected Set<String> injectionAnnotationClasses = new LinkedHashSet<>();
+    protected final List<MetadataLoadListener> metadataLoadListeners = new ArrayList<>();
 
     private final CliBuilder<C> cliBuilder;
 
@@ -553,6 +557,19 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         return this;
     }
 
+    /**
+     * Sets that response files should be expanded, any argument of the form {@code @file} is replaced by the arguments
+     * read from that file and {@code @-} by those read from standard input.  Response files are read lazily as the
+     * parser consumes arguments so very large numbers of arguments can be passed without ever holding them all in
+     * memory, see {@link com.github.rvesse.airline.parser.ResponseFileIterator} for details of the syntax.
+     *
+     * @return Builder
+     */
+    public ParserBuilder<C> withResponseFiles() {
+        this.responseFiles = true;
+        return this;
+    }
+
     /**
      * Sets the flag negation prefix, this is used to determine whether to set a flag option (a zero arity option) to
      * {@code false} rather than the usual behaviour of setting it to {@code true}. Options must have appropriately
@@ -567,6 +584,58 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         return this;
     }
 
+    /**
+     * Sets that the full metadata for commands should be loaded lazily
+     * <p>
+     * Commands are initially loaded as lightweight stubs and their options, arguments, restrictions and help sections
+     * are only loaded when first needed, typically when the parser selects the command.  This can substantially reduce
+     * startup time for CLIs with very many commands since a single invocation only uses one of them.  Note that
+     * anything that needs the global options, e.g. parsing a global option that appears before the command name or
+     * generating help for the whole CLI, still requires every command to be fully loaded.
+     * </p>
+     *
+     * @return Builder
+     */
+    public ParserBuilder<C> withLazyCommandLoading() {
+        this.lazyCommandLoading = true;
+        return this;
+    }
+
+    /**
+     * Sets that the metadata for the commands of a CLI should be loaded in parallel
+     * <p>
+     * The commands declared by the CLI and its groups are loaded concurrently using the common fork/join pool, the
+     * groups hierarchy is still assembled sequentially so the resulting metadata is identical to loading the commands
+     * sequentially.  This can reduce startup time for CLIs with very many commands on multi-core machines, for small
+     * CLIs the overhead of coordinating the threads generally outweighs the benefit.  This has no effect if
+     * {@link #withLazyCommandLoading()} is also used since lazily loaded commands are already cheap to load.
+     * </p>
+     *
+     * @return Builder
+     */
+    public ParserBuilder<C> withParallelCommandLoading() {
+        this.parallelCommandLoading = true;
+        return this;
+    }
+
+    /**
+     * Adds a listener that is notified as each phase of metadata loading completes
+     * <p>
+     * This is primarily useful for finding where time goes when constructing a CLI, see
+     * {@link com.github.rvesse.airline.model.MetadataLoadSummary} for a ready made listener that summarises this.
+     * </p>
+     *
+     * @param listener Listener
+     * @return Builder
+     */
+    public ParserBuilder<C> withMetadataLoadListener(MetadataLoadListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener cannot be null");
+        }
+        this.metadataLoadListeners.add(listener);
+        return this;
+    }
+
     /**
      * Gets the parent CLI builder (if any)
      *
@@ -583,6 +652,8 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
 
     @Override
     public ParserMetadata<C> build() {
+        long start = System.nanoTime();
+
         // Ensure we have some injection annotations if none configured
         if (this.injectionAnnotationClasses.size() == 0) {
             this.withDefaultCompositionAnnotations();
@@ -596,6 +667,7 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         // These may override explicitly defined aliases
         UserAliasesSource<C> userAliases = null;
         if (this.userAliasesBuilder.isBuildable()) {
+            long aliasesStart = System.nanoTime();
             try {
                 userAliases = this.userAliasesBuilder.build();
                 for (AliasMetadata alias : userAliases.load()) {
@@ -605,6 +677,10 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
             } catch (IOException e) {
                 throw new IllegalStateException("Failed to load user aliases", e);
             }
+            long aliasesDuration = System.nanoTime() - aliasesStart;
+            for (MetadataLoadListener listener : this.metadataLoadListeners) {
+                listener.phaseCompleted(MetadataLoadPhase.USER_ALIASES, null, aliasesDuration);
+            }
         }
 
         // Build aliases
@@ -623,9 +699,15 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         }
         typeConverter.setNumericConverter(this.numericTypeConverter);
 
-        return new ParserMetadata<C>(commandFactory, injectionAnnotationClasses, optionParsers, typeConverter,
-                                     errorHandler, allowAbbreviatedCommands, allowAbbreviatedOptions, aliasData,
-                                     userAliases, aliasesOverrideBuiltIns, aliasesMayChain, forceBuiltInPrefix,
-                                     argsSeparator, flagNegationPrefix);
+        ParserMetadata<C> parserConfig = new ParserMetadata<C>(commandFactory, injectionAnnotationClasses,
+                                                               optionParsers, typeConverter, errorHandler,
+                                                               allowAbbreviatedCommands, allowAbbreviatedOptions,
+                                                               aliasData, userAliases, aliasesOverrideBuiltIns,
+                                                               aliasesMayChain, forceBuiltInPrefix, argsSeparator,
+                                                               flagNegationPrefix, lazyCommandLoading,
+                                                               parallelCommandLoading, responseFiles,
+                                                               metadataLoadListeners);
+        MetadataLoader.notifyListeners(parserConfig, MetadataLoadPhase.PARSER_CONFIGURATION, null, start);
+        return parserConfig;
     }
 }
\ No newline at end of file
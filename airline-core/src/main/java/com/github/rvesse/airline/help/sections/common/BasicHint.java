@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.help.sections.common;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -23,8 +24,10 @@ import java.util.List;
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 
-public class BasicHint implements HelpHint {
-    
+public class BasicHint implements HelpHint, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     private final String preamble;
     private final HelpFormat format;
     private final List<String[]> blocks;
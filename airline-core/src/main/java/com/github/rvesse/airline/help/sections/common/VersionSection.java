@@ -17,6 +17,7 @@ package com.github.rvesse.airline.help.sections.common;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -30,7 +31,9 @@ import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpSection;
 import com.github.rvesse.airline.parser.resources.ResourceLocator;
 
-public class VersionSection implements HelpSection {
+public class VersionSection implements HelpSection, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private List<VersionInfo> versions = new ArrayList<>();
     private final boolean tabular;
@@ -179,7 +182,9 @@ public class VersionSection implements HelpSection {
         return CommonSections.ORDER_VERSION;
     }
 
-    private static class VersionInfo {
+    private static class VersionInfo implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         public String component, version, build, date;
         public Map<String, String> additional = new HashMap<>();
 
@@ -16,6 +16,7 @@
 package com.github.rvesse.airline.help.sections.factories;
 
 import java.lang.annotation.Annotation;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ServiceLoader;
@@ -25,37 +26,41 @@ import com.github.rvesse.airline.help.sections.HelpSection;
 
 /**
  * Registry which maps annotations to help sections
+ * <p>
+ * The registry is safe for concurrent use, registrations are held in an immutable map that is replaced whenever a
+ * factory is added or the registry is reset so lookups never need to lock.
+ * </p>
  */
 public class HelpSectionRegistry {
 
-    private static final Map<Class<? extends Annotation>, HelpSectionFactory> FACTORIES = new HashMap<>();
-    private static boolean init = false;
+    private static volatile Map<Class<? extends Annotation>, HelpSectionFactory> factories;
 
     static {
         init();
     }
 
     static synchronized void init() {
-        if (init)
+        if (factories != null)
             return;
+        factories = loadFactories();
+    }
 
+    private static Map<Class<? extends Annotation>, HelpSectionFactory> loadFactories() {
+        Map<Class<? extends Annotation>, HelpSectionFactory> loaded = new HashMap<>();
         ServiceLoader<HelpSectionFactory> helpSectionFactories = ServiceLoader.load(HelpSectionFactory.class);
         for (HelpSectionFactory factory : helpSectionFactories) {
             for (Class<? extends Annotation> cls : factory.supportedAnnotations()) {
-                FACTORIES.put(cls, factory);
+                loaded.put(cls, factory);
             }
         }
-
-        init = true;
+        return Collections.unmodifiableMap(loaded);
     }
 
     /**
      * Resets the registry causing it to re-invoke {@link ServiceLoader#load(Class)} to reload declared services
      */
     public static synchronized void reset() {
-        init = false;
-        FACTORIES.clear();
-        init();
+        factories = loadFactories();
     }
 
     /**
@@ -66,10 +71,12 @@ public class HelpSectionRegistry {
      * @param factory
      *            Help section factory
      */
-    public static void addFactory(Class<? extends Annotation> cls, HelpSectionFactory factory) {
+    public static synchronized void addFactory(Class<? extends Annotation> cls, HelpSectionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        FACTORIES.put(cls, factory);
+        Map<Class<? extends Annotation>, HelpSectionFactory> copy = new HashMap<>(factories);
+        copy.put(cls, factory);
+        factories = Collections.unmodifiableMap(copy);
     }
 
     /**
@@ -78,7 +85,7 @@ public class HelpSectionRegistry {
      * @return Annotation classes
      */
     public static Set<Class<? extends Annotation>> getAnnotationClasses() {
-        return FACTORIES.keySet();
+        return factories.keySet();
     }
 
     /**
@@ -92,7 +99,7 @@ public class HelpSectionRegistry {
      * @return Help Section or {@code null} if the annotation does not denote a help section
      */
     public static HelpSection getHelpSection(Class<? extends Annotation> cls, Annotation annotation) {
-        HelpSectionFactory factory = FACTORIES.get(cls);
+        HelpSectionFactory factory = factories.get(cls);
         if (factory != null)
             return factory.createSection(annotation);
         return null;
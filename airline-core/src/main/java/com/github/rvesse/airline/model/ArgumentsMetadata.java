@@ -16,8 +16,11 @@
 package com.github.rvesse.airline.model;
 
 import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.types.DefaultTypeConverterProvider;
+import com.github.rvesse.airline.types.TypeConverter;
+import com.github.rvesse.airline.types.TypeConverterCache;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 import com.github.rvesse.airline.utils.AirlineUtils;
 import com.github.rvesse.airline.utils.predicates.restrictions.IsRequiredArgumentFinder;
@@ -25,6 +28,7 @@ import com.github.rvesse.airline.utils.predicates.restrictions.IsRequiredArgumen
 import java.lang.reflect.Field;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -39,6 +43,7 @@ public class ArgumentsMetadata {
     private final Set<Accessor> accessors;
     private final List<ArgumentsRestriction> restrictions;
     private final TypeConverterProvider provider;
+    private final TypeConverterCache converters = new TypeConverterCache();
 
     //@formatter:off
     public ArgumentsMetadata(Iterable<String> titles, 
@@ -83,9 +88,59 @@ public class ArgumentsMetadata {
 
             accessors.addAll(other.getAccessors());
         }
+        if (accessors.size() > 1 && CollectionUtils.exists(accessors, a -> a.isStreamed()))
+            throw new IllegalArgumentException(String.format(
+                    "Streamed arguments cannot be bound to more than one field but were bound to %s", accessors));
         this.accessors = SetUtils.unmodifiableSet(accessors);
     }
 
+    private ArgumentsMetadata(ArgumentsMetadata arguments, Set<Accessor> accessors) {
+        this(arguments, accessors, arguments.restrictions, arguments.provider);
+    }
+
+    private ArgumentsMetadata(ArgumentsMetadata arguments, Set<Accessor> accessors,
+            List<ArgumentsRestriction> restrictions, TypeConverterProvider provider) {
+        this.titles = arguments.titles;
+        this.description = arguments.description;
+        this.restrictions = restrictions;
+        this.provider = provider;
+        this.accessors = accessors;
+    }
+
+    /**
+     * Creates a copy of the arguments whose accessors have the given path
+     * prefixed, used when reusing the cached meta-data of a class at the point
+     * it is composed into a command
+     * 
+     * @param prefix
+     *            Path prefix
+     * @return Copy of the arguments
+     */
+    ArgumentsMetadata withPathPrefix(List<Field> prefix) {
+        Set<Accessor> accessors = new LinkedHashSet<>();
+        for (Accessor accessor : this.accessors) {
+            accessors.add(accessor.withPathPrefix(prefix));
+        }
+        return new ArgumentsMetadata(this, SetUtils.unmodifiableSet(accessors));
+    }
+
+    /**
+     * Creates a copy of the arguments with the given restrictions and type
+     * converter provider, used when creating arguments from the cached
+     * meta-data of a class so that each load has its own restriction instances
+     * 
+     * @param restrictions
+     *            Restrictions
+     * @param typeConverterProvider
+     *            Type converter provider
+     * @return Copy of the arguments
+     */
+    ArgumentsMetadata withRestrictions(Iterable<ArgumentsRestriction> restrictions,
+            TypeConverterProvider typeConverterProvider) {
+        return new ArgumentsMetadata(this, this.accessors, AirlineUtils.unmodifiableListCopy(restrictions),
+                typeConverterProvider != null ? typeConverterProvider : new DefaultTypeConverterProvider());
+    }
+
     public List<String> getTitle() {
         return titles;
     }
@@ -106,6 +161,21 @@ public class ArgumentsMetadata {
         return accessors.iterator().next().isMultiValued();
     }
 
+    /**
+     * Gets whether the arguments are streamed i.e. bound to a
+     * {@link java.util.stream.Stream} or {@link java.util.Iterator} field
+     * <p>
+     * Streamed arguments are not consumed by the parser, instead they are
+     * converted and validated on demand as the command pulls them, see
+     * {@link com.github.rvesse.airline.annotations.Arguments} for details.
+     * </p>
+     * 
+     * @return True if streamed, false otherwise
+     */
+    public boolean isStreamed() {
+        return accessors.iterator().next().isStreamed();
+    }
+
     public Class<?> getJavaType() {
         return accessors.iterator().next().getJavaType();
     }
@@ -118,6 +188,18 @@ public class ArgumentsMetadata {
         return this.provider;
     }
 
+    /**
+     * Gets the type converter to use for this arguments, where the provider allows
+     * it this is resolved once per parser configuration and then reused
+     * 
+     * @param state
+     *            Parser state
+     * @return Type converter
+     */
+    public <T> TypeConverter getTypeConverter(ParseState<T> state) {
+        return this.converters.get(this.provider, this, state);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
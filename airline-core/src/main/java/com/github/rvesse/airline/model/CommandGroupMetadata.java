@@ -16,11 +16,18 @@
 package com.github.rvesse.airline.model;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.Memoized;
+import com.github.rvesse.airline.utils.PrefixTrie;
 
 /**
  * Represents meta-data about a command group
@@ -30,11 +37,17 @@ public class CommandGroupMetadata {
     private final String name;
     private final String description;
     private final boolean hidden;
-    private final List<OptionMetadata> options;
+    private final Memoized<OptionIndex> options;
     private final CommandMetadata defaultCommand;
     private final List<CommandMetadata> commands;
+    private final Set<CommandMetadata> commandSet = new HashSet<>();
+    private final Map<String, CommandMetadata> commandsByName = new HashMap<>();
     private final List<CommandGroupMetadata> subGroups;
+    private final Set<CommandGroupMetadata> subGroupSet = new HashSet<>();
+    private final Map<String, CommandGroupMetadata> subGroupsByName = new HashMap<>();
     private CommandGroupMetadata parentGroup;
+    private volatile PrefixTrie<CommandMetadata> commandIndex;
+    private volatile PrefixTrie<CommandGroupMetadata> subGroupIndex;
 
     //@formatter:off
     public CommandGroupMetadata(String name, 
@@ -45,6 +58,50 @@ public class CommandGroupMetadata {
                                 CommandMetadata defaultCommand, 
                                 Iterable<CommandMetadata> commands) {
     //@formatter:on
+        this(name, description, hidden, Memoized.ofValue(OptionIndex.of(options)), subGroups, defaultCommand,
+                commands);
+    }
+
+    /**
+     * Creates a new group whose options are only computed when first needed
+     * <p>
+     * Group options are contributed by the group's commands so computing them
+     * requires the full metadata for those commands, when commands are loaded
+     * lazily this allows that to be deferred until the group options are
+     * actually needed.
+     * </p>
+     * 
+     * @param name
+     *            Group name
+     * @param description
+     *            Group description
+     * @param hidden
+     *            Whether the group is hidden
+     * @param options
+     *            Supplier of the group options
+     * @param subGroups
+     *            Sub-groups
+     * @param defaultCommand
+     *            Default command for the group
+     * @param commands
+     *            Commands for the group
+     */
+    //@formatter:off
+    public CommandGroupMetadata(String name, 
+                                String description, 
+                                boolean hidden, 
+                                Supplier<? extends Iterable<OptionMetadata>> options,
+                                Iterable<CommandGroupMetadata> subGroups, 
+                                CommandMetadata defaultCommand, 
+                                Iterable<CommandMetadata> commands) {
+    //@formatter:on
+        this(name, description, hidden, Memoized.of(() -> OptionIndex.of(options.get())), subGroups, defaultCommand,
+                commands);
+    }
+
+    private CommandGroupMetadata(String name, String description, boolean hidden, Memoized<OptionIndex> options,
+            Iterable<CommandGroupMetadata> subGroups, CommandMetadata defaultCommand,
+            Iterable<CommandMetadata> commands) {
         if (StringUtils.isEmpty(name))
             throw new IllegalArgumentException("Group name may not be null/empty");
         if (StringUtils.containsWhitespace(name))
@@ -53,12 +110,34 @@ public class CommandGroupMetadata {
         this.name = name;
         this.description = description;
         this.hidden = hidden;
-        this.options = AirlineUtils.unmodifiableListCopy(options);
+        this.options = options;
         this.subGroups = AirlineUtils.listCopy(subGroups);
+        for (CommandGroupMetadata subGroup : this.subGroups) {
+            indexSubGroup(subGroup);
+        }
         this.defaultCommand = defaultCommand;
         this.commands = AirlineUtils.listCopy(commands);
-        if (this.defaultCommand != null && !this.commands.contains(this.defaultCommand)) {
+        for (CommandMetadata command : this.commands) {
+            indexCommand(command);
+        }
+        if (this.defaultCommand != null && !this.commandSet.contains(this.defaultCommand)) {
             this.commands.add(this.defaultCommand);
+            indexCommand(this.defaultCommand);
+        }
+    }
+
+    private void indexCommand(CommandMetadata command) {
+        this.commandSet.add(command);
+        if (command != null) {
+            // First command with a given name wins as with the command index
+            this.commandsByName.putIfAbsent(command.getName(), command);
+        }
+    }
+
+    private void indexSubGroup(CommandGroupMetadata subGroup) {
+        this.subGroupSet.add(subGroup);
+        if (subGroup != null) {
+            this.subGroupsByName.putIfAbsent(subGroup.getName(), subGroup);
         }
     }
 
@@ -95,7 +174,16 @@ public class CommandGroupMetadata {
      * @return Group options
      */
     public List<OptionMetadata> getOptions() {
-        return options;
+        return options.get();
+    }
+
+    /**
+     * Gets the group options indexed by name
+     * 
+     * @return Group options index
+     */
+    public OptionIndex getOptionIndex() {
+        return options.get();
     }
 
     /**
@@ -123,11 +211,38 @@ public class CommandGroupMetadata {
      *            Command
      */
     public void addCommand(CommandMetadata command) {
-        if (!commands.contains(command)) {
+        if (!commandSet.contains(command)) {
             commands.add(command);
+            indexCommand(command);
+            commandIndex = null;
         }
     }
 
+    /**
+     * Finds the command with exactly the given name
+     * 
+     * @param name
+     *            Command name
+     * @return Command, or {@code null} if no such command
+     */
+    public CommandMetadata findCommand(String name) {
+        return commandsByName.get(name);
+    }
+
+    /**
+     * Gets the commands for the group indexed by name
+     * 
+     * @return Commands index
+     */
+    public PrefixTrie<CommandMetadata> getCommandIndex() {
+        PrefixTrie<CommandMetadata> index = commandIndex;
+        if (index == null) {
+            index = PrefixTrie.of(commands, CommandMetadata::getName);
+            commandIndex = index;
+        }
+        return index;
+    }
+
     /**
      * Gets the sub-groups of this group
      * 
@@ -144,9 +259,36 @@ public class CommandGroupMetadata {
      *            Sub-group
      */
     public void addSubGroup(CommandGroupMetadata subGroup) {
-        if (!subGroups.contains(subGroup)) {
+        if (!subGroupSet.contains(subGroup)) {
             subGroups.add(subGroup);
+            indexSubGroup(subGroup);
+            subGroupIndex = null;
+        }
+    }
+
+    /**
+     * Finds the sub-group with exactly the given name
+     * 
+     * @param name
+     *            Sub-group name
+     * @return Sub-group, or {@code null} if no such sub-group
+     */
+    public CommandGroupMetadata findSubGroup(String name) {
+        return subGroupsByName.get(name);
+    }
+
+    /**
+     * Gets the sub-groups of this group indexed by name
+     * 
+     * @return Sub-groups index
+     */
+    public PrefixTrie<CommandGroupMetadata> getSubGroupIndex() {
+        PrefixTrie<CommandGroupMetadata> index = subGroupIndex;
+        if (index == null) {
+            index = PrefixTrie.of(subGroups, CommandGroupMetadata::getName);
+            subGroupIndex = index;
         }
+        return index;
     }
 
     /**
@@ -19,9 +19,12 @@ import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.annotations.Group;
 import com.github.rvesse.airline.help.sections.HelpSection;
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.Memoized;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -29,16 +32,10 @@ public class CommandMetadata {
     private final String name;
     private final String description;
     private final boolean hidden;
-    private final List<OptionMetadata> globalOptions;
-    private final List<OptionMetadata> groupOptions;
-    private final List<OptionMetadata> commandOptions;
-    private final OptionMetadata defaultOption;
-    private final ArgumentsMetadata arguments;
-    private final List<Accessor> metadataInjections;
     private final Class<?> type;
     private final List<String> groupNames;
     private final List<Group> groups;
-    private final List<HelpSection> sections;
+    private final Memoized<Details> details;
 
     //@formatter:off
     public CommandMetadata(String name, 
@@ -55,30 +52,87 @@ public class CommandMetadata {
                            List<Group> groups,
                            List<HelpSection> sections) {
     //@formatter:on
-        if (StringUtils.isEmpty(name))
-            throw new IllegalArgumentException("Command name may not be null/empty");
-        if (StringUtils.containsWhitespace(name))
-            throw new IllegalArgumentException("Command name may not contain whitespace");
+        checkName(name);
 
         this.name = name;
         this.description = description;
         this.hidden = hidden;
-        this.globalOptions = AirlineUtils.unmodifiableListCopy(globalOptions);
-        this.groupOptions = AirlineUtils.unmodifiableListCopy(groupOptions);
-        this.commandOptions = AirlineUtils.unmodifiableListCopy(commandOptions);
-        this.defaultOption = defaultOption;
-        this.arguments = arguments;
-
-        if (this.defaultOption != null && this.arguments != null) {
-            throw new IllegalArgumentException("Command cannot declare both @Arguments and @DefaultOption");
-        }
+        this.type = type;
+        this.groupNames = groupNames;
+        this.groups = groups;
+        this.details = Memoized.ofValue(new Details(globalOptions, groupOptions, commandOptions, defaultOption,
+                arguments, metadataInjections, sections));
+    }
 
-        this.metadataInjections = AirlineUtils.unmodifiableListCopy(metadataInjections);
+    /**
+     * Creates a lightweight command whose options, arguments, metadata
+     * injections and help sections are only loaded when first needed
+     * <p>
+     * The loader is called at most once, the first time any of that metadata
+     * is requested, and must return the full metadata for the same command.
+     * This allows CLIs with very many commands to avoid loading the full
+     * metadata for commands that a given invocation never uses.
+     * </p>
+     * 
+     * @param name
+     *            Command name
+     * @param description
+     *            Command description
+     * @param hidden
+     *            Whether the command is hidden
+     * @param type
+     *            Command type
+     * @param groupNames
+     *            Names of groups the command belongs to
+     * @param groups
+     *            Groups declared by the command
+     * @param loader
+     *            Loader that produces the full metadata
+     */
+    //@formatter:off
+    public CommandMetadata(String name, 
+                           String description, 
+                           boolean hidden, 
+                           Class<?> type, 
+                           List<String> groupNames, 
+                           List<Group> groups,
+                           Supplier<CommandMetadata> loader) {
+    //@formatter:on
+        checkName(name);
+        if (loader == null)
+            throw new NullPointerException("loader cannot be null");
+
+        this.name = name;
+        this.description = description;
+        this.hidden = hidden;
         this.type = type;
         this.groupNames = groupNames;
         this.groups = groups;
+        this.details = Memoized.of(() -> {
+            CommandMetadata loaded = loader.get();
+            if (loaded == null || !StringUtils.equals(name, loaded.getName()))
+                throw new IllegalStateException(
+                        String.format("Loader for command '%s' did not produce metadata for that command", name));
+            return loaded.details.get();
+        });
+    }
+
+    private static void checkName(String name) {
+        if (StringUtils.isEmpty(name))
+            throw new IllegalArgumentException("Command name may not be null/empty");
+        if (StringUtils.containsWhitespace(name))
+            throw new IllegalArgumentException("Command name may not contain whitespace");
+    }
 
-        this.sections = AirlineUtils.unmodifiableListCopy(sections);
+    /**
+     * Gets whether the full metadata for the command has been loaded, this is
+     * always true unless the command was created with a loader in which case
+     * it becomes true once that metadata is first needed
+     * 
+     * @return True if loaded, false otherwise
+     */
+    public boolean isLoaded() {
+        return details.isComputed();
     }
 
     public String getName() {
@@ -93,12 +147,26 @@ public class CommandMetadata {
         return hidden;
     }
 
+    /**
+     * Gets all the options (global, group and command) for the command
+     * <p>
+     * This is computed once when the metadata is loaded, the returned list is
+     * the same {@link OptionIndex} returned by {@link #getOptionIndex()}
+     * </p>
+     * 
+     * @return All options
+     */
     public List<OptionMetadata> getAllOptions() {
-        List<OptionMetadata> allOptions = new ArrayList<OptionMetadata>();
-        allOptions.addAll(globalOptions);
-        allOptions.addAll(groupOptions);
-        allOptions.addAll(commandOptions);
-        return List.copyOf(allOptions);
+        return details.get().optionIndex;
+    }
+
+    /**
+     * Gets all the options (global, group and command) indexed by name
+     * 
+     * @return Options index
+     */
+    public OptionIndex getOptionIndex() {
+        return details.get().optionIndex;
     }
 
     /**
@@ -107,31 +175,31 @@ public class CommandMetadata {
      * @return Help sections
      */
     public List<HelpSection> getHelpSections() {
-        return sections;
+        return details.get().sections;
     }
 
     public List<OptionMetadata> getGlobalOptions() {
-        return globalOptions;
+        return details.get().globalOptions;
     }
 
     public List<OptionMetadata> getGroupOptions() {
-        return groupOptions;
+        return details.get().groupOptions;
     }
 
     public List<OptionMetadata> getCommandOptions() {
-        return commandOptions;
+        return details.get().commandOptions;
     }
 
     public OptionMetadata getDefaultOption() {
-        return defaultOption;
+        return details.get().defaultOption;
     }
 
     public ArgumentsMetadata getArguments() {
-        return arguments;
+        return details.get().arguments;
     }
 
     public List<Accessor> getMetadataInjections() {
-        return metadataInjections;
+        return details.get().metadataInjections;
     }
 
     /**
@@ -158,12 +226,17 @@ public class CommandMetadata {
         sb.append("CommandMetadata {").append('\n');
         sb.append(" name='").append(name).append('\'').append('\n');
         sb.append(" , description='").append(description).append('\'').append('\n');
-        sb.append(" , sections=").append(sections).append('\n');
-        sb.append(" , globalOptions=").append(globalOptions).append('\n');
-        sb.append(" , groupOptions=").append(groupOptions).append('\n');
-        sb.append(" , commandOptions=").append(commandOptions).append('\n');
-        sb.append(" , arguments=").append(arguments).append('\n');
-        sb.append(" , metadataInjections=").append(metadataInjections).append('\n');
+        if (isLoaded()) {
+            Details details = this.details.get();
+            sb.append(" , sections=").append(details.sections).append('\n');
+            sb.append(" , globalOptions=").append(details.globalOptions).append('\n');
+            sb.append(" , groupOptions=").append(details.groupOptions).append('\n');
+            sb.append(" , commandOptions=").append(details.commandOptions).append('\n');
+            sb.append(" , arguments=").append(details.arguments).append('\n');
+            sb.append(" , metadataInjections=").append(details.metadataInjections).append('\n');
+        } else {
+            sb.append(" , loaded=false").append('\n');
+        }
         sb.append(" , type=").append(type).append('\n');
         sb.append('}');
         return sb.toString();
@@ -182,4 +255,45 @@ public class CommandMetadata {
         // TODO This should ideally be more robust
         return StringUtils.equals(this.name, cmd.name) && this.type.equals(cmd.type);
     }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.name, this.type);
+    }
+
+    /**
+     * The parts of the command metadata that are expensive to load
+     */
+    private static final class Details {
+        private final List<OptionMetadata> globalOptions;
+        private final List<OptionMetadata> groupOptions;
+        private final List<OptionMetadata> commandOptions;
+        private final OptionIndex optionIndex;
+        private final OptionMetadata defaultOption;
+        private final ArgumentsMetadata arguments;
+        private final List<Accessor> metadataInjections;
+        private final List<HelpSection> sections;
+
+        private Details(Iterable<OptionMetadata> globalOptions, Iterable<OptionMetadata> groupOptions,
+                Iterable<OptionMetadata> commandOptions, OptionMetadata defaultOption, ArgumentsMetadata arguments,
+                Iterable<Accessor> metadataInjections, List<HelpSection> sections) {
+            this.globalOptions = AirlineUtils.unmodifiableListCopy(globalOptions);
+            this.groupOptions = AirlineUtils.unmodifiableListCopy(groupOptions);
+            this.commandOptions = AirlineUtils.unmodifiableListCopy(commandOptions);
+            List<OptionMetadata> allOptions = new ArrayList<OptionMetadata>();
+            allOptions.addAll(this.globalOptions);
+            allOptions.addAll(this.groupOptions);
+            allOptions.addAll(this.commandOptions);
+            this.optionIndex = OptionIndex.of(allOptions);
+            this.defaultOption = defaultOption;
+            this.arguments = arguments;
+
+            if (this.defaultOption != null && this.arguments != null) {
+                throw new IllegalArgumentException("Command cannot declare both @Arguments and @DefaultOption");
+            }
+
+            this.metadataInjections = AirlineUtils.unmodifiableListCopy(metadataInjections);
+            this.sections = AirlineUtils.unmodifiableListCopy(sections);
+        }
+    }
 }
@@ -15,9 +15,13 @@
  */
 package com.github.rvesse.airline.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -25,6 +29,8 @@ import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.help.sections.HelpSection;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.Memoized;
+import com.github.rvesse.airline.utils.PrefixTrie;
 
 /**
  * Represents metadata about a CLI
@@ -33,10 +39,17 @@ public class GlobalMetadata<T> {
 
     private final String name;
     private final String description;
-    private final List<OptionMetadata> options;
+    private final Memoized<OptionIndex> options;
     private final CommandMetadata defaultCommand;
     private final List<CommandMetadata> defaultGroupCommands;
     private final List<CommandGroupMetadata> commandGroups;
+    private final PrefixTrie<CommandMetadata> defaultGroupCommandIndex;
+    private final PrefixTrie<CommandGroupMetadata> commandGroupIndex;
+    private final Map<String, CommandMetadata> defaultGroupCommandsByName = new HashMap<>();
+    private final Map<String, CommandGroupMetadata> commandGroupsByName = new HashMap<>();
+    private final Map<CommandGroupMetadata, OptionIndex> groupOptionIndices = Collections
+            .synchronizedMap(new IdentityHashMap<>());
+    private final boolean groupOptionsIndexed;
     private final ParserMetadata<T> parserConfig;
     private final List<GlobalRestriction> restrictions;
     private final List<HelpSection> baseHelpSections;
@@ -45,6 +58,52 @@ public class GlobalMetadata<T> {
             CommandMetadata defaultCommand, Iterable<CommandMetadata> defaultGroupCommands,
             Iterable<CommandGroupMetadata> commandGroups, Iterable<GlobalRestriction> restrictions,
             Iterable<HelpSection> baseHelpSections, ParserMetadata<T> parserConfig) {
+        this(name, description, Memoized.ofValue(OptionIndex.of(options)), defaultCommand, defaultGroupCommands,
+                commandGroups, restrictions, baseHelpSections, parserConfig, true);
+    }
+
+    /**
+     * Creates new global metadata whose global options are only computed when
+     * first needed
+     * <p>
+     * Global options are contributed by all the commands so computing them
+     * requires the full metadata for every command, when commands are loaded
+     * lazily this allows that to be deferred until the global options are
+     * actually needed. The options available in the context of each group are
+     * likewise computed on demand.
+     * </p>
+     * 
+     * @param name
+     *            Program name
+     * @param description
+     *            Program description
+     * @param options
+     *            Supplier of the global options
+     * @param defaultCommand
+     *            Default command
+     * @param defaultGroupCommands
+     *            Default group commands
+     * @param commandGroups
+     *            Command groups
+     * @param restrictions
+     *            Global restrictions
+     * @param baseHelpSections
+     *            Base help sections
+     * @param parserConfig
+     *            Parser configuration
+     */
+    public GlobalMetadata(String name, String description, Supplier<? extends Iterable<OptionMetadata>> options,
+            CommandMetadata defaultCommand, Iterable<CommandMetadata> defaultGroupCommands,
+            Iterable<CommandGroupMetadata> commandGroups, Iterable<GlobalRestriction> restrictions,
+            Iterable<HelpSection> baseHelpSections, ParserMetadata<T> parserConfig) {
+        this(name, description, Memoized.of(() -> OptionIndex.of(options.get())), defaultCommand,
+                defaultGroupCommands, commandGroups, restrictions, baseHelpSections, parserConfig, false);
+    }
+
+    private GlobalMetadata(String name, String description, Memoized<OptionIndex> options,
+            CommandMetadata defaultCommand, Iterable<CommandMetadata> defaultGroupCommands,
+            Iterable<CommandGroupMetadata> commandGroups, Iterable<GlobalRestriction> restrictions,
+            Iterable<HelpSection> baseHelpSections, ParserMetadata<T> parserConfig, boolean indexGroupOptions) {
         if (StringUtils.isBlank(name))
             throw new IllegalArgumentException("Program name cannot be null/empty/whitespace");
         if (parserConfig == null)
@@ -52,14 +111,31 @@ public class GlobalMetadata<T> {
 
         this.name = name;
         this.description = description;
-        this.options = AirlineUtils.unmodifiableListCopy(options);
+        this.options = options;
         this.defaultCommand = defaultCommand;
         this.defaultGroupCommands = AirlineUtils.unmodifiableListCopy(defaultGroupCommands);
         this.commandGroups = AirlineUtils.unmodifiableListCopy(commandGroups);
+        this.defaultGroupCommandIndex = PrefixTrie.of(this.defaultGroupCommands, CommandMetadata::getName);
+        this.commandGroupIndex = PrefixTrie.of(this.commandGroups, CommandGroupMetadata::getName);
+        for (CommandMetadata command : this.defaultGroupCommands) {
+            // First with a given name wins as with the prefix indices
+            this.defaultGroupCommandsByName.putIfAbsent(command.getName(), command);
+        }
+        for (CommandGroupMetadata group : this.commandGroups) {
+            this.commandGroupsByName.putIfAbsent(group.getName(), group);
+        }
         this.restrictions = AirlineUtils.unmodifiableListCopy(restrictions);
         this.baseHelpSections = AirlineUtils.unmodifiableListCopy(baseHelpSections);
         this.parserConfig = parserConfig != null ? parserConfig : ParserBuilder.<T> defaultConfiguration();
 
+        // Pre-compute the options available in the context of each group
+        this.groupOptionsIndexed = indexGroupOptions;
+        if (indexGroupOptions) {
+            for (CommandGroupMetadata group : this.commandGroups) {
+                indexGroupOptions(group);
+            }
+        }
+
         // Look for duplicate command names on different classes
         checkForSuppressedCommands(this.defaultGroupCommands, this.defaultCommand, "");
         for (CommandGroupMetadata group : this.commandGroups) {
@@ -67,6 +143,21 @@ public class GlobalMetadata<T> {
         }
     }
 
+    private void indexGroupOptions(CommandGroupMetadata group) {
+        if (this.groupOptionIndices.containsKey(group))
+            return;
+        this.groupOptionIndices.put(group, createGroupOptionIndex(group));
+        for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+            indexGroupOptions(subGroup);
+        }
+    }
+
+    private OptionIndex createGroupOptionIndex(CommandGroupMetadata group) {
+        List<OptionMetadata> options = new ArrayList<>(this.options.get());
+        options.addAll(group.getOptions());
+        return OptionIndex.of(options);
+    }
+
     private static void checkForSuppressedCommands(CommandGroupMetadata group, String groupPath) {
         StringBuilder groupName = new StringBuilder();
         if (groupPath.length() > 0) {
@@ -138,7 +229,16 @@ public class GlobalMetadata<T> {
      * @return Options
      */
     public List<OptionMetadata> getOptions() {
-        return options;
+        return options.get();
+    }
+
+    /**
+     * Gets the global options indexed by name
+     * 
+     * @return Global options index
+     */
+    public OptionIndex getOptionIndex() {
+        return options.get();
     }
 
     /**
@@ -150,6 +250,28 @@ public class GlobalMetadata<T> {
         return defaultCommand;
     }
 
+    /**
+     * Gets the options that are available in the context of the given group
+     * i.e. the global options plus the group options
+     * <p>
+     * These are computed once for each group, either when the metadata is
+     * created or if the global options are computed on demand the first time
+     * they are requested for a group
+     * </p>
+     * 
+     * @param group
+     *            Group
+     * @return Options index
+     */
+    public OptionIndex getGroupOptionIndex(CommandGroupMetadata group) {
+        OptionIndex index = this.groupOptionIndices.get(group);
+        if (index != null)
+            return index;
+        if (this.groupOptionsIndexed)
+            return createGroupOptionIndex(group);
+        return this.groupOptionIndices.computeIfAbsent(group, this::createGroupOptionIndex);
+    }
+
     /**
      * Gets the default group of commands for the CLI i.e. commands that don't
      * need a group to be specified
@@ -160,6 +282,26 @@ public class GlobalMetadata<T> {
         return defaultGroupCommands;
     }
 
+    /**
+     * Gets the default group of commands indexed by name
+     * 
+     * @return Default group commands index
+     */
+    public PrefixTrie<CommandMetadata> getDefaultGroupCommandIndex() {
+        return defaultGroupCommandIndex;
+    }
+
+    /**
+     * Finds the default group command with exactly the given name
+     * 
+     * @param name
+     *            Command name
+     * @return Command, or {@code null} if no such command
+     */
+    public CommandMetadata findCommand(String name) {
+        return defaultGroupCommandsByName.get(name);
+    }
+
     /**
      * Gets the command groups for the CLI
      * 
@@ -169,6 +311,50 @@ public class GlobalMetadata<T> {
         return commandGroups;
     }
 
+    /**
+     * Gets the top level command groups indexed by name
+     * 
+     * @return Command groups index
+     */
+    public PrefixTrie<CommandGroupMetadata> getCommandGroupIndex() {
+        return commandGroupIndex;
+    }
+
+    /**
+     * Finds the top level command group with exactly the given name
+     * 
+     * @param name
+     *            Group name
+     * @return Command group, or {@code null} if no such group
+     */
+    public CommandGroupMetadata findGroup(String name) {
+        return commandGroupsByName.get(name);
+    }
+
+    /**
+     * Finds the command group with exactly the given path
+     * <p>
+     * A path is a white space separated sequence of group names, e.g.
+     * {@code remote branch}, denoting a sub-group of a top level group, a path
+     * consisting of a single name denotes a top level group.
+     * </p>
+     * 
+     * @param path
+     *            Group path
+     * @return Command group, or {@code null} if no such group
+     */
+    public CommandGroupMetadata findGroupByPath(String path) {
+        String[] names = StringUtils.split(path);
+        if (names == null || names.length == 0)
+            return null;
+
+        CommandGroupMetadata group = commandGroupsByName.get(names[0]);
+        for (int i = 1; i < names.length && group != null; i++) {
+            group = group.findSubGroup(names[i]);
+        }
+        return group;
+    }
+
     /**
      * Gets the global restrictions
      * 
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+/**
+ * Interface for listeners that wish to be notified about the progress of
+ * metadata loading
+ * <p>
+ * Listeners are registered on the parser configuration, either via
+ * {@link com.github.rvesse.airline.builder.ParserBuilder#withMetadataLoadListener(MetadataLoadListener)}
+ * or {@link com.github.rvesse.airline.annotations.Parser#metadataLoadListeners()},
+ * and are notified each time a phase of metadata loading completes. This
+ * allows finding where time goes when constructing a CLI, see
+ * {@link MetadataLoadSummary} for a ready made implementation that summarises
+ * this information.
+ * </p>
+ * <p>
+ * Implementations <strong>MUST</strong> be thread safe since metadata may be
+ * loaded in parallel and commands that are loaded lazily are loaded by
+ * whichever thread first needs them.
+ * </p>
+ */
+public interface MetadataLoadListener {
+
+    /**
+     * Called when a phase of metadata loading completes
+     * 
+     * @param phase
+     *            Phase
+     * @param subject
+     *            Subject of the phase, e.g. a command class name, may be
+     *            {@code null}
+     * @param duration
+     *            Duration in nanoseconds
+     */
+    public void phaseCompleted(MetadataLoadPhase phase, String subject, long duration);
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+/**
+ * The phases of metadata loading reported to a {@link MetadataLoadListener}
+ * <p>
+ * Phases may nest, for example loading a command includes scanning it for
+ * options and arguments and creating their restrictions, and the reported
+ * duration of a phase includes any phases nested within it.
+ * </p>
+ * <p>
+ * The same phases are reported each time the same metadata is loaded, even
+ * where some of the work is cached within the JVM, so the counts do not
+ * depend on what has previously been loaded.
+ * </p>
+ */
+public enum MetadataLoadPhase {
+    /**
+     * Building the parser configuration, the subject is {@code null}
+     */
+    PARSER_CONFIGURATION,
+    /**
+     * Loading user aliases as part of building the parser configuration, the
+     * subject is {@code null}
+     */
+    USER_ALIASES,
+    /**
+     * Loading the full metadata for a command, the subject is the command
+     * class name
+     */
+    COMMAND,
+    /**
+     * Scanning a class for options, arguments and composed modules, the
+     * subject is the class name. Scan results are cached so only the first
+     * scan of a class takes any significant time, later loads still report
+     * this phase for the class and every class composed into it but with a
+     * negligible duration.
+     */
+    INJECTION_SCAN,
+    /**
+     * Creating a restriction via the restriction registry, the subject is the
+     * restriction annotation class name. Restrictions are created afresh each
+     * time metadata is loaded.
+     */
+    RESTRICTION,
+    /**
+     * Creating a help section via the help section registry, which may involve
+     * reading external resources, the subject is the help section annotation
+     * class name
+     */
+    HELP_SECTION,
+    /**
+     * Building the groups hierarchy, the subject is the CLI name if known
+     */
+    GROUPS_HIERARCHY,
+    /**
+     * Loading the complete metadata for a CLI, or for a single command parser,
+     * the subject is the CLI name or command class name respectively
+     */
+    CLI
+}
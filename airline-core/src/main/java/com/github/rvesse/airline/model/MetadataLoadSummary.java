@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A {@link MetadataLoadListener} that summarises the time spent in each phase
+ * of metadata loading
+ * <p>
+ * For each phase this records how many times it completed, the total time
+ * spent and the slowest subject, it also records the time taken to load each
+ * command so that the slowest commands can be identified. The summary may be
+ * printed as a table via {@link #print(PrintStream)}, or if constructed with
+ * {@link #MetadataLoadSummary(PrintStream)} is printed automatically whenever
+ * loading a CLI completes.
+ * </p>
+ * <p>
+ * If you wish to register this via
+ * {@link com.github.rvesse.airline.annotations.Parser#metadataLoadListeners()}
+ * and have the summary printed then you will need to create a trivial sub-class
+ * that has a public no-argument constructor which calls the
+ * {@link #MetadataLoadSummary(PrintStream)} constructor.
+ * </p>
+ */
+public class MetadataLoadSummary implements MetadataLoadListener {
+
+    /**
+     * Default number of slowest commands to include in the summary table
+     */
+    public static final int DEFAULT_SLOWEST_COMMANDS = 10;
+
+    private static final class PhaseStatistics {
+        private long count, total, max;
+        private String slowest;
+    }
+
+    private final PrintStream output;
+    private final int slowestCommands;
+    private final Map<MetadataLoadPhase, PhaseStatistics> phases = new EnumMap<>(MetadataLoadPhase.class);
+    private final Map<String, Long> commands = new HashMap<>();
+
+    /**
+     * Creates a new summary
+     */
+    public MetadataLoadSummary() {
+        this(null, DEFAULT_SLOWEST_COMMANDS);
+    }
+
+    /**
+     * Creates a new summary that is printed to the given output whenever
+     * loading a CLI completes
+     * 
+     * @param output
+     *            Output to print to
+     */
+    public MetadataLoadSummary(PrintStream output) {
+        this(output, DEFAULT_SLOWEST_COMMANDS);
+    }
+
+    /**
+     * Creates a new summary
+     * 
+     * @param output
+     *            Output to print to whenever loading a CLI completes, may be
+     *            {@code null} in which case the summary is only printed when
+     *            {@link #print(PrintStream)} is called
+     * @param slowestCommands
+     *            Number of slowest commands to include in the summary table
+     */
+    public MetadataLoadSummary(PrintStream output, int slowestCommands) {
+        if (slowestCommands < 0)
+            throw new IllegalArgumentException("slowestCommands cannot be negative");
+        this.output = output;
+        this.slowestCommands = slowestCommands;
+    }
+
+    @Override
+    public void phaseCompleted(MetadataLoadPhase phase, String subject, long duration) {
+        synchronized (this) {
+            PhaseStatistics stats = this.phases.computeIfAbsent(phase, p -> new PhaseStatistics());
+            stats.count++;
+            stats.total += duration;
+            if (stats.count == 1 || duration > stats.max) {
+                stats.max = duration;
+                stats.slowest = subject;
+            }
+            if (phase == MetadataLoadPhase.COMMAND && subject != null) {
+                this.commands.merge(subject, duration, Long::sum);
+            }
+        }
+
+        if (phase == MetadataLoadPhase.CLI && this.output != null) {
+            print(this.output);
+        }
+    }
+
+    /**
+     * Gets how many times a phase completed
+     * 
+     * @param phase
+     *            Phase
+     * @return Count
+     */
+    public synchronized long getCount(MetadataLoadPhase phase) {
+        PhaseStatistics stats = this.phases.get(phase);
+        return stats != null ? stats.count : 0;
+    }
+
+    /**
+     * Gets the total time spent in a phase
+     * 
+     * @param phase
+     *            Phase
+     * @return Total time in nanoseconds
+     */
+    public synchronized long getTotalTime(MetadataLoadPhase phase) {
+        PhaseStatistics stats = this.phases.get(phase);
+        return stats != null ? stats.total : 0;
+    }
+
+    /**
+     * Gets the subject of the slowest completion of a phase
+     * 
+     * @param phase
+     *            Phase
+     * @return Slowest subject, {@code null} if the phase never completed or
+     *         has no subject
+     */
+    public synchronized String getSlowest(MetadataLoadPhase phase) {
+        PhaseStatistics stats = this.phases.get(phase);
+        return stats != null ? stats.slowest : null;
+    }
+
+    /**
+     * Gets the slowest commands
+     * 
+     * @param limit
+     *            Maximum number of commands to return
+     * @return Command class names and the total time in nanoseconds spent
+     *         loading them, slowest first
+     */
+    public synchronized List<Map.Entry<String, Long>> getSlowestCommands(int limit) {
+        List<Map.Entry<String, Long>> slowest = new ArrayList<>(this.commands.entrySet());
+        slowest.sort(Map.Entry.<String, Long> comparingByValue().reversed()
+                .thenComparing(Map.Entry.<String, Long> comparingByKey()));
+        List<Map.Entry<String, Long>> results = new ArrayList<>();
+        for (Map.Entry<String, Long> e : slowest.subList(0, Math.min(limit, slowest.size()))) {
+            results.add(Map.entry(e.getKey(), e.getValue()));
+        }
+        return results;
+    }
+
+    /**
+     * Clears the summary
+     */
+    public synchronized void reset() {
+        this.phases.clear();
+        this.commands.clear();
+    }
+
+    /**
+     * Prints the summary table
+     * 
+     * @param output
+     *            Output to print to
+     */
+    public void print(PrintStream output) {
+        output.print(toString());
+        output.flush();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1000000d);
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder();
+        String format = "%-20s %8s %12s %12s  %s%n";
+        builder.append(String.format(Locale.ROOT, format, "Phase", "Count", "Total (ms)", "Max (ms)", "Slowest"));
+        for (MetadataLoadPhase phase : MetadataLoadPhase.values()) {
+            PhaseStatistics stats = this.phases.get(phase);
+            if (stats == null)
+                continue;
+            builder.append(String.format(Locale.ROOT, format, phase, stats.count, millis(stats.total),
+                    millis(stats.max), stats.slowest != null ? stats.slowest : "-"));
+        }
+
+        List<Map.Entry<String, Long>> slowest = getSlowestCommands(this.slowestCommands);
+        if (!slowest.isEmpty()) {
+            builder.append(String.format(Locale.ROOT, "%nSlowest Commands%n"));
+            for (Map.Entry<String, Long> command : slowest) {
+                builder.append(String.format(Locale.ROOT, "%12s ms  %s%n", millis(command.getValue()),
+                        command.getKey()));
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -40,7 +40,6 @@ import com.github.rvesse.airline.types.numerics.DefaultNumericConverter;
 import com.github.rvesse.airline.utils.AirlineUtils;
 import com.github.rvesse.airline.utils.comparators.StringHierarchyComparator;
 import com.github.rvesse.airline.utils.predicates.parser.CommandTypeFinder;
-import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IteratorUtils;
 import org.apache.commons.lang3.ArrayUtils;
@@ -50,6 +49,8 @@ import java.io.File;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Helper for loading meta-data
@@ -73,7 +74,43 @@ public class MetadataLoader {
      * Constant for the {@code com.google.inject.Inject} annotation class
      */
     public static final String COM_GOOGLE_INJECT_INJECT = "com.google.inject.Inject";
-    private static Map<String, Class<? extends Annotation>> dynamicAnnotationCache = new HashMap<>();
+    private static final Map<String, Optional<Class<? extends Annotation>>> DYNAMIC_ANNOTATION_CACHE =
+            new ConcurrentHashMap<>();
+    /**
+     * Cache of the scanned injection meta-data for each class keyed by the composition annotations in use
+     * <p>
+     * Entries live as long as the class they describe, there is one per distinct set of composition annotations the
+     * class has been loaded with.  Cached meta-data holds no restriction or type converter provider instances, since
+     * neither need be immutable those are created afresh each time the meta-data is loaded.
+     * </p>
+     */
+    private static final ClassValue<Map<Set<String>, InjectionMetadata>> INJECTION_METADATA_CACHE =
+            new ClassValue<>() {
+                @Override
+                protected Map<Set<String>, InjectionMetadata> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    /**
+     * Notifies the metadata load listeners of the given parser configuration that a phase of metadata loading
+     * completed
+     *
+     * @param parserConfig Parser configuration, may be {@code null} in which case there are no listeners to notify
+     * @param phase        Phase
+     * @param subject      Subject of the phase, may be {@code null}
+     * @param start        Value of {@link System#nanoTime()} when the phase started
+     */
+    public static void notifyListeners(ParserMetadata<?> parserConfig, MetadataLoadPhase phase, String subject,
+                                       long start) {
+        if (parserConfig == null || parserConfig.getMetadataLoadListeners().isEmpty()) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        for (MetadataLoadListener listener : parserConfig.getMetadataLoadListeners()) {
+            listener.phaseCompleted(phase, subject, duration);
+        }
+    }
 
     public static <C> ParserMetadata<C> loadParser(Class<?> cliClass) {
         if (cliClass == null) {
@@ -88,6 +125,25 @@ public class MetadataLoader {
         return loadParser((Parser) annotation);
     }
 
+    /**
+     * Loads the parser configuration for a CLI
+     *
+     * @param cliClass             Class that has the {@link com.github.rvesse.airline.annotations.Cli} annotation
+     * @param cliConfig            CLI annotation
+     * @param parserConfigOverride Optional parser configuration which overrides any specified by the annotation
+     * @return Parser configuration
+     */
+    static <C> ParserMetadata<C> loadParser(Class<?> cliClass, com.github.rvesse.airline.annotations.Cli cliConfig,
+                                            ParserMetadata<C> parserConfigOverride) {
+        //@formatter:off
+        return parserConfigOverride != null
+               ? parserConfigOverride
+               : (cliConfig.parserConfiguration() != null
+                  ? MetadataLoader.loadParser(cliConfig.parserConfiguration())
+                  : MetadataLoader.loadParser(cliClass));
+        //@formatter:on
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     private static <C> ParserMetadata<C> loadParser(Parser parserConfig) {
         ParserBuilder<C> builder = new ParserBuilder<>();
@@ -166,6 +222,18 @@ public class MetadataLoader {
         // Parsing options
         builder.withArgumentsSeparator(parserConfig.argumentsSeparator());
         builder.withFlagNegationPrefix(parserConfig.flagNegationPrefix());
+        if (parserConfig.responseFiles()) {
+            builder = builder.withResponseFiles();
+        }
+        if (parserConfig.lazyCommandLoading()) {
+            builder = builder.withLazyCommandLoading();
+        }
+        if (parserConfig.parallelCommandLoading()) {
+            builder = builder.withParallelCommandLoading();
+        }
+        for (Class<? extends MetadataLoadListener> listenerClass : parserConfig.metadataLoadListeners()) {
+            builder = builder.withMetadataLoadListener(ParserUtil.createInstance(listenerClass));
+        }
         if (parserConfig.defaultParsersFirst() && parserConfig.useDefaultOptionParsers()) {
             builder = builder.withDefaultOptionParsers();
         }
@@ -198,6 +266,7 @@ public class MetadataLoader {
      * @return Global metadata
      */
     public static <C> GlobalMetadata<C> loadGlobal(Class<?> cliClass, ParserMetadata<C> parserConfigOverride) {
+        long start = System.nanoTime();
         Annotation annotation = cliClass.getAnnotation(com.github.rvesse.airline.annotations.Cli.class);
         if (annotation == null) {
             throw new IllegalArgumentException(String.format("Class %s does not have the @Cli annotation", cliClass));
@@ -205,28 +274,26 @@ public class MetadataLoader {
 
         com.github.rvesse.airline.annotations.Cli cliConfig = (com.github.rvesse.airline.annotations.Cli) annotation;
 
+        // Prepare parser configuration
+        ParserMetadata<C> parserConfig = loadParser(cliClass, cliConfig, parserConfigOverride);
+
         // Find help sections defined at the CLI level
         Map<String, HelpSection> baseHelpSections = loadHelpSections(cliClass,
-                                                                     Collections.<String, HelpSection>emptyMap());
-
-        // Prepare parser configuration
-        //@formatter:off
-        ParserMetadata<C> parserConfig
-                = parserConfigOverride != null
-                  ? parserConfigOverride
-                  : (cliConfig.parserConfiguration() != null
-                     ? MetadataLoader.loadParser(cliConfig.parserConfiguration())
-                     : MetadataLoader.loadParser(cliClass));
-        //@formatter:on
+                                                                     Collections.<String, HelpSection>emptyMap(),
+                                                                     parserConfig);
 
         // Prepare commands
+        // If parallel loading is enabled this loads all the declared commands up front, they are then handed out as
+        // we assemble the groups so the resulting metadata is the same as if we'd loaded them one at a time
+        Function<Class<?>, CommandMetadata> commandLoader = commandLoader(declaredCommandTypes(cliConfig),
+                                                                           baseHelpSections, parserConfig);
         CommandMetadata defaultCommand = null;
         if (!cliConfig.defaultCommand().equals(com.github.rvesse.airline.annotations.Cli.NO_DEFAULT.class)) {
-            defaultCommand = loadCommand(cliConfig.defaultCommand(), new HashMap<>(baseHelpSections), parserConfig);
+            defaultCommand = commandLoader.apply(cliConfig.defaultCommand());
         }
         List<CommandMetadata> defaultGroupCommands = new ArrayList<>();
         for (Class<?> cls : cliConfig.commands()) {
-            defaultGroupCommands.add(loadCommand(cls, new HashMap<>(baseHelpSections), parserConfig));
+            defaultGroupCommands.add(commandLoader.apply(cls));
         }
 
         // Prepare restrictions
@@ -236,14 +303,13 @@ public class MetadataLoader {
         // 3 - Standard restrictions if the includeDefaultRestrictions field of
         // the @Cli annotation is true
         List<GlobalRestriction> restrictions = new ArrayList<>();
-        for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                .getGlobalRestrictionAnnotationClasses()) {
-            annotation = cliClass.getAnnotation(annotationClass);
-            if (annotation == null) {
-                continue;
-            }
-            GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(annotationClass, annotation);
+        for (Annotation restrictionAnnotation : cliClass.getAnnotations()) {
+            long restrictionStart = System.nanoTime();
+            GlobalRestriction restriction = RestrictionRegistry.getGlobalRestriction(
+                    restrictionAnnotation.annotationType(), restrictionAnnotation);
             if (restriction != null) {
+                notifyListeners(parserConfig, MetadataLoadPhase.RESTRICTION,
+                                restrictionAnnotation.annotationType().getName(), restrictionStart);
                 restrictions.add(restriction);
             }
         }
@@ -261,6 +327,7 @@ public class MetadataLoader {
         Map<String, CommandGroupMetadata> subGroups = new TreeMap<>(
                 new StringHierarchyComparator());
         List<CommandGroupMetadata> groups = new ArrayList<>();
+        GroupIndex groupIndex = new GroupIndex(groups);
         for (Group groupAnno : cliConfig.groups()) {
             String groupName = groupAnno.name();
             String subGroupPath = null;
@@ -270,7 +337,7 @@ public class MetadataLoader {
             }
 
             // Maybe a top level group we've already seen
-            CommandGroupMetadata group = CollectionUtils.find(groups, new GroupFinder(groupName));
+            CommandGroupMetadata group = groupIndex.find(groupName);
             if (group == null) {
                 // Maybe a sub-group we've already seen
                 group = subGroups.get(subGroupPath);
@@ -278,7 +345,7 @@ public class MetadataLoader {
 
             List<CommandMetadata> groupCommands = new ArrayList<CommandMetadata>();
             for (Class<?> cls : groupAnno.commands()) {
-                groupCommands.add(loadCommand(cls, new HashMap<>(baseHelpSections), parserConfig));
+                groupCommands.add(commandLoader.apply(cls));
             }
 
             if (group == null) {
@@ -288,11 +355,11 @@ public class MetadataLoader {
                                          groupAnno.description(),
                                          groupAnno.hidden(),
                                          Collections.<CommandGroupMetadata>emptyList(),
-                                         !groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class) ? loadCommand(groupAnno.defaultCommand(), baseHelpSections, parserConfig) : null,
+                                         !groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class) ? commandLoader.apply(groupAnno.defaultCommand()) : null,
                                          groupCommands);
                 //@formatter:on
                 if (subGroupPath == null) {
-                    groups.add(group);
+                    groupIndex.add(group);
                 } else {
                     // Remember sub-groups for later
                     subGroups.put(subGroupPath, group);
@@ -304,7 +371,8 @@ public class MetadataLoader {
             }
         }
         // Build sub-group hierarchy
-        buildGroupsHierarchy(groups, subGroups);
+        long hierarchyStart = System.nanoTime();
+        buildGroupsHierarchy(groupIndex, subGroups);
 
         // Find all commands
         List<CommandMetadata> allCommands = new ArrayList<CommandMetadata>();
@@ -318,7 +386,7 @@ public class MetadataLoader {
                 allCommands.add(group.getDefaultCommand());
             }
 
-            Queue<CommandGroupMetadata> subGroupsQueue = new LinkedList<>(group.getSubGroups());
+            Queue<CommandGroupMetadata> subGroupsQueue = new ArrayDeque<>(group.getSubGroups());
             while (!subGroupsQueue.isEmpty()) {
                 CommandGroupMetadata subGroup = subGroupsQueue.poll();
                 allCommands.addAll(subGroup.getCommands());
@@ -330,10 +398,83 @@ public class MetadataLoader {
         }
 
         // Post-process to find possible further group assignments
-        loadCommandsIntoGroupsByAnnotation(allCommands, groups, defaultGroupCommands, baseHelpSections, parserConfig);
+        loadCommandsIntoGroupsByAnnotation(allCommands, groupIndex, defaultGroupCommands,
+                                           commandLoader(annotatedGroupCommandTypes(allCommands), baseHelpSections,
+                                                         parserConfig));
+        notifyListeners(parserConfig, MetadataLoadPhase.GROUPS_HIERARCHY, cliConfig.name(), hierarchyStart);
+
+        GlobalMetadata<C> global = loadGlobal(cliConfig.name(), cliConfig.description(), defaultCommand,
+                                              defaultGroupCommands, groups, restrictions, baseHelpSections.values(),
+                                              parserConfig);
+        notifyListeners(parserConfig, MetadataLoadPhase.CLI, cliConfig.name(), start);
+        return global;
+    }
 
-        return loadGlobal(cliConfig.name(), cliConfig.description(), defaultCommand, defaultGroupCommands, groups,
-                          restrictions, baseHelpSections.values(), parserConfig);
+    private static List<Class<?>> declaredCommandTypes(com.github.rvesse.airline.annotations.Cli cliConfig) {
+        List<Class<?>> commandTypes = new ArrayList<>();
+        if (!cliConfig.defaultCommand().equals(com.github.rvesse.airline.annotations.Cli.NO_DEFAULT.class)) {
+            commandTypes.add(cliConfig.defaultCommand());
+        }
+        commandTypes.addAll(Arrays.asList(cliConfig.commands()));
+        for (Group groupAnno : cliConfig.groups()) {
+            commandTypes.addAll(Arrays.asList(groupAnno.commands()));
+            if (!groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class)) {
+                commandTypes.add(groupAnno.defaultCommand());
+            }
+        }
+        return commandTypes;
+    }
+
+    private static List<Class<?>> annotatedGroupCommandTypes(List<CommandMetadata> allCommands) {
+        List<Class<?>> commandTypes = new ArrayList<>();
+        for (CommandMetadata command : allCommands) {
+            for (Group groupAnno : command.getGroups()) {
+                if (!groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class)) {
+                    commandTypes.add(groupAnno.defaultCommand());
+                }
+                commandTypes.addAll(Arrays.asList(groupAnno.commands()));
+            }
+        }
+        return commandTypes;
+    }
+
+    /**
+     * Creates a function that loads command metadata
+     * <p>
+     * If the parser configuration requests parallel loading then the given command types are loaded concurrently up
+     * front and the first request for each type is answered with the preloaded metadata, any further requests for the
+     * same type load fresh metadata just as sequential loading would.  Commands that fail to load in parallel are
+     * reloaded sequentially on request so that any error surfaces exactly as it would have done otherwise.
+     * </p>
+     *
+     * @param commandTypes     Command types that will be requested
+     * @param baseHelpSections Base set of help sections
+     * @param parserConfig     Parser configuration
+     * @return Command loader
+     */
+    private static Function<Class<?>, CommandMetadata> commandLoader(List<Class<?>> commandTypes,
+                                                                      Map<String, HelpSection> baseHelpSections,
+                                                                      ParserMetadata<?> parserConfig) {
+        Function<Class<?>, CommandMetadata> loader = cls -> loadCommand(cls, new HashMap<>(baseHelpSections),
+                                                                        parserConfig);
+        // Lazily loaded commands are only stubs at this point so there is nothing worth parallelising
+        if (parserConfig == null || !parserConfig.loadsCommandsInParallel() || parserConfig.loadsCommandsLazily()
+                || commandTypes.size() < 2) {
+            return loader;
+        }
+
+        Map<Class<?>, CommandMetadata> preloaded = new ConcurrentHashMap<>();
+        commandTypes.parallelStream().filter(Objects::nonNull).distinct().forEach(cls -> {
+            try {
+                preloaded.put(cls, loader.apply(cls));
+            } catch (RuntimeException | LinkageError e) {
+                // Ignore, will be reloaded on request and fail there
+            }
+        });
+        return cls -> {
+            CommandMetadata command = preloaded.remove(cls);
+            return command != null ? command : loader.apply(cls);
+        };
     }
 
     /**
@@ -355,6 +496,25 @@ public class MetadataLoader {
                                                    Iterable<GlobalRestriction> restrictions,
                                                    Iterable<HelpSection> baseHelpSections,
                                                    ParserMetadata<C> parserConfig) {
+        if (parserConfig != null && parserConfig.loadsCommandsLazily()) {
+            // Merging the global options requires every command to be fully
+            // loaded so defer it until they are actually needed
+            List<CommandMetadata> commands = AirlineUtils.listCopy(defaultGroupCommands);
+            List<CommandGroupMetadata> commandGroups = AirlineUtils.listCopy(groups);
+            return new GlobalMetadata<C>(name, description,
+                                         () -> loadGlobalOptions(defaultCommand, commands, commandGroups),
+                                         defaultCommand, commands, commandGroups, restrictions, baseHelpSections,
+                                         parserConfig);
+        }
+        return new GlobalMetadata<C>(name, description,
+                                     loadGlobalOptions(defaultCommand, defaultGroupCommands, groups),
+                                     defaultCommand, defaultGroupCommands, groups, restrictions, baseHelpSections,
+                                     parserConfig);
+    }
+
+    private static List<OptionMetadata> loadGlobalOptions(CommandMetadata defaultCommand,
+                                                          Iterable<CommandMetadata> defaultGroupCommands,
+                                                          Iterable<CommandGroupMetadata> groups) {
         List<OptionMetadata> globalOptions = new ArrayList<>();
         if (defaultCommand != null) {
             globalOptions.addAll(defaultCommand.getGlobalOptions());
@@ -368,7 +528,7 @@ public class MetadataLoader {
             }
 
             // Remember to also search sub-groups for global options
-            Queue<CommandGroupMetadata> subGroups = new LinkedList<>(group.getSubGroups());
+            Queue<CommandGroupMetadata> subGroups = new ArrayDeque<>(group.getSubGroups());
             while (!subGroups.isEmpty()) {
                 CommandGroupMetadata subGroup = subGroups.poll();
                 for (CommandMetadata command : subGroup.getCommands()) {
@@ -377,9 +537,7 @@ public class MetadataLoader {
                 subGroups.addAll(subGroup.getSubGroups());
             }
         }
-        globalOptions = List.copyOf(mergeOptionSet(globalOptions));
-        return new GlobalMetadata<C>(name, description, globalOptions, defaultCommand, defaultGroupCommands, groups,
-                                     restrictions, baseHelpSections, parserConfig);
+        return List.copyOf(mergeOptionSet(globalOptions));
     }
 
     /**
@@ -402,6 +560,21 @@ public class MetadataLoader {
             name = names[names.length - 1];
         }
 
+        List<CommandMetadata> groupCommands = AirlineUtils.listCopy(commands);
+        if ((defaultCommand != null && !defaultCommand.isLoaded())
+                || groupCommands.stream().anyMatch(c -> !c.isLoaded())) {
+            // Merging the group options requires the commands to be fully
+            // loaded so defer it until they are actually needed
+            return new CommandGroupMetadata(name, description, hidden,
+                                            () -> loadGroupOptions(defaultCommand, groupCommands), subGroups,
+                                            defaultCommand, groupCommands);
+        }
+        return new CommandGroupMetadata(name, description, hidden, loadGroupOptions(defaultCommand, groupCommands),
+                                        subGroups, defaultCommand, groupCommands);
+    }
+
+    private static List<OptionMetadata> loadGroupOptions(CommandMetadata defaultCommand,
+                                                         Iterable<CommandMetadata> commands) {
         List<OptionMetadata> groupOptions = new ArrayList<>();
         if (defaultCommand != null) {
             groupOptions.addAll(defaultCommand.getGroupOptions());
@@ -409,8 +582,7 @@ public class MetadataLoader {
         for (CommandMetadata command : commands) {
             groupOptions.addAll(command.getGroupOptions());
         }
-        groupOptions = List.copyOf(mergeOptionSet(groupOptions));
-        return new CommandGroupMetadata(name, description, hidden, groupOptions, subGroups, defaultCommand, commands);
+        return List.copyOf(mergeOptionSet(groupOptions));
     }
 
     /**
@@ -422,10 +594,15 @@ public class MetadataLoader {
     public static <T> List<CommandMetadata> loadCommands(Iterable<Class<? extends T>> defaultCommands,
                                                          Map<String, HelpSection> baseHelpSections,
                                                          ParserMetadata<?> parserConfig) {
+        List<Class<?>> commandTypes = new ArrayList<>();
+        for (Class<? extends T> cls : defaultCommands) {
+            commandTypes.add(cls);
+        }
+        Function<Class<?>, CommandMetadata> commandLoader = commandLoader(commandTypes, baseHelpSections,
+                                                                           parserConfig);
         List<CommandMetadata> commandMetadata = new ArrayList<>();
-        Iterator<Class<? extends T>> iter = defaultCommands.iterator();
-        while (iter.hasNext()) {
-            commandMetadata.add(loadCommand(iter.next(), baseHelpSections, parserConfig));
+        for (Class<?> cls : commandTypes) {
+            commandMetadata.add(commandLoader.apply(cls));
         }
         return commandMetadata;
     }
@@ -471,14 +648,31 @@ public class MetadataLoader {
                     String.format("Command %s is not annotated with @Command", commandType.getName()));
         }
 
-        // Find help sections
-        Map<String, HelpSection> helpSections = loadHelpSections(commandType, baseHelpSections);
-
         String name = command.name();
         String description = command.description().isEmpty() ? null : command.description();
         List<String> groupNames = Arrays.asList(command.groupNames());
         boolean hidden = command.hidden();
 
+        if (parserConfig != null && parserConfig.loadsCommandsLazily()) {
+            // Defer finding help sections and injection metadata until needed
+            Map<String, HelpSection> lazyBaseHelpSections = new HashMap<>(baseHelpSections);
+            return new CommandMetadata(name, description, hidden, commandType, groupNames, groups,
+                                       () -> loadCommand(commandType, name, description, hidden, groupNames, groups,
+                                                         lazyBaseHelpSections, parserConfig));
+        }
+        return loadCommand(commandType, name, description, hidden, groupNames, groups, baseHelpSections,
+                           parserConfig);
+    }
+
+    private static CommandMetadata loadCommand(Class<?> commandType, String name, String description, boolean hidden,
+                                               List<String> groupNames, List<Group> groups,
+                                               Map<String, HelpSection> baseHelpSections,
+                                               ParserMetadata<?> parserConfig) {
+        long start = System.nanoTime();
+
+        // Find help sections
+        Map<String, HelpSection> helpSections = loadHelpSections(commandType, baseHelpSections, parserConfig);
+
         InjectionMetadata injectionMetadata = loadInjectionMetadata(commandType, parserConfig);
 
         //@formatter:off
@@ -497,24 +691,32 @@ public class MetadataLoader {
                                                               AirlineUtils.listCopy(helpSections.values()));
         //@formatter:on
 
+        notifyListeners(parserConfig, MetadataLoadPhase.COMMAND, commandType.getName(), start);
         return commandMetadata;
     }
 
     protected static Map<String, HelpSection> loadHelpSections(Class<?> sourceClass,
                                                                Map<String, HelpSection> baseHelpSections) {
+        return loadHelpSections(sourceClass, baseHelpSections, null);
+    }
+
+    private static Map<String, HelpSection> loadHelpSections(Class<?> sourceClass,
+                                                             Map<String, HelpSection> baseHelpSections,
+                                                             ParserMetadata<?> parserConfig) {
         Map<String, HelpSection> helpSections = new HashMap<>();
 
-        // Search for help section annotations in the class hierarchy
+        // Search for help section annotations in the class hierarchy, we only
+        // look up the annotations actually present so this costs the same
+        // regardless of how many help section factories are registered
         for (Class<?> cls = sourceClass; !Object.class.equals(cls); cls = cls.getSuperclass()) {
-            for (Class<? extends Annotation> helpAnnotationClass : HelpSectionRegistry.getAnnotationClasses()) {
-                Annotation annotation = cls.getAnnotation(helpAnnotationClass);
-                if (annotation == null) {
-                    continue;
-                }
-                HelpSection section = HelpSectionRegistry.getHelpSection(helpAnnotationClass, annotation);
+            for (Annotation annotation : cls.getDeclaredAnnotations()) {
+                long start = System.nanoTime();
+                HelpSection section = HelpSectionRegistry.getHelpSection(annotation.annotationType(), annotation);
                 if (section == null) {
                     continue;
                 }
+                notifyListeners(parserConfig, MetadataLoadPhase.HELP_SECTION, annotation.annotationType().getName(),
+                                start);
 
                 // Because we're going up the class hierarchy the titled section
                 // lowest down the hierarchy should win so if we've already seen
@@ -585,14 +787,16 @@ public class MetadataLoader {
      * @return Injection meta-data
      */
     public static InjectionMetadata loadInjectionMetadata(Class<?> type, ParserMetadata<?> parserConfig) {
-        InjectionMetadata injectionMetadata = new InjectionMetadata();
-        loadInjectionMetadata(type, injectionMetadata, Collections.<Field>emptyList(), parserConfig);
+        InjectionMetadata injectionMetadata =
+                type.isInterface() ? new InjectionMetadata()
+                                   : getInjectionMetadata(type, parserConfig).instantiate(parserConfig);
         injectionMetadata.compact();
         return injectionMetadata;
     }
 
     /**
-     * Loads injection meta-data
+     * Loads injection meta-data, the loaded options and arguments have no restrictions and are only used to compose
+     * the cached meta-data of a class
      *
      * @param type              Class
      * @param injectionMetadata Injection meta-data
@@ -603,6 +807,49 @@ public class MetadataLoader {
         if (type.isInterface()) {
             return;
         }
+        getInjectionMetadata(type, parserConfig).addTo(injectionMetadata, type, fields);
+    }
+
+    /**
+     * Gets the injection meta-data for a class, relative to that class, from the cache scanning the class only if
+     * necessary
+     * <p>
+     * Since the same classes, particularly modules, are often composed into many commands, and commands may be used in
+     * many CLIs, caching means each class is scanned only once per distinct set of composition annotations.  The
+     * cached meta-data has no restrictions, see {@link InjectionMetadata#instantiate(ParserMetadata)}.
+     * </p>
+     * <p>
+     * The {@link MetadataLoadPhase#INJECTION_SCAN} phase is reported for the class, and every class composed into it,
+     * whether or not it was cached so that listeners see the same phases regardless of what has previously been
+     * loaded.
+     * </p>
+     *
+     * @param type         Class
+     * @param parserConfig Parser configuration
+     * @return Injection meta-data
+     */
+    private static InjectionMetadata getInjectionMetadata(Class<?> type, ParserMetadata<?> parserConfig) {
+        long start = System.nanoTime();
+        Map<Set<String>, InjectionMetadata> cache = INJECTION_METADATA_CACHE.get(type);
+        Set<String> key = Set.copyOf(parserConfig.getCompositionAnnotations());
+        InjectionMetadata injectionMetadata = cache.get(key);
+        if (injectionMetadata == null) {
+            // NB - Not using computeIfAbsent() as scanning may recursively need the cached meta-data for other classes
+            injectionMetadata = new InjectionMetadata();
+            scanInjectionMetadata(type, injectionMetadata, parserConfig);
+            cache.put(key, injectionMetadata);
+        } else {
+            for (String composedType : injectionMetadata.composedTypes) {
+                notifyListeners(parserConfig, MetadataLoadPhase.INJECTION_SCAN, composedType, System.nanoTime());
+            }
+        }
+        notifyListeners(parserConfig, MetadataLoadPhase.INJECTION_SCAN, type.getName(), start);
+        return injectionMetadata;
+    }
+
+    private static void scanInjectionMetadata(Class<?> type, InjectionMetadata injectionMetadata,
+                                              ParserMetadata<?> parserConfig) {
+        List<Field> fields = Collections.emptyList();
         for (Class<?> cls = type; !Object.class.equals(cls); cls = cls.getSuperclass()) {
             for (Field field : cls.getDeclaredFields()) {
                 field.setAccessible(true);
@@ -659,31 +906,8 @@ public class MetadataLoader {
                     boolean override = optionAnnotation.override();
                     boolean sealed = optionAnnotation.sealed();
 
-                    // Find and create restrictions
-                    Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
-                    List<OptionRestriction> restrictions = new ArrayList<OptionRestriction>();
-                    for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                            .getOptionRestrictionAnnotationClasses()) {
-                        Annotation annotation = field.getAnnotation(annotationClass);
-                        if (annotation == null) {
-                            continue;
-                        }
-                        OptionRestriction restriction = RestrictionRegistry.getOptionRestriction(annotationClass,
-                                                                                                 annotation);
-                        if (restriction != null) {
-                            // Adjust for partial if necessary
-                            if (partials.containsKey(annotationClass)) {
-                                restriction = new PartialRestriction(partials.get(annotationClass), restriction);
-                            }
-
-                            restrictions.add(restriction);
-                        }
-                    }
-
-                    // Type Converter provider
-                    TypeConverterProvider provider = ParserUtil
-                            .createInstance(optionAnnotation.typeConverterProvider());
-
+                    // Restrictions and type converter provider are created when
+                    // the cached meta-data is instantiated
                     //@formatter:off
                     OptionMetadata optionMetadata = new OptionMetadata(optionType, 
                                                                        options,
@@ -693,8 +917,8 @@ public class MetadataLoader {
                                                                        hidden, 
                                                                        override, 
                                                                        sealed,
-                                                                       restrictions,
-                                                                       provider,
+                                                                       null,
+                                                                       null,
                                                                        path);
                     //@formatter:on
                     switch (optionType) {
@@ -767,34 +991,12 @@ public class MetadataLoader {
                     }
 
                     String description = argumentsAnnotation.description();
-                    TypeConverterProvider provider = ParserUtil
-                            .createInstance(argumentsAnnotation.typeConverterProvider());
-
-                    Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
-                    List<ArgumentsRestriction> restrictions = new ArrayList<>();
-                    for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                            .getArgumentsRestrictionAnnotationClasses()) {
-                        Annotation annotation = field.getAnnotation(annotationClass);
-                        if (annotation == null) {
-                            continue;
-                        }
-                        ArgumentsRestriction restriction = RestrictionRegistry.getArgumentsRestriction(annotationClass,
-                                                                                                       annotation);
-                        if (restriction != null) {
-                            // Adjust for partial if necessary
-                            if (partials.containsKey(annotationClass)) {
-                                restriction = new PartialRestriction(partials.get(annotationClass), restriction);
-                            }
-
-                            restrictions.add(restriction);
-                        }
-                    }
 
                     //@formatter:off
                     injectionMetadata.arguments.add(new ArgumentsMetadata(titles, 
                                                                           description,
-                                                                          restrictions,
-                                                                          provider,
+                                                                          null,
+                                                                          null,
                                                                           path));
                     //@formatter:on
                 }
@@ -804,44 +1006,96 @@ public class MetadataLoader {
 
     private static void checkForInjectionAnnotation(InjectionMetadata injectionMetadata, Field field, List<Field> path,
                                                     String annotationClass, ParserMetadata<?> parserConfig) {
-        try {
-            // Use a cache to avoid trying to dynamically create the annotation class multiple times, this also allows
-            // us to short-circuit our logic if we already know a given annotation class is not present on the classpath
-            Class<? extends Annotation> annotationType = dynamicAnnotationCache.get(annotationClass);
-            if (annotationType == null) {
-                // Short-circuit if we know this annotation class isn't on the classpath
-                if (dynamicAnnotationCache.containsKey(annotationClass)) {
-                    return;
-                }
+        // Use a cache to avoid trying to dynamically create the annotation class multiple times, this also allows us
+        // to short-circuit our logic if we already know a given annotation class is not present on the classpath
+        Optional<Class<? extends Annotation>> annotationType =
+                DYNAMIC_ANNOTATION_CACHE.computeIfAbsent(annotationClass, MetadataLoader::findAnnotationClass);
+        if (!annotationType.isPresent()) {
+            return;
+        }
 
-                // Otherwise, try and create an instance of it, caching for future reuse
-                dynamicAnnotationCache.put(annotationClass,
-                                           (Class<? extends Annotation>) Class.forName(annotationClass));
-                annotationType = dynamicAnnotationCache.get(annotationClass);
-            }
-            if (annotationType == null) {
-                return;
+        Annotation annotation = field.getAnnotation(annotationType.get());
+        if (annotation != null) {
+            if (field.getType().equals(GlobalMetadata.class)
+                    || field.getType().equals(CommandGroupMetadata.class)
+                    || field.getType().equals(CommandMetadata.class)) {
+                injectionMetadata.metadataInjections.add(new Accessor(path));
+            } else {
+                loadInjectionMetadata(field.getType(), injectionMetadata, path, parserConfig);
             }
+        }
+    }
 
-            @SuppressWarnings("unchecked")
-            Annotation annotation = field.getAnnotation(annotationType);
-            if (annotation != null) {
-                if (field.getType().equals(GlobalMetadata.class)
-                        || field.getType().equals(CommandGroupMetadata.class)
-                        || field.getType().equals(CommandMetadata.class)) {
-                    injectionMetadata.metadataInjections.add(new Accessor(path));
-                } else {
-                    loadInjectionMetadata(field.getType(), injectionMetadata, path, parserConfig);
-                }
-            }
+    private static Optional<Class<? extends Annotation>> findAnnotationClass(String annotationClass) {
+        try {
+            return Optional.of(Class.forName(annotationClass).asSubclass(Annotation.class));
         } catch (ClassNotFoundException e) {
             // this is ok, means the particular variant of the injection annotation is not on the class path
-            dynamicAnnotationCache.put(annotationClass, null);
+            return Optional.empty();
         } catch (ClassCastException e) {
             // ignore this too, we're doing some funky cross your fingers type reflect stuff to play nicely with other
             // dependency injection frameworks
-            dynamicAnnotationCache.put(annotationClass, null);
+            return Optional.empty();
+        } catch (LinkageError e) {
+            // the class is present but can't be loaded, treat it as absent
+            return Optional.empty();
+        }
+    }
+
+    private static OptionMetadata instantiate(OptionMetadata option, ParserMetadata<?> parserConfig) {
+        Field field = InjectionMetadata.lastField(option.getAccessors());
+
+        // Find and create restrictions, we only look up the annotations actually present on the field rather than
+        // probing for every registered restriction annotation
+        Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
+        List<OptionRestriction> restrictions = new ArrayList<OptionRestriction>();
+        for (Annotation annotation : field.getDeclaredAnnotations()) {
+            Class<? extends Annotation> annotationClass = annotation.annotationType();
+            long start = System.nanoTime();
+            OptionRestriction restriction = RestrictionRegistry.getOptionRestriction(annotationClass, annotation);
+            if (restriction != null) {
+                notifyListeners(parserConfig, MetadataLoadPhase.RESTRICTION, annotationClass.getName(), start);
+                // Adjust for partial if necessary
+                if (partials.containsKey(annotationClass)) {
+                    restriction = new PartialRestriction(partials.get(annotationClass), restriction);
+                }
+
+                restrictions.add(restriction);
+            }
+        }
+
+        // Type Converter provider
+        TypeConverterProvider provider = ParserUtil
+                .createInstance(field.getAnnotation(Option.class).typeConverterProvider());
+
+        return option.withRestrictions(restrictions, provider);
+    }
+
+    private static ArgumentsMetadata instantiate(ArgumentsMetadata arguments, ParserMetadata<?> parserConfig) {
+        Field field = InjectionMetadata.lastField(arguments.getAccessors());
+
+        Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
+        List<ArgumentsRestriction> restrictions = new ArrayList<>();
+        for (Annotation annotation : field.getDeclaredAnnotations()) {
+            Class<? extends Annotation> annotationClass = annotation.annotationType();
+            long start = System.nanoTime();
+            ArgumentsRestriction restriction = RestrictionRegistry.getArgumentsRestriction(annotationClass,
+                                                                                           annotation);
+            if (restriction != null) {
+                notifyListeners(parserConfig, MetadataLoadPhase.RESTRICTION, annotationClass.getName(), start);
+                // Adjust for partial if necessary
+                if (partials.containsKey(annotationClass)) {
+                    restriction = new PartialRestriction(partials.get(annotationClass), restriction);
+                }
+
+                restrictions.add(restriction);
+            }
         }
+
+        TypeConverterProvider provider = ParserUtil
+                .createInstance(field.getAnnotation(Arguments.class).typeConverterProvider());
+
+        return arguments.withRestrictions(restrictions, provider);
     }
 
     private static Map<Class<? extends Annotation>, Set<Integer>> loadPartials(Field field) {
@@ -970,11 +1224,21 @@ public class MetadataLoader {
                                                           List<CommandMetadata> defaultCommandGroup,
                                                           Map<String, HelpSection> baseHelpSections,
                                                           ParserMetadata<?> parserConfig) {
+        long start = System.nanoTime();
+        loadCommandsIntoGroupsByAnnotation(allCommands, new GroupIndex(commandGroups), defaultCommandGroup,
+                                           commandLoader(annotatedGroupCommandTypes(allCommands), baseHelpSections,
+                                                         parserConfig));
+        notifyListeners(parserConfig, MetadataLoadPhase.GROUPS_HIERARCHY, null, start);
+    }
+
+    private static void loadCommandsIntoGroupsByAnnotation(List<CommandMetadata> allCommands,
+                                                           GroupIndex commandGroups,
+                                                           List<CommandMetadata> defaultCommandGroup,
+                                                           Function<Class<?>, CommandMetadata> commandLoader) {
         List<CommandMetadata> newCommands = new ArrayList<CommandMetadata>();
 
         // first, create any groups explicitly annotated
-        createGroupsFromAnnotations(allCommands, newCommands, commandGroups, defaultCommandGroup, baseHelpSections,
-                                    parserConfig);
+        createGroupsFromAnnotations(allCommands, newCommands, commandGroups, defaultCommandGroup, commandLoader);
 
         for (CommandMetadata command : allCommands) {
             boolean addedToGroup = false;
@@ -982,7 +1246,7 @@ public class MetadataLoader {
             // now add the command to any groupNames specified in the Command
             // annotation
             for (String groupName : command.getGroupNames()) {
-                CommandGroupMetadata group = CollectionUtils.find(commandGroups, new GroupFinder(groupName));
+                CommandGroupMetadata group = commandGroups.find(groupName);
                 if (group != null) {
                     // Add to existing top level group
                     group.addCommand(command);
@@ -995,19 +1259,10 @@ public class MetadataLoader {
                         for (int i = 0; i < groups.length; i++) {
                             if (i == 0) {
                                 // Find/create the necessary top level group
-                                subGroup = CollectionUtils.find(commandGroups, new GroupFinder(groups[i]));
-                                if (subGroup == null) {
-                                    subGroup = new CommandGroupMetadata(groups[i], "", false,
-                                                                        Collections.<OptionMetadata>emptyList(),
-                                                                        Collections.<CommandGroupMetadata>emptyList(),
-                                                                        null,
-                                                                        Collections.<CommandMetadata>emptyList());
-                                    commandGroups.add(subGroup);
-                                }
+                                subGroup = commandGroups.findOrCreate(groups[i]);
                             } else {
                                 // Find/create the next sub-group
-                                CommandGroupMetadata nextSubGroup = CollectionUtils.find(subGroup.getSubGroups(),
-                                                                                         new GroupFinder(groups[i]));
+                                CommandGroupMetadata nextSubGroup = subGroup.findSubGroup(groups[i]);
                                 if (nextSubGroup == null) {
                                     nextSubGroup = new CommandGroupMetadata(groups[i], "", false,
                                                                             Collections.<OptionMetadata>emptyList(),
@@ -1047,10 +1302,9 @@ public class MetadataLoader {
     @SuppressWarnings("rawtypes")
     private static void createGroupsFromAnnotations(List<CommandMetadata> allCommands,
                                                     List<CommandMetadata> newCommands,
-                                                    List<CommandGroupMetadata> commandGroups,
+                                                    GroupIndex commandGroups,
                                                     List<CommandMetadata> defaultCommandGroup,
-                                                    Map<String, HelpSection> baseHelpSections,
-                                                    ParserMetadata<?> parserConfig) {
+                                                    Function<Class<?>, CommandMetadata> commandLoader) {
 
         // We sort sub-groups by name length then lexically
         // This means that when we build the groups hierarchy we'll ensure we
@@ -1070,7 +1324,7 @@ public class MetadataLoader {
                     defaultCommandClass = groupAnno.defaultCommand();
                     defaultCommand = CollectionUtils.find(allCommands, new CommandTypeFinder(defaultCommandClass));
                     if (null == defaultCommand) {
-                        defaultCommand = loadCommand(defaultCommandClass, baseHelpSections, parserConfig);
+                        defaultCommand = commandLoader.apply(defaultCommandClass);
                         newCommands.add(defaultCommand);
                     }
                 }
@@ -1081,7 +1335,7 @@ public class MetadataLoader {
                 for (Class commandClass : groupAnno.commands()) {
                     groupCommand = CollectionUtils.find(allCommands, new CommandTypeFinder(commandClass));
                     if (null == groupCommand) {
-                        groupCommand = loadCommand(commandClass, baseHelpSections, parserConfig);
+                        groupCommand = commandLoader.apply(commandClass);
                         newCommands.add(groupCommand);
                         groupCommands.add(groupCommand);
                     }
@@ -1089,8 +1343,7 @@ public class MetadataLoader {
 
                 // Find the group metadata
                 // May already exist as a top level group
-                CommandGroupMetadata groupMetadata = CollectionUtils.find(commandGroups,
-                                                                          new GroupFinder(groupAnno.name()));
+                CommandGroupMetadata groupMetadata = commandGroups.find(groupAnno.name());
                 if (groupMetadata == null) {
                     // Not a top level group
 
@@ -1132,6 +1385,10 @@ public class MetadataLoader {
 
     protected static void buildGroupsHierarchy(List<CommandGroupMetadata> commandGroups,
                                                Map<String, CommandGroupMetadata> subGroups) {
+        buildGroupsHierarchy(new GroupIndex(commandGroups), subGroups);
+    }
+
+    private static void buildGroupsHierarchy(GroupIndex commandGroups, Map<String, CommandGroupMetadata> subGroups) {
         // Add sub-groups into hierarchy as appropriate
         for (String subGroupPath : subGroups.keySet()) {
             CommandGroupMetadata subGroup = subGroups.get(subGroupPath);
@@ -1139,21 +1396,12 @@ public class MetadataLoader {
             CommandGroupMetadata parentGroup = null;
             for (int i = 0; i < groups.length - 1; i++) {
                 if (i == 0) {
-                    // Should be a top level group
-                    parentGroup = CollectionUtils.find(commandGroups, new GroupFinder(groups[i]));
-                    if (parentGroup == null) {
-                        // Top level parent group does not exist so create empty
-                        // top level group
-                        parentGroup = new CommandGroupMetadata(groups[i], "", false,
-                                                               Collections.<OptionMetadata>emptyList(),
-                                                               Collections.<CommandGroupMetadata>emptyList(), null,
-                                                               Collections.<CommandMetadata>emptyList());
-                        commandGroups.add(parentGroup);
-                    }
+                    // Should be a top level group, if it does not exist create an
+                    // empty top level group
+                    parentGroup = commandGroups.findOrCreate(groups[i]);
                 } else {
                     // Should be a sub-group of the current parent
-                    CommandGroupMetadata nextParent = CollectionUtils.find(parentGroup.getSubGroups(),
-                                                                           new GroupFinder(groups[i]));
+                    CommandGroupMetadata nextParent = parentGroup.findSubGroup(groups[i]);
                     if (nextParent == null) {
                         // Next parent group does not exist so create empty
                         // group
@@ -1175,6 +1423,42 @@ public class MetadataLoader {
         }
     }
 
+    /**
+     * The top level groups being assembled, indexed by name so finding a group does not require scanning all of them
+     */
+    private static final class GroupIndex {
+        private final List<CommandGroupMetadata> groups;
+        private final Map<String, CommandGroupMetadata> groupsByName = new HashMap<>();
+
+        private GroupIndex(List<CommandGroupMetadata> groups) {
+            this.groups = groups;
+            for (CommandGroupMetadata group : groups) {
+                // First group with a given name wins as with a linear search
+                this.groupsByName.putIfAbsent(group.getName(), group);
+            }
+        }
+
+        private CommandGroupMetadata find(String name) {
+            return this.groupsByName.get(name);
+        }
+
+        private void add(CommandGroupMetadata group) {
+            this.groups.add(group);
+            this.groupsByName.putIfAbsent(group.getName(), group);
+        }
+
+        private CommandGroupMetadata findOrCreate(String name) {
+            CommandGroupMetadata group = find(name);
+            if (group == null) {
+                group = new CommandGroupMetadata(name, "", false, Collections.<OptionMetadata>emptyList(),
+                                                 Collections.<CommandGroupMetadata>emptyList(), null,
+                                                 Collections.<CommandMetadata>emptyList());
+                add(group);
+            }
+            return group;
+        }
+    }
+
     private static class InjectionMetadata {
         private List<OptionMetadata> globalOptions = new ArrayList<>();
         private List<OptionMetadata> groupOptions = new ArrayList<>();
@@ -1182,6 +1466,98 @@ public class MetadataLoader {
         private OptionMetadata defaultOption = null;
         private List<ArgumentsMetadata> arguments = new ArrayList<>();
         private List<Accessor> metadataInjections = new ArrayList<>();
+        /**
+         * Names of the classes composed into this meta-data, in the order their scans completed
+         */
+        private List<String> composedTypes = new ArrayList<>();
+
+        /**
+         * Adds this meta-data, which is relative to the given type, to other meta-data prefixing the given path to all
+         * the accessors
+         *
+         * @param target Meta-data to add to
+         * @param type   Type
+         * @param prefix Path prefix
+         */
+        private void addTo(InjectionMetadata target, Class<?> type, List<Field> prefix) {
+            // Check for conflicts with the meta-data we're adding to
+            if (defaultOption != null) {
+                if (!target.arguments.isEmpty()) {
+                    throw new IllegalArgumentException(String.format(
+                            "Field %s cannot be annotated with @DefaultOption because there are fields with @Arguments annotations present",
+                            lastField(defaultOption.getAccessors())));
+                }
+                if (target.defaultOption != null) {
+                    throw new IllegalArgumentException(String.format(
+                            "Command type %s has more than one field with @DefaultOption declared upon it", type));
+                }
+            }
+            if (!arguments.isEmpty() && target.defaultOption != null) {
+                throw new IllegalArgumentException(String.format(
+                        "Field %s cannot be annotated with @Arguments because there is a field with @DefaultOption present",
+                        lastField(arguments.get(0).getAccessors())));
+            }
+
+            for (OptionMetadata option : globalOptions) {
+                target.globalOptions.add(option.withPathPrefix(prefix));
+            }
+            for (OptionMetadata option : groupOptions) {
+                target.groupOptions.add(option.withPathPrefix(prefix));
+            }
+            for (OptionMetadata option : commandOptions) {
+                OptionMetadata rebased = option.withPathPrefix(prefix);
+                if (option == defaultOption) {
+                    target.defaultOption = rebased;
+                }
+                target.commandOptions.add(rebased);
+            }
+            for (ArgumentsMetadata args : arguments) {
+                target.arguments.add(args.withPathPrefix(prefix));
+            }
+            for (Accessor accessor : metadataInjections) {
+                target.metadataInjections.add(accessor.withPathPrefix(prefix));
+            }
+            target.composedTypes.addAll(composedTypes);
+            target.composedTypes.add(type.getName());
+        }
+
+        /**
+         * Creates a copy of this meta-data with new restrictions and type converter providers for all the options and
+         * arguments
+         * <p>
+         * These are created for each load rather than being cached since restriction factories may create stateful
+         * restrictions, which must not be shared between CLIs.
+         * </p>
+         *
+         * @param parserConfig Parser configuration
+         * @return Instantiated meta-data
+         */
+        private InjectionMetadata instantiate(ParserMetadata<?> parserConfig) {
+            InjectionMetadata target = new InjectionMetadata();
+            for (OptionMetadata option : globalOptions) {
+                target.globalOptions.add(MetadataLoader.instantiate(option, parserConfig));
+            }
+            for (OptionMetadata option : groupOptions) {
+                target.groupOptions.add(MetadataLoader.instantiate(option, parserConfig));
+            }
+            for (OptionMetadata option : commandOptions) {
+                OptionMetadata instantiated = MetadataLoader.instantiate(option, parserConfig);
+                if (option == defaultOption) {
+                    target.defaultOption = instantiated;
+                }
+                target.commandOptions.add(instantiated);
+            }
+            for (ArgumentsMetadata args : arguments) {
+                target.arguments.add(MetadataLoader.instantiate(args, parserConfig));
+            }
+            target.metadataInjections.addAll(metadataInjections);
+            return target;
+        }
+
+        private static Field lastField(Set<Accessor> accessors) {
+            List<Field> path = accessors.iterator().next().getPath();
+            return path.get(path.size() - 1);
+        }
 
         private void compact() {
             globalOptions = overrideOptionSet(globalOptions);
@@ -0,0 +1,998 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.restrictions.GlobalRestriction;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.types.TypeConverterProvider;
+
+/**
+ * Reads and writes snapshots of {@link GlobalMetadata} so that a CLI can be
+ * created without loading its meta-data from annotations every time
+ * <p>
+ * A snapshot is a compact binary representation of the commands, groups,
+ * options, arguments, restrictions and help sections of a CLI. It does not
+ * include the parser configuration, which covers things like user defined
+ * aliases that may legitimately change between runs, so this is always
+ * supplied when a snapshot is read. Restrictions, help sections and type
+ * converter providers are stored using Java serialization so must be
+ * {@link java.io.Serializable}, all the built-in implementations are. Writing a
+ * snapshot for a CLI that uses components which are not serializable fails.
+ * </p>
+ * <p>
+ * Each snapshot records the classes it was built from along with a hash of
+ * their class files, plus the size and modification time of each class file,
+ * and its CRC when it comes from a JAR. When a snapshot is read these stamps
+ * are checked first, which does not require reading the class files. Only if a
+ * stamp has changed, or cannot be determined, is the hash recomputed, if that
+ * differs, or any of the classes can no longer be found, the snapshot is
+ * considered stale and is not used. The
+ * {@link #loadGlobal(Class, ParserMetadata, Path)} method uses this to
+ * transparently rebuild snapshot files as necessary, and rewrites snapshot
+ * files whose stamps have changed but whose hash has not so that subsequent
+ * reads need not hash the class files again.
+ * </p>
+ * <p>
+ * Snapshots are read with an {@link ObjectInputFilter} that only permits the
+ * types a snapshot may legitimately contain. These are Airline's own classes,
+ * restrictions, help sections and type converter providers from elsewhere,
+ * enums, strings, boxed primitives, {@link java.util.Locale},
+ * {@link java.util.regex.Pattern} and the {@code java.util} collections. The
+ * depth of the object graph and the length of arrays are also limited. A
+ * snapshot containing anything else cannot be read. Even so snapshots should
+ * only ever be read from trusted locations.
+ * </p>
+ */
+public final class MetadataSnapshot {
+
+    private static final int MAGIC = 0x41495253;
+    private static final int FORMAT_VERSION = 2;
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final long MAX_DEPTH = 20;
+    private static final long MAX_ARRAY_LENGTH = 65536;
+
+    private MetadataSnapshot() {
+    }
+
+    /**
+     * Loads the meta-data for a CLI using a snapshot file
+     * <p>
+     * If the snapshot file exists and is not stale the meta-data is read from
+     * it, otherwise the meta-data is loaded via
+     * {@link MetadataLoader#loadGlobal(Class, ParserMetadata)} and a new
+     * snapshot file written. A snapshot file that is not stale but whose
+     * recorded class file stamps have changed is also rewritten. Failure to
+     * write the snapshot, e.g. because the location is not writable or the CLI
+     * uses non-serializable components, is not considered an error.
+     * </p>
+     * 
+     * @param cliClass
+     *            Class that has the
+     *            {@link com.github.rvesse.airline.annotations.Cli} annotation
+     * @param parserConfigOverride
+     *            Optional parser configuration, overrides any specified by the
+     *            annotation
+     * @param snapshot
+     *            Snapshot file
+     * @return Global meta-data
+     */
+    public static <C> GlobalMetadata<C> loadGlobal(Class<?> cliClass, ParserMetadata<C> parserConfigOverride,
+            Path snapshot) {
+        ParserMetadata<C> parserConfig = loadParser(cliClass, parserConfigOverride);
+
+        GlobalMetadata<C> metadata = null;
+        boolean rewrite = true;
+        if (Files.isRegularFile(snapshot)) {
+            try (InputStream input = Files.newInputStream(snapshot)) {
+                SnapshotReader reader = new SnapshotReader(getClassLoader(cliClass));
+                metadata = reader.read(input, parserConfig);
+                rewrite = metadata == null || reader.restamp;
+            } catch (IOException e) {
+                // Unreadable so rebuild
+            }
+        }
+
+        if (metadata == null)
+            metadata = MetadataLoader.loadGlobal(cliClass, parserConfig);
+        if (rewrite)
+            writeFile(metadata, cliClass, snapshot);
+        return metadata;
+    }
+
+    private static void writeFile(GlobalMetadata<?> metadata, Class<?> cliClass, Path snapshot) {
+        Path temp = null;
+        try {
+            Path dir = snapshot.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            temp = Files.createTempFile(dir, snapshot.getFileName().toString(), ".tmp");
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                write(metadata, output, cliClass);
+            }
+            // Other processes may be racing to rebuild the same snapshot so
+            // replace it atomically where possible
+            try {
+                Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+        } catch (IOException | RuntimeException e) {
+            // Snapshots are purely an optimisation
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the meta-data for a CLI using a snapshot resource
+     * <p>
+     * The resource is resolved relative to the CLI class as per
+     * {@link Class#getResourceAsStream(String)}. If the resource does not
+     * exist or is stale the meta-data is loaded via
+     * {@link MetadataLoader#loadGlobal(Class, ParserMetadata)} instead.
+     * </p>
+     * 
+     * @param cliClass
+     *            Class that has the
+     *            {@link com.github.rvesse.airline.annotations.Cli} annotation
+     * @param parserConfigOverride
+     *            Optional parser configuration, overrides any specified by the
+     *            annotation
+     * @param resource
+     *            Snapshot resource
+     * @return Global meta-data
+     */
+    public static <C> GlobalMetadata<C> loadGlobal(Class<?> cliClass, ParserMetadata<C> parserConfigOverride,
+            String resource) {
+        ParserMetadata<C> parserConfig = loadParser(cliClass, parserConfigOverride);
+
+        try (InputStream input = cliClass.getResourceAsStream(resource)) {
+            if (input != null) {
+                GlobalMetadata<C> metadata = read(input, parserConfig, getClassLoader(cliClass));
+                if (metadata != null)
+                    return metadata;
+            }
+        } catch (IOException e) {
+            // Unreadable so load normally
+        }
+        return MetadataLoader.loadGlobal(cliClass, parserConfig);
+    }
+
+    private static <C> ParserMetadata<C> loadParser(Class<?> cliClass, ParserMetadata<C> parserConfigOverride) {
+        com.github.rvesse.airline.annotations.Cli cliConfig = cliClass
+                .getAnnotation(com.github.rvesse.airline.annotations.Cli.class);
+        if (cliConfig == null) {
+            throw new IllegalArgumentException(String.format("Class %s does not have the @Cli annotation", cliClass));
+        }
+        return MetadataLoader.loadParser(cliClass, cliConfig, parserConfigOverride);
+    }
+
+    private static ClassLoader getClassLoader(Class<?> cls) {
+        return cls.getClassLoader() != null ? cls.getClassLoader() : MetadataSnapshot.class.getClassLoader();
+    }
+
+    /**
+     * Writes a snapshot of the given meta-data
+     * 
+     * @param metadata
+     *            Meta-data
+     * @param output
+     *            Output stream, this is not closed by this method
+     * @param sources
+     *            Additional classes the meta-data was built from, e.g. the
+     *            class with the {@link com.github.rvesse.airline.annotations.Cli}
+     *            annotation, changes to these will cause the snapshot to be
+     *            considered stale in addition to changes to any command classes
+     * @throws IOException
+     *             Thrown if the snapshot cannot be written, including if the
+     *             meta-data contains non-serializable components
+     */
+    public static void write(GlobalMetadata<?> metadata, OutputStream output, Class<?>... sources)
+            throws IOException {
+        new SnapshotWriter(metadata, sources).write(output);
+    }
+
+    /**
+     * Reads a snapshot
+     * 
+     * @param input
+     *            Input stream, this is not closed by this method
+     * @param parserConfig
+     *            Parser configuration
+     * @param loader
+     *            Class loader used to resolve classes referenced by the
+     *            snapshot
+     * @return Meta-data, or {@code null} if the snapshot is stale or cannot be
+     *         used
+     * @throws IOException
+     *             Thrown if the snapshot cannot be read
+     */
+    public static <C> GlobalMetadata<C> read(InputStream input, ParserMetadata<C> parserConfig, ClassLoader loader)
+            throws IOException {
+        if (parserConfig == null)
+            throw new NullPointerException("parserConfig cannot be null");
+        return new SnapshotReader(loader).read(input, parserConfig);
+    }
+
+    private static byte[] digest(Collection<Class<?>> classes) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not supported", e);
+        }
+        for (Class<?> cls : classes) {
+            digest.update(cls.getName().getBytes(StandardCharsets.UTF_8));
+            try (InputStream input = cls.getResourceAsStream(classFile(cls))) {
+                if (input != null)
+                    digest.update(input.readAllBytes());
+            }
+        }
+        return digest.digest();
+    }
+
+    private static String classFile(Class<?> cls) {
+        return "/" + cls.getName().replace('.', '/') + ".class";
+    }
+
+    /**
+     * Gets a stamp for the class file of a class without reading it
+     * 
+     * @param cls
+     *            Class
+     * @return Size, modification time and CRC, which is {@code -1} for class
+     *         files not in a JAR, or {@code null} if the stamp cannot be
+     *         determined
+     */
+    private static long[] stamp(Class<?> cls) {
+        URL url = cls.getResource(classFile(cls));
+        if (url == null)
+            return null;
+        try {
+            switch (url.getProtocol()) {
+            case "file":
+                BasicFileAttributes attributes = Files.readAttributes(Paths.get(url.toURI()),
+                        BasicFileAttributes.class);
+                return new long[] { attributes.size(), attributes.lastModifiedTime().toMillis(), -1 };
+            case "jar":
+                URLConnection connection = url.openConnection();
+                if (!(connection instanceof JarURLConnection))
+                    return null;
+                JarURLConnection jarConnection = (JarURLConnection) connection;
+                JarEntry entry = jarConnection.getJarEntry();
+                long[] stamp = new long[] { entry.getSize(), entry.getTime(), entry.getCrc() };
+                // Cached JAR files are shared so must only be closed if we
+                // opened our own
+                if (!jarConnection.getUseCaches())
+                    jarConnection.getJarFile().close();
+                return stamp;
+            default:
+                return null;
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Filters the objects that may be read from a snapshot
+     * 
+     * @param info
+     *            Filter information
+     * @return Filter status
+     */
+    private static ObjectInputFilter.Status filter(ObjectInputFilter.FilterInfo info) {
+        if (info.depth() > MAX_DEPTH || info.arrayLength() > MAX_ARRAY_LENGTH)
+            return ObjectInputFilter.Status.REJECTED;
+        Class<?> cls = info.serialClass();
+        if (cls == null)
+            return ObjectInputFilter.Status.UNDECIDED;
+        while (cls.isArray()) {
+            cls = cls.getComponentType();
+        }
+        return isPermitted(cls) ? ObjectInputFilter.Status.ALLOWED : ObjectInputFilter.Status.REJECTED;
+    }
+
+    private static boolean isPermitted(Class<?> cls) {
+        if (Proxy.isProxyClass(cls))
+            return false;
+        if (cls.isPrimitive() || Enum.class.isAssignableFrom(cls))
+            return true;
+        // Airline's own classes, e.g. the comparators and matchers that
+        // restrictions use, along with components from elsewhere
+        if (cls.getName().startsWith("com.github.rvesse.airline."))
+            return true;
+        if (OptionRestriction.class.isAssignableFrom(cls) || ArgumentsRestriction.class.isAssignableFrom(cls)
+                || GlobalRestriction.class.isAssignableFrom(cls) || HelpSection.class.isAssignableFrom(cls)
+                || TypeConverterProvider.class.isAssignableFrom(cls))
+            return true;
+
+        String pkg = cls.getPackageName();
+        if (cls == String.class || cls == Boolean.class || cls == Character.class
+                || cls == java.util.Locale.class || cls == java.util.regex.Pattern.class)
+            return true;
+        if (Number.class.isAssignableFrom(cls) && (pkg.equals("java.lang") || pkg.equals("java.math")))
+            return true;
+        // Collections check the size of their contents as arrays of these
+        // types when read
+        if (cls == Object.class || cls == Map.Entry.class)
+            return true;
+        return pkg.equals("java.util") && (Collection.class.isAssignableFrom(cls) || Map.class.isAssignableFrom(cls)
+                || cls.getName().equals("java.util.ImmutableCollections$CollSer"));
+    }
+
+    private static final class SnapshotWriter {
+        private final GlobalMetadata<?> metadata;
+        private final Map<OptionMetadata, Integer> options = new IdentityHashMap<>();
+        private final Map<CommandMetadata, Integer> commands = new IdentityHashMap<>();
+        private final Set<Class<?>> classes = new LinkedHashSet<>();
+
+        SnapshotWriter(GlobalMetadata<?> metadata, Class<?>[] sources) {
+            this.metadata = metadata;
+            for (Class<?> source : sources) {
+                addClass(source);
+            }
+            addClass(MetadataLoader.class);
+            addClass(MetadataSnapshot.class);
+
+            addOptions(metadata.getOptions());
+            addCommand(metadata.getDefaultCommand());
+            for (CommandMetadata command : metadata.getDefaultGroupCommands()) {
+                addCommand(command);
+            }
+            for (CommandGroupMetadata group : metadata.getCommandGroups()) {
+                addGroup(group);
+            }
+            addComponents(metadata.getRestrictions());
+            addComponents(metadata.getBaseHelpSections());
+        }
+
+        private void addClass(Class<?> cls) {
+            // Platform classes can't change independently of the JVM
+            if (cls != null && cls.getClassLoader() != null)
+                this.classes.add(cls);
+        }
+
+        private void addComponents(Collection<?> components) {
+            for (Object component : components) {
+                if (component != null)
+                    addClass(component.getClass());
+            }
+        }
+
+        private void addAccessors(Collection<Accessor> accessors) {
+            for (Accessor accessor : accessors) {
+                for (Field field : accessor.getPath()) {
+                    addClass(field.getDeclaringClass());
+                }
+            }
+        }
+
+        private void addOptions(Collection<OptionMetadata> options) {
+            for (OptionMetadata option : options) {
+                addOption(option);
+            }
+        }
+
+        private void addOption(OptionMetadata option) {
+            if (option == null || this.options.containsKey(option))
+                return;
+            this.options.put(option, this.options.size());
+            addComponents(option.getRestrictions());
+            addClass(option.getTypeConverterProvider().getClass());
+            if (option.hasAccessors())
+                addAccessors(option.getAccessors());
+        }
+
+        private void addCommand(CommandMetadata command) {
+            if (command == null || this.commands.containsKey(command))
+                return;
+            this.commands.put(command, this.commands.size());
+            for (Class<?> cls = command.getType(); cls != null && !Object.class.equals(cls); cls = cls
+                    .getSuperclass()) {
+                addClass(cls);
+            }
+            addOptions(command.getAllOptions());
+            addOption(command.getDefaultOption());
+            if (command.getArguments() != null) {
+                addComponents(command.getArguments().getRestrictions());
+                addClass(command.getArguments().getTypeConverterProvider().getClass());
+                addAccessors(command.getArguments().getAccessors());
+            }
+            addAccessors(command.getMetadataInjections());
+            addComponents(command.getHelpSections());
+        }
+
+        private void addGroup(CommandGroupMetadata group) {
+            addOptions(group.getOptions());
+            addCommand(group.getDefaultCommand());
+            for (CommandMetadata command : group.getCommands()) {
+                addCommand(command);
+            }
+            for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+                addGroup(subGroup);
+            }
+        }
+
+        void write(OutputStream output) throws IOException {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(output));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(this.classes.size());
+            for (Class<?> cls : this.classes) {
+                out.writeUTF(cls.getName());
+                long[] stamp = stamp(cls);
+                out.writeBoolean(stamp != null);
+                if (stamp != null) {
+                    for (long value : stamp) {
+                        out.writeLong(value);
+                    }
+                }
+            }
+            byte[] digest = digest(this.classes);
+            out.writeInt(digest.length);
+            out.write(digest);
+
+            // Options and commands may be referenced from several places so
+            // are written once and then referred to by index
+            out.writeInt(this.options.size());
+            for (OptionMetadata option : ordered(this.options)) {
+                writeOption(out, option);
+            }
+            out.writeInt(this.commands.size());
+            for (CommandMetadata command : ordered(this.commands)) {
+                writeCommand(out, command);
+            }
+
+            out.writeObject(this.metadata.getName());
+            out.writeObject(this.metadata.getDescription());
+            writeOptionRefs(out, this.metadata.getOptions());
+            writeCommandRef(out, this.metadata.getDefaultCommand());
+            writeCommandRefs(out, this.metadata.getDefaultGroupCommands());
+            out.writeInt(this.metadata.getCommandGroups().size());
+            for (CommandGroupMetadata group : this.metadata.getCommandGroups()) {
+                writeGroup(out, group);
+            }
+            writeObjects(out, this.metadata.getRestrictions());
+            writeObjects(out, this.metadata.getBaseHelpSections());
+            out.flush();
+        }
+
+        private static <T> List<T> ordered(Map<T, Integer> table) {
+            List<T> items = new ArrayList<>(table.keySet());
+            items.sort((a, b) -> Integer.compare(table.get(a), table.get(b)));
+            return items;
+        }
+
+        private static void writeObjects(ObjectOutputStream out, Collection<?> objects) throws IOException {
+            out.writeInt(objects.size());
+            for (Object obj : objects) {
+                out.writeObject(obj);
+            }
+        }
+
+        private static void writeAccessors(ObjectOutputStream out, Collection<Accessor> accessors) throws IOException {
+            out.writeInt(accessors.size());
+            for (Accessor accessor : accessors) {
+                out.writeInt(accessor.getPath().size());
+                for (Field field : accessor.getPath()) {
+                    out.writeUTF(field.getDeclaringClass().getName());
+                    out.writeUTF(field.getName());
+                }
+            }
+        }
+
+        private void writeOption(ObjectOutputStream out, OptionMetadata option) throws IOException {
+            out.writeObject(option.getOptionType());
+            out.writeObject(option.getOptions().toArray(new String[0]));
+            out.writeObject(option.getTitles().toArray(new String[0]));
+            out.writeObject(option.getDescription());
+            out.writeInt(option.getArity());
+            out.writeBoolean(option.isHidden());
+            out.writeBoolean(option.isOverride());
+            out.writeBoolean(option.isSealed());
+            writeObjects(out, option.getRestrictions());
+            out.writeObject(option.getTypeConverterProvider());
+            out.writeBoolean(option.hasAccessors());
+            if (option.hasAccessors())
+                writeAccessors(out, option.getAccessors());
+        }
+
+        private void writeCommand(ObjectOutputStream out, CommandMetadata command) throws IOException {
+            out.writeObject(command.getName());
+            out.writeObject(command.getDescription());
+            out.writeBoolean(command.isHidden());
+            writeOptionRefs(out, command.getGlobalOptions());
+            writeOptionRefs(out, command.getGroupOptions());
+            writeOptionRefs(out, command.getCommandOptions());
+            writeOptionRef(out, command.getDefaultOption());
+
+            ArgumentsMetadata arguments = command.getArguments();
+            out.writeBoolean(arguments != null);
+            if (arguments != null) {
+                out.writeObject(arguments.getTitle().toArray(new String[0]));
+                out.writeObject(arguments.getDescription());
+                writeObjects(out, arguments.getRestrictions());
+                out.writeObject(arguments.getTypeConverterProvider());
+                writeAccessors(out, arguments.getAccessors());
+            }
+
+            writeAccessors(out, command.getMetadataInjections());
+            out.writeObject(command.getType() != null ? command.getType().getName() : null);
+            out.writeObject(command.getGroupNames() != null ? command.getGroupNames().toArray(new String[0]) : null);
+            writeGroupAnnotations(out, command.getGroups());
+            writeObjects(out, command.getHelpSections());
+        }
+
+        private static void writeGroupAnnotations(ObjectOutputStream out, List<Group> groups) throws IOException {
+            // Written as plain values since annotations are serialized as
+            // proxies, which snapshots must not contain
+            out.writeInt(groups != null ? groups.size() : -1);
+            if (groups == null)
+                return;
+            for (Group group : groups) {
+                out.writeUTF(group.name());
+                out.writeUTF(group.description());
+                out.writeUTF(group.defaultCommand().getName());
+                out.writeInt(group.commands().length);
+                for (Class<?> command : group.commands()) {
+                    out.writeUTF(command.getName());
+                }
+                out.writeBoolean(group.hidden());
+            }
+        }
+
+        private void writeGroup(ObjectOutputStream out, CommandGroupMetadata group) throws IOException {
+            out.writeObject(group.getName());
+            out.writeObject(group.getDescription());
+            out.writeBoolean(group.isHidden());
+            writeOptionRefs(out, group.getOptions());
+            writeCommandRef(out, group.getDefaultCommand());
+            writeCommandRefs(out, group.getCommands());
+            out.writeInt(group.getSubGroups().size());
+            for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+                out.writeBoolean(subGroup.getParent() == group);
+                writeGroup(out, subGroup);
+            }
+        }
+
+        private void writeOptionRef(ObjectOutputStream out, OptionMetadata option) throws IOException {
+            out.writeInt(option != null ? this.options.get(option) : -1);
+        }
+
+        private void writeOptionRefs(ObjectOutputStream out, Collection<OptionMetadata> options) throws IOException {
+            out.writeInt(options.size());
+            for (OptionMetadata option : options) {
+                writeOptionRef(out, option);
+            }
+        }
+
+        private void writeCommandRef(ObjectOutputStream out, CommandMetadata command) throws IOException {
+            out.writeInt(command != null ? this.commands.get(command) : -1);
+        }
+
+        private void writeCommandRefs(ObjectOutputStream out, Collection<CommandMetadata> commands)
+                throws IOException {
+            out.writeInt(commands.size());
+            for (CommandMetadata command : commands) {
+                writeCommandRef(out, command);
+            }
+        }
+    }
+
+    private static final class SnapshotReader {
+        private final ClassLoader loader;
+        private final Map<String, Class<?>> classes = new HashMap<>();
+        private OptionMetadata[] options;
+        private CommandMetadata[] commands;
+        /**
+         * Whether the snapshot was usable but the stamps of its classes have
+         * changed
+         */
+        private boolean restamp = false;
+
+        SnapshotReader(ClassLoader loader) {
+            this.loader = loader;
+        }
+
+        <C> GlobalMetadata<C> read(InputStream input, ParserMetadata<C> parserConfig) throws IOException {
+            ObjectInputStream in = new LoaderObjectInputStream(new BufferedInputStream(input), this.loader);
+            try {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+                    return null;
+
+                // Check whether the snapshot is stale, only hashing the
+                // classes if their stamps have changed
+                List<Class<?>> sources = new ArrayList<>();
+                boolean stamped = true;
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    Class<?> cls = loadClass(in.readUTF());
+                    sources.add(cls);
+                    long[] stamp = null;
+                    if (in.readBoolean()) {
+                        stamp = new long[] { in.readLong(), in.readLong(), in.readLong() };
+                    }
+                    if (stamped && (stamp == null || !Arrays.equals(stamp, stamp(cls))))
+                        stamped = false;
+                }
+                byte[] expected = new byte[in.readInt()];
+                in.readFully(expected);
+                if (!stamped) {
+                    if (!MessageDigest.isEqual(expected, digest(sources)))
+                        return null;
+                    this.restamp = true;
+                }
+
+                this.options = new OptionMetadata[in.readInt()];
+                for (int i = 0; i < this.options.length; i++) {
+                    this.options[i] = readOption(in);
+                }
+                this.commands = new CommandMetadata[in.readInt()];
+                for (int i = 0; i < this.commands.length; i++) {
+                    this.commands[i] = readCommand(in);
+                }
+
+                String name = (String) in.readObject();
+                String description = (String) in.readObject();
+                List<OptionMetadata> globalOptions = readOptionRefs(in);
+                CommandMetadata defaultCommand = readCommandRef(in);
+                List<CommandMetadata> defaultGroupCommands = readCommandRefs(in);
+                List<CommandGroupMetadata> groups = new ArrayList<>();
+                count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    groups.add(readGroup(in));
+                }
+                List<GlobalRestriction> restrictions = readObjects(in, GlobalRestriction.class);
+                List<HelpSection> sections = readObjects(in, HelpSection.class);
+                return new GlobalMetadata<C>(name, description, globalOptions, defaultCommand, defaultGroupCommands,
+                        groups, restrictions, sections, parserConfig);
+            } catch (ClassNotFoundException | NoSuchFieldException | ClassCastException
+                    | IllegalArgumentException | IndexOutOfBoundsException | SecurityException e) {
+                // Classes have changed so can't use this snapshot
+                return null;
+            }
+        }
+
+        private Class<?> loadClass(String name) throws ClassNotFoundException {
+            Class<?> cls = this.classes.get(name);
+            if (cls == null) {
+                cls = Class.forName(name, false, this.loader);
+                this.classes.put(name, cls);
+            }
+            return cls;
+        }
+
+        private static <T> List<T> readObjects(ObjectInputStream in, Class<T> type)
+                throws IOException, ClassNotFoundException {
+            int count = in.readInt();
+            List<T> objects = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                objects.add(type.cast(in.readObject()));
+            }
+            return objects;
+        }
+
+        private List<List<Field>> readAccessors(ObjectInputStream in)
+                throws IOException, ClassNotFoundException, NoSuchFieldException {
+            int count = in.readInt();
+            List<List<Field>> paths = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = in.readInt();
+                List<Field> path = new ArrayList<>(length);
+                for (int j = 0; j < length; j++) {
+                    Field field = loadClass(in.readUTF()).getDeclaredField(in.readUTF());
+                    field.setAccessible(true);
+                    path.add(field);
+                }
+                paths.add(path);
+            }
+            return paths;
+        }
+
+        private OptionMetadata readOption(ObjectInputStream in)
+                throws IOException, ClassNotFoundException, NoSuchFieldException {
+            OptionType type = (OptionType) in.readObject();
+            String[] names = (String[]) in.readObject();
+            String[] titles = (String[]) in.readObject();
+            String description = (String) in.readObject();
+            int arity = in.readInt();
+            boolean hidden = in.readBoolean();
+            boolean overrides = in.readBoolean();
+            boolean sealed = in.readBoolean();
+            List<OptionRestriction> restrictions = readObjects(in, OptionRestriction.class);
+            TypeConverterProvider provider = (TypeConverterProvider) in.readObject();
+
+            OptionMetadata option = new OptionMetadata(type, Arrays.asList(names), Arrays.asList(titles),
+                    description, arity, hidden, overrides, sealed, restrictions, provider, null);
+            if (in.readBoolean()) {
+                List<Accessor> accessors = new ArrayList<>();
+                for (List<Field> path : readAccessors(in)) {
+                    accessors.add(new Accessor(path));
+                }
+                option.setAccessors(accessors);
+            }
+            return option;
+        }
+
+        private CommandMetadata readCommand(ObjectInputStream in)
+                throws IOException, ClassNotFoundException, NoSuchFieldException {
+            String name = (String) in.readObject();
+            String description = (String) in.readObject();
+            boolean hidden = in.readBoolean();
+            List<OptionMetadata> globalOptions = readOptionRefs(in);
+            List<OptionMetadata> groupOptions = readOptionRefs(in);
+            List<OptionMetadata> commandOptions = readOptionRefs(in);
+            OptionMetadata defaultOption = readOptionRef(in);
+
+            ArgumentsMetadata arguments = null;
+            if (in.readBoolean()) {
+                String[] titles = (String[]) in.readObject();
+                String argumentsDescription = (String) in.readObject();
+                List<ArgumentsRestriction> restrictions = readObjects(in, ArgumentsRestriction.class);
+                TypeConverterProvider provider = (TypeConverterProvider) in.readObject();
+                List<ArgumentsMetadata> merged = new ArrayList<>();
+                for (List<Field> path : readAccessors(in)) {
+                    merged.add(new ArgumentsMetadata(Arrays.asList(titles), argumentsDescription, restrictions,
+                            provider, path));
+                }
+                arguments = merged.size() == 1 ? merged.get(0) : new ArgumentsMetadata(merged);
+            }
+
+            List<Accessor> metadataInjections = new ArrayList<>();
+            for (List<Field> path : readAccessors(in)) {
+                metadataInjections.add(new Accessor(path));
+            }
+            String typeName = (String) in.readObject();
+            String[] groupNames = (String[]) in.readObject();
+            List<Group> groups = readGroupAnnotations(in);
+            List<HelpSection> sections = readObjects(in, HelpSection.class);
+
+            //@formatter:off
+            return new CommandMetadata(name, 
+                                       description, 
+                                       hidden, 
+                                       globalOptions, 
+                                       groupOptions, 
+                                       commandOptions, 
+                                       defaultOption,
+                                       arguments, 
+                                       metadataInjections, 
+                                       typeName != null ? loadClass(typeName) : null,
+                                       groupNames != null ? Arrays.asList(groupNames) : null,
+                                       groups, 
+                                       sections);
+            //@formatter:on
+        }
+
+        private List<Group> readGroupAnnotations(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            int count = in.readInt();
+            if (count < 0)
+                return null;
+            List<Group> groups = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                String description = in.readUTF();
+                Class<?> defaultCommand = loadClass(in.readUTF());
+                Class<?>[] commands = new Class<?>[in.readInt()];
+                for (int j = 0; j < commands.length; j++) {
+                    commands[j] = loadClass(in.readUTF());
+                }
+                groups.add(new GroupValues(name, description, defaultCommand, commands, in.readBoolean()));
+            }
+            return groups;
+        }
+
+        private CommandGroupMetadata readGroup(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            String name = (String) in.readObject();
+            String description = (String) in.readObject();
+            boolean hidden = in.readBoolean();
+            List<OptionMetadata> groupOptions = readOptionRefs(in);
+            CommandMetadata defaultCommand = readCommandRef(in);
+            List<CommandMetadata> groupCommands = readCommandRefs(in);
+            CommandGroupMetadata group = new CommandGroupMetadata(name, description, hidden, groupOptions,
+                    new ArrayList<CommandGroupMetadata>(), defaultCommand, groupCommands);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                boolean isParent = in.readBoolean();
+                CommandGroupMetadata subGroup = readGroup(in);
+                if (isParent)
+                    subGroup.setParent(group);
+                group.addSubGroup(subGroup);
+            }
+            return group;
+        }
+
+        private OptionMetadata readOptionRef(ObjectInputStream in) throws IOException {
+            int index = in.readInt();
+            return index >= 0 ? this.options[index] : null;
+        }
+
+        private List<OptionMetadata> readOptionRefs(ObjectInputStream in) throws IOException {
+            int count = in.readInt();
+            List<OptionMetadata> options = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                options.add(readOptionRef(in));
+            }
+            return options;
+        }
+
+        private CommandMetadata readCommandRef(ObjectInputStream in) throws IOException {
+            int index = in.readInt();
+            return index >= 0 ? this.commands[index] : null;
+        }
+
+        private List<CommandMetadata> readCommandRefs(ObjectInputStream in) throws IOException {
+            int count = in.readInt();
+            List<CommandMetadata> commands = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                commands.add(readCommandRef(in));
+            }
+            return commands;
+        }
+    }
+
+    /**
+     * A {@link Group} restored from a snapshot
+     */
+    private static final class GroupValues implements Group {
+        private final String name, description;
+        private final Class<?> defaultCommand;
+        private final Class<?>[] commands;
+        private final boolean hidden;
+
+        GroupValues(String name, String description, Class<?> defaultCommand, Class<?>[] commands,
+                boolean hidden) {
+            this.name = name;
+            this.description = description;
+            this.defaultCommand = defaultCommand;
+            this.commands = commands;
+            this.hidden = hidden;
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Group.class;
+        }
+
+        @Override
+        public String name() {
+            return this.name;
+        }
+
+        @Override
+        public String description() {
+            return this.description;
+        }
+
+        @Override
+        public Class<?> defaultCommand() {
+            return this.defaultCommand;
+        }
+
+        @Override
+        public Class<?>[] commands() {
+            return this.commands.clone();
+        }
+
+        @Override
+        public boolean hidden() {
+            return this.hidden;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Group))
+                return false;
+            Group other = (Group) obj;
+            return this.name.equals(other.name()) && this.description.equals(other.description())
+                    && this.defaultCommand.equals(other.defaultCommand())
+                    && Arrays.equals(this.commands, other.commands()) && this.hidden == other.hidden();
+        }
+
+        @Override
+        public int hashCode() {
+            // As defined by Annotation.hashCode()
+            return (127 * "name".hashCode() ^ this.name.hashCode())
+                    + (127 * "description".hashCode() ^ this.description.hashCode())
+                    + (127 * "defaultCommand".hashCode() ^ this.defaultCommand.hashCode())
+                    + (127 * "commands".hashCode() ^ Arrays.hashCode(this.commands))
+                    + (127 * "hidden".hashCode() ^ Boolean.hashCode(this.hidden));
+        }
+
+        @Override
+        public String toString() {
+            return "@" + Group.class.getName() + "(name=" + this.name + ", description=" + this.description
+                    + ", defaultCommand=" + this.defaultCommand.getName() + ", commands="
+                    + Arrays.toString(this.commands) + ", hidden=" + this.hidden + ")";
+        }
+    }
+
+    /**
+     * An object input stream that resolves classes using a specific class
+     * loader and only permits the types a snapshot may contain
+     */
+    private static final class LoaderObjectInputStream extends ObjectInputStream {
+        private final ClassLoader loader;
+
+        LoaderObjectInputStream(InputStream input, ClassLoader loader) throws IOException {
+            super(input);
+            this.loader = loader;
+            setObjectInputFilter(MetadataSnapshot::filter);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (this.loader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, this.loader);
+                } catch (ClassNotFoundException e) {
+                    // Fall back to default resolution
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.rvesse.airline.utils.PrefixTrie;
+import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedOptionFinder;
+
+/**
+ * An immutable list of options that is additionally indexed by option name
+ * <p>
+ * Option parsers need to resolve option names for practically every token they
+ * see so the metadata classes precompute one of these for each scope in which
+ * options may be parsed. It may be used anywhere a {@code List<OptionMetadata>}
+ * is expected, when such a list is passed to an option parser lookups via
+ * {@link #find(String)} and {@link #findAbbreviated(String)} are used in place
+ * of a linear scan.
+ * </p>
+ * <p>
+ * Each index also assigns its options dense ordinals, starting from zero in
+ * the order the options appear, which parser state uses to track parsed values
+ * in arrays sized by {@link #getOrdinalCount()}. Since the same logical option
+ * may be represented by several equal instances, e.g. global options are
+ * merged into new instances at the CLI level, equal options share an ordinal.
+ * Ordinals are only meaningful relative to the index that assigned them.
+ * </p>
+ */
+public final class OptionIndex extends AbstractList<OptionMetadata> implements RandomAccess {
+
+    private static final OptionIndex EMPTY = new OptionIndex(Collections.<OptionMetadata> emptyList());
+
+    private final OptionMetadata[] options;
+    private final Map<String, OptionMetadata> exact = new HashMap<>();
+    private final Map<String, OptionMetadata> exactAbbreviated = new HashMap<>();
+    private final Map<OptionMetadata, Integer> ordinals = new HashMap<>();
+    private volatile PrefixTrie<OptionMetadata> abbreviations;
+    private volatile Map<OptionMetadata, OptionIndex> extensions;
+
+    private OptionIndex(Iterable<OptionMetadata> options) {
+        int size = 0;
+        OptionMetadata[] opts = new OptionMetadata[8];
+        for (OptionMetadata option : options) {
+            if (size == opts.length)
+                opts = Arrays.copyOf(opts, size * 2);
+            opts[size++] = option;
+        }
+        this.options = Arrays.copyOf(opts, size);
+
+        Map<OptionMetadata, OptionMetadata> firstEqual = new HashMap<>();
+        for (OptionMetadata option : this.options) {
+            OptionMetadata first = firstEqual.computeIfAbsent(option, o -> o);
+            this.ordinals.putIfAbsent(option, this.ordinals.size());
+            for (String name : option.getOptions()) {
+                // When looking up options the first option with a given name
+                // wins
+                this.exact.putIfAbsent(name, option);
+                // Whereas when abbreviations are enabled it has historically
+                // been the first option equal to the last option with a given
+                // name
+                this.exactAbbreviated.put(name, first);
+            }
+        }
+    }
+
+    /**
+     * Gets an index over the given options
+     *
+     * @param options
+     *            Options
+     * @return Option index, if {@code options} is already an index it is
+     *         returned as-is
+     */
+    public static OptionIndex of(Iterable<OptionMetadata> options) {
+        if (options instanceof OptionIndex)
+            return (OptionIndex) options;
+        if (options == null)
+            return EMPTY;
+        return new OptionIndex(options);
+    }
+
+    /**
+     * Gets an empty index
+     *
+     * @return Empty index
+     */
+    public static OptionIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Finds the option with the given name
+     *
+     * @param name
+     *            Name
+     * @return Option, or {@code null} if no such option
+     */
+    public OptionMetadata find(String name) {
+        return this.exact.get(name);
+    }
+
+    /**
+     * Finds the option with the given name, or failing that the only option
+     * which has a name (longer than 2 characters) which starts with the given
+     * name
+     *
+     * @param name
+     *            Name
+     * @return Option, or {@code null} if no such option or the abbreviation is
+     *         ambiguous
+     */
+    public OptionMetadata findAbbreviated(String name) {
+        OptionMetadata option = this.exactAbbreviated.get(name);
+        if (option != null)
+            return option;
+        return getAbbreviations().match(name).get(true);
+    }
+
+    /**
+     * Gets the prefix trie used to resolve abbreviated option names, only
+     * names longer than 2 characters are eligible for abbreviation
+     * 
+     * @return Abbreviations trie
+     */
+    public PrefixTrie<OptionMetadata> getAbbreviations() {
+        PrefixTrie<OptionMetadata> abbrevs = this.abbreviations;
+        if (abbrevs == null) {
+            // Benign race, worst case multiple threads build identical
+            // instances
+            abbrevs = new PrefixTrie<OptionMetadata>(this, o -> AbbreviatedOptionFinder.abbreviatableNames(o));
+            this.abbreviations = abbrevs;
+        }
+        return abbrevs;
+    }
+
+    /**
+     * Gets the ordinal of the given option within this index
+     * 
+     * @param option
+     *            Option
+     * @return Ordinal, or {@code -1} if neither the option nor an equal option
+     *         is in this index
+     */
+    public int ordinalOf(OptionMetadata option) {
+        Integer ordinal = this.ordinals.get(option);
+        return ordinal != null ? ordinal.intValue() : -1;
+    }
+
+    /**
+     * Gets an index that includes the given option
+     * <p>
+     * If the option, or an equal option, is already in this index then this
+     * index is returned. Otherwise the option is appended to the options of
+     * this index so existing ordinals are preserved, extended indices are
+     * cached so repeatedly including the same option does not rebuild them.
+     * </p>
+     * 
+     * @param option
+     *            Option
+     * @return Option index
+     */
+    public OptionIndex including(OptionMetadata option) {
+        if (ordinalOf(option) >= 0)
+            return this;
+        Map<OptionMetadata, OptionIndex> cache = this.extensions;
+        if (cache == null) {
+            synchronized (this) {
+                cache = this.extensions;
+                if (cache == null) {
+                    cache = new ConcurrentHashMap<>();
+                    this.extensions = cache;
+                }
+            }
+        }
+        return cache.computeIfAbsent(option, o -> {
+            OptionMetadata[] extended = Arrays.copyOf(this.options, this.options.length + 1);
+            extended[this.options.length] = o;
+            return new OptionIndex(Arrays.asList(extended));
+        });
+    }
+
+    /**
+     * Gets the number of distinct ordinals assigned by this index, this is the
+     * number of distinct options in the index
+     * 
+     * @return Ordinal count
+     */
+    public int getOrdinalCount() {
+        return this.ordinals.size();
+    }
+
+    @Override
+    public OptionMetadata get(int index) {
+        return this.options[index];
+    }
+
+    @Override
+    public int size() {
+        return this.options.length;
+    }
+}
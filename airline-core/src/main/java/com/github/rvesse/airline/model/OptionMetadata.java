@@ -17,8 +17,11 @@ package com.github.rvesse.airline.model;
 
 import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
 import com.github.rvesse.airline.types.DefaultTypeConverterProvider;
+import com.github.rvesse.airline.types.TypeConverter;
+import com.github.rvesse.airline.types.TypeConverterCache;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 import com.github.rvesse.airline.utils.AirlineUtils;
 import com.github.rvesse.airline.utils.predicates.restrictions.IsRequiredOptionFinder;
@@ -41,6 +44,8 @@ public class OptionMetadata {
     private final boolean hidden, overrides, sealed;
     private final List<OptionRestriction> restrictions;
     private final TypeConverterProvider provider;
+    private final TypeConverterCache converters = new TypeConverterCache();
+    private final int hashCode;
     private Set<Accessor> accessors;
 
     //@formatter:off
@@ -78,6 +83,7 @@ public class OptionMetadata {
         this.restrictions = restrictions != null ? AirlineUtils.unmodifiableListCopy(restrictions)
                 : Collections.<OptionRestriction> emptyList();
         this.provider = typeConverterProvider != null ? typeConverterProvider : new DefaultTypeConverterProvider();
+        this.hashCode = computeHashCode();
 
         if (path != null) {
             this.accessors = SetUtils.unmodifiableSet(Collections.singleton(new Accessor(path)));
@@ -102,6 +108,7 @@ public class OptionMetadata {
         this.sealed = option.sealed;
         this.restrictions = option.restrictions;
         this.provider = option.provider;
+        this.hashCode = option.hashCode;
 
         Set<Accessor> accessors = new LinkedHashSet<Accessor>();
         for (OptionMetadata other : options) {
@@ -114,6 +121,83 @@ public class OptionMetadata {
         this.accessors = SetUtils.unmodifiableSet(accessors);
     }
 
+    private OptionMetadata(OptionMetadata option, Set<Accessor> accessors) {
+        this(option, accessors, option.restrictions, option.provider);
+    }
+
+    private OptionMetadata(OptionMetadata option, Set<Accessor> accessors, List<OptionRestriction> restrictions,
+            TypeConverterProvider provider) {
+        this.optionType = option.optionType;
+        this.options = option.options;
+        this.titles = option.titles;
+        this.description = option.description;
+        this.arity = option.arity;
+        this.hidden = option.hidden;
+        this.overrides = option.overrides;
+        this.sealed = option.sealed;
+        this.restrictions = restrictions;
+        this.provider = provider;
+        this.hashCode = option.hashCode;
+        this.accessors = accessors;
+    }
+
+    /**
+     * Creates a copy of the option whose accessors have the given path
+     * prefixed, used when reusing the cached meta-data of a class at the point
+     * it is composed into a command
+     * 
+     * @param prefix
+     *            Path prefix
+     * @return Copy of the option
+     */
+    OptionMetadata withPathPrefix(List<Field> prefix) {
+        if (this.accessors == null)
+            return new OptionMetadata(this, null);
+        Set<Accessor> accessors = new LinkedHashSet<Accessor>();
+        for (Accessor accessor : this.accessors) {
+            accessors.add(accessor.withPathPrefix(prefix));
+        }
+        return new OptionMetadata(this, SetUtils.unmodifiableSet(accessors));
+    }
+
+    /**
+     * Creates a copy of the option with the given restrictions and type
+     * converter provider, used when creating options from the cached meta-data
+     * of a class so that each load has its own restriction instances
+     * 
+     * @param restrictions
+     *            Restrictions
+     * @param typeConverterProvider
+     *            Type converter provider
+     * @return Copy of the option
+     */
+    OptionMetadata withRestrictions(Iterable<OptionRestriction> restrictions,
+            TypeConverterProvider typeConverterProvider) {
+        return new OptionMetadata(this, this.accessors, AirlineUtils.unmodifiableListCopy(restrictions),
+                typeConverterProvider != null ? typeConverterProvider : new DefaultTypeConverterProvider());
+    }
+
+    /**
+     * Sets the accessors for the option, used when restoring option meta-data
+     * from a {@link MetadataSnapshot}
+     * 
+     * @param accessors
+     *            Accessors
+     */
+    void setAccessors(Iterable<Accessor> accessors) {
+        this.accessors = AirlineUtils.unmodifiableSetCopy(accessors);
+    }
+
+    /**
+     * Gets whether the option has accessors, options created without a field
+     * path have none
+     * 
+     * @return True if accessors are defined, false otherwise
+     */
+    boolean hasAccessors() {
+        return this.accessors != null;
+    }
+
     public OptionType getOptionType() {
         return optionType;
     }
@@ -197,6 +281,18 @@ public class OptionMetadata {
         return this.provider;
     }
 
+    /**
+     * Gets the type converter to use for this option, where the provider allows
+     * it this is resolved once per parser configuration and then reused
+     * 
+     * @param state
+     *            Parser state
+     * @return Type converter
+     */
+    public <T> TypeConverter getTypeConverter(ParseState<T> state) {
+        return this.converters.get(this.provider, this, state);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -208,6 +304,11 @@ public class OptionMetadata {
 
         OptionMetadata that = (OptionMetadata) o;
 
+        // Options are frequently compared while parsing so use the
+        // precomputed hash code to cheaply reject unequal options
+        if (hashCode != that.hashCode) {
+            return false;
+        }
         if (arity != that.arity) {
             return false;
         }
@@ -238,6 +339,10 @@ public class OptionMetadata {
 
     @Override
     public int hashCode() {
+        return hashCode;
+    }
+
+    private int computeHashCode() {
         int result = optionType.hashCode();
         result = 31 * result + options.hashCode();
         result = 31 * result + titles.hashCode();
@@ -16,6 +16,7 @@
 package com.github.rvesse.airline.model;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -42,7 +43,8 @@ public class ParserMetadata<T> {
      */
     public static final String DEFAULT_ARGUMENTS_SEPARATOR = "--";
 
-    private final boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain;
+    private final boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain,
+            lazyCommandLoading, parallelCommandLoading, responseFiles;
     private final List<OptionParser<T>> optionParsers;
     private final List<AliasMetadata> aliases;
     private final UserAliasesSource<T> userAliases;
@@ -52,6 +54,7 @@ public class ParserMetadata<T> {
     private final ParserErrorHandler errorHandler;
     private final char forceBuiltInPrefix;
     private final Set<String> compositionAnnotationClasses;
+    private final List<MetadataLoadListener> metadataLoadListeners;
 
     public ParserMetadata(CommandFactory<T> commandFactory, Collection<String> compositionAnnotationClasses,
                           Collection<OptionParser<T>> optionParsers,
@@ -60,6 +63,21 @@ public class ParserMetadata<T> {
                           UserAliasesSource<T> userAliases,
                           boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, char forceBuiltInPrefix,
                           String argumentsSeparator, String flagNegationPrefix) {
+        this(commandFactory, compositionAnnotationClasses, optionParsers, typeConverter, errorHandler,
+             allowAbbreviateCommands, allowAbbreviatedOptions, aliases, userAliases, aliasesOverrideBuiltIns,
+             aliasesMayChain, forceBuiltInPrefix, argumentsSeparator, flagNegationPrefix, false, false, false,
+             Collections.<MetadataLoadListener> emptyList());
+    }
+
+    public ParserMetadata(CommandFactory<T> commandFactory, Collection<String> compositionAnnotationClasses,
+                          Collection<OptionParser<T>> optionParsers,
+                          TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
+                          boolean allowAbbreviatedOptions, Collection<AliasMetadata> aliases,
+                          UserAliasesSource<T> userAliases,
+                          boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, char forceBuiltInPrefix,
+                          String argumentsSeparator, String flagNegationPrefix, boolean lazyCommandLoading,
+                          boolean parallelCommandLoading, boolean responseFiles,
+                          Collection<MetadataLoadListener> metadataLoadListeners) {
         if (optionParsers == null) {
             throw new NullPointerException("optionParsers cannot be null");
         }
@@ -99,6 +117,16 @@ public class ParserMetadata<T> {
         // Flag negation
         this.flagNegationPrefix = StringUtils.isNotEmpty(flagNegationPrefix) ? flagNegationPrefix : null;
 
+        // Response files
+        this.responseFiles = responseFiles;
+
+        // Metadata loading
+        this.lazyCommandLoading = lazyCommandLoading;
+        this.parallelCommandLoading = parallelCommandLoading;
+        this.metadataLoadListeners = AirlineUtils.unmodifiableListCopy(
+                metadataLoadListeners != null ? metadataLoadListeners
+                                              : Collections.<MetadataLoadListener> emptyList());
+
     }
 
     /**
@@ -245,6 +273,56 @@ public class ParserMetadata<T> {
         return this.flagNegationPrefix;
     }
 
+    /**
+     * Gets whether response files are expanded
+     * <p>
+     * When enabled any argument of the form {@code @file} is replaced by the arguments read from that file, and
+     * {@code @-} by those read from standard input, see {@link com.github.rvesse.airline.parser.ResponseFileIterator}.
+     * </p>
+     *
+     * @return True if response files are expanded, false otherwise
+     */
+    public boolean allowsResponseFiles() {
+        return responseFiles;
+    }
+
+    /**
+     * Gets whether the full metadata for commands is loaded lazily
+     * <p>
+     * When enabled commands are initially loaded as lightweight stubs that only have their name, description, hidden
+     * status and group membership, their options, arguments, restrictions and help sections are loaded the first time
+     * they are needed e.g. when the parser selects the command or help is generated for it.
+     * </p>
+     *
+     * @return True if loaded lazily, false otherwise
+     */
+    public boolean loadsCommandsLazily() {
+        return lazyCommandLoading;
+    }
+
+    /**
+     * Gets whether the metadata for the commands of a CLI is loaded in parallel
+     * <p>
+     * When enabled the commands declared by a CLI and its groups are loaded concurrently using the common fork/join
+     * pool, the groups hierarchy is then assembled sequentially exactly as it would be if the commands had been loaded
+     * sequentially so the resulting metadata is identical.
+     * </p>
+     *
+     * @return True if loaded in parallel, false otherwise
+     */
+    public boolean loadsCommandsInParallel() {
+        return parallelCommandLoading;
+    }
+
+    /**
+     * Gets the listeners to notify as phases of metadata loading complete
+     *
+     * @return Metadata load listeners
+     */
+    public List<MetadataLoadListener> getMetadataLoadListeners() {
+        return metadataLoadListeners;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -258,6 +336,9 @@ public class ParserMetadata<T> {
         sb.append(", aliasesOverrideBuiltIns=").append(aliasesOverrideBuiltIns);
         sb.append(", argumentsSeparator='").append(argsSeparator).append("'");
         sb.append(", flagNegationPrefix='").append(flagNegationPrefix).append("'");
+        sb.append(", responseFiles=").append(responseFiles);
+        sb.append(", lazyCommandLoading=").append(lazyCommandLoading);
+        sb.append(", parallelCommandLoading=").append(parallelCommandLoading);
         sb.append("}");
         return sb.toString();
     }
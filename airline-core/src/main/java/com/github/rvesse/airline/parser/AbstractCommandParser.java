@@ -20,21 +20,17 @@ import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionIndex;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.aliases.AliasResolver;
 import com.github.rvesse.airline.parser.options.OptionParser;
-import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedCommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedGroupFinder;
-import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
+import com.github.rvesse.airline.utils.PrefixTrie;
 
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.ListUtils;
-import org.apache.commons.collections4.Predicate;
 import org.apache.commons.collections4.iterators.PeekingIterator;
 
 /**
@@ -56,7 +52,7 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
      * @return Parser State
      */
     protected ParseState<T> tryParse(GlobalMetadata<T> metadata, String... args) {
-        return tryParse(metadata, AirlineUtils.unmodifiableListCopy(args));
+        return tryParse(metadata, Arrays.asList(args));
     }
 
     /**
@@ -69,8 +65,17 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
      * @return Parser State
      */
     protected ParseState<T> tryParse(GlobalMetadata<T> metadata, Iterable<String> args) {
-        PeekingIterator<String> tokens = new PeekingIterator<String>(args.iterator());
+        Iterator<String> iter = expandResponseFiles(metadata.getParserConfiguration(), args.iterator());
+        ParseState<T> state = null;
+        try {
+            state = tryParseTokens(metadata, new PeekingIterator<String>(iter));
+            return state;
+        } finally {
+            close(iter, state);
+        }
+    }
 
+    private ParseState<T> tryParseTokens(GlobalMetadata<T> metadata, PeekingIterator<String> tokens) {
         //@formatter:off
         ParseState<T> state = ParseState.<T> newInstance()
                                         .pushContext(Context.GLOBAL)
@@ -78,7 +83,9 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
         //@formatter:on
 
         // Parse global options
-        state = parseOptions(tokens, state, metadata.getOptions());
+        if (!isNextTokenName(tokens, state, metadata.getCommandGroupIndex(), metadata.getDefaultGroupCommandIndex())) {
+            state = parseOptions(tokens, state, metadata.getOptionIndex());
+        }
 
         // Apply aliases
         tokens = applyAliases(tokens, state);
@@ -92,6 +99,42 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
         return state;
     }
 
+    /**
+     * Expands response files within the arguments if the parser configuration allows them
+     * 
+     * @param parserConfig
+     *            Parser Configuration
+     * @param args
+     *            Arguments
+     * @return Arguments with response files expanded
+     */
+    protected Iterator<String> expandResponseFiles(ParserMetadata<T> parserConfig, Iterator<String> args) {
+        return parserConfig.allowsResponseFiles() ? new ResponseFileIterator(args) : args;
+    }
+
+    private static void close(Iterator<String> args, ParseState<?> state) {
+        if (!(args instanceof ResponseFileIterator))
+            return;
+        ResponseFileIterator responseFiles = (ResponseFileIterator) args;
+
+        // Release any response file left open because parsing stopped early,
+        // unless the remaining arguments are still to be streamed in which
+        // case the parser is done so further failures are thrown to the
+        // command consuming them, and closing the streamed arguments closes
+        // the response files
+        if (state != null && state.getStreamedArguments() != null) {
+            responseFiles.setThrowErrors(true);
+            state.getStreamedArguments().setSource(responseFiles);
+        } else {
+            responseFiles.close();
+        }
+
+        // A response file that could not be read ends the arguments early,
+        // report why via the error handler
+        if (state != null && responseFiles.getError() != null)
+            state.getParserConfiguration().getErrorHandler().handleError(responseFiles.getError());
+    }
+
     protected PeekingIterator<String> applyAliases(PeekingIterator<String> tokens, ParseState<T> state) {
         AliasResolver<T> resolver = new AliasResolver<T>();
         return resolver.resolveAliases(tokens, state);
@@ -109,34 +152,37 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
      * @return Parser State
      */
     protected ParseState<T> tryParse(ParserMetadata<T> parserConfig, CommandMetadata command, Iterable<String> args) {
-        PeekingIterator<String> tokens = new PeekingIterator<String>(args.iterator());
-        //@formatter:off
-        ParseState<T> state = ParseState.<T> newInstance()
-                                        .pushContext(Context.GLOBAL)
-                                        .withConfiguration(parserConfig)
-                                        .withCommand(command)
-                                        .pushContext(Context.COMMAND);
-        //@formatter:off
+        Iterator<String> iter = expandResponseFiles(parserConfig, args.iterator());
+        ParseState<T> state = null;
+        try {
+            PeekingIterator<String> tokens = new PeekingIterator<String>(iter);
+            //@formatter:off
+            state = ParseState.<T> newInstance()
+                                            .pushContext(Context.GLOBAL)
+                                            .withConfiguration(parserConfig)
+                                            .withCommand(command)
+                                            .pushContext(Context.COMMAND);
+            //@formatter:off
 
-        state = parseCommandOptionsAndArguments(tokens, state, command);
-        return state;
+            state = parseCommandOptionsAndArguments(tokens, state, command);
+            return state;
+        } finally {
+            close(iter, state);
+        }
     }
 
     protected ParseState<T> parseCommand(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<CommandMetadata> findCommandPredicate;
-        List<CommandMetadata> expectedCommands = state.getGlobal().getDefaultGroupCommands();
+        PrefixTrie<CommandMetadata> expectedCommands = state.getGlobal().getDefaultGroupCommandIndex();
         if (state.getGroup() != null) {
-            expectedCommands = state.getGroup().getCommands();
+            expectedCommands = state.getGroup().getCommandIndex();
         }
 
         if (tokens.hasNext()) {
-            //@formatter:off
-            findCommandPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                   ? new AbbreviatedCommandFinder(tokens.peek(), expectedCommands)
-                                   : new CommandFinder(tokens.peek());
-            //@formatter:on
-            CommandMetadata command = AirlineUtils.find(expectedCommands, findCommandPredicate,
-                    state.getGroup() != null ? state.getGroup().getDefaultCommand() : null);
+            CommandMetadata command = expectedCommands.match(tokens.peek())
+                    .get(state.getParserConfiguration().allowsAbbreviatedCommands());
+            if (command == null && state.getGroup() != null) {
+                command = state.getGroup().getDefaultCommand();
+            }
 
             boolean usingDefault = false;
             if (command == null && state.getGroup() == null && state.getGlobal().getDefaultCommand() != null) {
@@ -169,42 +215,66 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
 
     protected ParseState<T> parseCommandOptionsAndArguments(PeekingIterator<String> tokens, ParseState<T> state,
             CommandMetadata command) {
+        OptionIndex allowedOptions = command.getOptionIndex();
+        ArgumentsMetadata arguments = command.getArguments();
+        OptionMetadata defaultOption = command.getDefaultOption();
         while (tokens.hasNext()) {
-            state = parseOptions(tokens, state, command.getAllOptions());
+            state = parseOptions(tokens, state, allowedOptions);
 
-            state = parseArgs(state, tokens, command.getArguments(), command.getDefaultOption());
+            if (arguments != null && arguments.isStreamed()) {
+                // Leave the remaining tokens to be converted as the command
+                // consumes them
+                break;
+            }
+            state = parseArgs(state, tokens, arguments, defaultOption);
+        }
+        if (arguments != null && arguments.isStreamed()) {
+            if (tokens.hasNext() && tokens.peek().equals(state.getParserConfiguration().getArgumentsSeparator())) {
+                state = state.pushContext(Context.ARGS);
+                tokens.next();
+            }
+            state = state.withStreamedArguments(arguments, tokens);
         }
         return state;
     }
 
+    /**
+     * Gets whether the final validation of the arguments restrictions should
+     * be deferred because the arguments are streamed, in which case it happens
+     * once the command has consumed all the arguments
+     * 
+     * @param state
+     *            Parser state
+     * @return True if validation is deferred, false if it should happen now
+     */
+    protected boolean isArgumentsValidationDeferred(ParseState<T> state) {
+        StreamedArguments<T> streamed = state.getStreamedArguments();
+        return streamed != null && !streamed.validateIfEmpty();
+    }
+
     protected ParseState<T> parseGroup(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<CommandGroupMetadata> findGroupPredicate;
+        boolean abbreviate = state.getParserConfiguration().allowsAbbreviatedCommands();
         if (tokens.hasNext()) {
-            //@formatter:off
-            findGroupPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                 ? new AbbreviatedGroupFinder(tokens.peek(), state.getGlobal().getCommandGroups()) 
-                                 : new GroupFinder(tokens.peek());
-            //@formatter:on
-            CommandGroupMetadata group = CollectionUtils.find(state.getGlobal().getCommandGroups(), findGroupPredicate);
+            CommandGroupMetadata group = abbreviate
+                    ? state.getGlobal().getCommandGroupIndex().match(tokens.peek()).get(true)
+                    : state.getGlobal().findGroup(tokens.peek());
             if (group != null) {
                 tokens.next();
                 state = state.withGroup(group).pushContext(Context.GROUP);
-                state = parseOptions(tokens, state,
-                        ListUtils.union(state.getGlobal().getOptions(), state.getGroup().getOptions()));
+                if (!isNextTokenName(tokens, state, group.getSubGroupIndex(), group.getCommandIndex())) {
+                    state = parseOptions(tokens, state, state.getGlobal().getGroupOptionIndex(group));
+                }
 
                 // Possibly may have sub-groups specified
                 while (tokens.hasNext() && state.getGroup().getSubGroups().size() > 0) {
-                    //@formatter:off
-                    findGroupPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                         ? new AbbreviatedGroupFinder(tokens.peek(), state.getGroup().getSubGroups()) 
-                                         : new GroupFinder(tokens.peek());
-                    //@formatter:on
-                    group = CollectionUtils.find(state.getGroup().getSubGroups(), findGroupPredicate);
+                    group = abbreviate ? state.getGroup().getSubGroupIndex().match(tokens.peek()).get(true)
+                            : state.getGroup().findSubGroup(tokens.peek());
                     if (group != null) {
                         tokens.next();
                         state = state.withGroup(group).pushContext(Context.GROUP);
-                        state = parseOptions(tokens, state,
-                                ListUtils.union(state.getGlobal().getOptions(), state.getGroup().getOptions()));
+                        if (!isNextTokenName(tokens, state, group.getSubGroupIndex(), group.getCommandIndex())) {
+                            state = parseOptions(tokens, state, state.getGlobal().getGroupOptionIndex(group));
+                        }
                     } else {
                         // Either a group that has a mixture of sub-groups and
                         // commands in which case we need to break out of this
@@ -219,6 +289,36 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
         return state;
     }
 
+    /**
+     * Gets whether the next token is exactly the name of one of the given
+     * groups/commands when commands are loaded lazily
+     * <p>
+     * When commands are loaded lazily finding the options available in the
+     * global/group context requires every command that contributes options to
+     * that context to be fully loaded. When the next token names a group or
+     * command we can skip option parsing and so avoid this for the common case
+     * of invocations that start with a group and/or command name.
+     * </p>
+     * 
+     * @param tokens
+     *            Tokens
+     * @param state
+     *            Parser state
+     * @param names
+     *            Groups and/or commands indexed by name
+     * @return True if option parsing can be skipped, false otherwise
+     */
+    private boolean isNextTokenName(PeekingIterator<String> tokens, ParseState<T> state, PrefixTrie<?>... names) {
+        if (!state.getParserConfiguration().loadsCommandsLazily() || !tokens.hasNext())
+            return false;
+        String token = tokens.peek();
+        for (PrefixTrie<?> index : names) {
+            if (index.get(token) != null)
+                return true;
+        }
+        return false;
+    }
+
     private ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
 
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list view that supports cheap appends via structural sharing
+ * <p>
+ * Each instance is a view over a prefix of a shared backing buffer. Appending
+ * to the view that currently ends at the tip of the buffer writes into the
+ * buffer in place and returns a new, longer, view without copying. Appending to
+ * any other view (i.e. one that has been superseded by a later append) forks a
+ * private copy of the buffer so that previously handed out views never observe
+ * later changes. This gives {@link ParseState} its immutable semantics, which
+ * option parsers rely upon to roll back partial parses, while making the common
+ * case of a linear parse amortised O(1) per transition rather than O(n).
+ * </p>
+ *
+ * @param <E>
+ *            Element type
+ */
+final class AppendOnlyList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Shared backing buffer, {@code size} records how many slots have been
+     * written and is guarded by synchronising on the buffer itself
+     */
+    private static final class Buffer {
+        private Object[] elements;
+        private int size;
+
+        private Buffer(Object[] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+    }
+
+    private final Buffer buffer;
+    /**
+     * Snapshot of the buffer array at the time this view was created, slots
+     * below {@link #size} are never overwritten so reading through this
+     * reference is safe without locking
+     */
+    private final Object[] elements;
+    private final int size;
+
+    private AppendOnlyList(Buffer buffer, Object[] elements, int size) {
+        this.buffer = buffer;
+        this.elements = elements;
+        this.size = size;
+    }
+
+    /**
+     * Creates a new empty list with its own backing buffer
+     *
+     * @return Empty list
+     */
+    static <E> AppendOnlyList<E> empty() {
+        return new AppendOnlyList<E>(new Buffer(new Object[0], 0), new Object[0], 0);
+    }
+
+    /**
+     * Returns a list which is this list plus the given element
+     *
+     * @param element
+     *            Element to append
+     * @return New list, this list is unaffected
+     */
+    AppendOnlyList<E> append(E element) {
+        synchronized (this.buffer) {
+            if (this.buffer.size == this.size) {
+                // We are the tip so can extend in place
+                if (this.size == this.buffer.elements.length) {
+                    this.buffer.elements = Arrays.copyOf(this.buffer.elements,
+                            Math.max(INITIAL_CAPACITY, this.size * 2));
+                }
+                this.buffer.elements[this.size] = element;
+                this.buffer.size++;
+                return new AppendOnlyList<E>(this.buffer, this.buffer.elements, this.size + 1);
+            } else if (this.buffer.elements[this.size] == element) {
+                // A later view already appended the exact same element so we
+                // can share it e.g. popping and then re-pushing the same
+                // context
+                return new AppendOnlyList<E>(this.buffer, this.buffer.elements, this.size + 1);
+            }
+
+            // Superseded so must fork our own buffer
+            Object[] forked = Arrays.copyOf(this.buffer.elements, Math.max(INITIAL_CAPACITY, this.size * 2));
+            forked[this.size] = element;
+            return new AppendOnlyList<E>(new Buffer(forked, this.size + 1), forked, this.size + 1);
+        }
+    }
+
+    /**
+     * Returns a list which is this list minus its last element
+     *
+     * @return New list, this list is unaffected
+     */
+    AppendOnlyList<E> removeLast() {
+        if (this.size == 0)
+            throw new IllegalStateException("Cannot remove from an empty list");
+        return new AppendOnlyList<E>(this.buffer, this.elements, this.size - 1);
+    }
+
+    /**
+     * Gets the last element of the list
+     *
+     * @return Last element
+     */
+    E last() {
+        return get(this.size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E get(int index) {
+        Objects.checkIndex(index, this.size);
+        return (E) this.elements[index];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+}
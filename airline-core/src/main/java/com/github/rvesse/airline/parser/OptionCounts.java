@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.Arrays;
+
+/**
+ * Immutable counts of option values, indexed by option ordinal, that support
+ * cheap increments via structural sharing
+ * <p>
+ * This works like {@link AppendOnlyList}, each instance is a view of a shared
+ * buffer as of a given number of increments. The buffer holds the counts as of
+ * its latest increment plus a log of the ordinal incremented by each increment.
+ * Incrementing the view that is currently at the tip of the buffer updates the
+ * buffer in place, incrementing any other view (i.e. one that has been
+ * superseded by a later increment) forks a private copy of the buffer. The
+ * first time a superseded view is read it takes its own copy of its counts, by
+ * discounting the later increments recorded in the log, so that cost is paid
+ * once per superseded view rather than on every read. The common case of a
+ * linear parse is thus O(1) per option value regardless of how many options
+ * are in scope, and states the parser returns to after trying alternatives are
+ * O(1) per read after the first.
+ * </p>
+ */
+final class OptionCounts {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Shared backing buffer, guarded by synchronising on the buffer itself
+     */
+    private static final class Buffer {
+        private int[] counts;
+        private int[] log;
+        private int size;
+
+        private Buffer(int[] counts, int[] log, int size) {
+            this.counts = counts;
+            this.log = log;
+            this.size = size;
+        }
+    }
+
+    private final Buffer buffer;
+    private final int size;
+    /**
+     * Counts as of this view, taken the first time this view is read after
+     * being superseded, guarded by the buffer
+     */
+    private int[] forked;
+
+    private OptionCounts(Buffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Creates new empty counts with their own backing buffer
+     *
+     * @return Empty counts
+     */
+    static OptionCounts empty() {
+        return new OptionCounts(new Buffer(new int[0], new int[0], 0), 0);
+    }
+
+    /**
+     * Gets whether nothing has been counted
+     *
+     * @return True if empty, false otherwise
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Gets the count for the given ordinal
+     *
+     * @param ordinal
+     *            Ordinal
+     * @return Count
+     */
+    int get(int ordinal) {
+        synchronized (this.buffer) {
+            int[] counts = this.forked;
+            if (counts == null) {
+                if (this.buffer.size == this.size)
+                    return ordinal < this.buffer.counts.length ? this.buffer.counts[ordinal] : 0;
+
+                // Superseded so take our own copy of the counts rather than
+                // discounting the later increments on every read
+                counts = this.forked = countsAsOf(this.buffer.counts.length);
+            }
+            return ordinal < counts.length ? counts[ordinal] : 0;
+        }
+    }
+
+    /**
+     * Copies the counts as of this view, must be called holding the lock on
+     * the buffer
+     * 
+     * @param length
+     *            Minimum length of the copy
+     * @return Counts
+     */
+    private int[] countsAsOf(int length) {
+        if (this.forked != null)
+            return Arrays.copyOf(this.forked, Math.max(this.forked.length, length));
+        int[] counts = Arrays.copyOf(this.buffer.counts, Math.max(this.buffer.counts.length, length));
+        // Discount any increments made after this view
+        for (int i = this.size; i < this.buffer.size; i++) {
+            counts[this.buffer.log[i]]--;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns counts which are these counts with the given ordinal incremented
+     *
+     * @param ordinal
+     *            Ordinal
+     * @return New counts, these counts are unaffected
+     */
+    OptionCounts increment(int ordinal) {
+        synchronized (this.buffer) {
+            if (this.buffer.size == this.size) {
+                // We are the tip so can update in place
+                if (ordinal >= this.buffer.counts.length)
+                    this.buffer.counts = Arrays.copyOf(this.buffer.counts, Math.max(INITIAL_CAPACITY, ordinal * 2));
+                if (this.size == this.buffer.log.length)
+                    this.buffer.log = Arrays.copyOf(this.buffer.log, Math.max(INITIAL_CAPACITY, this.size * 2));
+                this.buffer.counts[ordinal]++;
+                this.buffer.log[this.size] = ordinal;
+                this.buffer.size++;
+                return new OptionCounts(this.buffer, this.size + 1);
+            }
+
+            // Superseded so must fork our own buffer
+            int[] counts = countsAsOf(Math.max(INITIAL_CAPACITY, ordinal * 2));
+            int[] log = Arrays.copyOf(this.buffer.log, Math.max(INITIAL_CAPACITY, this.size * 2));
+            counts[ordinal]++;
+            log[this.size] = ordinal;
+            return new OptionCounts(new Buffer(counts, log, this.size + 1), this.size + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (this.buffer) {
+            return Arrays.toString(countsAsOf(this.buffer.counts.length));
+        }
+    }
+}
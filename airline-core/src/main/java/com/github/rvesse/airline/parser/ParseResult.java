@@ -109,14 +109,18 @@ public class ParseResult<T> {
         bindings.put(ParserMetadata.class, state.getParserConfiguration());
         bindings = AirlineUtils.unmodifiableMapCopy(bindings);
 
+        // Streamed arguments are handed over as-is for the command to consume
+        Iterable<Object> arguments = state.getStreamedArguments() != null ? state.getStreamedArguments()
+                : state.getParsedArguments();
+
         if (state.getGlobal() != null) {
             // Create instance
             return createInstance(command.getType(), command.getAllOptions(), state.getParsedOptions(),
-                    command.getArguments(), state.getParsedArguments(), command.getMetadataInjections(), bindings,
+                    command.getArguments(), arguments, command.getMetadataInjections(), bindings,
                     state.getParserConfiguration().getCommandFactory());
         } else {
             return createInstance(command.getType(), command.getAllOptions(), state.getParsedOptions(),
-                    command.getArguments(), state.getParsedArguments(), command.getMetadataInjections(), bindings,
+                    command.getArguments(), arguments, command.getMetadataInjections(), bindings,
                     state.getParserConfiguration().getCommandFactory());
         }
 
@@ -21,38 +21,38 @@ import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionIndex;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
 import com.github.rvesse.airline.types.TypeConverter;
-import com.github.rvesse.airline.utils.AirlineUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.commons.lang3.tuple.Pair;
 
 public class ParseState<T> {
-    private final List<Context> locationStack;
+    private final AppendOnlyList<Context> locationStack;
     private final GlobalMetadata<T> global;
     private final ParserMetadata<T> parserConfig;
     private final CommandGroupMetadata group;
     private final CommandMetadata command;
-    private final List<Pair<OptionMetadata, Object>> parsedOptions;
-    private final Map<OptionMetadata, Integer> optionsCount;
-    private final List<Object> parsedArguments;
+    private final AppendOnlyList<Pair<OptionMetadata, Object>> parsedOptions;
+    private final OptionCounts optionsCount;
+    private volatile OptionIndex options;
+    private final AppendOnlyList<Object> parsedArguments;
     private final OptionMetadata currentOption;
-    private final List<String> unparsedInput;
+    private final AppendOnlyList<String> unparsedInput;
+    private final StreamedArguments<T> streamedArguments;
 
     ParseState(GlobalMetadata<T> global, ParserMetadata<T> parserConfig, CommandGroupMetadata group,
-            CommandMetadata command, List<Pair<OptionMetadata, Object>> parsedOptions,
-            Map<OptionMetadata, Integer> optionsCount, List<Context> locationStack, List<Object> parsedArguments,
-            OptionMetadata currentOption, List<String> unparsedInput) {
+            CommandMetadata command, AppendOnlyList<Pair<OptionMetadata, Object>> parsedOptions,
+            OptionCounts optionsCount, OptionIndex options, AppendOnlyList<Context> locationStack,
+            AppendOnlyList<Object> parsedArguments, OptionMetadata currentOption,
+            AppendOnlyList<String> unparsedInput, StreamedArguments<T> streamedArguments) {
         this.global = global;
         if (global != null) {
             this.parserConfig = global.getParserConfiguration();
@@ -65,31 +65,31 @@ public class ParseState<T> {
         this.command = command;
         this.parsedOptions = parsedOptions;
         this.optionsCount = optionsCount;
+        this.options = options;
         this.locationStack = locationStack;
         this.parsedArguments = parsedArguments;
         this.currentOption = currentOption;
         this.unparsedInput = unparsedInput;
+        this.streamedArguments = streamedArguments;
     }
 
     public static <T> ParseState<T> newInstance() {
-        return new ParseState<T>(null, null, null, null, new ArrayList<Pair<OptionMetadata, Object>>(),
-                new HashMap<OptionMetadata, Integer>(), Collections.<Context> emptyList(),
-                Collections.<Object> emptyList(), null, Collections.<String> emptyList());
+        return new ParseState<T>(null, null, null, null, AppendOnlyList.<Pair<OptionMetadata, Object>> empty(),
+                OptionCounts.empty(), null, AppendOnlyList.<Context> empty(),
+                AppendOnlyList.<Object> empty(), null, AppendOnlyList.<String> empty(), null);
     }
 
     public ParseState<T> pushContext(Context location) {
-        List<Context> locations = AirlineUtils.listCopy(this.locationStack);
-        locations.add(location);
+        AppendOnlyList<Context> locations = this.locationStack.append(location);
 
-        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locations,
-                parsedArguments, currentOption, unparsedInput);
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, options,
+                locations, parsedArguments, currentOption, unparsedInput, streamedArguments);
     }
 
     public ParseState<T> popContext() {
-        List<Context> locationStack = AirlineUtils
-                .unmodifiableListCopy(this.locationStack.subList(0, this.locationStack.size() - 1));
-        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+        AppendOnlyList<Context> locationStack = this.locationStack.removeLast();
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, options,
+                locationStack, parsedArguments, currentOption, unparsedInput, streamedArguments);
     }
 
     public ParseState<T> withOptionValue(OptionMetadata option, String rawValue) {
@@ -104,10 +104,8 @@ public class ParseState<T> {
 
         try {
             // Convert value
-            Integer index = optionsCount.get(option);
-            if (index == null)
-                index = 0;
-            TypeConverter converter = option.getTypeConverterProvider().getTypeConverter(option, this);
+            int index = getOptionValuesSeen(option);
+            TypeConverter converter = option.getTypeConverter(this);
             Object value = converter.convert(option.getTitle(option.getArity() > 0 ? index % option.getArity() : 0), option.getJavaType(), rawValue);
 
             // Post-validate
@@ -119,47 +117,86 @@ public class ParseState<T> {
                 }
             }
 
-            List<Pair<OptionMetadata, Object>> newOptions = AirlineUtils.listCopy(parsedOptions);
-            newOptions.add(Pair.of(option, value));
-            Map<OptionMetadata, Integer> newOptionsCount = new HashMap<>(optionsCount);
-            newOptionsCount.put(option, ++index);
+            AppendOnlyList<Pair<OptionMetadata, Object>> newOptions = parsedOptions.append(Pair.of(option, value));
+            OptionIndex newIndex = getScopeOptions().including(option);
+            OptionCounts newOptionsCount = optionsCount.increment(newIndex.ordinalOf(option));
 
-            return new ParseState<T>(global, parserConfig, group, command, newOptions, newOptionsCount, locationStack,
-                    parsedArguments, currentOption, unparsedInput);
+            return new ParseState<T>(global, parserConfig, group, command, newOptions, newOptionsCount, newIndex,
+                    locationStack, parsedArguments, currentOption, unparsedInput, streamedArguments);
         } catch (ParseException e) {
             this.parserConfig.getErrorHandler().handleError(e);
 
-            List<String> newUnparsed = AirlineUtils.listCopy(unparsedInput);
-            newUnparsed.add(rawValue);
+            AppendOnlyList<String> newUnparsed = unparsedInput.append(rawValue);
 
-            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, options,
+                    locationStack, parsedArguments, currentOption, newUnparsed, streamedArguments);
         }
     }
 
     public ParseState<T> withGlobal(GlobalMetadata<T> global) {
-        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+        return withScope(global, group, command);
+    }
+
+    /**
+     * Moves the state into the scope of the given metadata
+     * <p>
+     * Option ordinals are assigned per scope, see {@link OptionIndex}, so when
+     * the scope changes the counts of the options parsed so far are recomputed
+     * against the ordinals of the new scope. If no options have been parsed
+     * the options of the new scope are not resolved until needed, this avoids
+     * forcing lazily loaded commands to load.
+     * </p>
+     */
+    private ParseState<T> withScope(GlobalMetadata<T> global, CommandGroupMetadata group, CommandMetadata command) {
+        if (parsedOptions.isEmpty())
+            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, OptionCounts.empty(), null,
+                    locationStack, parsedArguments, currentOption, unparsedInput, streamedArguments);
+
+        OptionIndex newIndex = scopeOptions(global, group, command);
+        OptionCounts newOptionsCount = OptionCounts.empty();
+        for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
+            newIndex = newIndex.including(parsedOption.getLeft());
+            newOptionsCount = newOptionsCount.increment(newIndex.ordinalOf(parsedOption.getLeft()));
+        }
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, newOptionsCount, newIndex,
+                locationStack, parsedArguments, currentOption, unparsedInput, streamedArguments);
+    }
+
+    private OptionIndex getScopeOptions() {
+        OptionIndex index = this.options;
+        if (index == null) {
+            // Benign race, worst case multiple threads resolve the same index
+            index = scopeOptions(global, group, command);
+            this.options = index;
+        }
+        return index;
+    }
+
+    private static OptionIndex scopeOptions(GlobalMetadata<?> global, CommandGroupMetadata group,
+            CommandMetadata command) {
+        if (command != null)
+            return command.getOptionIndex();
+        if (group != null)
+            return global != null ? global.getGroupOptionIndex(group) : group.getOptionIndex();
+        return global != null ? global.getOptionIndex() : OptionIndex.empty();
     }
 
     public ParseState<T> withConfiguration(ParserMetadata<T> parserConfig) {
-        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, options,
+                locationStack, parsedArguments, currentOption, unparsedInput, streamedArguments);
     }
 
     public ParseState<T> withGroup(CommandGroupMetadata group) {
-        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+        return withScope(global, group, command);
     }
 
     public ParseState<T> withCommand(CommandMetadata command) {
-        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+        return withScope(global, group, command);
     }
 
     public ParseState<T> withOption(OptionMetadata option) {
-        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, option, unparsedInput);
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, options,
+                locationStack, parsedArguments, option, unparsedInput, streamedArguments);
     }
 
     public ParseState<T> withArgument(ArgumentsMetadata arguments, String rawValue) {
@@ -174,7 +211,7 @@ public class ParseState<T> {
 
         // Convert value
         try {
-            TypeConverter converter = arguments.getTypeConverterProvider().getTypeConverter(arguments, this);
+            TypeConverter converter = arguments.getTypeConverter(this);
             Object value = converter.convert(arguments.getTitle().get(0), arguments.getJavaType(), rawValue);
 
             // Post-validate
@@ -186,28 +223,43 @@ public class ParseState<T> {
                 }
             }
 
-            List<Object> newArguments = AirlineUtils.listCopy(parsedArguments);
-            newArguments.add(value);
+            AppendOnlyList<Object> newArguments = parsedArguments.append(value);
 
-            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                    newArguments, currentOption, unparsedInput);
+            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, options,
+                    locationStack, newArguments, currentOption, unparsedInput, streamedArguments);
         } catch (ParseException e) {
             this.parserConfig.getErrorHandler().handleError(e);
 
-            List<String> newUnparsed = AirlineUtils.listCopy(unparsedInput);
-            newUnparsed.add(rawValue);
+            AppendOnlyList<String> newUnparsed = unparsedInput.append(rawValue);
 
-            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, options,
+                    locationStack, parsedArguments, currentOption, newUnparsed, streamedArguments);
         }
     }
 
+    /**
+     * Stops parsing arguments and instead streams the remaining tokens to the
+     * command as they are consumed, see {@link StreamedArguments}
+     * 
+     * @param arguments
+     *            Arguments meta-data
+     * @param tokens
+     *            Remaining tokens
+     * @return Parser state
+     */
+    public ParseState<T> withStreamedArguments(ArgumentsMetadata arguments, Iterator<String> tokens) {
+        StreamedArguments<T> streamed = new StreamedArguments<T>(arguments, tokens);
+        ParseState<T> state = new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount,
+                options, locationStack, parsedArguments, currentOption, unparsedInput, streamed);
+        streamed.setState(state);
+        return state;
+    }
+
     public ParseState<T> withUnparsedInput(String input) {
-        List<String> newUnparsedInput = AirlineUtils.listCopy(unparsedInput);
-        newUnparsedInput.add(input);
+        AppendOnlyList<String> newUnparsedInput = unparsedInput.append(input);
 
-        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, newUnparsedInput);
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, options,
+                locationStack, parsedArguments, currentOption, newUnparsedInput, streamedArguments);
     }
 
     @Override
@@ -219,7 +271,7 @@ public class ParseState<T> {
     }
 
     public Context getLocation() {
-        return locationStack.get(locationStack.size() - 1);
+        return locationStack.last();
     }
 
     public GlobalMetadata<T> getGlobal() {
@@ -246,15 +298,74 @@ public class ParseState<T> {
         return parsedOptions;
     }
 
+    /**
+     * Gets how many values have been seen for the given option
+     * <p>
+     * Counts are kept by the options ordinal within the current scope (see
+     * {@link OptionIndex#ordinalOf(OptionMetadata)}) so this is a constant time
+     * operation.
+     * </p>
+     * 
+     * @param option
+     *            Option
+     * @return Number of values seen
+     */
     public int getOptionValuesSeen(OptionMetadata option) {
-        Integer count = optionsCount.get(option);
-        return count == null ? 0 : count.intValue();
+        if (optionsCount.isEmpty())
+            return 0;
+        int ordinal = getScopeOptions().ordinalOf(option);
+        return ordinal >= 0 ? optionsCount.get(ordinal) : 0;
+    }
+
+    /**
+     * Gets whether any values have been seen for the given option
+     * 
+     * @param option
+     *            Option
+     * @return True if seen, false otherwise
+     */
+    public boolean hasOptionValues(OptionMetadata option) {
+        return getOptionValuesSeen(option) > 0;
     }
 
+    /**
+     * Gets the parsed arguments
+     * <p>
+     * If the arguments are streamed (see {@link #getStreamedArguments()}) the
+     * values are not retained so this is empty, use
+     * {@link #getArgumentsSeen()} to find out how many arguments there have
+     * been.
+     * </p>
+     * 
+     * @return Parsed arguments
+     */
     public List<Object> getParsedArguments() {
         return parsedArguments;
     }
 
+    /**
+     * Gets how many arguments have been seen
+     * <p>
+     * This is the number of parsed arguments or, if the arguments are streamed,
+     * the number of values consumed so far.
+     * </p>
+     * 
+     * @return Number of arguments seen
+     */
+    public int getArgumentsSeen() {
+        return streamedArguments != null ? streamedArguments.getCount() : parsedArguments.size();
+    }
+
+    /**
+     * Gets the streamed arguments, if the command's arguments are streamed
+     * 
+     * @return Streamed arguments, or {@code null} if the arguments were not
+     *         streamed
+     */
+    public StreamedArguments<T> getStreamedArguments() {
+        return streamedArguments;
+    }
+
     public List<String> getUnparsedInput() {
         return unparsedInput;
     }
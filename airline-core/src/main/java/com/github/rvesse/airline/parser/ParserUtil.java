@@ -19,11 +19,13 @@ import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.CommandFactory;
 import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionIndex;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.parser.resources.ResourceLocator;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -53,15 +55,13 @@ public class ParserUtil {
             List<Pair<OptionMetadata, Object>> parsedOptions, ArgumentsMetadata arguments,
             Iterable<Object> parsedArguments, Iterable<Accessor> metadataInjection, Map<Class<?>, Object> bindings) {
         // inject options
-        for (OptionMetadata option : options) {
-            List<Object> values = new ArrayList<>();
-            for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
-                if (option.equals(parsedOption.getLeft()))
-                    values.add(parsedOption.getRight());
-            }
-            if (values != null && !values.isEmpty()) {
+        OptionIndex index = OptionIndex.of(options);
+        List<List<Object>> values = bucketByOrdinal(parsedOptions, index);
+        for (OptionMetadata option : index) {
+            List<Object> optionValues = values.get(index.ordinalOf(option));
+            if (optionValues != null) {
                 for (Accessor accessor : option.getAccessors()) {
-                    accessor.addValues(commandInstance, values);
+                    accessor.addValues(commandInstance, optionValues);
                 }
             }
         }
@@ -84,6 +84,32 @@ public class ParserUtil {
         return commandInstance;
     }
 
+    /**
+     * Groups the parsed option values by the ordinal of the option within the given index in a single pass
+     * 
+     * @param parsedOptions
+     *            Parsed options
+     * @param index
+     *            Option index that assigns the ordinals
+     * @return List indexed by option ordinal, entries are {@code null} for options with no values, parsed options not
+     *         in the index are ignored
+     */
+    static List<List<Object>> bucketByOrdinal(List<Pair<OptionMetadata, Object>> parsedOptions, OptionIndex index) {
+        List<List<Object>> buckets = new ArrayList<>(Collections.nCopies(index.getOrdinalCount(), (List<Object>) null));
+        for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
+            int ordinal = index.ordinalOf(parsedOption.getLeft());
+            if (ordinal < 0)
+                continue;
+            List<Object> bucket = buckets.get(ordinal);
+            if (bucket == null) {
+                bucket = new ArrayList<>();
+                buckets.set(ordinal, bucket);
+            }
+            bucket.add(parsedOption.getRight());
+        }
+        return buckets;
+    }
+
     public static <T> T createInstance(Class<?> type, Iterable<OptionMetadata> options,
             List<Pair<OptionMetadata, Object>> parsedOptions, ArgumentsMetadata arguments,
             Iterable<Object> parsedArguments, Iterable<Accessor> metadataInjection, Map<Class<?>, Object> bindings,
@@ -0,0 +1,225 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.github.rvesse.airline.Channels;
+import com.github.rvesse.airline.parser.aliases.AliasArgumentsParser;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+/**
+ * An iterator that expands response file references within arguments
+ * <p>
+ * Any argument of the form {@code @file} is replaced by the arguments read from
+ * the given file, and {@code @-} by the arguments read from standard input (as
+ * provided by {@link Channels#input()}). An argument that needs to start with a
+ * literal {@code @} may be escaped by doubling it i.e. {@code @@foo} yields the
+ * argument {@code @foo}. Response files are split into arguments using the same
+ * rules as alias definitions (see {@link AliasArgumentsParser}), and response
+ * file references within a response file are not expanded.
+ * </p>
+ * <p>
+ * Response files are read lazily via a buffered reader as the parser consumes
+ * arguments so even response files containing very large numbers of arguments
+ * only ever have a single argument in memory at a time. Each response file is
+ * closed once all its arguments have been consumed, if parsing stops early the
+ * remaining resources may be released via {@link #close()}.
+ * </p>
+ * <p>
+ * If a response file cannot be opened, read or split into arguments the
+ * iteration ends at that point and the failure, a {@link ParseException} naming
+ * the response file, is made available via {@link #getError()} so that the
+ * parser can report it via its error handler. Once parsing has finished
+ * {@link #setThrowErrors(boolean)} may be used to have subsequent failures
+ * thrown instead, e.g. when the remaining arguments are streamed to a command.
+ * </p>
+ */
+public class ResponseFileIterator implements Iterator<String>, AutoCloseable {
+
+    /**
+     * Prefix that denotes a response file reference
+     */
+    public static final char PREFIX = '@';
+
+    /**
+     * Response file reference that denotes standard input
+     */
+    public static final String STANDARD_INPUT = "@-";
+
+    private final Iterator<String> args;
+    private final Charset charset;
+    private Reader reader;
+    private String source;
+    private boolean standardInput;
+    private Iterator<String> expanded;
+    private String next;
+    private ParseException error;
+    private boolean throwErrors;
+
+    /**
+     * Creates a new iterator that reads response files as UTF-8
+     * 
+     * @param args
+     *            Arguments
+     */
+    public ResponseFileIterator(Iterator<String> args) {
+        this(args, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new iterator
+     * 
+     * @param args
+     *            Arguments
+     * @param charset
+     *            Character set of response files
+     */
+    public ResponseFileIterator(Iterator<String> args, Charset charset) {
+        if (args == null)
+            throw new NullPointerException("args cannot be null");
+        if (charset == null)
+            throw new NullPointerException("charset cannot be null");
+        this.args = args;
+        this.charset = charset;
+    }
+
+    /**
+     * Gets the failure that ended the iteration early, if any
+     * 
+     * @return Failure, or {@code null} if none
+     */
+    public ParseException getError() {
+        return this.error;
+    }
+
+    /**
+     * Sets whether failures are thrown from {@link #hasNext()} and
+     * {@link #next()} rather than ending the iteration, by default they are not
+     * thrown
+     * 
+     * @param throwErrors
+     *            Whether to throw failures
+     */
+    public void setThrowErrors(boolean throwErrors) {
+        this.throwErrors = throwErrors;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next != null)
+            return true;
+        if (this.error != null)
+            return false;
+        try {
+            return advance();
+        } catch (ParseException e) {
+            this.error = e;
+            this.expanded = null;
+            try {
+                close();
+            } catch (ParseException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            if (this.throwErrors)
+                throw e;
+            return false;
+        }
+    }
+
+    private boolean advance() {
+        while (this.next == null) {
+            if (this.expanded != null) {
+                if (this.expanded.hasNext()) {
+                    this.next = this.expanded.next();
+                    break;
+                }
+                close();
+            }
+            if (!this.args.hasNext())
+                return false;
+
+            String arg = this.args.next();
+            if (arg == null || arg.length() < 2 || arg.charAt(0) != PREFIX) {
+                this.next = arg;
+            } else if (arg.charAt(1) == PREFIX) {
+                // Escaped literal @
+                this.next = arg.substring(1);
+            } else {
+                open(arg);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        String arg = this.next;
+        this.next = null;
+        return arg;
+    }
+
+    private void open(String arg) {
+        try {
+            if (STANDARD_INPUT.equals(arg)) {
+                this.source = "standard input";
+                this.standardInput = true;
+                this.reader = new BufferedReader(new InputStreamReader(Channels.input(), this.charset));
+            } else {
+                this.source = String.format("response file %s", arg.substring(1));
+                this.standardInput = false;
+                this.reader = Files.newBufferedReader(Paths.get(arg.substring(1)), this.charset);
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new ParseException(e, "Failed to read response file %s", arg.substring(1));
+        }
+        this.expanded = AliasArgumentsParser.parse(this.reader, this.source);
+    }
+
+    /**
+     * Closes the response file currently being read (if any)
+     * <p>
+     * Standard input is never closed.
+     * </p>
+     * 
+     * @throws ParseException
+     *             Thrown if the response file cannot be closed
+     */
+    @Override
+    public void close() {
+        Reader current = this.reader;
+        this.reader = null;
+        this.expanded = null;
+        if (current == null || this.standardInput)
+            return;
+        try {
+            current.close();
+        } catch (IOException e) {
+            throw new ParseException(e, "Failed to close %s", this.source);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.types.TypeConverter;
+
+/**
+ * Arguments that are converted and validated on demand as they are consumed
+ * <p>
+ * Used when the arguments of a command are bound to a
+ * {@link java.util.stream.Stream} or {@link Iterator} field, the parser stops
+ * at the first argument and the remaining tokens are left for the command to
+ * pull through this iterator. Each value is pre-validated, converted and
+ * post-validated as it is pulled, and once the tokens are exhausted the final
+ * validation of the arguments restrictions is run. Since the parser has
+ * finished by the time values are pulled any validation failure is thrown
+ * directly rather than passed to the error handler.
+ * </p>
+ * <p>
+ * Values are not retained, while streaming the
+ * {@link ParseState#getParsedArguments()} of the parser state is empty and
+ * {@link ParseState#getArgumentsSeen()} reports how many values have been
+ * consumed so far so that restrictions which only need the count, e.g. required
+ * and occurrence restrictions, work as usual. Global restrictions are validated before any values are consumed,
+ * those that need to see the values register a check via
+ * {@link #addValueCheck(Consumer)} instead.
+ * </p>
+ * <p>
+ * The remaining tokens may be being read from a response file, the command
+ * should {@link #close()} these arguments once done with them, for a
+ * {@link java.util.stream.Stream} field closing the stream does this.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public final class StreamedArguments<T> implements Iterable<Object>, Iterator<Object>, AutoCloseable {
+
+    private final ArgumentsMetadata arguments;
+    private final Iterator<String> tokens;
+    private final List<Consumer<Object>> valueChecks = new ArrayList<>();
+    private ParseState<T> state;
+    private AutoCloseable source;
+    private int count;
+    private boolean validated;
+
+    StreamedArguments(ArgumentsMetadata arguments, Iterator<String> tokens) {
+        this.arguments = arguments;
+        this.tokens = tokens;
+    }
+
+    void setState(ParseState<T> state) {
+        this.state = state;
+    }
+
+    /**
+     * Sets the source of the tokens which is closed when these arguments are
+     * closed
+     * 
+     * @param source
+     *            Source
+     */
+    void setSource(AutoCloseable source) {
+        this.source = source;
+    }
+
+    /**
+     * Adds a check that is applied to each value after it is converted and
+     * validated, checks should throw a {@link ParseException} if the value is
+     * invalid
+     * 
+     * @param check
+     *            Check
+     */
+    public void addValueCheck(Consumer<Object> check) {
+        this.valueChecks.add(check);
+    }
+
+    /**
+     * Gets the arguments meta-data
+     * 
+     * @return Arguments meta-data
+     */
+    public ArgumentsMetadata getArguments() {
+        return this.arguments;
+    }
+
+    /**
+     * Gets how many values have been consumed so far
+     * 
+     * @return Number of values consumed
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Marks the final validation of the arguments restrictions as done if
+     * there are no arguments to stream, this allows the parser to validate
+     * this case immediately and report any failure via its error handler
+     * 
+     * @return True if there were no arguments and the caller should now run
+     *         the final validation, false if it remains deferred until the
+     *         arguments are consumed
+     */
+    public boolean validateIfEmpty() {
+        if (this.validated || this.count > 0 || this.tokens.hasNext())
+            return false;
+        this.validated = true;
+        return true;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.tokens.hasNext())
+            return true;
+
+        if (!this.validated) {
+            this.validated = true;
+            for (ArgumentsRestriction restriction : this.arguments.getRestrictions()) {
+                restriction.finalValidate(this.state, this.arguments);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        String rawValue = this.tokens.next();
+
+        for (ArgumentsRestriction restriction : this.arguments.getRestrictions()) {
+            restriction.preValidate(this.state, this.arguments, rawValue);
+        }
+        TypeConverter converter = this.arguments.getTypeConverter(this.state);
+        Object value = converter.convert(this.arguments.getTitle().get(0), this.arguments.getJavaType(), rawValue);
+        for (ArgumentsRestriction restriction : this.arguments.getRestrictions()) {
+            restriction.postValidate(this.state, this.arguments, value);
+        }
+        for (Consumer<Object> check : this.valueChecks) {
+            check.accept(value);
+        }
+
+        this.count++;
+        return value;
+    }
+
+    /**
+     * Closes the source of the tokens, e.g. a response file that is still
+     * being read
+     */
+    @Override
+    public void close() {
+        AutoCloseable current = this.source;
+        this.source = null;
+        if (current == null)
+            return;
+        try {
+            current.close();
+        } catch (ParseException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ParseException(e, "Failed to close the source of argument '%s'",
+                    this.arguments.getTitle().get(0));
+        }
+    }
+}
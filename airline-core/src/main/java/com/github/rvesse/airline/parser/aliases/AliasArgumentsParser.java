@@ -15,104 +15,183 @@
  */
 package com.github.rvesse.airline.parser.aliases;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import com.github.rvesse.airline.parser.errors.ParseException;
 
+/**
+ * Splits a string into arguments using simple shell like rules
+ * <p>
+ * Arguments are separated by white space, an argument may be enclosed in
+ * double quotes in which case it may contain white space and {@code \"} may be
+ * used to include a double quote. Outside of quotes a backslash followed by a
+ * white space character includes that white space character in the argument.
+ * </p>
+ */
 public class AliasArgumentsParser {
 
+    private static final int NONE = -2;
+
     public static List<String> parse(String value) {
         AliasArgumentsParser parser = new AliasArgumentsParser(value);
         return parser.parse();
     }
 
-    private CharSequence sequence;
+    /**
+     * Lazily splits the contents of a reader into arguments using the same
+     * rules as alias definitions
+     * <p>
+     * Only a single argument is held in memory at any time so this is suitable
+     * for very large inputs, the reader is not closed by the returned iterator.
+     * If the reader fails, or the input has mismatched quotes, a
+     * {@link ParseException} naming the source is thrown from the iterator.
+     * </p>
+     * 
+     * @param reader
+     *            Reader
+     * @param source
+     *            Description of the source used in error messages
+     * @return Iterator over the arguments
+     */
+    public static Iterator<String> parse(Reader reader, String source) {
+        final AliasArgumentsParser parser = new AliasArgumentsParser(reader, source);
+        return new Iterator<String>() {
+            private String next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null)
+                    next = parser.next();
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                String arg = next;
+                next = null;
+                return arg;
+            }
+        };
+    }
+
+    private final Reader reader;
+    private final String source;
+    private int lookahead = NONE;
 
     AliasArgumentsParser(String value) {
-        this.sequence = value;
+        this(new StringReader(value), "alias definition: " + value);
+    }
+
+    private AliasArgumentsParser(Reader reader, String source) {
+        this.reader = reader;
+        this.source = source;
     }
 
     public List<String> parse() {
         List<String> args = new ArrayList<String>();
+        String arg;
+        while ((arg = next()) != null) {
+            args.add(arg);
+        }
+        return args;
+    }
 
-        for (int i = 0; i < this.sequence.length(); i++) {
-            char c = this.sequence.charAt(i);
-
-            switch (c) {
-            case '"':
-                // Start of a quoted argument
-                i = parseQuotedArgument(i, args);
-                break;
-            default:
-                if (Character.isWhitespace(c)) {
-                    // Ignore separating white space
-                    continue;
-                }
-                // Start on an unquoted argument
-                // Parse to next unescaped whitespace character
-                i = parseUnquotedArgument(i, args);
-            }
+    private int read() {
+        if (this.lookahead != NONE) {
+            int c = this.lookahead;
+            this.lookahead = NONE;
+            return c;
         }
+        try {
+            return this.reader.read();
+        } catch (IOException e) {
+            throw new ParseException(e, "Failed to read %s", this.source);
+        }
+    }
 
-        return args;
+    private int peek() {
+        if (this.lookahead == NONE)
+            this.lookahead = read();
+        return this.lookahead;
     }
 
-    private int parseQuotedArgument(int start, List<String> args) {
+    /**
+     * Parses the next argument
+     * 
+     * @return Next argument, or {@code null} if no further arguments
+     */
+    private String next() {
+        int c;
+        do {
+            // Ignore separating white space
+            c = read();
+        } while (c != -1 && Character.isWhitespace(c));
+
+        switch (c) {
+        case -1:
+            return null;
+        case '"':
+            // Start of a quoted argument
+            return parseQuotedArgument();
+        default:
+            // Start on an unquoted argument
+            // Parse to next unescaped whitespace character
+            return parseUnquotedArgument(c);
+        }
+    }
+
+    private String parseQuotedArgument() {
         StringBuilder arg = new StringBuilder();
-        for (int i = start + 1; i < this.sequence.length(); i++) {
-            char c = this.sequence.charAt(i);
+        int c;
+        while ((c = read()) != -1) {
             switch (c) {
             case '"':
                 // Reached end of quoted argument
-                args.add(arg.toString());
-                return i;
+                return arg.toString();
             case '\\':
                 // May be an escape
-                if (i + 1 < this.sequence.length()) {
-                    char next = this.sequence.charAt(i + 1);
-                    if (next == '"') {
-                        arg.append(next);
-                        i++;
-                        continue;
-                    }
+                if (peek() == '"') {
+                    arg.append((char) read());
+                    continue;
                 }
             default:
                 // Any other character just gets accumulated
-                arg.append(c);
+                arg.append((char) c);
             }
         }
 
         // Reached end of input which means we have mismatched quotes
-        throw new ParseException("Mismatched quotes in alias definition: %s", sequence);
+        throw new ParseException("Mismatched quotes in %s", this.source);
     }
 
-    private int parseUnquotedArgument(int start, List<String> args) {
+    private String parseUnquotedArgument(int c) {
         StringBuilder arg = new StringBuilder();
-        for (int i = start; i < this.sequence.length(); i++) {
-            char c = this.sequence.charAt(i);
+        for (; c != -1; c = read()) {
             if (c == '\\') {
                 // May be an escape
-                if (i + 1 < this.sequence.length()) {
-                    char next = this.sequence.charAt(i + 1);
-                    if (Character.isWhitespace(next)) {
-                        arg.append(next);
-                        i++;
-                        continue;
-                    }
+                int next = peek();
+                if (next != -1 && Character.isWhitespace(next)) {
+                    arg.append((char) read());
+                    continue;
                 }
             } else if (Character.isWhitespace(c)) {
                 // Reached end of argument
-                args.add(arg.toString());
-                return i;
+                return arg.toString();
             }
 
             // Otherwise accumulate
-            arg.append(c);
+            arg.append((char) c);
         }
 
         // Reached end of input which is fine for unquoted arguments
-        args.add(arg.toString());
-        return this.sequence.length() - 1;
+        return arg.toString();
     }
 }
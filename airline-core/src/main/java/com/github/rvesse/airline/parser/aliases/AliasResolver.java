@@ -21,19 +21,15 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.Predicate;
+import org.apache.commons.collections4.IteratorUtils;
 import org.apache.commons.collections4.iterators.PeekingIterator;
 
 import com.github.rvesse.airline.model.AliasMetadata;
-import com.github.rvesse.airline.model.CommandGroupMetadata;
-import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.parser.AbstractParser;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseAliasCircularReferenceException;
 import com.github.rvesse.airline.utils.predicates.parser.AliasFinder;
-import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 
 /**
  * Resolves aliases
@@ -44,9 +40,6 @@ import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 public class AliasResolver<T> extends AbstractParser<T> {
 
     public PeekingIterator<String> resolveAliases(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<? super CommandGroupMetadata> findGroupPredicate;
-        Predicate<? super CommandMetadata> findCommandPredicate;
-
         // Nothing to do if no further tokens
         if (!tokens.hasNext())
             return tokens;
@@ -68,12 +61,8 @@ public class AliasResolver<T> extends AbstractParser<T> {
                 if (tokens.peek().startsWith(
                         new String(new char[] { state.getParserConfiguration().getAliasForceBuiltInPrefix() }))) {
                     String nextToken = tokens.next().substring(1);
-                    List<String> newTokens = new ArrayList<>();
-                    newTokens.add(nextToken);
-                    while (tokens.hasNext()) {
-                        newTokens.add(tokens.next());
-                    }
-                    return new PeekingIterator<String>(newTokens.iterator());
+                    return new PeekingIterator<String>(
+                            IteratorUtils.chainedIterator(IteratorUtils.singletonIterator(nextToken), tokens));
                 }
                 return tokens;
             }
@@ -93,10 +82,7 @@ public class AliasResolver<T> extends AbstractParser<T> {
                 // would take precedence
                 if (state.getGlobal() != null) {
                     GlobalMetadata<T> metadata = state.getGlobal();
-                    findGroupPredicate = new GroupFinder(tokens.peek());
-                    findCommandPredicate = new CommandFinder(tokens.peek());
-                    if (CollectionUtils.find(metadata.getCommandGroups(), findGroupPredicate) != null
-                            || CollectionUtils.find(metadata.getDefaultGroupCommands(), findCommandPredicate) != null)
+                    if (metadata.findGroup(tokens.peek()) != null || metadata.findCommand(tokens.peek()) != null)
                         return tokens;
                 }
             }
@@ -104,65 +90,43 @@ public class AliasResolver<T> extends AbstractParser<T> {
             // Discard the alias token
             tokens.next();
 
-            // Apply the alias
-            List<String> newParams = new ArrayList<String>();
+            // Only buffer as many of the remaining tokens as the alias
+            // positional parameters refer to, any others are passed through
+            // lazily
+            int needed = 0;
+            for (String arg : alias.getArguments()) {
+                Positional positional = Positional.parse(arg);
+                if (positional != null)
+                    needed = Math.max(needed, positional.index + 1);
+            }
             List<String> remainingParams = new ArrayList<String>();
-            while (tokens.hasNext()) {
+            while (remainingParams.size() < needed && tokens.hasNext()) {
                 remainingParams.add(tokens.next());
             }
 
             // Process alias arguments
+            List<String> newParams = new ArrayList<String>();
             Set<Integer> used = new TreeSet<Integer>();
             for (String arg : alias.getArguments()) {
-                if (arg.startsWith("$")) {
-                    // May be a positional parameter
-                    Integer num = null;
-                    String defaultValue = null;
-                    try {
-                        num = Integer.parseInt(arg.substring(1));
-                        num--;
-                    } catch (NumberFormatException e) {
-                        try {
-                            // The number was invalid
-                            // May be an expansion with a default i.e.
-                            // ${1:-default}
-                            if (arg.startsWith("${") && arg.endsWith("}")) {
-                                if (arg.indexOf(":-") > 2) {
-                                    // Has a default value
-                                    num = Integer.parseInt(arg.substring(2, arg.indexOf(":-")));
-                                    num--;
-                                    defaultValue = arg.substring(arg.indexOf(":-") + 2, arg.length() - 1);
-                                } else {
-                                    // No default value, maybe just a number?
-                                    num = Integer.parseInt(arg.substring(2, arg.length() - 1));
-                                    num--;
-                                }
-                            }
-                        } catch (NumberFormatException e2) {
-                            // Invalid number, ignore
-                        }
-                    }
-
-                    if (num != null && num >= 0) {
-                        // Valid number, determine how to apply
-                        
-                        if (num < remainingParams.size()) {
-                            // Valid positional parameter with user input
-                            // supplied
-                            newParams.add(remainingParams.get(num));
-                            used.add(num);
-                            continue;
-                        } else if (defaultValue != null) {
-                            // Valid positional parameter, no user input to
-                            // substitute but a default was supplied
-                            newParams.add(defaultValue);
-                            // No need to update used in this case
-                            continue;
-                        } else {
-                            // Positional parameter but no user input or default
-                            // value to substitute so fall through to just
-                            // passing this on as is
-                        }
+                Positional positional = Positional.parse(arg);
+                if (positional != null) {
+                    // Valid number, determine how to apply
+                    if (positional.index < remainingParams.size()) {
+                        // Valid positional parameter with user input
+                        // supplied
+                        newParams.add(remainingParams.get(positional.index));
+                        used.add(positional.index);
+                        continue;
+                    } else if (positional.defaultValue != null) {
+                        // Valid positional parameter, no user input to
+                        // substitute but a default was supplied
+                        newParams.add(positional.defaultValue);
+                        // No need to update used in this case
+                        continue;
+                    } else {
+                        // Positional parameter but no user input or default
+                        // value to substitute so fall through to just
+                        // passing this on as is
                     }
                 }
 
@@ -183,9 +147,64 @@ public class AliasResolver<T> extends AbstractParser<T> {
             }
 
             // Prepare a new tokens iterator
-            tokens = new PeekingIterator<String>(newParams.iterator());
+            tokens = new PeekingIterator<String>(IteratorUtils.chainedIterator(newParams.iterator(), tokens));
         } while (state.getParserConfiguration().aliasesMayChain());
 
         return tokens;
     }
+
+    /**
+     * A positional parameter reference within an alias definition i.e.
+     * {@code $1}, {@code ${1}} or {@code ${1:-default}}
+     */
+    private static final class Positional {
+        private final int index;
+        private final String defaultValue;
+
+        private Positional(int index, String defaultValue) {
+            this.index = index;
+            this.defaultValue = defaultValue;
+        }
+
+        /**
+         * Parses an alias argument as a positional parameter
+         * 
+         * @param arg
+         *            Alias argument
+         * @return Positional parameter, or {@code null} if not a valid
+         *         positional parameter
+         */
+        private static Positional parse(String arg) {
+            if (!arg.startsWith("$"))
+                return null;
+
+            Integer num = null;
+            String defaultValue = null;
+            try {
+                num = Integer.parseInt(arg.substring(1));
+                num--;
+            } catch (NumberFormatException e) {
+                try {
+                    // The number was invalid
+                    // May be an expansion with a default i.e.
+                    // ${1:-default}
+                    if (arg.startsWith("${") && arg.endsWith("}")) {
+                        if (arg.indexOf(":-") > 2) {
+                            // Has a default value
+                            num = Integer.parseInt(arg.substring(2, arg.indexOf(":-")));
+                            num--;
+                            defaultValue = arg.substring(arg.indexOf(":-") + 2, arg.length() - 1);
+                        } else {
+                            // No default value, maybe just a number?
+                            num = Integer.parseInt(arg.substring(2, arg.length() - 1));
+                            num--;
+                        }
+                    }
+                } catch (NumberFormatException e2) {
+                    // Invalid number, ignore
+                }
+            }
+            return num != null && num >= 0 ? new Positional(num, defaultValue) : null;
+        }
+    }
 }
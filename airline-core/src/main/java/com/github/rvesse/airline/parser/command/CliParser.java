@@ -23,6 +23,7 @@ import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
@@ -33,20 +34,26 @@ public class CliParser<T> extends AbstractCommandParser<T> {
         if (args == null)
             throw new NullPointerException("args cannot be null");
 
-        ParseState<T> state = tryParse(metadata, args);
+        ParserErrorHandler handler = metadata.getParserConfiguration().getErrorHandler();
+        handler.begin();
+        try {
+            ParseState<T> state = tryParse(metadata, args);
 
-        // If we did not find a command choose the appropriate default command
-        // (if any)
-        if (state.getCommand() == null) {
-            if (state.getGroup() != null) {
-                state = state.withCommand(state.getGroup().getDefaultCommand());
-            } else {
-                state = state.withCommand(metadata.getDefaultCommand());
+            // If we did not find a command choose the appropriate default
+            // command (if any)
+            if (state.getCommand() == null) {
+                if (state.getGroup() != null) {
+                    state = state.withCommand(state.getGroup().getDefaultCommand());
+                } else {
+                    state = state.withCommand(metadata.getDefaultCommand());
+                }
             }
-        }
 
-        validate(state);
-        return metadata.getParserConfiguration().getErrorHandler().finished(state);
+            validate(state);
+            return handler.finished(state);
+        } finally {
+            handler.end();
+        }
     }
 
     public T parse(GlobalMetadata<T> metadata, Iterable<String> args) {
@@ -80,7 +87,7 @@ public class CliParser<T> extends AbstractCommandParser<T> {
 
             // Argument restrictions
             ArgumentsMetadata arguments = command.getArguments();
-            if (arguments != null) {
+            if (arguments != null && !isArgumentsValidationDeferred(state)) {
                 for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
                     if (restriction == null)
                         continue;
@@ -27,6 +27,7 @@ import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
@@ -38,11 +39,16 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
         if (args == null)
             throw new NullPointerException("args is null");
 
-        ParseState<T> state = tryParse(parserConfig, commandMetadata, args);
-        validate(state, IteratorUtils.toList(restrictions.iterator()));
-
-        return state.getParserConfiguration().getErrorHandler().finished(state);
+        ParserErrorHandler handler = parserConfig.getErrorHandler();
+        handler.begin();
+        try {
+            ParseState<T> state = tryParse(parserConfig, commandMetadata, args);
+            validate(state, IteratorUtils.toList(restrictions.iterator()));
 
+            return handler.finished(state);
+        } finally {
+            handler.end();
+        }
     }
 
     public T parse(ParserMetadata<T> parserConfig, CommandMetadata commandMetadata,
@@ -76,7 +82,7 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
         if (command != null) {
             // Arguments restrictions
             ArgumentsMetadata arguments = command.getArguments();
-            if (arguments != null) {
+            if (arguments != null && !isArgumentsValidationDeferred(state)) {
                 for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
                     if (restriction == null)
                         continue;
@@ -15,40 +15,97 @@
  */
 package com.github.rvesse.airline.parser.errors.handlers;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.parser.errors.ParseException;
 
+/**
+ * Abstract error handler that collects errors for later processing
+ * <p>
+ * Errors are collected separately for each parse, each {@link #begin()} starts
+ * a new collection for the calling thread which {@link #end()} discards. Thus a
+ * single handler instance may be shared by concurrent parses, and by parses
+ * nested within one another, without their errors being mixed together.
+ * </p>
+ * <p>
+ * Outside of a parse, i.e. if {@link #handleError(ParseException)} is called
+ * directly, errors are collected in {@link #errors} which is not thread safe.
+ * </p>
+ */
 public abstract class AbstractCollectingHandler implements ParserErrorHandler {
 
     protected List<ParseException> errors = new ArrayList<>();
+    private final ThreadLocal<Deque<List<ParseException>>> contexts = new ThreadLocal<>();
 
     public AbstractCollectingHandler() {
         super();
     }
 
+    @Override
+    public void begin() {
+        Deque<List<ParseException>> stack = this.contexts.get();
+        if (stack == null) {
+            stack = new ArrayDeque<>();
+            this.contexts.set(stack);
+        }
+        stack.push(new ArrayList<>());
+    }
+
+    @Override
+    public void end() {
+        Deque<List<ParseException>> stack = this.contexts.get();
+        if (stack == null)
+            return;
+        stack.poll();
+        if (stack.isEmpty()) {
+            // Don't leave anything behind on pooled threads
+            this.contexts.remove();
+        }
+    }
+
     @Override
     public void handleError(ParseException e) {
+        List<ParseException> errors = getCollection();
+
         // Check for duplicate messages
-        for (ParseException existing : this.errors) {
+        for (ParseException existing : errors) {
             if (StringUtils.equals(existing.getMessage(), e.getMessage())) {
                 existing.addSuppressed(e);
                 return;
             }
         }
         
-        this.errors.add(e);
+        errors.add(e);
     }
 
+    /**
+     * Gets the errors collected by the current parse on the calling thread, or
+     * by calls made outside of a parse if there is no current parse
+     * 
+     * @return Collected errors
+     */
     protected List<ParseException> getCollection() {
-        return this.errors;
+        Deque<List<ParseException>> stack = this.contexts.get();
+        return stack != null ? stack.peek() : this.errors;
     }
 
+    /**
+     * Resets the errors collected by the current parse on the calling thread,
+     * or by calls made outside of a parse if there is no current parse
+     */
     protected void resetCollection() {
-        this.errors = new ArrayList<>();
+        Deque<List<ParseException>> stack = this.contexts.get();
+        if (stack != null) {
+            stack.pop();
+            stack.push(new ArrayList<>());
+        } else {
+            this.errors = new ArrayList<>();
+        }
     }
 
 }
\ No newline at end of file
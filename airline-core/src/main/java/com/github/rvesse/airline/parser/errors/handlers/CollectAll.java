@@ -20,6 +20,10 @@ import com.github.rvesse.airline.parser.ParseState;
 
 /**
  * Error handler which collects all the errors for later inspection
+ * <p>
+ * Errors are collected separately for each parse so this may safely be shared
+ * by concurrent parses, see {@link AbstractCollectingHandler}.
+ * </p>
  * 
  * @author rvesse
  *
@@ -24,6 +24,10 @@ import com.github.rvesse.airline.parser.errors.ParseException;
 /**
  * An error handler which collects all errors during parsing and then fails at
  * the end of parsing
+ * <p>
+ * Errors are collected separately for each parse so this may safely be shared
+ * by concurrent parses, see {@link AbstractCollectingHandler}.
+ * </p>
  * 
  * @author rvesse
  *
@@ -21,6 +21,9 @@ import com.github.rvesse.airline.parser.errors.ParseException;
 
 /**
  * An error handler which fails as soon as a parser error is encountered
+ * <p>
+ * This handler is stateless and so may safely be shared by concurrent parses.
+ * </p>
  * 
  * @author rvesse
  *
@@ -21,6 +21,14 @@ import com.github.rvesse.airline.parser.errors.ParseException;
 
 /**
  * Interface for parser error handlers
+ * <p>
+ * A single handler instance is held by the parser configuration and so is
+ * shared by every parse made with that configuration, potentially from many
+ * threads at once. Each parse calls {@link #begin()} before it starts and
+ * {@link #end()} once it is over, handlers that accumulate state during a parse
+ * should use these to keep that state separate for each parse. All the built-in
+ * handlers do this so may safely be used for concurrent parsing.
+ * </p>
  * 
  * @author rvesse
  *
@@ -43,4 +51,24 @@ public interface ParserErrorHandler {
      * @return Parser result
      */
     public <T> ParseResult<T> finished(ParseState<T> state);
+
+    /**
+     * Called on the parsing thread when a parse begins, before any errors are
+     * handled
+     * <p>
+     * Parses may be nested on the same thread, e.g. when a type converter
+     * itself parses a command line, so a handler must not assume that
+     * {@link #end()} is called before the next call to this method.
+     * </p>
+     */
+    public default void begin() {
+    }
+
+    /**
+     * Called on the parsing thread when a parse ends, this is always called
+     * even if parsing fails with an error and {@link #finished(ParseState)} is
+     * never reached
+     */
+    public default void end() {
+    }
 }
@@ -20,6 +20,7 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.collections4.Predicate;
 
+import com.github.rvesse.airline.model.OptionIndex;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.AbstractParser;
 import com.github.rvesse.airline.parser.ParseState;
@@ -52,6 +53,11 @@ public abstract class AbstractOptionParser<T> extends AbstractParser<T> implemen
 
     /**
      * Tries to find an option with the given name
+     * <p>
+     * If the given options are an {@link OptionIndex}, as is the case for the
+     * options lists provided by the command parsers, then the index is used to
+     * lookup the option, otherwise a linear search of the options is made.
+     * </p>
      * 
      * @param state
      *            Current parser state
@@ -65,6 +71,15 @@ public abstract class AbstractOptionParser<T> extends AbstractParser<T> implemen
      */
     protected final OptionMetadata findOption(ParseState<T> state, List<OptionMetadata> options, final String name,
             OptionMetadata defaultValue) {
+        if (options instanceof OptionIndex) {
+            // Precomputed index available so no need to scan the options
+            OptionIndex index = (OptionIndex) options;
+            OptionMetadata option = state.getParserConfiguration().allowsAbbreviatedOptions()
+                    ? index.findAbbreviated(name)
+                    : index.find(name);
+            return option != null ? option : defaultValue;
+        }
+
         Predicate<OptionMetadata> findOptionPredicate;
         if (state.getParserConfiguration().allowsAbbreviatedOptions()) {
             findOptionPredicate = new AbbreviatedOptionFinder(name, options);
@@ -15,6 +15,8 @@
  */
 package com.github.rvesse.airline.restrictions;
 
+import java.io.Serializable;
+
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IterableUtils;
 import org.apache.commons.collections4.Predicate;
@@ -24,7 +26,9 @@ import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
 
-public abstract class AbstractCommonRestriction implements OptionRestriction, ArgumentsRestriction {
+public abstract class AbstractCommonRestriction implements OptionRestriction, ArgumentsRestriction, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @Override
     public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
@@ -67,8 +71,8 @@ public abstract class AbstractCommonRestriction implements OptionRestriction, Ar
 
         // If number of arguments parsed so far is less than the number of
         // titles available grab the next title
-        if (state.getParsedArguments().size() < arguments.getTitle().size())
-            return arguments.getTitle().get(state.getParsedArguments().size());
+        if (state.getArgumentsSeen() < arguments.getTitle().size())
+            return arguments.getTitle().get(state.getArgumentsSeen());
 
         // If number of arguments passed so far is greater than the number of
         // titles available just use the last title
@@ -32,8 +32,8 @@ import com.github.rvesse.airline.utils.AirlineUtils;
 
 public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
 
-    private Object currentState = null;
-    private Set<Object> allowedValues = null;
+    private transient Object currentState = null;
+    private transient Set<Object> allowedValues = null;
 
     public AllowedValuesRestriction(String... rawValues) {
         super(CASE_SENSITIVE);
@@ -47,7 +47,7 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
             return;
 
         Set<Object> allowedValues = createAllowedValues(state, AbstractCommonRestriction.getOptionTitle(state, option), option.getJavaType(),
-                option.getTypeConverterProvider().getTypeConverter(option, state));
+                option.getTypeConverter(state));
         if (!allowedValues.contains(value)) {
             throw new ParseOptionIllegalValueException(AirlineUtils.first(option.getOptions()), AbstractCommonRestriction.getOptionTitle(state, option), value, allowedValues);
         }
@@ -88,7 +88,7 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
 
         String title = getArgumentTitle(state, arguments);
         Set<Object> allowedValues = createAllowedValues(state, title, arguments.getJavaType(),
-                arguments.getTypeConverterProvider().getTypeConverter(arguments, state));
+                arguments.getTypeConverter(state));
         if (!allowedValues.contains(value)) {
             throw new ParseArgumentsIllegalValueException(title, value, allowedValues);
         }
@@ -21,6 +21,7 @@ import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.StreamedArguments;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
@@ -73,6 +74,18 @@ public class NoOptionLikeValuesRestriction extends StartsWithRestriction impleme
                 }
             }
         }
+        StreamedArguments<T> streamed = state.getStreamedArguments();
+        if (streamed != null) {
+            // Streamed arguments have not been consumed yet so check each one
+            // as the command pulls it
+            final ArgumentsMetadata arguments = streamed.getArguments();
+            streamed.addValueCheck(value -> {
+                if (value instanceof String && !isValid((String) value)) {
+                    violated(state, arguments, (String) value);
+                }
+            });
+            return;
+        }
         for (Object parsedArg : state.getParsedArguments()) {
             if (parsedArg instanceof String) {
                 String value = (String) parsedArg;
@@ -15,13 +15,9 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.tuple.Pair;
-
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
@@ -32,7 +28,6 @@ import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException
 import com.github.rvesse.airline.parser.errors.ParseTooManyArgumentsException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
 public class OccurrencesRestriction extends AbstractCommonRestriction implements HelpHint {
 
@@ -49,17 +44,16 @@ public class OccurrencesRestriction extends AbstractCommonRestriction implements
         if (occurrences <= 0)
             return;
 
-        Collection<Pair<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
+        int seen = state.getOptionValuesSeen(option);
 
-        if (maximum && parsedOptions.size() > this.occurrences) {
+        if (maximum && seen > this.occurrences) {
             throw new ParseRestrictionViolatedException(
                     "Option %s may be specified a maximum of %d times but was found %d times", AirlineUtils.first(option.getOptions()),
-                    this.occurrences, parsedOptions.size());
-        } else if (!maximum && parsedOptions.size() < this.occurrences) {
+                    this.occurrences, seen);
+        } else if (!maximum && seen < this.occurrences) {
             throw new ParseRestrictionViolatedException(
                     "Option %s must be specified at least %d times but was only found %d times", AirlineUtils.first(option.getOptions()),
-                    occurrences, parsedOptions.size());
+                    occurrences, seen);
         }
     }
 
@@ -68,21 +62,21 @@ public class OccurrencesRestriction extends AbstractCommonRestriction implements
         if (occurrences <= 0)
             return;
 
-        if (maximum && state.getParsedArguments().size() > this.occurrences) {
+        if (maximum && state.getArgumentsSeen() > this.occurrences) {
             throw new ParseTooManyArgumentsException("At most %d arguments may be specified but %d were found",
-                    occurrences, state.getParsedArguments().size());
-        } else if (!maximum && state.getParsedArguments().size() < this.occurrences) {
+                    occurrences, state.getArgumentsSeen());
+        } else if (!maximum && state.getArgumentsSeen() < this.occurrences) {
             throw new ParseArgumentsMissingException("At least %d arguments must be specified but only %d were found",
-                    titles(state, arguments), this.occurrences, state.getParsedArguments().size());
+                    titles(state, arguments), this.occurrences, state.getArgumentsSeen());
         }
     }
 
     private <T> List<String> titles(ParseState<T> state, ArgumentsMetadata arguments) {
-        if (state.getParsedArguments().size() >= arguments.getTitle().size())
+        if (state.getArgumentsSeen() >= arguments.getTitle().size())
             return Collections.emptyList();
         if (occurrences >= arguments.getTitle().size())
-            return arguments.getTitle().subList(state.getParsedArguments().size(), arguments.getTitle().size());
-        return arguments.getTitle().subList(state.getParsedArguments().size(), occurrences);
+            return arguments.getTitle().subList(state.getArgumentsSeen(), arguments.getTitle().size());
+        return arguments.getTitle().subList(state.getArgumentsSeen(), occurrences);
 
     }
 
@@ -20,8 +20,6 @@ import java.util.Collection;
 import java.util.Set;
 import java.util.TreeSet;
 
-import org.apache.commons.collections4.CollectionUtils;
-
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
@@ -31,7 +29,6 @@ import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
 public class PartialRestriction extends AbstractCommonRestriction implements HelpHint {
 
@@ -79,8 +76,7 @@ public class PartialRestriction extends AbstractCommonRestriction implements Hel
     }
 
     private <T> boolean isApplicableToOption(ParseState<T> state, OptionMetadata option) {
-        int index = CollectionUtils.countMatches(state.getParsedOptions(), new ParsedOptionFinder(option))
-                % option.getArity();
+        int index = state.getOptionValuesSeen(option) % option.getArity();
         return indices.contains(index);
     }
 
@@ -105,7 +101,7 @@ public class PartialRestriction extends AbstractCommonRestriction implements Hel
     }
 
     private <T> boolean isApplicableToArgument(ParseState<T> state) {
-        int index = state.getParsedArguments().size();
+        int index = state.getArgumentsSeen();
         return indices.contains(index);
     }
 
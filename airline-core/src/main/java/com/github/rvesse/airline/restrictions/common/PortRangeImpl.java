@@ -16,6 +16,8 @@
 
 package com.github.rvesse.airline.restrictions.common;
 
+import java.io.Serializable;
+
 import com.github.rvesse.airline.parser.errors.ParseInvalidRestrictionException;
 
 /**
@@ -24,7 +26,10 @@ import com.github.rvesse.airline.parser.errors.ParseInvalidRestrictionException;
  * @author rvesse
  *
  */
-public class PortRangeImpl implements PortRange, Comparable<PortRange> {
+public class PortRangeImpl implements PortRange, Comparable<PortRange>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     private final int min, max;
 
     /**
@@ -25,24 +25,43 @@ import com.github.rvesse.airline.restrictions.OptionRestriction;
 
 /**
  * Central registry for restrictions
+ * <p>
+ * The registry is safe for concurrent use. Registrations are held in an immutable snapshot that is replaced wholesale
+ * whenever restrictions are added or the registry is reset, so lookups never lock and always see a consistent set of
+ * registrations.
+ * </p>
  */
 public class RestrictionRegistry {
 
-    private static final Map<Class<? extends Annotation>, OptionRestrictionFactory> OPTION_RESTRICTION_FACTORIES =
-            new HashMap<>();
-    private static final Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> ARGUMENT_RESTRICTION_FACTORIES =
-            new HashMap<>();
-    private static final Map<Class<? extends Annotation>, GlobalRestrictionFactory> GLOBAL_RESTRICTION_FACTORIES =
-            new HashMap<>();
+    /**
+     * Immutable snapshot of the registrations
+     */
+    private static final class Registrations {
+        private final Map<Class<? extends Annotation>, OptionRestrictionFactory> optionFactories;
+        private final Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> argumentFactories;
+        private final Map<Class<? extends Annotation>, GlobalRestrictionFactory> globalFactories;
+        private final int version;
+
+        private Registrations(Map<Class<? extends Annotation>, OptionRestrictionFactory> optionFactories,
+                              Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> argumentFactories,
+                              Map<Class<? extends Annotation>, GlobalRestrictionFactory> globalFactories,
+                              int version) {
+            this.optionFactories = Collections.unmodifiableMap(optionFactories);
+            this.argumentFactories = Collections.unmodifiableMap(argumentFactories);
+            this.globalFactories = Collections.unmodifiableMap(globalFactories);
+            this.version = version;
+        }
+    }
 
-    private static volatile boolean init = false;
+    private static volatile Registrations registrations;
 
     static {
         init();
     }
 
-    static <T> void loadRestrictions(Class<T> cls, Function<T, List<Class<? extends Annotation>>> annotationsSelector,
-                                     Map<Class<? extends Annotation>, T> registry) {
+    static <T> Map<Class<? extends Annotation>, T> loadRestrictions(Class<T> cls,
+                                                                    Function<T, List<Class<? extends Annotation>>> annotationsSelector) {
+        Map<Class<? extends Annotation>, T> registry = new HashMap<>();
         try {
             ServiceLoader<T> factories = ServiceLoader.load(cls);
             Iterator<T> iter = factories.iterator();
@@ -55,72 +74,92 @@ public class RestrictionRegistry {
         } catch (Throwable e) {
             System.err.println("Failed to load " + cls.getSimpleName() + ": " + e.getMessage());
         }
+        return registry;
     }
 
     /**
      * Initializes the base set of restrictions using the {@link ServiceLoader} mechanism
      */
     static synchronized void init() {
-        if (init) {
+        if (registrations != null) {
             return;
         }
+        registrations = loadDefaults(0);
+    }
 
+    private static Registrations loadDefaults(int version) {
         // Use ServerLoader to obtain restrictions
-        loadRestrictions(OptionRestrictionFactory.class, x -> x.supportedOptionAnnotations(),
-                         OPTION_RESTRICTION_FACTORIES);
-        loadRestrictions(ArgumentsRestrictionFactory.class, x -> x.supportedArgumentsAnnotations(),
-                         ARGUMENT_RESTRICTION_FACTORIES);
-        loadRestrictions(GlobalRestrictionFactory.class, x -> x.supportedGlobalAnnotations(),
-                         GLOBAL_RESTRICTION_FACTORIES);
-
-        init = true;
+        return new Registrations(loadRestrictions(OptionRestrictionFactory.class, x -> x.supportedOptionAnnotations()),
+                                 loadRestrictions(ArgumentsRestrictionFactory.class,
+                                                  x -> x.supportedArgumentsAnnotations()),
+                                 loadRestrictions(GlobalRestrictionFactory.class, x -> x.supportedGlobalAnnotations()),
+                                 version);
     }
 
     /**
      * Resets the registry to its default state
      */
     public synchronized static void reset() {
-        init = false;
-        OPTION_RESTRICTION_FACTORIES.clear();
-        ARGUMENT_RESTRICTION_FACTORIES.clear();
-        GLOBAL_RESTRICTION_FACTORIES.clear();
-        init();
+        registrations = loadDefaults(registrations.version + 1);
+    }
+
+    /**
+     * Gets the current version of the registry, this changes whenever restrictions are added or the registry is reset
+     * so allows callers that cache things derived from the registry to detect when those may be stale
+     *
+     * @return Version
+     */
+    public static int getVersion() {
+        return registrations.version;
+    }
+
+    private static <T> Map<Class<? extends Annotation>, T> copyWith(Map<Class<? extends Annotation>, T> factories,
+                                                                   Class<? extends Annotation> cls, T factory) {
+        Map<Class<? extends Annotation>, T> copy = new HashMap<>(factories);
+        copy.put(cls, factory);
+        return copy;
     }
 
     public static Set<Class<? extends Annotation>> getOptionRestrictionAnnotationClasses() {
-        return OPTION_RESTRICTION_FACTORIES.keySet();
+        return registrations.optionFactories.keySet();
     }
 
-    public static void addOptionRestriction(Class<? extends Annotation> cls, OptionRestrictionFactory factory) {
+    public static synchronized void addOptionRestriction(Class<? extends Annotation> cls,
+                                                         OptionRestrictionFactory factory) {
         if (cls == null) {
             throw new NullPointerException("cls cannot be null");
         }
-        OPTION_RESTRICTION_FACTORIES.put(cls, factory);
+        Registrations current = registrations;
+        registrations = new Registrations(copyWith(current.optionFactories, cls, factory), current.argumentFactories,
+                                          current.globalFactories, current.version + 1);
     }
 
     public static <T extends Annotation> OptionRestriction getOptionRestriction(Class<? extends Annotation> cls,
                                                                                 T annotation) {
-        OptionRestrictionFactory factory = OPTION_RESTRICTION_FACTORIES.get(cls);
+        OptionRestrictionFactory factory = registrations.optionFactories.get(cls);
         if (factory != null) {
             return factory.createOptionRestriction(annotation);
         }
         return null;
     }
 
-    public static void addArgumentsRestriction(Class<? extends Annotation> cls, ArgumentsRestrictionFactory factory) {
+    public static synchronized void addArgumentsRestriction(Class<? extends Annotation> cls,
+                                                            ArgumentsRestrictionFactory factory) {
         if (cls == null) {
             throw new NullPointerException("cls cannot be null");
         }
-        ARGUMENT_RESTRICTION_FACTORIES.put(cls, factory);
+        Registrations current = registrations;
+        registrations = new Registrations(current.optionFactories, copyWith(current.argumentFactories, cls, factory),
+                                          current.globalFactories, current.version + 1);
     }
 
     public static Set<Class<? extends Annotation>> getArgumentsRestrictionAnnotationClasses() {
-        return ARGUMENT_RESTRICTION_FACTORIES.keySet();
+        return registrations.argumentFactories.keySet();
     }
 
     public static <T extends Annotation> ArgumentsRestriction getArgumentsRestriction(Class<? extends Annotation> cls,
                                                                                       T annotation) {
-        ArgumentsRestrictionFactory factory = ARGUMENT_RESTRICTION_FACTORIES.get(cls);
+        ArgumentsRestrictionFactory factory = registrations.argumentFactories.get(cls);
         if (factory != null) {
             return factory.createArgumentsRestriction(annotation);
         }
@@ -128,19 +167,22 @@ public class RestrictionRegistry {
     }
 
     public static Set<Class<? extends Annotation>> getGlobalRestrictionAnnotationClasses() {
-        return GLOBAL_RESTRICTION_FACTORIES.keySet();
+        return registrations.globalFactories.keySet();
     }
 
-    public static void addGlobalRestriction(Class<? extends Annotation> cls, GlobalRestrictionFactory factory) {
+    public static synchronized void addGlobalRestriction(Class<? extends Annotation> cls,
+                                                         GlobalRestrictionFactory factory) {
         if (cls == null) {
             throw new NullPointerException("cls cannot be null");
         }
-        GLOBAL_RESTRICTION_FACTORIES.put(cls, factory);
+        Registrations current = registrations;
+        registrations = new Registrations(current.optionFactories, current.argumentFactories,
+                                          copyWith(current.globalFactories, cls, factory), current.version + 1);
     }
 
     public static <T extends Annotation> GlobalRestriction getGlobalRestriction(Class<? extends Annotation> cls,
                                                                                 T annotation) {
-        GlobalRestrictionFactory factory = GLOBAL_RESTRICTION_FACTORIES.get(cls);
+        GlobalRestrictionFactory factory = registrations.globalFactories.get(cls);
         if (factory != null) {
             return factory.createGlobalRestriction(annotation);
         }
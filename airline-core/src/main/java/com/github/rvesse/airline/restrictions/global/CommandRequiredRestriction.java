@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.restrictions.global;
 
+import java.io.Serializable;
 import java.util.List;
 
 import com.github.rvesse.airline.model.CommandMetadata;
@@ -23,7 +24,9 @@ import com.github.rvesse.airline.parser.errors.ParseCommandMissingException;
 import com.github.rvesse.airline.parser.errors.ParseCommandUnrecognizedException;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 
-public class CommandRequiredRestriction implements GlobalRestriction {
+public class CommandRequiredRestriction implements GlobalRestriction, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @Override
     public <T> void validate(ParseState<T> state) {
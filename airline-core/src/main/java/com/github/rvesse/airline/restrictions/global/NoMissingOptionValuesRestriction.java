@@ -15,12 +15,16 @@
  */
 package com.github.rvesse.airline.restrictions.global;
 
+import java.io.Serializable;
+
 import com.github.rvesse.airline.Context;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseOptionMissingValueException;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 
-public class NoMissingOptionValuesRestriction implements GlobalRestriction {
+public class NoMissingOptionValuesRestriction implements GlobalRestriction, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @Override
     public <T> void validate(ParseState<T> state) {
@@ -15,11 +15,15 @@
  */
 package com.github.rvesse.airline.restrictions.global;
 
+import java.io.Serializable;
+
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsUnexpectedException;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 
-public class NoUnexpectedArgumentsRestriction implements GlobalRestriction {
+public class NoUnexpectedArgumentsRestriction implements GlobalRestriction, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @Override
     public <T> void validate(ParseState<T> state) {
@@ -22,8 +22,6 @@ import com.github.rvesse.airline.parser.errors.ParseArgumentsMissingException;
 import com.github.rvesse.airline.parser.errors.ParseOptionMissingException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -67,15 +65,14 @@ public abstract class AbstractRequiredUnlessRestriction extends AbstractCommonRe
 
     @Override
     public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
-        if (CollectionUtils.find(state.getParsedOptions(), new ParsedOptionFinder(option)) == null
-                && !unless(state, option)) {
+        if (!state.hasOptionValues(option) && !unless(state, option)) {
             throw new ParseOptionMissingException(AirlineUtils.first(option.getOptions()), unlessDescription());
         }
     }
 
     @Override
     public <T> void finalValidate(ParseState<T> state, ArgumentsMetadata arguments) {
-        if (state.getParsedArguments().isEmpty() && !unless(state, arguments)) {
+        if (state.getArgumentsSeen() == 0 && !unless(state, arguments)) {
             throw new ParseArgumentsMissingException("Required arguments '%s' are missing and %s",
                                                      arguments.getTitle(), StringUtils.join(arguments.getTitle(), ", "),
                                                      unlessDescription());
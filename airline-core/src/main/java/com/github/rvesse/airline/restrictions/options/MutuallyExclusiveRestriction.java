@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.restrictions.options;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -29,12 +30,13 @@ import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseOptionGroupException;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithFinder;
 import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithOptionFinder;
 import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithTagParsedOptionFinder;
 
-public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint {
+public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final String tag;
 
@@ -44,8 +46,7 @@ public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint
 
     @Override
     public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
-        Collection<Pair<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
+        int seen = state.getOptionValuesSeen(option);
 
         Collection<OptionRestriction> restrictions = CollectionUtils.select(option.getRestrictions(),
                 new MutuallyExclusiveWithFinder(this.tag));
@@ -57,11 +58,11 @@ public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint
                     .select(state.getParsedOptions(), new MutuallyExclusiveWithTagParsedOptionFinder(this.tag));
 
             // There are some parsed options but ONLY for this option
-            if (otherParsedOptions.size() > 0 && otherParsedOptions.size() == parsedOptions.size())
+            if (otherParsedOptions.size() > 0 && otherParsedOptions.size() == seen)
                 continue;
 
             // Otherwise may need to error
-            if (parsedOptions.size() > 0 && otherParsedOptions.size() > parsedOptions.size()) {
+            if (seen > 0 && otherParsedOptions.size() > seen) {
                 Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
                 throw new ParseOptionGroupException(
                         "Only one of the following options may be specified but %d were found: %s", tag, taggedOptions,
@@ -15,12 +15,11 @@
  */
 package com.github.rvesse.airline.restrictions.options;
 
+import java.io.Serializable;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -31,9 +30,10 @@ import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseOptionMissingException;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
-public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
+public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final Set<String> names = new LinkedHashSet<>();
 
@@ -46,13 +46,10 @@ public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
         if (this.names.isEmpty())
             return;
 
-        Collection<Pair<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
-
         // If this option was seen then the required criteria has been fulfilled
         // regardless of whether any of the triggering options was actually
         // present
-        if (parsedOptions.size() > 0)
+        if (state.hasOptionValues(option))
             return;
 
         // Were any of the options that would trigger the required restriction
@@ -31,6 +31,10 @@ import java.nio.file.Paths;
  * {@code fromString(String)} or {@code valueOf(String)} method. Finally it supports any class that defines a
  * constructor that takes a string.
  * </p>
+ * <p>
+ * The static methods and constructors available on each type are looked up once and then cached, so converting many
+ * values to the same type only incurs the cost of reflection on the first conversion.
+ * </p>
  */
 public class DefaultTypeConverter extends DefaultTypeConverterProvider implements TypeConverter {
 
@@ -133,6 +137,11 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      */
     protected final <T> ConvertResult tryConvertConstructor(String name, Class<?> type, String value,
                                                             Class<T> parameterType) {
+        int index = StringConversions.indexOf(parameterType);
+        if (index >= 0) {
+            return StringConversions.tryConvert(StringConversions.of(type).constructors()[index], value);
+        }
+
         try {
             Constructor<?> constructor = type.getConstructor(parameterType);
             return new ConvertResult(constructor.newInstance(value));
@@ -196,6 +205,11 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      */
     protected final ConvertResult tryConvertStringMethod(Class<?> type, String value,
                                                          String methodName, Class<?> parameterType) {
+        int index = StringConversions.indexOf(parameterType);
+        if (index >= 0) {
+            return StringConversions.tryConvert(StringConversions.of(type).methods(methodName)[index], value);
+        }
+
         try {
             Method method = type.getMethod(methodName, parameterType);
             if (method.getReturnType().isAssignableFrom(type)) {
@@ -15,6 +15,8 @@
  */
 package com.github.rvesse.airline.types;
 
+import java.io.Serializable;
+
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
@@ -28,7 +30,9 @@ import com.github.rvesse.airline.parser.ParseState;
  * @author rvesse
  *
  */
-public class DefaultTypeConverterProvider implements TypeConverterProvider {
+public class DefaultTypeConverterProvider implements TypeConverterProvider, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @Override
     public <T> TypeConverter getTypeConverter(OptionMetadata option, ParseState<T> state) {
@@ -40,4 +44,9 @@ public class DefaultTypeConverterProvider implements TypeConverterProvider {
         return state.getParserConfiguration().getTypeConverter();
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
 }
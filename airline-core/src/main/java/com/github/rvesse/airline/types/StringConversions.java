@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-class cache of the ways a string may be converted into an instance of
+ * that class via a static method or a constructor
+ * <p>
+ * Methods and constructors are looked up the first time they are needed for a
+ * class and the results, including their absence, are remembered so subsequent
+ * conversions make no reflective lookups and do not throw and catch
+ * {@link NoSuchMethodException}s.
+ * </p>
+ */
+final class StringConversions {
+
+    /**
+     * The parameter types considered for methods and constructors, in the
+     * order they are tried
+     */
+    private static final Class<?>[] PARAMETER_TYPES = new Class<?>[] { String.class, CharSequence.class };
+    private static final MethodType CONVERSION_TYPE = MethodType.methodType(Object.class, String.class);
+    private static final Conversion[] NONE = new Conversion[PARAMETER_TYPES.length];
+
+    private static final ClassValue<StringConversions> CACHE = new ClassValue<StringConversions>() {
+        @Override
+        protected StringConversions computeValue(Class<?> type) {
+            return new StringConversions(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final ConcurrentMap<String, Conversion[]> methods = new ConcurrentHashMap<>();
+    private volatile Conversion[] constructors;
+
+    private StringConversions(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * Gets the conversions for the given type
+     *
+     * @param type Type
+     * @return Conversions
+     */
+    static StringConversions of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * Gets the index of a parameter type
+     *
+     * @param parameterType Parameter type
+     * @return Index, or {@code -1} if not a parameter type that is cached
+     */
+    static int indexOf(Class<?> parameterType) {
+        for (int i = 0; i < PARAMETER_TYPES.length; i++) {
+            if (PARAMETER_TYPES[i] == parameterType)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the conversions via the static methods with the given name, indexed
+     * by parameter type, entries are {@code null} where no suitable method
+     * exists
+     *
+     * @param methodName Method name
+     * @return Conversions
+     */
+    Conversion[] methods(String methodName) {
+        return this.methods.computeIfAbsent(methodName, this::resolveMethods);
+    }
+
+    /**
+     * Gets the conversions via constructors, indexed by parameter type, entries
+     * are {@code null} where no suitable constructor exists
+     *
+     * @return Conversions
+     */
+    Conversion[] constructors() {
+        Conversion[] constructors = this.constructors;
+        if (constructors == null) {
+            // Benign race, resolution always produces equivalent results
+            constructors = resolveConstructors();
+            this.constructors = constructors;
+        }
+        return constructors;
+    }
+
+    /**
+     * Tries a conversion
+     *
+     * @param conversion Conversion, may be {@code null}
+     * @param value      Value
+     * @return Conversion result
+     */
+    static ConvertResult tryConvert(Conversion conversion, String value) {
+        if (conversion == null)
+            return ConvertResult.FAILURE;
+        try {
+            return new ConvertResult(conversion.convert(value));
+        } catch (Throwable ignored) {
+        }
+        return ConvertResult.FAILURE;
+    }
+
+    private Conversion[] resolveMethods(String methodName) {
+        Conversion[] conversions = null;
+        for (int i = 0; i < PARAMETER_TYPES.length; i++) {
+            Method method;
+            try {
+                method = this.type.getMethod(methodName, PARAMETER_TYPES[i]);
+            } catch (NoSuchMethodException | SecurityException e) {
+                continue;
+            }
+            // Only static methods which return the desired type are usable
+            if (!Modifier.isStatic(method.getModifiers()) || !method.getReturnType().isAssignableFrom(this.type))
+                continue;
+
+            if (conversions == null)
+                conversions = new Conversion[PARAMETER_TYPES.length];
+            conversions[i] = compile(method);
+        }
+        return conversions != null ? conversions : NONE;
+    }
+
+    private Conversion[] resolveConstructors() {
+        if (Modifier.isAbstract(this.type.getModifiers()) || this.type.isPrimitive() || this.type.isArray())
+            return NONE;
+
+        Conversion[] conversions = null;
+        for (int i = 0; i < PARAMETER_TYPES.length; i++) {
+            Constructor<?> constructor;
+            try {
+                constructor = this.type.getConstructor(PARAMETER_TYPES[i]);
+            } catch (NoSuchMethodException | SecurityException e) {
+                continue;
+            }
+
+            if (conversions == null)
+                conversions = new Conversion[PARAMETER_TYPES.length];
+            conversions[i] = compile(constructor);
+        }
+        return conversions != null ? conversions : NONE;
+    }
+
+    private static Conversion compile(final Method method) {
+        try {
+            final MethodHandle handle = MethodHandles.lookup().unreflect(method).asType(CONVERSION_TYPE);
+            return value -> (Object) handle.invokeExact(value);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // Fall back to reflection, this preserves the prior behaviour
+            // should the method not actually be accessible to us
+            return value -> method.invoke(null, value);
+        }
+    }
+
+    private static Conversion compile(final Constructor<?> constructor) {
+        try {
+            final MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asType(CONVERSION_TYPE);
+            return value -> (Object) handle.invokeExact(value);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return value -> constructor.newInstance(value);
+        }
+    }
+
+    /**
+     * A resolved conversion
+     */
+    @FunctionalInterface
+    interface Conversion {
+        Object convert(String value) throws Throwable;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * Caches the type converter resolved for a single option/arguments so that it
+ * is resolved once per parser configuration rather than once per value
+ * <p>
+ * Only converters from providers that declare themselves
+ * {@link TypeConverterProvider#isCacheable()} are cached, other providers are
+ * consulted every time as before.
+ * </p>
+ */
+public final class TypeConverterCache {
+
+    private volatile Entry entry;
+
+    /**
+     * Gets the type converter for an option
+     * 
+     * @param provider
+     *            Type converter provider
+     * @param option
+     *            Option
+     * @param state
+     *            Parser state
+     * @return Type converter
+     */
+    public <T> TypeConverter get(TypeConverterProvider provider, OptionMetadata option, ParseState<T> state) {
+        ParserMetadata<T> config = state.getParserConfiguration();
+        Entry entry = this.entry;
+        if (entry != null && entry.config == config)
+            return entry.converter;
+
+        TypeConverter converter = provider.getTypeConverter(option, state);
+        cache(provider, config, converter);
+        return converter;
+    }
+
+    /**
+     * Gets the type converter for arguments
+     * 
+     * @param provider
+     *            Type converter provider
+     * @param arguments
+     *            Arguments
+     * @param state
+     *            Parser state
+     * @return Type converter
+     */
+    public <T> TypeConverter get(TypeConverterProvider provider, ArgumentsMetadata arguments, ParseState<T> state) {
+        ParserMetadata<T> config = state.getParserConfiguration();
+        Entry entry = this.entry;
+        if (entry != null && entry.config == config)
+            return entry.converter;
+
+        TypeConverter converter = provider.getTypeConverter(arguments, state);
+        cache(provider, config, converter);
+        return converter;
+    }
+
+    private void cache(TypeConverterProvider provider, ParserMetadata<?> config, TypeConverter converter) {
+        if (config != null && converter != null && provider.isCacheable())
+            this.entry = new Entry(config, converter);
+    }
+
+    private static final class Entry {
+        private final ParserMetadata<?> config;
+        private final TypeConverter converter;
+
+        private Entry(ParserMetadata<?> config, TypeConverter converter) {
+            this.config = config;
+            this.converter = converter;
+        }
+    }
+}
@@ -48,4 +48,22 @@ public interface TypeConverterProvider {
      * @return Type converter
      */
     public abstract <T> TypeConverter getTypeConverter(ArgumentsMetadata arguments, ParseState<T> state);
+
+    /**
+     * Gets whether the type converters returned by this provider depend only
+     * upon the option/arguments and the parser configuration of the parser
+     * state
+     * <p>
+     * When this returns {@code true} the converter may be resolved once per
+     * option/arguments and parser configuration and reused for all subsequent
+     * values, see {@link TypeConverterCache}. Providers which inspect other
+     * aspects of the parser state must return {@code false}, which is the
+     * default.
+     * </p>
+     * 
+     * @return True if converters may be cached, false otherwise
+     */
+    public default boolean isCacheable() {
+        return false;
+    }
 }
@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.types.numerics;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
@@ -26,16 +27,42 @@ import com.github.rvesse.airline.types.DefaultTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 
-public class DefaultNumericConverter implements TypeConverterProvider, NumericTypeConverter {
+public class DefaultNumericConverter implements TypeConverterProvider, NumericTypeConverter, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient volatile TypeConverter converter;
 
     @Override
     public <T> TypeConverter getTypeConverter(OptionMetadata option, ParseState<T> state) {
-        return new DefaultTypeConverter(this);
+        return getTypeConverter();
     }
 
     @Override
     public <T> TypeConverter getTypeConverter(ArgumentsMetadata arguments, ParseState<T> state) {
-        return new DefaultTypeConverter(this);
+        return getTypeConverter();
+    }
+
+    /**
+     * Gets the type converter that uses this numeric converter, this is created
+     * on first use and then shared by all options and arguments
+     * 
+     * @return Type converter
+     */
+    protected TypeConverter getTypeConverter() {
+        TypeConverter converter = this.converter;
+        if (converter == null) {
+            // Benign race, converters are stateless so creating more than one
+            // is harmless
+            converter = new DefaultTypeConverter(this);
+            this.converter = converter;
+        }
+        return converter;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
     }
 
     @Override
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * A value that is computed at most once, the first time it is requested
+ * <p>
+ * Computation is thread safe, if several threads request the value
+ * concurrently only one of them computes it and the others wait for that
+ * result. If the computation throws then nothing is remembered and the next
+ * request tries again.
+ * </p>
+ *
+ * @param <T>
+ *            Value type
+ */
+public final class Memoized<T> implements Supplier<T> {
+
+    private Supplier<? extends T> supplier;
+    private T value;
+    private volatile boolean computed;
+
+    private Memoized(Supplier<? extends T> supplier, T value, boolean computed) {
+        this.supplier = supplier;
+        this.value = value;
+        this.computed = computed;
+    }
+
+    /**
+     * Creates a value that is computed on demand
+     *
+     * @param supplier
+     *            Supplier that computes the value
+     * @return Memoized value
+     */
+    public static <T> Memoized<T> of(Supplier<? extends T> supplier) {
+        if (supplier == null)
+            throw new NullPointerException("supplier cannot be null");
+        return new Memoized<T>(supplier, null, false);
+    }
+
+    /**
+     * Creates a value that is already computed
+     *
+     * @param value
+     *            Value
+     * @return Memoized value
+     */
+    public static <T> Memoized<T> ofValue(T value) {
+        return new Memoized<T>(null, value, true);
+    }
+
+    /**
+     * Gets whether the value has been computed yet
+     *
+     * @return True if computed, false otherwise
+     */
+    public boolean isComputed() {
+        return computed;
+    }
+
+    @Override
+    public T get() {
+        if (!computed) {
+            synchronized (this) {
+                if (!computed) {
+                    this.value = this.supplier.get();
+                    this.computed = true;
+                    // Don't hold onto anything the supplier captured
+                    this.supplier = null;
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return computed ? String.valueOf(value) : "<not computed>";
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of matching a prefix against a {@link PrefixTrie}
+ *
+ * @param <T>
+ *            Item type
+ */
+public final class PrefixMatch<T> {
+
+    /**
+     * Possible kinds of match
+     */
+    public enum Kind {
+        /**
+         * No item has a key starting with the prefix
+         */
+        NONE,
+        /**
+         * An item has a key exactly equal to the prefix, other items may have
+         * keys which start with the prefix
+         */
+        EXACT,
+        /**
+         * The prefix is an abbreviation of the keys of only a single item
+         */
+        UNIQUE,
+        /**
+         * The prefix is an abbreviation of the keys of multiple items
+         */
+        AMBIGUOUS
+    }
+
+    private static final PrefixMatch<?> NO_MATCH = new PrefixMatch<Object>(Kind.NONE, null, null, null);
+
+    private final Kind kind;
+    private final PrefixTrie<T> trie;
+    private final PrefixTrie.Node node;
+    private final T match;
+    private List<T> candidates;
+
+    private PrefixMatch(Kind kind, PrefixTrie<T> trie, PrefixTrie.Node node, T match) {
+        this.kind = kind;
+        this.trie = trie;
+        this.node = node;
+        this.match = match;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PrefixMatch<T> none() {
+        return (PrefixMatch<T>) NO_MATCH;
+    }
+
+    static <T> PrefixMatch<T> exact(PrefixTrie<T> trie, PrefixTrie.Node node, T match) {
+        return new PrefixMatch<T>(Kind.EXACT, trie, node, match);
+    }
+
+    static <T> PrefixMatch<T> unique(PrefixTrie<T> trie, PrefixTrie.Node node, T match) {
+        return new PrefixMatch<T>(Kind.UNIQUE, trie, node, match);
+    }
+
+    static <T> PrefixMatch<T> ambiguous(PrefixTrie<T> trie, PrefixTrie.Node node) {
+        return new PrefixMatch<T>(Kind.AMBIGUOUS, trie, node, null);
+    }
+
+    /**
+     * Gets the kind of match
+     *
+     * @return Kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets whether the prefix was an exact key
+     *
+     * @return True if exact, false otherwise
+     */
+    public boolean isExact() {
+        return kind == Kind.EXACT;
+    }
+
+    /**
+     * Gets whether the prefix was an unambiguous abbreviation
+     *
+     * @return True if unique, false otherwise
+     */
+    public boolean isUnique() {
+        return kind == Kind.UNIQUE;
+    }
+
+    /**
+     * Gets whether the prefix was an ambiguous abbreviation
+     *
+     * @return True if ambiguous, false otherwise
+     */
+    public boolean isAmbiguous() {
+        return kind == Kind.AMBIGUOUS;
+    }
+
+    /**
+     * Gets the matched item
+     *
+     * @param allowAbbreviation
+     *            Whether a unique abbreviation is acceptable, if {@code false}
+     *            only an exact match is returned
+     * @return Matched item or {@code null} if no acceptable match
+     */
+    public T get(boolean allowAbbreviation) {
+        if (kind == Kind.EXACT || (allowAbbreviation && kind == Kind.UNIQUE))
+            return match;
+        return null;
+    }
+
+    /**
+     * Gets all the items which have a key starting with the prefix, computed
+     * on demand
+     *
+     * @return Candidates in the order the trie was built from
+     */
+    public List<T> getCandidates() {
+        if (node == null)
+            return Collections.emptyList();
+        if (candidates == null)
+            candidates = Collections.unmodifiableList(trie.candidates(node));
+        return candidates;
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An immutable prefix trie used to resolve names, and abbreviations thereof, to
+ * the items that declare them
+ * <p>
+ * Each item may have multiple keys (e.g. an option with several names). Looking
+ * up a prefix takes time proportional to the length of the prefix and reports
+ * whether it is an exact key, a unique abbreviation of a single item's keys or
+ * an ambiguous abbreviation, see {@link PrefixMatch}. Items are identified by
+ * their position in the list the trie was built from so the same item appearing
+ * more than once is considered distinct, this mirrors the behaviour of the
+ * predicate based finders in {@link com.github.rvesse.airline.utils.predicates}.
+ * </p>
+ * <p>
+ * Nodes store their children as sorted arrays, rather than maps, to keep the
+ * structure compact.
+ * </p>
+ *
+ * @param <T>
+ *            Item type
+ */
+public final class PrefixTrie<T> {
+
+    private static final int NONE = -1;
+    private static final int MULTIPLE = -2;
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_TERMINALS = new int[0];
+
+    private final List<T> items;
+    private final Node root = new Node();
+
+    /**
+     * Creates a new trie
+     *
+     * @param items
+     *            Items
+     * @param keys
+     *            Function which provides the keys for an item
+     */
+    public PrefixTrie(Iterable<T> items, Function<T, Iterable<String>> keys) {
+        List<T> copy = new ArrayList<T>();
+        for (T item : items) {
+            copy.add(item);
+        }
+        this.items = Collections.unmodifiableList(copy);
+
+        for (int i = 0; i < this.items.size(); i++) {
+            for (String key : keys.apply(this.items.get(i))) {
+                insert(key, i);
+            }
+        }
+    }
+
+    /**
+     * Creates a new trie where each item has a single key
+     *
+     * @param items
+     *            Items
+     * @param key
+     *            Function which provides the key for an item
+     * @return Trie
+     */
+    public static <T> PrefixTrie<T> of(Iterable<T> items, final Function<T, String> key) {
+        return new PrefixTrie<T>(items, t -> Collections.singletonList(key.apply(t)));
+    }
+
+    private void insert(String key, int owner) {
+        Node node = this.root;
+        node.addOwner(owner);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.getOrCreateChild(key.charAt(i));
+            node.addOwner(owner);
+        }
+        node.addTerminal(owner);
+    }
+
+    private Node find(String prefix) {
+        Node node = this.root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.getChild(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Gets the item which has exactly the given key
+     *
+     * @param key
+     *            Key
+     * @return First item with the given key, or {@code null} if none
+     */
+    public T get(String key) {
+        Node node = find(key);
+        return node != null && node.terminals.length > 0 ? this.items.get(node.terminals[0]) : null;
+    }
+
+    /**
+     * Matches the given prefix against the keys in the trie
+     *
+     * @param prefix
+     *            Prefix
+     * @return Match
+     */
+    public PrefixMatch<T> match(String prefix) {
+        Node node = find(prefix);
+        if (node == null || node.owner == NONE)
+            return PrefixMatch.none();
+        if (node.terminals.length > 0)
+            return PrefixMatch.exact(this, node, this.items.get(node.terminals[0]));
+        if (node.owner != MULTIPLE)
+            return PrefixMatch.unique(this, node, this.items.get(node.owner));
+        return PrefixMatch.ambiguous(this, node);
+    }
+
+    /**
+     * Gets all items which have a key starting with the given node's prefix
+     *
+     * @param node
+     *            Node
+     * @return Candidates in their original order
+     */
+    List<T> candidates(Node node) {
+        if (node.owner == NONE)
+            return Collections.emptyList();
+        if (node.owner != MULTIPLE)
+            return Collections.singletonList(this.items.get(node.owner));
+
+        BitSet owners = new BitSet(this.items.size());
+        collectOwners(node, owners);
+        List<T> candidates = new ArrayList<T>(owners.cardinality());
+        for (int i = owners.nextSetBit(0); i >= 0; i = owners.nextSetBit(i + 1)) {
+            candidates.add(this.items.get(i));
+        }
+        return candidates;
+    }
+
+    private static void collectOwners(Node node, BitSet owners) {
+        if (node.owner != MULTIPLE) {
+            owners.set(node.owner);
+            return;
+        }
+        for (int terminal : node.terminals) {
+            owners.set(terminal);
+        }
+        for (Node child : node.children) {
+            collectOwners(child, owners);
+        }
+    }
+
+    /**
+     * Gets the items the trie was built from
+     *
+     * @return Items
+     */
+    public List<T> getItems() {
+        return this.items;
+    }
+
+    /**
+     * A trie node
+     */
+    static final class Node {
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        /**
+         * The only item with a key that passes through this node, or
+         * {@link #MULTIPLE} if more than one item does
+         */
+        private int owner = NONE;
+        /**
+         * The items whose key ends at this node in the order they were added
+         */
+        private int[] terminals = NO_TERMINALS;
+
+        private void addOwner(int owner) {
+            if (this.owner == NONE) {
+                this.owner = owner;
+            } else if (this.owner != owner) {
+                this.owner = MULTIPLE;
+            }
+        }
+
+        private void addTerminal(int owner) {
+            for (int terminal : this.terminals) {
+                if (terminal == owner)
+                    return;
+            }
+            this.terminals = Arrays.copyOf(this.terminals, this.terminals.length + 1);
+            this.terminals[this.terminals.length - 1] = owner;
+        }
+
+        private Node getChild(char c) {
+            int pos = Arrays.binarySearch(this.labels, c);
+            return pos >= 0 ? this.children[pos] : null;
+        }
+
+        private Node getOrCreateChild(char c) {
+            int pos = Arrays.binarySearch(this.labels, c);
+            if (pos >= 0)
+                return this.children[pos];
+
+            pos = -pos - 1;
+            char[] labels = new char[this.labels.length + 1];
+            Node[] children = new Node[this.children.length + 1];
+            System.arraycopy(this.labels, 0, labels, 0, pos);
+            System.arraycopy(this.children, 0, children, 0, pos);
+            System.arraycopy(this.labels, pos, labels, pos + 1, this.labels.length - pos);
+            System.arraycopy(this.children, pos, children, pos + 1, this.children.length - pos);
+            Node child = new Node();
+            labels[pos] = c;
+            children[pos] = child;
+            this.labels = labels;
+            this.children = children;
+            return child;
+        }
+    }
+}
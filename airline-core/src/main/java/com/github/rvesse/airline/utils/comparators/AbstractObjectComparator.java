@@ -15,9 +15,12 @@
  */
 package com.github.rvesse.airline.utils.comparators;
 
+import java.io.Serializable;
 import java.util.Comparator;
 
-public abstract class AbstractObjectComparator<T> implements Comparator<Object> {
+public abstract class AbstractObjectComparator<T> implements Comparator<Object>, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final Class<T> cls;
 
@@ -15,18 +15,30 @@
  */
 package com.github.rvesse.airline.utils.comparators;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.text.Collator;
 import java.util.Locale;
 
 public class LexicalComparator extends AbstractObjectComparator<String> {
-    
-    private final Collator collator;
+
+    private static final long serialVersionUID = 1L;
+
+    private final Locale locale;
+    private transient Collator collator;
 
     public LexicalComparator(Locale locale) {
         super(String.class);
+        this.locale = locale;
         this.collator = Collator.getInstance(locale);
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        // Collators are not serializable so recreate
+        this.collator = Collator.getInstance(this.locale);
+    }
+
     @Override
     protected int compareValues(String v1, String v2) {
         return this.collator.compare(v1, v2);
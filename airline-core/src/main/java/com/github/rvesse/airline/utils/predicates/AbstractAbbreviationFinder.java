@@ -15,29 +15,38 @@
  */
 package com.github.rvesse.airline.utils.predicates;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import org.apache.commons.collections4.Predicate;
 
+/**
+ * Abstract predicate that finds items whose name either exactly matches a given
+ * value or for which the value is an unambiguous abbreviation
+ * <p>
+ * Note that the parsers use precomputed {@link com.github.rvesse.airline.utils.PrefixTrie} instances rather than
+ * these predicates so these are primarily retained for API compatibility.
+ * </p>
+ *
+ * @param <T>
+ *            Item type
+ */
 public abstract class AbstractAbbreviationFinder<T> implements Predicate<T> {
 
-    private List<T> candidates = new ArrayList<T>();
+    private int candidates = 0;
+    private T candidate = null;
     private T exact = null;
 
     public AbstractAbbreviationFinder(String value, Collection<T> items) {
-        this.candidates.addAll(items);
-        for (int i = 0; i < this.candidates.size(); i++) {
-            T item = this.candidates.get(i);
+        // Single pass over the items, we only need to know whether there was
+        // exactly one candidate so no need to retain all of them
+        for (T item : items) {
             if (this.isExactNameMatch(value, item)) {
                 this.exact = item;
+            } else if (!this.isPartialNameMatch(value, item)) {
                 continue;
             }
-            if (this.isPartialNameMatch(value, item))
-                continue;
-            this.candidates.remove(i);
-            i--;
+            this.candidates++;
+            this.candidate = item;
         }
     }
     
@@ -55,6 +64,6 @@ public abstract class AbstractAbbreviationFinder<T> implements Predicate<T> {
     }
 
     private boolean isAbbreviation(T item) {
-        return this.candidates.size() == 1 && this.candidates.contains(item);
+        return this.candidates == 1 && this.candidate.equals(item);
     }
 }
@@ -15,15 +15,20 @@
  */
 package com.github.rvesse.airline.utils.predicates;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.text.Collator;
 import java.util.Locale;
 
 import org.apache.commons.collections4.Predicate;
 
-public abstract class AbstractLocaleSensitiveStringFinder implements Predicate<String> {
+public abstract class AbstractLocaleSensitiveStringFinder implements Predicate<String>, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     protected final Locale locale;
-    protected final Collator collator;
+    protected transient Collator collator;
 
     public AbstractLocaleSensitiveStringFinder(Locale locale) {
         if (locale == null)
@@ -32,4 +37,10 @@ public abstract class AbstractLocaleSensitiveStringFinder implements Predicate<S
         this.collator = Collator.getInstance(locale);
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        // Collators are not serializable so recreate
+        this.collator = Collator.getInstance(this.locale);
+    }
+
 }
\ No newline at end of file
@@ -15,7 +15,9 @@
  */
 package com.github.rvesse.airline.utils.predicates.parser;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.utils.predicates.AbstractAbbreviationFinder;
@@ -34,7 +36,7 @@ public final class AbbreviatedOptionFinder extends AbstractAbbreviationFinder<Op
     @Override
     protected boolean isPartialNameMatch(String value, OptionMetadata item) {
         for (String name : item.getOptions()) {
-            if (name.length() <= 2)
+            if (!isAbbreviatable(name))
                 continue;
             if (name.startsWith(value))
                 return true;
@@ -42,4 +44,32 @@ public final class AbbreviatedOptionFinder extends AbstractAbbreviationFinder<Op
         return false;
     }
 
+    /**
+     * Gets whether an option name may be abbreviated, only names longer than 2
+     * characters may be abbreviated
+     * 
+     * @param name
+     *            Option name
+     * @return True if abbreviatable, false otherwise
+     */
+    public static boolean isAbbreviatable(String name) {
+        return name.length() > 2;
+    }
+
+    /**
+     * Gets the names of an option which may be abbreviated
+     * 
+     * @param option
+     *            Option
+     * @return Abbreviatable names
+     */
+    public static List<String> abbreviatableNames(OptionMetadata option) {
+        List<String> names = new ArrayList<String>(option.getOptions().size());
+        for (String name : option.getOptions()) {
+            if (isAbbreviatable(name))
+                names.add(name);
+        }
+        return names;
+    }
+
 }
@@ -15,12 +15,38 @@
  */
 package com.github.rvesse.airline.tests;
 
+import com.github.rvesse.airline.ChannelFactory;
+import com.github.rvesse.airline.ChannelScope;
 import com.github.rvesse.airline.Channels;
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.tests.args.ArgsRequired;
+import com.github.rvesse.airline.tests.args.OptionsRequired;
+import com.github.rvesse.airline.tests.restrictions.Strings;
 import org.testng.annotations.Test;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
 
 public class ChannelsTest {
 
@@ -67,4 +93,189 @@ public class ChannelsTest {
             System.setIn(oldInput);
         }
     }
+
+    private static ChannelFactory factory(final PrintStream output, final PrintStream error, final InputStream input) {
+        return new ChannelFactory() {
+            @Override
+            public PrintStream createOutput() {
+                return output;
+            }
+
+            @Override
+            public PrintStream createError() {
+                return error;
+            }
+
+            @Override
+            public InputStream createInput() {
+                return input;
+            }
+        };
+    }
+
+    @Test
+    public void testWithChannels() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final PrintStream out = new PrintStream(output);
+        final PrintStream err = new PrintStream(new ByteArrayOutputStream());
+        final InputStream in = new ByteArrayInputStream(new byte[0]);
+
+        String result = Channels.withChannels(factory(out, err, in), () -> {
+            assertSame(Channels.output(), out);
+            assertSame(Channels.error(), err);
+            assertSame(Channels.input(), in);
+
+            // Nested bindings are restored afterwards
+            PrintStream nested = new PrintStream(new ByteArrayOutputStream());
+            Channels.withChannels(factory(nested, nested, in), () -> {
+                assertSame(Channels.output(), nested);
+                return null;
+            });
+            assertSame(Channels.output(), out);
+
+            Channels.output().append("bound output");
+            return "done";
+        });
+        assertEquals(result, "done");
+        assertEquals(output.toString(), "bound output");
+
+        // Other threads and the calling thread afterwards use the default channels
+        assertSame(Channels.output(), System.out);
+    }
+
+    @Test
+    public void testScopeInheritance() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final PrintStream out = new PrintStream(output, true);
+        final AtomicReference<PrintStream> seen = new AtomicReference<>();
+        try (ChannelScope scope = Channels.scope(out, null, null)) {
+            // Unspecified channels are inherited from the enclosing channels
+            assertSame(Channels.error(), System.err);
+            assertSame(Channels.input(), System.in);
+
+            Thread child = new Thread(() -> seen.set(Channels.output()));
+            child.start();
+            child.join();
+        }
+        // Threads started within the scope inherit it
+        assertSame(seen.get(), out);
+        assertSame(Channels.output(), System.out);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testScopeCloseOrder() {
+        PrintStream out = new PrintStream(new ByteArrayOutputStream());
+        ChannelScope outer = Channels.scope(out, null, null);
+        ChannelScope inner = Channels.scope(out, null, null);
+        try {
+            outer.close();
+        } finally {
+            inner.close();
+            outer.close();
+            assertSame(Channels.output(), System.out);
+        }
+    }
+
+    @Test
+    public void testScopeCloseOrderUnwinds() {
+        PrintStream first = new PrintStream(new ByteArrayOutputStream());
+        PrintStream second = new PrintStream(new ByteArrayOutputStream());
+        PrintStream third = new PrintStream(new ByteArrayOutputStream());
+        ChannelScope outer = Channels.scope(first, null, null);
+        ChannelScope middle = Channels.scope(second, null, null);
+        ChannelScope inner = Channels.scope(third, null, null);
+        try {
+            // Closing out of order still closes the scopes opened within it
+            assertThrows(IllegalStateException.class, middle::close);
+            assertSame(Channels.output(), first);
+
+            // So closing those later has no effect
+            inner.close();
+            assertSame(Channels.output(), first);
+        } finally {
+            outer.close();
+        }
+        assertSame(Channels.output(), System.out);
+    }
+
+    @Test
+    public void testScopeCloseOtherThread() throws Exception {
+        final ChannelScope scope = Channels.scope(new PrintStream(new ByteArrayOutputStream()), null, null);
+        try {
+            final AtomicReference<Throwable> error = new AtomicReference<>();
+            Thread other = new Thread(() -> {
+                try {
+                    scope.close();
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            });
+            other.start();
+            other.join();
+            assertTrue(error.get() instanceof IllegalStateException);
+        } finally {
+            scope.close();
+        }
+        assertSame(Channels.output(), System.out);
+    }
+
+    @Test
+    public void testScopedHelpOption() {
+        ParseResult<Strings> result = SingleCommand
+                .singleCommand(Strings.class, new ParserBuilder<Strings>().withErrorHandler(new CollectAll()).build())
+                .parseWithResult("--not-empty", "");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+        try (ChannelScope scope = Channels.scope(new PrintStream(output, true), new PrintStream(error, true), null)) {
+            assertTrue(result.getCommand().helpOption.showHelpIfErrors(result));
+        }
+        // Both the errors and the help go to the scoped channels
+        assertTrue(error.toString().contains("1 parse errors were encountered"), error.toString());
+        assertTrue(output.toString().contains("--not-empty"), output.toString());
+    }
+
+    @Test(timeOut = 60000)
+    public void testScopedHelpConcurrent() throws Exception {
+        final int threads = 8;
+        List<Class<? extends Object>> commands = Arrays.<Class<? extends Object>> asList(ArgsRequired.class,
+                OptionsRequired.class);
+        final GlobalMetadata<Object> required = Cli.<Object> builder("required").withCommands(commands).build()
+                .getMetadata();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final String command = t % 2 == 0 ? "ArgsRequired" : "OptionsRequired";
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int i = 0; i < 50; i++) {
+                            ByteArrayOutputStream output = new ByteArrayOutputStream();
+                            try (ChannelScope scope = Channels.scope(new PrintStream(output, true), null, null)) {
+                                Help.help(required, Collections.singletonList(command));
+                            }
+                            // Each thread only sees its own help
+                            String help = output.toString();
+                            assertTrue(help.contains("required " + command), help);
+                            assertTrue(!help.contains(otherCommand(command)), help);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static String otherCommand(String command) {
+        return "required " + ("ArgsRequired".equals(command) ? "OptionsRequired" : "ArgsRequired");
+    }
 }
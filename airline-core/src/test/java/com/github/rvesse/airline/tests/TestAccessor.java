@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+public class TestAccessor {
+
+    public static class Nested {
+        private int value;
+        private List<String> values;
+    }
+
+    public static class Outer {
+        private Nested nested;
+        private Set<String> set;
+        private String text;
+        private static String staticText;
+        private int primitive;
+    }
+
+    private static Accessor accessor(Class<?> cls, String... names) throws NoSuchFieldException {
+        Class<?> current = cls;
+        Field[] fields = new Field[names.length];
+        for (int i = 0; i < names.length; i++) {
+            fields[i] = current.getDeclaredField(names[i]);
+            current = fields[i].getType();
+        }
+        return new Accessor(Arrays.asList(fields));
+    }
+
+    @Test
+    public void accessor_compiled_single_value() throws NoSuchFieldException {
+        Accessor accessor = accessor(Outer.class, "text");
+        Assert.assertTrue(accessor.isCompiled());
+
+        Outer outer = new Outer();
+        accessor.addValues(outer, Arrays.asList("a", "b"));
+        Assert.assertEquals(outer.text, "b");
+    }
+
+    @Test
+    public void accessor_compiled_primitive() throws NoSuchFieldException {
+        Accessor accessor = accessor(Outer.class, "primitive");
+        Assert.assertTrue(accessor.isCompiled());
+
+        Outer outer = new Outer();
+        accessor.addValues(outer, Arrays.asList(1, 2));
+        Assert.assertEquals(outer.primitive, 2);
+    }
+
+    @Test(expectedExceptions = ParseException.class)
+    public void accessor_compiled_primitive_bad_value() throws NoSuchFieldException {
+        Accessor accessor = accessor(Outer.class, "primitive");
+        accessor.addValues(new Outer(), Arrays.asList("text"));
+    }
+
+    @Test
+    public void accessor_compiled_collection() throws NoSuchFieldException {
+        Accessor accessor = accessor(Outer.class, "set");
+        Assert.assertTrue(accessor.isCompiled());
+        Assert.assertTrue(accessor.isMultiValued());
+
+        Outer outer = new Outer();
+        accessor.addValues(outer, Arrays.asList("a", "b"));
+        accessor.addValues(outer, Arrays.asList("c"));
+        Assert.assertEquals(outer.set.size(), 3);
+    }
+
+    @Test
+    public void accessor_compiled_nested() throws NoSuchFieldException {
+        Accessor value = accessor(Outer.class, "nested", "value");
+        Accessor values = accessor(Outer.class, "nested", "values");
+        Assert.assertTrue(value.isCompiled());
+        Assert.assertTrue(values.isCompiled());
+
+        Outer outer = new Outer();
+        value.addValues(outer, Arrays.asList(1));
+        values.addValues(outer, Arrays.asList("a", "b"));
+        Assert.assertNotNull(outer.nested);
+        Assert.assertEquals(outer.nested.value, 1);
+        Assert.assertEquals(outer.nested.values, Arrays.asList("a", "b"));
+        Assert.assertSame(value.getValue(outer), outer.nested);
+    }
+
+    @Test
+    public void accessor_reflective_fallback() throws NoSuchFieldException {
+        // Static fields are not compiled so should fall back to reflection
+        Accessor accessor = accessor(Outer.class, "staticText");
+        Assert.assertFalse(accessor.isCompiled());
+        Assert.assertEquals(accessor.getName(), "Outer.staticText");
+
+        accessor.addValues(new Outer(), Arrays.asList("a"));
+        Assert.assertEquals(Outer.staticText, "a");
+    }
+}
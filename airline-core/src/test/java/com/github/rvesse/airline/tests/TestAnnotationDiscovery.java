@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.help.sections.HelpFormat;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.help.sections.common.BasicSection;
+import com.github.rvesse.airline.help.sections.factories.HelpSectionFactory;
+import com.github.rvesse.airline.help.sections.factories.HelpSectionRegistry;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.common.IsRequiredRestriction;
+import com.github.rvesse.airline.restrictions.common.NotBlankRestriction;
+import com.github.rvesse.airline.restrictions.factories.ArgumentsRestrictionFactory;
+import com.github.rvesse.airline.restrictions.factories.OptionRestrictionFactory;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+
+public class TestAnnotationDiscovery {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.FIELD, ElementType.TYPE })
+    public static @interface Custom {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.FIELD, ElementType.TYPE })
+    public static @interface Unregistered {
+    }
+
+    @Command(name = "custom")
+    @Custom
+    @Unregistered
+    public static class CustomCommand {
+        @Option(name = "--a")
+        @Custom
+        @Unregistered
+        public String a;
+
+        @Option(name = "--b")
+        @NotBlank
+        @Required
+        @Custom
+        public String b;
+
+        @Option(name = "--c")
+        public String c;
+
+        @Arguments
+        @Unregistered
+        @Custom
+        public List<String> args;
+    }
+
+    private static class CountingFactory
+            implements OptionRestrictionFactory, ArgumentsRestrictionFactory, HelpSectionFactory {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public OptionRestriction createOptionRestriction(Annotation annotation) {
+            calls.incrementAndGet();
+            return new NotBlankRestriction();
+        }
+
+        @Override
+        public ArgumentsRestriction createArgumentsRestriction(Annotation annotation) {
+            calls.incrementAndGet();
+            return new NotBlankRestriction();
+        }
+
+        @Override
+        public HelpSection createSection(Annotation annotation) {
+            calls.incrementAndGet();
+            return new BasicSection("Custom", 0, null, null, HelpFormat.PROSE, new String[] { "Custom section" });
+        }
+
+        @Override
+        public List<Class<? extends Annotation>> supportedOptionAnnotations() {
+            return Collections.<Class<? extends Annotation>> singletonList(Custom.class);
+        }
+
+        @Override
+        public List<Class<? extends Annotation>> supportedArgumentsAnnotations() {
+            return Collections.<Class<? extends Annotation>> singletonList(Custom.class);
+        }
+
+        @Override
+        public List<Class<? extends Annotation>> supportedAnnotations() {
+            return Collections.<Class<? extends Annotation>> singletonList(Custom.class);
+        }
+    }
+
+    @AfterMethod
+    public void reset() {
+        RestrictionRegistry.reset();
+        HelpSectionRegistry.reset();
+    }
+
+    private static CommandMetadata load() {
+        return MetadataLoader.loadCommand(CustomCommand.class, new ParserBuilder<Object>().build());
+    }
+
+    private static List<Class<?>> types(List<? extends OptionRestriction> restrictions) {
+        List<Class<?>> types = new ArrayList<>();
+        for (OptionRestriction restriction : restrictions) {
+            types.add(restriction.getClass());
+        }
+        return types;
+    }
+
+    @Test
+    public void annotation_discovery_restrictions_01() {
+        CountingFactory factory = new CountingFactory();
+        RestrictionRegistry.addOptionRestriction(Custom.class, factory);
+        RestrictionRegistry.addArgumentsRestriction(Custom.class, factory);
+
+        CommandMetadata command = load();
+        OptionMetadata a = command.getOptionIndex().find("--a");
+        OptionMetadata c = command.getOptionIndex().find("--c");
+        Assert.assertEquals(types(a.getRestrictions()), Arrays.<Class<?>> asList(NotBlankRestriction.class));
+        Assert.assertTrue(c.getRestrictions().isEmpty());
+        Assert.assertEquals(command.getArguments().getRestrictions().size(), 1);
+        Assert.assertTrue(command.getArguments().getRestrictions().get(0) instanceof NotBlankRestriction);
+
+        // Factory is only invoked for annotations actually present
+        Assert.assertEquals(factory.calls.get(), 3);
+    }
+
+    @Test
+    public void annotation_discovery_restrictions_02() {
+        // Restrictions are created in the order they are declared
+        CountingFactory factory = new CountingFactory();
+        RestrictionRegistry.addOptionRestriction(Custom.class, factory);
+
+        OptionMetadata b = load().getOptionIndex().find("--b");
+        Assert.assertEquals(types(b.getRestrictions()), Arrays.<Class<?>> asList(NotBlankRestriction.class,
+                IsRequiredRestriction.class, NotBlankRestriction.class));
+    }
+
+    @Test
+    public void annotation_discovery_restrictions_03() {
+        // Unregistered annotations are ignored
+        CommandMetadata command = load();
+        Assert.assertTrue(command.getOptionIndex().find("--a").getRestrictions().isEmpty());
+        Assert.assertTrue(command.getArguments().getRestrictions().isEmpty());
+    }
+
+    @Test
+    public void annotation_discovery_help_sections_01() {
+        CountingFactory factory = new CountingFactory();
+        HelpSectionRegistry.addFactory(Custom.class, factory);
+
+        CommandMetadata command = load();
+        Assert.assertEquals(command.getHelpSections().size(), 1);
+        Assert.assertEquals(command.getHelpSections().get(0).getTitle(), "Custom");
+        Assert.assertEquals(factory.calls.get(), 1);
+    }
+}
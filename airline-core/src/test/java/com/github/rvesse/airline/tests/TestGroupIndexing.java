@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests;
+
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.GroupBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.tests.command.CommandAdd;
+import com.github.rvesse.airline.tests.command.CommandRemove;
+import com.github.rvesse.airline.tests.command.CommandWithSubGroupNames;
+
+public class TestGroupIndexing {
+
+    private static final int GROUPS = 200;
+
+    private static CommandMetadata load(Class<?> cls) {
+        return MetadataLoader.loadCommand(cls, new ParserBuilder<Object>().build());
+    }
+
+    private static CommandGroupMetadata group(String name) {
+        return new CommandGroupMetadata(name, "", false, Collections.<OptionMetadata> emptyList(),
+                Collections.<CommandGroupMetadata> emptyList(), null, Collections.<CommandMetadata> emptyList());
+    }
+
+    @Test
+    public void group_indexing_commands_01() {
+        CommandGroupMetadata group = group("test");
+        CommandMetadata add = load(CommandAdd.class);
+        Assert.assertNull(group.findCommand("add"));
+
+        group.addCommand(add);
+        Assert.assertSame(group.findCommand("add"), add);
+        Assert.assertNull(group.findCommand("ad"));
+
+        // Adding an equal command is a no-op
+        group.addCommand(load(CommandAdd.class));
+        Assert.assertEquals(group.getCommands().size(), 1);
+        Assert.assertSame(group.findCommand("add"), add);
+
+        group.addCommand(load(CommandRemove.class));
+        Assert.assertEquals(group.getCommands().size(), 2);
+        Assert.assertSame(group.findCommand("remove"), group.getCommands().get(1));
+        Assert.assertSame(group.getCommandIndex().get("remove"), group.findCommand("remove"));
+    }
+
+    @Test
+    public void group_indexing_commands_02() {
+        CommandMetadata help = load(Help.class);
+        CommandGroupMetadata group = new CommandGroupMetadata("test", "", false,
+                Collections.<OptionMetadata> emptyList(), Collections.<CommandGroupMetadata> emptyList(), help,
+                Collections.<CommandMetadata> emptyList());
+        Assert.assertEquals(group.getCommands().size(), 1);
+        Assert.assertSame(group.findCommand("help"), help);
+    }
+
+    @Test
+    public void group_indexing_commands_03() {
+        CommandMetadata a = load(CommandAdd.class);
+        CommandMetadata b = load(CommandAdd.class);
+        Assert.assertNotSame(a, b);
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+    }
+
+    @Test
+    public void group_indexing_sub_groups_01() {
+        CommandGroupMetadata parent = group("parent");
+        CommandGroupMetadata child = group("child");
+        Assert.assertNull(parent.findSubGroup("child"));
+
+        parent.addSubGroup(child);
+        parent.addSubGroup(child);
+        Assert.assertEquals(parent.getSubGroups().size(), 1);
+        Assert.assertSame(parent.findSubGroup("child"), child);
+
+        // First group with a given name wins
+        parent.addSubGroup(group("child"));
+        Assert.assertEquals(parent.getSubGroups().size(), 2);
+        Assert.assertSame(parent.findSubGroup("child"), child);
+        Assert.assertSame(parent.getSubGroupIndex().get("child"), child);
+    }
+
+    @Test
+    public void group_indexing_global_01() {
+        //@formatter:off
+        CliBuilder<Object> builder = Cli.<Object>builder("test")
+                                        .withCommand(Help.class)
+                                        .withCommand(CommandWithSubGroupNames.class);
+        builder.withGroup("foo")
+               .withCommand(CommandAdd.class)
+               .withSubGroup("bar")
+               .withCommand(CommandRemove.class);
+        //@formatter:on
+        GlobalMetadata<Object> global = builder.build().getMetadata();
+
+        Assert.assertEquals(global.findCommand("help").getType(), Help.class);
+        Assert.assertNull(global.findCommand("add"));
+
+        CommandGroupMetadata foo = global.findGroup("foo");
+        Assert.assertNotNull(foo);
+        Assert.assertEquals(foo.findCommand("add").getType(), CommandAdd.class);
+        Assert.assertNull(global.findGroup("bar"));
+        Assert.assertNull(global.findGroup("foo bar"));
+
+        CommandGroupMetadata bar = global.findGroupByPath("foo  bar");
+        Assert.assertNotNull(bar);
+        Assert.assertSame(bar, foo.findSubGroup("bar"));
+        Assert.assertEquals(bar.findCommand("remove").getType(), CommandRemove.class);
+        Assert.assertSame(global.findGroupByPath("foo"), foo);
+        Assert.assertNull(global.findGroupByPath("foo baz"));
+        Assert.assertNull(global.findGroupByPath(" "));
+        Assert.assertNull(global.findGroupByPath(null));
+
+        // Groups created from the command annotations
+        Assert.assertNotNull(global.findGroup("singleGroup"));
+        Assert.assertNotNull(global.findGroupByPath("singleGroup").findCommand("commandWithGroupNames"));
+        Assert.assertNotNull(global.findGroupByPath("parent child").findCommand("commandWithGroupNames"));
+    }
+
+    @Test
+    public void group_indexing_large_01() {
+        CliBuilder<Object> builder = Cli.<Object> builder("test").withCommand(Help.class);
+        for (int i = 0; i < GROUPS; i++) {
+            GroupBuilder<Object> group = builder.withGroup("group" + i).withCommand(CommandAdd.class);
+            group.withSubGroup("sub" + i).withCommand(CommandRemove.class);
+        }
+        Cli<Object> cli = builder.build();
+        GlobalMetadata<Object> global = cli.getMetadata();
+
+        Assert.assertEquals(global.getCommandGroups().size(), GROUPS);
+        for (int i = 0; i < GROUPS; i++) {
+            CommandGroupMetadata group = global.findGroup("group" + i);
+            Assert.assertEquals(group.getName(), "group" + i);
+            Assert.assertSame(group, global.getCommandGroupIndex().get("group" + i));
+            Assert.assertSame(global.findGroupByPath("group" + i + " sub" + i), group.getSubGroups().get(0));
+        }
+
+        Assert.assertTrue(cli.parse("group42", "add") instanceof CommandAdd);
+        Assert.assertTrue(cli.parse("group199", "sub199", "remove") instanceof CommandRemove);
+    }
+}
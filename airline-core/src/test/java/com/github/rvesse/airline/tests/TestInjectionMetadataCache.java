@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.AirlineModule;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.DefaultOption;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.common.IsRequiredRestriction;
+import com.github.rvesse.airline.restrictions.factories.OptionRestrictionFactory;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+
+public class TestInjectionMetadataCache {
+
+    public static class VerbosityModule {
+        @Option(name = "--verbose")
+        public boolean verbose;
+
+        @Option(name = "--user")
+        @NotBlank
+        public String user;
+    }
+
+    public static class Wrapper {
+        @AirlineModule
+        public VerbosityModule verbosity = new VerbosityModule();
+    }
+
+    @Command(name = "direct")
+    public static class Direct {
+        @AirlineModule
+        public VerbosityModule verbosity = new VerbosityModule();
+
+        @Arguments
+        public List<String> args;
+    }
+
+    @Command(name = "nested")
+    public static class Nested {
+        @AirlineModule
+        public Wrapper wrapper = new Wrapper();
+
+        @Option(name = "--other")
+        public String other;
+    }
+
+    public static class ArgumentsModule {
+        @Arguments
+        public List<String> args;
+    }
+
+    @Command(name = "conflict")
+    public static class Conflict {
+        @Option(name = "--value")
+        @DefaultOption
+        public String value;
+
+        @AirlineModule
+        public ArgumentsModule module;
+    }
+
+    @AfterMethod
+    public void reset() {
+        RestrictionRegistry.reset();
+    }
+
+    private static CommandMetadata load(Class<?> cls) {
+        return MetadataLoader.loadCommand(cls, new ParserBuilder<Object>().build());
+    }
+
+    @Test
+    public void injection_metadata_cache_rebased_01() {
+        OptionMetadata direct = load(Direct.class).getOptionIndex().find("--verbose");
+        OptionMetadata nested = load(Nested.class).getOptionIndex().find("--verbose");
+
+        // Same definition but accessors reflect where the module is composed
+        Assert.assertEquals(direct, nested);
+        Accessor directAccessor = direct.getAccessors().iterator().next();
+        Accessor nestedAccessor = nested.getAccessors().iterator().next();
+        Assert.assertEquals(directAccessor.getPath().size(), 2);
+        Assert.assertEquals(nestedAccessor.getPath().size(), 3);
+        Assert.assertEquals(nestedAccessor.getPath().get(2), directAccessor.getPath().get(1));
+    }
+
+    @Test
+    public void injection_metadata_cache_reused_01() {
+        // Reloading gives distinct options each with their own restrictions
+        OptionMetadata a = load(Direct.class).getOptionIndex().find("--user");
+        OptionMetadata b = load(Direct.class).getOptionIndex().find("--user");
+        OptionMetadata c = load(Nested.class).getOptionIndex().find("--user");
+        Assert.assertNotSame(a, b);
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.getRestrictions().size(), 1);
+        Assert.assertNotSame(a.getRestrictions().get(0), b.getRestrictions().get(0));
+        Assert.assertNotSame(a.getRestrictions().get(0), c.getRestrictions().get(0));
+        Assert.assertNotSame(a.getTypeConverterProvider(), b.getTypeConverterProvider());
+    }
+
+    @Test
+    public void injection_metadata_cache_parse_01() {
+        Cli<Object> cli = Cli.<Object> builder("test").withCommands(Direct.class, Nested.class).build();
+
+        Direct direct = (Direct) cli.parse("direct", "--verbose", "--user", "a", "x");
+        Assert.assertTrue(direct.verbosity.verbose);
+        Assert.assertEquals(direct.verbosity.user, "a");
+
+        Nested nested = (Nested) cli.parse("nested", "--user", "b", "--other", "c");
+        Assert.assertFalse(nested.wrapper.verbosity.verbose);
+        Assert.assertEquals(nested.wrapper.verbosity.user, "b");
+        Assert.assertEquals(nested.other, "c");
+
+        // The same command in a separate parser uses the cached meta-data
+        Nested single = SingleCommand.singleCommand(Nested.class).parse("--verbose");
+        Assert.assertTrue(single.wrapper.verbosity.verbose);
+    }
+
+    @Test
+    public void injection_metadata_cache_composition_annotations_01() {
+        // Cached meta-data is specific to the composition annotations in use
+        Assert.assertNotNull(load(Direct.class).getOptionIndex().find("--verbose"));
+
+        CommandMetadata command = MetadataLoader.loadCommand(Direct.class,
+                new ParserBuilder<Object>().withCompositionAnnotations(MetadataLoader.JAVAX_INJECT_INJECT).build());
+        Assert.assertNull(command.getOptionIndex().find("--verbose"));
+        Assert.assertTrue(command.getAllOptions().isEmpty());
+    }
+
+    @Test
+    public void injection_metadata_cache_registry_changes_01() {
+        Assert.assertEquals(load(Direct.class).getOptionIndex().find("--user").getRestrictions().size(), 1);
+
+        // Changing the registry invalidates cached meta-data
+        RestrictionRegistry.addOptionRestriction(NotBlank.class, new OptionRestrictionFactory() {
+            @Override
+            public OptionRestriction createOptionRestriction(Annotation annotation) {
+                return new IsRequiredRestriction();
+            }
+
+            @Override
+            public List<Class<? extends Annotation>> supportedOptionAnnotations() {
+                return Collections.<Class<? extends Annotation>> singletonList(NotBlank.class);
+            }
+        });
+        List<?> restrictions = load(Direct.class).getOptionIndex().find("--user").getRestrictions();
+        Assert.assertEquals(restrictions.size(), 1);
+        Assert.assertTrue(restrictions.get(0) instanceof IsRequiredRestriction);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ".*@Arguments.*@DefaultOption.*")
+    public void injection_metadata_cache_conflicts_01() {
+        // Conflicts between a command and its modules are still detected
+        load(Conflict.class);
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.annotations.Parser;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionIndex;
+import com.github.rvesse.airline.model.ParserMetadata;
+
+public class TestLazyCommandLoading {
+
+    @Command(name = "fetch", description = "Fetches from a remote")
+    public static class RemoteFetch extends Git.GitCommand {
+        @Option(type = OptionType.GROUP, name = "--dry-run", description = "Dry run")
+        public boolean dryRun;
+    }
+
+    @com.github.rvesse.airline.annotations.Cli(name = "git", commands = { Git.Add.class,
+            Help.class }, groups = @com.github.rvesse.airline.annotations.Group(name = "remote", commands = {
+                    Git.RemoteShow.class,
+                    Git.RemoteAdd.class }), parserConfiguration = @Parser(lazyCommandLoading = true))
+    public static class LazyGit {
+    }
+
+    private static Cli<Runnable> git(boolean lazy) {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                .withDescription("the stupid content tracker")
+                .withCommand(Help.class)
+                .withCommand(Git.Add.class)
+                .withGroup("remote")
+                    .withDescription("Manage set of tracked repositories")
+                    .withCommand(Git.RemoteShow.class)
+                    .withCommand(Git.RemoteAdd.class)
+                    .withCommand(RemoteFetch.class)
+                    .parent();
+        //@formatter:on
+        if (lazy) {
+            builder.withParser().withLazyCommandLoading();
+        }
+        return builder.build();
+    }
+
+    private static List<CommandMetadata> allCommands(GlobalMetadata<?> metadata) {
+        List<CommandMetadata> commands = new ArrayList<>(metadata.getDefaultGroupCommands());
+        for (CommandGroupMetadata group : metadata.getCommandGroups()) {
+            commands.addAll(group.getCommands());
+        }
+        return commands;
+    }
+
+    private static CommandMetadata find(List<CommandMetadata> commands, Class<?> type) {
+        for (CommandMetadata command : commands) {
+            if (command.getType().equals(type))
+                return command;
+        }
+        throw new AssertionError("No command " + type);
+    }
+
+    private static String help(GlobalMetadata<?> metadata, String... commandNames) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Help.help(metadata, Arrays.asList(commandNames), output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void lazy_command_loading_stubs_01() {
+        Cli<Runnable> cli = git(true);
+        Assert.assertTrue(cli.getMetadata().getParserConfiguration().loadsCommandsLazily());
+
+        List<CommandMetadata> commands = allCommands(cli.getMetadata());
+        Assert.assertEquals(commands.size(), 5);
+        for (CommandMetadata command : commands) {
+            Assert.assertFalse(command.isLoaded(), command.getName());
+        }
+
+        // Lightweight metadata is available without loading
+        CommandMetadata add = find(commands, Git.Add.class);
+        Assert.assertEquals(add.getName(), "add");
+        Assert.assertEquals(add.getDescription(), "Add file contents to the index");
+        Assert.assertFalse(add.isHidden());
+        Assert.assertFalse(add.isLoaded());
+        Assert.assertTrue(add.toString().contains("loaded=false"));
+
+        // Full metadata is loaded on demand
+        OptionIndex options = add.getOptionIndex();
+        Assert.assertTrue(add.isLoaded());
+        Assert.assertNotNull(options.find("-i"));
+        Assert.assertNotNull(options.find("-v"));
+        Assert.assertNotNull(add.getArguments());
+        Assert.assertSame(add.getOptionIndex(), options);
+    }
+
+    @Test
+    public void lazy_command_loading_eager_by_default_01() {
+        Cli<Runnable> cli = git(false);
+        Assert.assertFalse(cli.getMetadata().getParserConfiguration().loadsCommandsLazily());
+        for (CommandMetadata command : allCommands(cli.getMetadata())) {
+            Assert.assertTrue(command.isLoaded(), command.getName());
+        }
+    }
+
+    @Test
+    public void lazy_command_loading_parse_01() {
+        Cli<Runnable> cli = git(true);
+        Git.Add add = (Git.Add) cli.parse("add", "-i", "-v", "a", "b");
+        Assert.assertTrue(add.interactive);
+        Assert.assertTrue(add.verbose);
+        Assert.assertEquals(add.patterns, Arrays.asList("a", "b"));
+
+        // Only the selected command should have been loaded
+        for (CommandMetadata command : allCommands(cli.getMetadata())) {
+            Assert.assertEquals(command.isLoaded(), command.getType().equals(Git.Add.class), command.getName());
+        }
+    }
+
+    @Test
+    public void lazy_command_loading_parse_02() {
+        Cli<Runnable> cli = git(true);
+        Git.RemoteShow show = (Git.RemoteShow) cli.parse("remote", "show", "-n", "origin");
+        Assert.assertTrue(show.noQuery);
+        Assert.assertEquals(show.remote, "origin");
+
+        for (CommandMetadata command : allCommands(cli.getMetadata())) {
+            Assert.assertEquals(command.isLoaded(), command.getType().equals(Git.RemoteShow.class),
+                    command.getName());
+        }
+    }
+
+    @Test
+    public void lazy_command_loading_parse_global_options_01() {
+        // Global options before the command need every command to be loaded
+        // but should otherwise behave as normal
+        Cli<Runnable> cli = git(true);
+        Git.Add add = (Git.Add) cli.parse("-v", "add", "a");
+        Assert.assertTrue(add.verbose);
+        Assert.assertEquals(add.patterns, Collections.singletonList("a"));
+        for (CommandMetadata command : allCommands(cli.getMetadata())) {
+            Assert.assertTrue(command.isLoaded(), command.getName());
+        }
+    }
+
+    @Test
+    public void lazy_command_loading_parse_group_options_01() {
+        Cli<Runnable> cli = git(true);
+        RemoteFetch fetch = (RemoteFetch) cli.parse("remote", "--dry-run", "fetch");
+        Assert.assertTrue(fetch.dryRun);
+
+        fetch = (RemoteFetch) cli.parse("remote", "fetch", "--dry-run");
+        Assert.assertTrue(fetch.dryRun);
+
+        CommandGroupMetadata remote = cli.getMetadata().getCommandGroups().get(0);
+        Assert.assertNotNull(remote.getOptionIndex().find("--dry-run"));
+        Assert.assertSame(cli.getMetadata().getGroupOptionIndex(remote),
+                cli.getMetadata().getGroupOptionIndex(remote));
+    }
+
+    @Test
+    public void lazy_command_loading_equivalent_01() throws IOException {
+        GlobalMetadata<Runnable> eager = git(false).getMetadata();
+        GlobalMetadata<Runnable> lazy = git(true).getMetadata();
+
+        Assert.assertEquals(help(lazy), help(eager));
+        Assert.assertEquals(help(lazy, "add"), help(eager, "add"));
+        Assert.assertEquals(help(lazy, "remote", "fetch"), help(eager, "remote", "fetch"));
+        Assert.assertEquals(lazy.getOptions(), eager.getOptions());
+    }
+
+    @Test
+    public void lazy_command_loading_annotation_01() {
+        Cli<Runnable> cli = new Cli<>(LazyGit.class);
+        Assert.assertTrue(cli.getMetadata().getParserConfiguration().loadsCommandsLazily());
+
+        Git.RemoteAdd add = (Git.RemoteAdd) cli.parse("remote", "add", "-t", "main", "origin", "url");
+        Assert.assertEquals(add.branch, "main");
+        Assert.assertEquals(add.remote, Arrays.asList("origin", "url"));
+        for (CommandMetadata command : allCommands(cli.getMetadata())) {
+            Assert.assertEquals(command.isLoaded(), command.getType().equals(Git.RemoteAdd.class),
+                    command.getName());
+        }
+    }
+
+    @Test
+    public void lazy_command_loading_thread_safety_01() throws Exception {
+        ParserMetadata<Object> parserConfig = new ParserBuilder<Object>().build();
+        AtomicInteger loads = new AtomicInteger();
+        CommandMetadata command = new CommandMetadata("add", null, false, Git.Add.class,
+                Collections.<String> emptyList(), Collections.emptyList(), () -> {
+                    loads.incrementAndGet();
+                    return MetadataLoader.loadCommand(Git.Add.class, parserConfig);
+                });
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<OptionIndex>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit((Callable<OptionIndex>) () -> {
+                    start.await();
+                    return command.getOptionIndex();
+                }));
+            }
+            start.countDown();
+
+            OptionIndex first = results.get(0).get();
+            for (Future<OptionIndex> result : results) {
+                Assert.assertSame(result.get(), first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(loads.get(), 1);
+        Assert.assertTrue(command.isLoaded());
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void lazy_command_loading_bad_loader_01() {
+        ParserMetadata<Object> parserConfig = new ParserBuilder<Object>().build();
+        CommandMetadata command = new CommandMetadata("add", null, false, Git.Add.class,
+                Collections.<String> emptyList(), Collections.emptyList(),
+                () -> MetadataLoader.loadCommand(Git.RemoteShow.class, parserConfig));
+        command.getOptionIndex();
+    }
+}
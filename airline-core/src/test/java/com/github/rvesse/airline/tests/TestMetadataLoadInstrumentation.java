@@ -0,0 +1,263 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.AirlineModule;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.Parser;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.MetadataLoadListener;
+import com.github.rvesse.airline.model.MetadataLoadPhase;
+import com.github.rvesse.airline.model.MetadataLoadSummary;
+
+public class TestMetadataLoadInstrumentation {
+
+    /**
+     * Listener that records every notification it receives
+     */
+    public static class RecordingListener implements MetadataLoadListener {
+        static final List<String> LAST = new ArrayList<>();
+
+        final List<String> events = new ArrayList<>();
+
+        public RecordingListener() {
+            synchronized (LAST) {
+                LAST.clear();
+            }
+        }
+
+        @Override
+        public synchronized void phaseCompleted(MetadataLoadPhase phase, String subject, long duration) {
+            Assert.assertTrue(duration >= 0);
+            this.events.add(phase + ":" + subject);
+            synchronized (LAST) {
+                LAST.add(phase + ":" + subject);
+            }
+        }
+    }
+
+    @Command(name = "first")
+    public static class First implements Runnable {
+        @Option(name = "--name")
+        @Required
+        @NotBlank
+        public String name;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Command(name = "second")
+    public static class Second implements Runnable {
+        @Arguments
+        @Required
+        public List<String> args;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    public static class RepeatedModule {
+        @Option(name = "--user")
+        @NotBlank
+        public String user;
+    }
+
+    @Command(name = "repeated")
+    public static class Repeated implements Runnable {
+        @AirlineModule
+        public RepeatedModule module = new RepeatedModule();
+
+        @Arguments
+        @Required
+        public List<String> args;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Command(name = "single")
+    public static class Single {
+        @Option(name = "--flag")
+        public boolean flag;
+    }
+
+    @Command(name = "annotated")
+    public static class Annotated implements Runnable {
+        @Option(name = "--verbose")
+        public boolean verbose;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @com.github.rvesse.airline.annotations.Cli(name = "instrumented", commands = { Annotated.class,
+            Help.class }, parserConfiguration = @Parser(metadataLoadListeners = RecordingListener.class))
+    public static class InstrumentedCli {
+    }
+
+    @Test
+    public void instrumentation_builder_01() {
+        RecordingListener listener = new RecordingListener();
+        //@formatter:off
+        Cli.<Runnable>builder("test")
+           .withCommands(First.class, Second.class)
+           .withParser()
+               .withMetadataLoadListener(listener)
+               .parent()
+           .build();
+        //@formatter:on
+
+        List<String> events = listener.events;
+        Assert.assertEquals(events.get(0), "PARSER_CONFIGURATION:null");
+        Assert.assertTrue(events.contains("COMMAND:" + First.class.getName()), events.toString());
+        Assert.assertTrue(events.contains("COMMAND:" + Second.class.getName()), events.toString());
+        Assert.assertTrue(events.contains("INJECTION_SCAN:" + First.class.getName()), events.toString());
+        Assert.assertTrue(events.contains("INJECTION_SCAN:" + Second.class.getName()), events.toString());
+        Assert.assertTrue(events.contains("RESTRICTION:" + Required.class.getName()), events.toString());
+        Assert.assertTrue(events.contains("RESTRICTION:" + NotBlank.class.getName()), events.toString());
+        Assert.assertTrue(events.contains("GROUPS_HIERARCHY:null"), events.toString());
+        Assert.assertEquals(events.get(events.size() - 1), "CLI:test");
+
+        // Nested phases complete before the phases that contain them
+        Assert.assertTrue(events.indexOf("INJECTION_SCAN:" + First.class.getName()) < events
+                .indexOf("COMMAND:" + First.class.getName()));
+    }
+
+    @Test
+    public void instrumentation_annotation_01() {
+        new Cli<Runnable>(InstrumentedCli.class);
+
+        List<String> events;
+        synchronized (RecordingListener.LAST) {
+            events = new ArrayList<>(RecordingListener.LAST);
+        }
+        Assert.assertEquals(events.get(0), "PARSER_CONFIGURATION:null");
+        Assert.assertTrue(events.contains("COMMAND:" + Annotated.class.getName()), events.toString());
+        Assert.assertTrue(events.contains("COMMAND:" + Help.class.getName()), events.toString());
+        Assert.assertTrue(events.contains("GROUPS_HIERARCHY:instrumented"), events.toString());
+        Assert.assertEquals(events.get(events.size() - 1), "CLI:instrumented");
+    }
+
+    @Test
+    public void instrumentation_single_command_01() {
+        RecordingListener listener = new RecordingListener();
+        SingleCommand.singleCommand(Single.class,
+                                    new com.github.rvesse.airline.builder.ParserBuilder<Single>()
+                                            .withMetadataLoadListener(listener).build());
+
+        List<String> events = listener.events;
+        Assert.assertTrue(events.contains("COMMAND:" + Single.class.getName()), events.toString());
+        Assert.assertEquals(events.get(events.size() - 1), "CLI:" + Single.class.getName());
+    }
+
+    private static List<String> loadRepeated() {
+        RecordingListener listener = new RecordingListener();
+        //@formatter:off
+        Cli.<Runnable>builder("repeated")
+           .withCommand(Repeated.class)
+           .withParser()
+               .withMetadataLoadListener(listener)
+               .parent()
+           .build();
+        //@formatter:on
+        return listener.events;
+    }
+
+    @Test
+    public void instrumentation_repeated_load_01() {
+        // Loading the same CLI again reports the same phases even though the
+        // scanned classes are now cached
+        List<String> first = loadRepeated();
+        List<String> second = loadRepeated();
+        Assert.assertEquals(second, first);
+
+        Assert.assertTrue(first.contains("INJECTION_SCAN:" + Repeated.class.getName()), first.toString());
+        Assert.assertTrue(first.contains("INJECTION_SCAN:" + RepeatedModule.class.getName()), first.toString());
+        Assert.assertTrue(first.contains("RESTRICTION:" + NotBlank.class.getName()), first.toString());
+        Assert.assertTrue(first.contains("RESTRICTION:" + Required.class.getName()), first.toString());
+
+        // Composed modules complete before the classes they are composed into
+        Assert.assertTrue(first.indexOf("INJECTION_SCAN:" + RepeatedModule.class.getName()) < first
+                .indexOf("INJECTION_SCAN:" + Repeated.class.getName()));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void instrumentation_null_listener() {
+        new com.github.rvesse.airline.builder.ParserBuilder<Object>().withMetadataLoadListener(null);
+    }
+
+    @Test
+    public void instrumentation_summary_01() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MetadataLoadSummary summary = new MetadataLoadSummary(new PrintStream(output, true), 1);
+        //@formatter:off
+        Cli.<Runnable>builder("test")
+           .withCommands(First.class, Second.class, Help.class)
+           .withParser()
+               .withMetadataLoadListener(summary)
+               .parent()
+           .build();
+        //@formatter:on
+
+        Assert.assertEquals(summary.getCount(MetadataLoadPhase.PARSER_CONFIGURATION), 1);
+        Assert.assertEquals(summary.getCount(MetadataLoadPhase.COMMAND), 3);
+        Assert.assertEquals(summary.getCount(MetadataLoadPhase.CLI), 1);
+        Assert.assertEquals(summary.getSlowest(MetadataLoadPhase.CLI), "test");
+        Assert.assertTrue(summary.getTotalTime(MetadataLoadPhase.CLI) >= summary
+                .getTotalTime(MetadataLoadPhase.PARSER_CONFIGURATION));
+
+        List<Map.Entry<String, Long>> slowest = summary.getSlowestCommands(10);
+        Assert.assertEquals(slowest.size(), 3);
+        Assert.assertTrue(slowest.get(0).getValue() >= slowest.get(1).getValue());
+        Assert.assertTrue(slowest.get(1).getValue() >= slowest.get(2).getValue());
+
+        // Printed automatically when the CLI completes, limited to the configured number of slowest commands
+        String table = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertTrue(table.startsWith("Phase"), table);
+        Assert.assertTrue(table.contains("PARSER_CONFIGURATION"), table);
+        Assert.assertTrue(table.contains("COMMAND"), table);
+        Assert.assertTrue(table.contains("Slowest Commands"), table);
+        Assert.assertTrue(table.contains(slowest.get(0).getKey()), table);
+        String commands = table.substring(table.indexOf("Slowest Commands"));
+        Assert.assertEquals(commands.trim().split("\\R").length, 2, table);
+        Assert.assertEquals(table, summary.toString());
+
+        summary.reset();
+        Assert.assertEquals(summary.getCount(MetadataLoadPhase.COMMAND), 0);
+        Assert.assertTrue(summary.getSlowestCommands(10).isEmpty());
+    }
+}
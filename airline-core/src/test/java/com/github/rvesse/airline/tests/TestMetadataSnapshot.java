@@ -0,0 +1,398 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.help.Discussion;
+import com.github.rvesse.airline.annotations.help.Examples;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.annotations.restrictions.MaxLength;
+import com.github.rvesse.airline.annotations.restrictions.MutuallyExclusiveWith;
+import com.github.rvesse.airline.annotations.restrictions.Pattern;
+import com.github.rvesse.airline.annotations.restrictions.Port;
+import com.github.rvesse.airline.annotations.restrictions.PortType;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.annotations.restrictions.StartsWith;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.annotations.restrictions.ranges.LexicalRange;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.help.cli.CliCommandUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliGlobalUsageGenerator;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataSnapshot;
+import com.github.rvesse.airline.model.OptionIndex;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.common.IsRequiredRestriction;
+
+public class TestMetadataSnapshot {
+
+    //@formatter:off
+    @Command(name = "restricted", description = "Command with restrictions")
+    @Discussion(paragraphs = { "Some discussion" })
+    @Examples(examples = { "restricted --name abc" }, descriptions = { "An example" })
+    //@formatter:on
+    public static class Restricted implements Runnable {
+        @Option(name = "--name", description = "Name")
+        @Required
+        @StartsWith(prefixes = "a")
+        @MaxLength(length = 10)
+        public String name;
+
+        @Option(name = "--port")
+        @Port(acceptablePorts = PortType.ANY)
+        public int port;
+
+        @Option(name = "--level")
+        @IntegerRange(min = 0, max = 5)
+        public int level;
+
+        @Option(name = "--mode")
+        @AllowedRawValues(allowedValues = { "fast", "slow" })
+        public String mode;
+
+        @Option(name = "--pattern")
+        @Pattern(pattern = "[a-z]+")
+        public String pattern;
+
+        @Option(name = "-x")
+        @MutuallyExclusiveWith(tag = "xy")
+        public boolean x;
+
+        @Option(name = "-y")
+        @MutuallyExclusiveWith(tag = "xy")
+        public boolean y;
+
+        @Arguments
+        @LexicalRange(min = "a", max = "m")
+        public List<String> args;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    //@formatter:off
+    @com.github.rvesse.airline.annotations.Cli(name = "snapshot",
+         description = "CLI used to test snapshots",
+         defaultCommand = Git.Add.class,
+         commands = { Git.Add.class, Restricted.class },
+         groups = {
+             @com.github.rvesse.airline.annotations.Group(name = "remote",
+                    description = "Remote commands",
+                    defaultCommand = Git.RemoteShow.class,
+                    commands = { Git.RemoteShow.class, Git.RemoteAdd.class })
+         })
+    //@formatter:on
+    public static class SnapshotCli {
+    }
+
+    public static class SourceA {
+        public int a;
+    }
+
+    public static class SourceB {
+        public String b;
+    }
+
+    public static class NotSerializableRestriction extends IsRequiredRestriction {
+        private static final long serialVersionUID = 1L;
+
+        @SuppressWarnings("unused")
+        private final Object state = new Object();
+    }
+
+    public static class DisallowedRestriction extends IsRequiredRestriction {
+        private static final long serialVersionUID = 1L;
+
+        @SuppressWarnings("unused")
+        private final File state = new File("state");
+    }
+
+    public static class LargeRestriction extends IsRequiredRestriction {
+        private static final long serialVersionUID = 1L;
+
+        @SuppressWarnings("unused")
+        private final String[] state = new String[100000];
+    }
+
+    private static ParserMetadata<Runnable> parserConfig() {
+        return new ParserBuilder<Runnable>().build();
+    }
+
+    private static byte[] write(GlobalMetadata<?> metadata, Class<?>... sources) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MetadataSnapshot.write(metadata, output, sources);
+        return output.toByteArray();
+    }
+
+    private static GlobalMetadata<Runnable> read(byte[] data) throws IOException {
+        return MetadataSnapshot.read(new ByteArrayInputStream(data), parserConfig(),
+                TestMetadataSnapshot.class.getClassLoader());
+    }
+
+    private static String globalHelp(GlobalMetadata<Runnable> metadata) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new CliGlobalUsageGenerator<Runnable>(true).usage(metadata, output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String commandHelp(GlobalMetadata<Runnable> metadata, String command) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new CliCommandUsageGenerator(true).usage(metadata.getName(), null, command,
+                metadata.getDefaultGroupCommandIndex().get(command), metadata.getParserConfiguration(), output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] replace(byte[] data, String from, String to) {
+        Assert.assertEquals(from.length(), to.length());
+        String latin = new String(data, StandardCharsets.ISO_8859_1);
+        Assert.assertTrue(latin.contains(from));
+        return latin.replace(from, to).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    public void snapshot_round_trip_01() throws IOException {
+        GlobalMetadata<Runnable> original = MetadataLoader.loadGlobal(SnapshotCli.class, parserConfig());
+        GlobalMetadata<Runnable> restored = read(write(original, SnapshotCli.class));
+        Assert.assertNotNull(restored);
+        Assert.assertNotSame(restored, original);
+
+        Assert.assertEquals(restored.getName(), original.getName());
+        Assert.assertEquals(restored.getDescription(), original.getDescription());
+        Assert.assertEquals(restored.getOptions(), original.getOptions());
+        Assert.assertEquals(restored.getDefaultCommand().getName(), original.getDefaultCommand().getName());
+        Assert.assertEquals(restored.getDefaultGroupCommands().size(), original.getDefaultGroupCommands().size());
+        Assert.assertEquals(restored.getCommandGroups().size(), 1);
+        Assert.assertEquals(restored.getCommandGroups().get(0).getCommands().size(), 2);
+        Assert.assertEquals(restored.getRestrictions().size(), original.getRestrictions().size());
+
+        // Options keep their ordinals since they are restored in order
+        OptionIndex originalIndex = original.getDefaultGroupCommandIndex().get("restricted").getOptionIndex();
+        OptionIndex restoredIndex = restored.getDefaultGroupCommandIndex().get("restricted").getOptionIndex();
+        for (OptionMetadata option : originalIndex) {
+            OptionMetadata other = restoredIndex.find(option.getOptions().iterator().next());
+            Assert.assertEquals(other, option);
+            Assert.assertEquals(restoredIndex.ordinalOf(other), originalIndex.ordinalOf(option));
+            Assert.assertEquals(other.getRestrictions().size(), option.getRestrictions().size());
+        }
+
+        // Help should be identical
+        Assert.assertEquals(globalHelp(restored), globalHelp(original));
+        Assert.assertEquals(commandHelp(restored, "restricted"), commandHelp(original, "restricted"));
+    }
+
+    @Test
+    public void snapshot_round_trip_parse_01() throws IOException {
+        GlobalMetadata<Runnable> original = MetadataLoader.loadGlobal(SnapshotCli.class, parserConfig());
+        Cli<Runnable> cli = new Cli<Runnable>(read(write(original, SnapshotCli.class)));
+
+        Git.Add add = (Git.Add) cli.parse("-v", "add", "-i", "a", "b");
+        Assert.assertTrue(add.verbose);
+        Assert.assertTrue(add.interactive);
+        Assert.assertEquals(add.patterns, Arrays.asList("a", "b"));
+
+        Restricted restricted = (Restricted) cli.parse("restricted", "--name", "abc", "--port", "8080", "--level",
+                "3", "--mode", "fast", "-x", "b", "c");
+        Assert.assertEquals(restricted.name, "abc");
+        Assert.assertEquals(restricted.port, 8080);
+        Assert.assertEquals(restricted.level, 3);
+        Assert.assertEquals(restricted.mode, "fast");
+        Assert.assertTrue(restricted.x);
+        Assert.assertEquals(restricted.args, Arrays.asList("b", "c"));
+
+        Git.RemoteAdd remoteAdd = (Git.RemoteAdd) cli.parse("remote", "add", "origin", "url");
+        Assert.assertEquals(remoteAdd.remote, Arrays.asList("origin", "url"));
+    }
+
+    @Test
+    public void snapshot_round_trip_restrictions_01() throws IOException {
+        Cli<Runnable> cli = new Cli<Runnable>(
+                read(write(MetadataLoader.loadGlobal(SnapshotCli.class, parserConfig()), SnapshotCli.class)));
+
+        for (String[] args : Arrays.asList(new String[] { "restricted" },
+                new String[] { "restricted", "--name", "xyz" }, new String[] { "restricted", "--name", "abcdefghijkl" },
+                new String[] { "restricted", "--name", "abc", "--level", "6" },
+                new String[] { "restricted", "--name", "abc", "--mode", "other" },
+                new String[] { "restricted", "--name", "abc", "--pattern", "123" },
+                new String[] { "restricted", "--name", "abc", "-x", "-y" },
+                new String[] { "restricted", "--name", "abc", "z" })) {
+            try {
+                cli.parse(args);
+                Assert.fail("Expected restriction violation for " + Arrays.toString(args));
+            } catch (ParseException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void snapshot_stale_01() throws IOException {
+        GlobalMetadata<Runnable> original = MetadataLoader.loadGlobal(SnapshotCli.class, parserConfig());
+        byte[] data = write(original, SourceA.class);
+        Assert.assertNotNull(read(data));
+
+        // Different class contents so the hash no longer matches
+        Assert.assertNull(read(replace(data, "$SourceA", "$SourceB")));
+        // Missing class
+        Assert.assertNull(read(replace(data, "$SourceA", "$SourceX")));
+    }
+
+    @Test
+    public void snapshot_invalid_01() throws IOException {
+        byte[] data = write(MetadataLoader.loadGlobal(SnapshotCli.class, parserConfig()));
+        data[data.length / 2] = 0;
+        try {
+            Assert.assertNull(read(Arrays.copyOf(data, data.length / 2)));
+        } catch (IOException e) {
+            // Also acceptable
+        }
+
+        Assert.assertNull(read(new byte[] { -84, -19, 0, 5, 119, 8, 0, 0, 0, 1, 0, 0, 0, 1 }));
+    }
+
+    private static GlobalMetadata<Runnable> withRestriction(OptionRestriction restriction) {
+        GlobalMetadata<Runnable> original = MetadataLoader.loadGlobal(SnapshotCli.class, parserConfig());
+        OptionMetadata option = original.getDefaultGroupCommandIndex().get("restricted").getOptionIndex()
+                .find("--name");
+        OptionMetadata restricted = new OptionMetadata(option.getOptionType(), option.getOptions(),
+                option.getTitles(), option.getDescription(), option.getArity(), option.isHidden(),
+                option.isOverride(), option.isSealed(), Arrays.<OptionRestriction> asList(restriction),
+                option.getTypeConverterProvider(), null);
+        return new GlobalMetadata<Runnable>(original.getName(), original.getDescription(),
+                Arrays.asList(restricted), null, original.getDefaultGroupCommands(), original.getCommandGroups(),
+                original.getRestrictions(), original.getBaseHelpSections(), original.getParserConfiguration());
+    }
+
+    @Test(expectedExceptions = NotSerializableException.class)
+    public void snapshot_not_serializable_01() throws IOException {
+        write(withRestriction(new NotSerializableRestriction()));
+    }
+
+    @Test
+    public void snapshot_filter_01() throws IOException {
+        // Serializable but not a type a snapshot may contain
+        byte[] data = write(withRestriction(new DisallowedRestriction()));
+        try {
+            read(data);
+            Assert.fail("Expected snapshot to be rejected");
+        } catch (InvalidClassException e) {
+            // Expected
+        }
+
+        // Permitted types but too large
+        data = write(withRestriction(new LargeRestriction()));
+        try {
+            read(data);
+            Assert.fail("Expected snapshot to be rejected");
+        } catch (InvalidClassException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void snapshot_file_01() throws IOException {
+        Path dir = Files.createTempDirectory("airline-snapshot");
+        Path snapshot = dir.resolve("cli.snapshot");
+        try {
+            // Missing snapshot is created
+            Cli<Runnable> cli = new Cli<Runnable>(SnapshotCli.class, null, snapshot);
+            Assert.assertTrue(Files.exists(snapshot));
+            Assert.assertTrue(cli.parse("add", "a") instanceof Git.Add);
+            byte[] data = Files.readAllBytes(snapshot);
+
+            // Valid snapshot is used as-is
+            cli = new Cli<Runnable>(SnapshotCli.class, null, snapshot);
+            Assert.assertTrue(cli.parse("restricted", "--name", "abc") instanceof Restricted);
+            Assert.assertEquals(Files.readAllBytes(snapshot), data);
+
+            // Stale snapshot is rebuilt
+            Files.write(snapshot, replace(data, "$SnapshotCli", "$SnapshotClX"));
+            cli = new Cli<Runnable>(SnapshotCli.class, null, snapshot);
+            Assert.assertTrue(cli.parse("add", "a") instanceof Git.Add);
+            Assert.assertEquals(Files.readAllBytes(snapshot), data);
+
+            // Corrupt snapshot is rebuilt
+            Files.write(snapshot, "garbage".getBytes(StandardCharsets.UTF_8));
+            cli = new Cli<Runnable>(SnapshotCli.class, null, snapshot);
+            Assert.assertEquals(cli.getMetadata().getName(), "snapshot");
+            Assert.assertEquals(Files.readAllBytes(snapshot), data);
+        } finally {
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void snapshot_file_restamp_01() throws IOException, URISyntaxException {
+        Path classFile = Paths.get(SnapshotCli.class.getResource("TestMetadataSnapshot$SnapshotCli.class").toURI());
+        FileTime modified = Files.getLastModifiedTime(classFile);
+        Path dir = Files.createTempDirectory("airline-snapshot");
+        Path snapshot = dir.resolve("cli.snapshot");
+        try {
+            new Cli<Runnable>(SnapshotCli.class, null, snapshot);
+            byte[] data = Files.readAllBytes(snapshot);
+
+            // Class file touched but unchanged so snapshot is used and its
+            // stamps updated
+            Files.setLastModifiedTime(classFile, FileTime.fromMillis(modified.toMillis() - 60000));
+            Cli<Runnable> cli = new Cli<Runnable>(SnapshotCli.class, null, snapshot);
+            Assert.assertTrue(cli.parse("add", "a") instanceof Git.Add);
+            byte[] restamped = Files.readAllBytes(snapshot);
+            Assert.assertNotEquals(restamped, data);
+
+            // Now up to date so used as-is
+            new Cli<Runnable>(SnapshotCli.class, null, snapshot);
+            Assert.assertEquals(Files.readAllBytes(snapshot), restamped);
+        } finally {
+            Files.setLastModifiedTime(classFile, modified);
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void snapshot_resource_01() {
+        // Missing resource falls back to loading normally
+        Cli<Runnable> cli = new Cli<Runnable>(SnapshotCli.class, null, "/no/such/snapshot");
+        Assert.assertEquals(cli.getMetadata().getName(), "snapshot");
+        Assert.assertTrue(cli.parse("add", "a") instanceof Git.Add);
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Parser;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.tests.command.CommandAdd;
+import com.github.rvesse.airline.tests.command.CommandWithGroupAnnotation;
+import com.github.rvesse.airline.tests.command.CommandWithGroupsAnnotation;
+import com.github.rvesse.airline.tests.command.CommandWithSubGroupAnnotation;
+import com.github.rvesse.airline.tests.command.CommandWithSubGroupsAnnotation;
+
+public class TestParallelCommandLoading {
+
+    @com.github.rvesse.airline.annotations.Cli(name = "git", commands = { Git.Add.class,
+            Help.class }, groups = @com.github.rvesse.airline.annotations.Group(name = "remote", commands = {
+                    Git.RemoteShow.class,
+                    Git.RemoteAdd.class }), parserConfiguration = @Parser(parallelCommandLoading = true))
+    public static class ParallelGit {
+    }
+
+    @com.github.rvesse.airline.annotations.Cli(name = "broken", commands = { Git.Add.class, Help.class,
+            String.class })
+    public static class Broken {
+    }
+
+    private static ParserMetadata<Object> parser(boolean parallel) {
+        ParserBuilder<Object> builder = new ParserBuilder<Object>();
+        if (parallel) {
+            builder.withParallelCommandLoading();
+        }
+        return builder.build();
+    }
+
+    private static Cli<Object> annotatedGroups(boolean parallel) {
+        //@formatter:off
+        CliBuilder<Object> builder = Cli.<Object>builder("test")
+                .withCommands(CommandAdd.class,
+                              CommandWithGroupAnnotation.class,
+                              CommandWithGroupsAnnotation.class,
+                              CommandWithSubGroupAnnotation.class,
+                              CommandWithSubGroupsAnnotation.class);
+        //@formatter:on
+        if (parallel) {
+            builder.withParser().withParallelCommandLoading();
+        }
+        return builder.build();
+    }
+
+    private static String help(GlobalMetadata<?> metadata, String... commandNames) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Help.help(metadata, Arrays.asList(commandNames), output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String describe(GlobalMetadata<?> metadata) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("default=").append(describe(metadata.getDefaultCommand())).append('\n');
+        describe(builder, "", metadata.getDefaultGroupCommands());
+        describe(builder, "", metadata.getOptions());
+        for (CommandGroupMetadata group : metadata.getCommandGroups()) {
+            describe(builder, "", group);
+        }
+        return builder.toString();
+    }
+
+    private static void describe(StringBuilder builder, String indent, CommandGroupMetadata group) {
+        builder.append(indent).append("group ").append(group.getName()).append(" default=")
+                .append(describe(group.getDefaultCommand())).append('\n');
+        describe(builder, indent + "  ", group.getCommands());
+        describe(builder, indent + "  ", group.getOptions());
+        for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+            describe(builder, indent + "  ", subGroup);
+        }
+    }
+
+    private static void describe(StringBuilder builder, String indent, List<?> items) {
+        for (Object item : items) {
+            builder.append(indent);
+            if (item instanceof CommandMetadata) {
+                CommandMetadata command = (CommandMetadata) item;
+                builder.append(describe(command)).append(' ').append(command.getAllOptions().size());
+            } else {
+                builder.append(((OptionMetadata) item).getOptions());
+            }
+            builder.append('\n');
+        }
+    }
+
+    private static String describe(CommandMetadata command) {
+        return command == null ? "none" : command.getName() + "/" + command.getType().getName();
+    }
+
+    @Test
+    public void parallel_command_loading_disabled_by_default_01() {
+        Assert.assertFalse(parser(false).loadsCommandsInParallel());
+        Assert.assertTrue(parser(true).loadsCommandsInParallel());
+    }
+
+    @Test
+    public void parallel_command_loading_equivalent_01() throws IOException {
+        // Loading the same CLI several times helps shake out any ordering differences
+        GlobalMetadata<Object> sequential = MetadataLoader.loadGlobal(TestGalaxyCommandLineParserByAnnotation.class,
+                parser(false));
+        for (int i = 0; i < 10; i++) {
+            GlobalMetadata<Object> parallel = MetadataLoader
+                    .loadGlobal(TestGalaxyCommandLineParserByAnnotation.class, parser(true));
+            Assert.assertEquals(describe(parallel), describe(sequential));
+            Assert.assertEquals(help(parallel), help(sequential));
+            Assert.assertEquals(help(parallel, "agent", "add"), help(sequential, "agent", "add"));
+        }
+    }
+
+    @Test
+    public void parallel_command_loading_equivalent_02() throws IOException {
+        // Groups declared via annotations on the commands themselves
+        GlobalMetadata<Object> sequential = annotatedGroups(false).getMetadata();
+        for (int i = 0; i < 10; i++) {
+            GlobalMetadata<Object> parallel = annotatedGroups(true).getMetadata();
+            Assert.assertTrue(parallel.getParserConfiguration().loadsCommandsInParallel());
+            Assert.assertEquals(describe(parallel), describe(sequential));
+            Assert.assertEquals(help(parallel), help(sequential));
+        }
+    }
+
+    @Test
+    public void parallel_command_loading_annotation_01() {
+        Cli<Runnable> cli = new Cli<>(ParallelGit.class);
+        Assert.assertTrue(cli.getMetadata().getParserConfiguration().loadsCommandsInParallel());
+
+        Git.RemoteAdd add = (Git.RemoteAdd) cli.parse("remote", "add", "-t", "main", "origin", "url");
+        Assert.assertEquals(add.branch, "main");
+        Assert.assertEquals(add.remote, Arrays.asList("origin", "url"));
+    }
+
+    @Test
+    public void parallel_command_loading_errors_01() {
+        // Failures surface exactly as they would when loading sequentially
+        String expected = null;
+        try {
+            MetadataLoader.loadGlobal(Broken.class, parser(false));
+            Assert.fail("Expected sequential loading to fail");
+        } catch (IllegalArgumentException e) {
+            expected = e.getMessage();
+        }
+        try {
+            MetadataLoader.loadGlobal(Broken.class, parser(true));
+            Assert.fail("Expected parallel loading to fail");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(e.getMessage(), expected);
+        }
+    }
+
+    @Test
+    public void parallel_command_loading_lazy_01() {
+        // Lazy loading takes precedence, commands are still only stubs
+        ParserMetadata<Object> parserConfig = new ParserBuilder<Object>().withLazyCommandLoading()
+                .withParallelCommandLoading().build();
+        GlobalMetadata<Object> metadata = MetadataLoader.loadGlobal(ParallelGit.class, parserConfig);
+        for (CommandMetadata command : metadata.getDefaultGroupCommands()) {
+            Assert.assertFalse(command.isLoaded(), command.getName());
+        }
+    }
+}
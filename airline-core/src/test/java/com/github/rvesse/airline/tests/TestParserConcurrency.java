@@ -0,0 +1,251 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.parser.errors.handlers.FailAll;
+import com.github.rvesse.airline.parser.errors.handlers.FailFast;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+
+public class TestParserConcurrency {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 500;
+
+    @Command(name = "run")
+    public static class Run {
+        @Option(name = "--id")
+        @Required
+        public String id;
+
+        @Option(name = "--count")
+        public int count;
+    }
+
+    /**
+     * A parse made by one of the stress test threads
+     */
+    private interface Parse {
+        void run(int thread, int iteration);
+    }
+
+    private static Cli<Run> cli(ParserErrorHandler handler) {
+        CliBuilder<Run> builder = Cli.<Run> builder("chat").withCommand(Run.class);
+        builder.withParser().withErrorHandler(handler);
+        return builder.build();
+    }
+
+    private static SingleCommand<Run> singleCommand(ParserErrorHandler handler) {
+        return SingleCommand.singleCommand(Run.class, new ParserBuilder<Run>().withErrorHandler(handler).build());
+    }
+
+    private static void stress(final Parse parse) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            parse.run(thread, i);
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void verifyErrors(ParseResult<Run> result, String bad) {
+        // Missing --id plus the bad --count value which is both unconvertible
+        // and left over as unexpected input, and only those errors
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getErrors().size(), 3, String.valueOf(result.getErrors()));
+        boolean found = false;
+        for (ParseException e : result.getErrors()) {
+            if (e.getMessage().contains("bad-")) {
+                Assert.assertTrue(e.getMessage().contains(bad), e.getMessage());
+                found = true;
+            }
+        }
+        Assert.assertTrue(found);
+    }
+
+    @Test(timeOut = 60000)
+    public void concurrent_cli_collect_all() throws Exception {
+        final Cli<Run> cli = cli(new CollectAll());
+        stress(new Parse() {
+            @Override
+            public void run(int thread, int iteration) {
+                String id = "t" + thread + "-i" + iteration;
+                if (iteration % 2 == 0) {
+                    ParseResult<Run> result = cli.parseWithResult("run", "--id", id, "--count",
+                            Integer.toString(iteration));
+                    Assert.assertTrue(result.wasSuccessful(), String.valueOf(result.getErrors()));
+                    Assert.assertEquals(result.getCommand().id, id);
+                    Assert.assertEquals(result.getCommand().count, iteration);
+                } else {
+                    verifyErrors(cli.parseWithResult("run", "--count", "bad-" + id), "bad-" + id);
+                }
+            }
+        });
+    }
+
+    @Test(timeOut = 60000)
+    public void concurrent_single_command_collect_all() throws Exception {
+        final SingleCommand<Run> parser = singleCommand(new CollectAll());
+        stress(new Parse() {
+            @Override
+            public void run(int thread, int iteration) {
+                String id = "t" + thread + "-i" + iteration;
+                if (iteration % 3 == 0) {
+                    verifyErrors(parser.parseWithResult("--count", "bad-" + id), "bad-" + id);
+                } else {
+                    Run run = parser.parse("--id", id);
+                    Assert.assertEquals(run.id, id);
+                }
+            }
+        });
+    }
+
+    @Test(timeOut = 60000)
+    public void concurrent_cli_fail_all() throws Exception {
+        final Cli<Run> cli = cli(new FailAll());
+        stress(new Parse() {
+            @Override
+            public void run(int thread, int iteration) {
+                String id = "t" + thread + "-i" + iteration;
+                if (iteration % 2 == 0) {
+                    Assert.assertEquals(cli.parse("run", "--id", id).id, id);
+                } else {
+                    try {
+                        cli.parse("run", "--count", "bad-" + id);
+                        Assert.fail("Expected parsing to fail");
+                    } catch (ParseException e) {
+                        Assert.assertEquals(e.getSuppressed().length, 3);
+                        for (Throwable suppressed : e.getSuppressed()) {
+                            if (suppressed.getMessage().contains("bad-")) {
+                                Assert.assertTrue(suppressed.getMessage().contains("bad-" + id),
+                                        suppressed.getMessage());
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Test(timeOut = 60000)
+    public void concurrent_single_command_fail_fast() throws Exception {
+        final SingleCommand<Run> parser = singleCommand(new FailFast());
+        stress(new Parse() {
+            @Override
+            public void run(int thread, int iteration) {
+                String id = "t" + thread + "-i" + iteration;
+                if (iteration % 2 == 0) {
+                    Assert.assertEquals(parser.parse("--id", id).id, id);
+                } else {
+                    try {
+                        parser.parse("--id", id, "--count", "bad-" + id);
+                        Assert.fail("Expected parsing to fail");
+                    } catch (ParseException e) {
+                        Assert.assertTrue(e.getMessage().contains("bad-" + id), e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void fail_all_errors_not_retained() {
+        SingleCommand<Run> parser = singleCommand(new FailAll());
+        try {
+            parser.parse("--count", "1");
+            Assert.fail("Expected parsing to fail");
+        } catch (ParseException e) {
+            // Expected
+        }
+        // Errors from the failed parse must not carry over to the next one
+        Assert.assertEquals(parser.parse("--id", "a").id, "a");
+    }
+
+    @Test
+    public void collect_all_nested_contexts() {
+        CollectAll handler = new CollectAll();
+        handler.begin();
+        try {
+            handler.handleError(new ParseException("outer"));
+
+            handler.begin();
+            try {
+                handler.handleError(new ParseException("inner"));
+                ParseResult<Object> inner = handler.finished(ParseState.newInstance());
+                Assert.assertEquals(inner.getErrors().size(), 1);
+                Assert.assertEquals(inner.getErrors().iterator().next().getMessage(), "inner");
+            } finally {
+                handler.end();
+            }
+
+            ParseResult<Object> outer = handler.finished(ParseState.newInstance());
+            Assert.assertEquals(outer.getErrors().size(), 1);
+            Assert.assertEquals(outer.getErrors().iterator().next().getMessage(), "outer");
+        } finally {
+            handler.end();
+        }
+    }
+
+    @Test
+    public void collect_all_outside_parse() {
+        CollectAll handler = new CollectAll();
+        handler.handleError(new ParseException("direct"));
+        Assert.assertEquals(handler.finished(ParseState.newInstance()).getErrors().size(), 1);
+        Assert.assertEquals(handler.finished(ParseState.newInstance()).getErrors().size(), 0);
+    }
+}
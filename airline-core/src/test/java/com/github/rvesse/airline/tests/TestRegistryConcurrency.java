@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.help.sections.HelpFormat;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.help.sections.common.BasicSection;
+import com.github.rvesse.airline.help.sections.factories.HelpSectionFactory;
+import com.github.rvesse.airline.help.sections.factories.HelpSectionRegistry;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.common.NotBlankRestriction;
+import com.github.rvesse.airline.restrictions.factories.OptionRestrictionFactory;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+
+public class TestRegistryConcurrency {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 200;
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.FIELD, ElementType.TYPE })
+    public static @interface Concurrent {
+    }
+
+    @Command(name = "concurrent")
+    @Concurrent
+    public static class ConcurrentCommand {
+        @Option(name = "--a")
+        @Concurrent
+        @Required
+        public String a;
+
+        @Option(name = "--b")
+        public String b;
+    }
+
+    private static class Factory implements OptionRestrictionFactory, HelpSectionFactory {
+
+        @Override
+        public OptionRestriction createOptionRestriction(Annotation annotation) {
+            return new NotBlankRestriction();
+        }
+
+        @Override
+        public HelpSection createSection(Annotation annotation) {
+            return new BasicSection("Concurrent", 0, null, null, HelpFormat.PROSE, new String[] { "Concurrent" });
+        }
+
+        @Override
+        public List<Class<? extends Annotation>> supportedOptionAnnotations() {
+            return Collections.<Class<? extends Annotation>> singletonList(Concurrent.class);
+        }
+
+        @Override
+        public List<Class<? extends Annotation>> supportedAnnotations() {
+            return Collections.<Class<? extends Annotation>> singletonList(Concurrent.class);
+        }
+    }
+
+    @AfterMethod
+    public void reset() {
+        RestrictionRegistry.reset();
+        HelpSectionRegistry.reset();
+    }
+
+    @Test
+    public void registry_snapshots_01() {
+        Set<Class<? extends Annotation>> before = RestrictionRegistry.getOptionRestrictionAnnotationClasses();
+        Set<Class<? extends Annotation>> helpBefore = HelpSectionRegistry.getAnnotationClasses();
+        Assert.assertFalse(before.contains(Concurrent.class));
+        Assert.assertFalse(helpBefore.contains(Concurrent.class));
+
+        Factory factory = new Factory();
+        RestrictionRegistry.addOptionRestriction(Concurrent.class, factory);
+        HelpSectionRegistry.addFactory(Concurrent.class, factory);
+
+        // Previously obtained views are unaffected by later registrations
+        Assert.assertFalse(before.contains(Concurrent.class));
+        Assert.assertFalse(helpBefore.contains(Concurrent.class));
+        Assert.assertTrue(RestrictionRegistry.getOptionRestrictionAnnotationClasses().contains(Concurrent.class));
+        Assert.assertTrue(HelpSectionRegistry.getAnnotationClasses().contains(Concurrent.class));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void registry_snapshots_02() {
+        RestrictionRegistry.getOptionRestrictionAnnotationClasses().clear();
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void registry_snapshots_03() {
+        HelpSectionRegistry.getAnnotationClasses().clear();
+    }
+
+    @Test
+    public void registry_version_01() {
+        int version = RestrictionRegistry.getVersion();
+        RestrictionRegistry.addOptionRestriction(Concurrent.class, new Factory());
+        Assert.assertTrue(RestrictionRegistry.getVersion() > version);
+
+        version = RestrictionRegistry.getVersion();
+        RestrictionRegistry.reset();
+        Assert.assertTrue(RestrictionRegistry.getVersion() > version);
+        Assert.assertFalse(RestrictionRegistry.getOptionRestrictionAnnotationClasses().contains(Concurrent.class));
+    }
+
+    @Test(timeOut = 60000)
+    public void registry_concurrent_loading_01() throws Exception {
+        final Factory factory = new Factory();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            // One thread keeps changing the registrations while the others load metadata
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        if (i % 2 == 0) {
+                            RestrictionRegistry.addOptionRestriction(Concurrent.class, factory);
+                            HelpSectionRegistry.addFactory(Concurrent.class, factory);
+                        } else {
+                            RestrictionRegistry.reset();
+                            HelpSectionRegistry.reset();
+                        }
+                    }
+                    return null;
+                }
+            }));
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            CommandMetadata command = MetadataLoader.loadCommand(ConcurrentCommand.class,
+                                    new ParserBuilder<Object>().build());
+                            // Either the custom factory was seen or it wasn't, never a partial view
+                            int restrictions = command.getOptionIndex().find("--a").getRestrictions().size();
+                            Assert.assertTrue(restrictions == 1 || restrictions == 2,
+                                    "Unexpected restriction count " + restrictions);
+                            Assert.assertTrue(command.getHelpSections().size() <= 1);
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.Training;
+import com.github.rvesse.airline.annotations.Parser;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+public class TestTraining {
+
+    @com.github.rvesse.airline.annotations.Cli(name = "git", commands = { Git.Add.class,
+            Help.class }, groups = @com.github.rvesse.airline.annotations.Group(name = "remote", commands = {
+                    Git.RemoteShow.class,
+                    Git.RemoteAdd.class }), parserConfiguration = @Parser(lazyCommandLoading = true))
+    public static class LazyGit {
+    }
+
+    @Test
+    public void training_cli_01() {
+        Cli<Runnable> cli = new Cli<>(LazyGit.class);
+        for (CommandMetadata command : cli.getMetadata().getDefaultGroupCommands()) {
+            Assert.assertFalse(command.isLoaded());
+        }
+
+        ParseResult<Runnable> result = cli.train("add", "-i", "file");
+        Assert.assertTrue(result.wasSuccessful());
+        Assert.assertTrue(result.getCommand() instanceof Git.Add);
+
+        // Training loads everything even though lazy loading was configured
+        for (CommandMetadata command : cli.getMetadata().getDefaultGroupCommands()) {
+            Assert.assertTrue(command.isLoaded(), command.getName());
+        }
+        for (CommandGroupMetadata group : cli.getMetadata().getCommandGroups()) {
+            for (CommandMetadata command : group.getCommands()) {
+                Assert.assertTrue(command.isLoaded(), command.getName());
+            }
+        }
+    }
+
+    @Test(expectedExceptions = ParseException.class)
+    public void training_cli_02() {
+        new Cli<Runnable>(LazyGit.class).train("no-such-command");
+    }
+
+    @Test
+    public void training_single_command_01() {
+        ParseResult<Ping> result = SingleCommand.singleCommand(Ping.class).train("-c", "3");
+        Assert.assertTrue(result.wasSuccessful());
+        Assert.assertEquals(result.getCommand().count, 3);
+    }
+
+    @Test
+    public void training_classes_01() throws ClassNotFoundException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int failures = Training.train(List.of(LazyGit.class.getName(), Ping.class.getName()), List.of("--help"),
+                                      new PrintStream(output, true));
+
+        // --help is not valid for the CLI, but is for the single command
+        Assert.assertEquals(failures, 1);
+        String log = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertTrue(log.contains("Trained " + LazyGit.class.getName() + ", representative arguments failed"),
+                          log);
+        Assert.assertTrue(log.contains("Trained " + Ping.class.getName() + System.lineSeparator()), log);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void training_classes_02() throws ClassNotFoundException {
+        Training.train(List.of(String.class.getName()), List.of(), new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    @Test(expectedExceptions = ClassNotFoundException.class)
+    public void training_classes_03() throws ClassNotFoundException {
+        Training.train(List.of("no.such.Class"), List.of(), new PrintStream(new ByteArrayOutputStream()));
+    }
+}
@@ -15,10 +15,14 @@
  */
 package com.github.rvesse.airline.tests.parser;
 
+import java.net.URI;
+import java.time.Duration;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
+import com.github.rvesse.airline.types.ConvertResult;
 import com.github.rvesse.airline.types.DefaultTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
 
@@ -222,4 +226,86 @@ public class TestDefaultTypeConverter {
         CharSequenceConstructor converted = testConvert(CharSequenceConstructor.class, value);
         Assert.assertEquals(converted.value, value);
     }
+
+    public static class FallbackExample extends ConversionExample {
+        static int fromStringCalls = 0;
+
+        public FallbackExample(String value) {
+            super(value);
+        }
+
+        public static FallbackExample fromString(String value) {
+            fromStringCalls++;
+            if (value.startsWith("x"))
+                throw new IllegalArgumentException();
+            return new FallbackExample("fromString:" + value);
+        }
+    }
+
+    @Test
+    public void convert_cached_fallback() {
+        // Conversion strategies are cached per type but a failing strategy
+        // must still fall through to the next one for each value
+        FallbackExample.fromStringCalls = 0;
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(testConvert(FallbackExample.class, "a").value, "fromString:a");
+            Assert.assertEquals(testConvert(FallbackExample.class, "xa").value, "xa");
+        }
+        Assert.assertEquals(FallbackExample.fromStringCalls, 6);
+    }
+
+    @Test
+    public void convert_cached_enum() {
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(testConvert(ConversionEnum.class, "FOO"), ConversionEnum.FOO);
+            try {
+                testConvert(ConversionEnum.class, "BAZ");
+                Assert.fail("Expected conversion to fail");
+            } catch (ParseOptionConversionException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void convert_cached_uri() {
+        for (int i = 0; i < 3; i++) {
+            URI uri = testConvert(URI.class, "http://example.org/" + i);
+            Assert.assertEquals(uri, URI.create("http://example.org/" + i));
+        }
+    }
+
+    @Test
+    public void convert_cached_unsupported() {
+        // Duration has no fromString/valueOf method or string constructor
+        for (int i = 0; i < 3; i++) {
+            try {
+                testConvert(Duration.class, "PT1S");
+                Assert.fail("Expected conversion to fail");
+            } catch (ParseOptionConversionException e) {
+                // Expected
+            }
+        }
+    }
+
+    private static class ParseTypeConverter extends DefaultTypeConverter {
+        @Override
+        public Object convert(String name, Class<?> type, String value) {
+            ConvertResult result = this.tryConvertStringMethod(name, type, value, "parse");
+            if (result.wasSuccessful())
+                return result.getConvertedValue();
+            return super.convert(name, type, value);
+        }
+    }
+
+    @Test
+    public void convert_cached_custom_method() {
+        // Derived converters may look for other method names
+        TypeConverter parseConverter = new ParseTypeConverter();
+        for (int i = 1; i <= 3; i++) {
+            Assert.assertEquals(parseConverter.convert(OPTION_NAME, Duration.class, "PT" + i + "S"),
+                    Duration.ofSeconds(i));
+        }
+        Assert.assertEquals(parseConverter.convert(OPTION_NAME, String.class, "test"), "test");
+    }
 }
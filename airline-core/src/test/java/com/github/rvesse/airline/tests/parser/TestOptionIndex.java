@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionIndex;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.tests.Git;
+import com.github.rvesse.airline.tests.args.Args1;
+
+public class TestOptionIndex {
+
+    @Command(name = "ambiguous")
+    public static class AmbiguousOptions {
+        @Option(name = { "--alpha", "-a" })
+        boolean alpha;
+
+        @Option(name = "--alphabet")
+        boolean alphabet;
+
+        @Option(name = "--beta")
+        boolean beta;
+    }
+
+    private CommandMetadata load(Class<?> cls) {
+        return MetadataLoader.loadCommand(cls, new ParserBuilder<Object>().build());
+    }
+
+    @Test
+    public void option_index_exact_01() {
+        CommandMetadata command = load(Args1.class);
+        OptionIndex index = command.getOptionIndex();
+
+        Assert.assertEquals(index.size(), command.getAllOptions().size());
+        for (OptionMetadata option : command.getAllOptions()) {
+            for (String name : option.getOptions()) {
+                Assert.assertSame(index.find(name), option);
+                Assert.assertSame(index.findAbbreviated(name), option);
+            }
+        }
+        Assert.assertNull(index.find("-nosuchoption"));
+        Assert.assertNull(index.find("-deb"));
+    }
+
+    @Test
+    public void option_index_abbreviated_01() {
+        OptionIndex index = load(Args1.class).getOptionIndex();
+
+        Assert.assertSame(index.findAbbreviated("-deb"), index.find("-debug"));
+        Assert.assertSame(index.findAbbreviated("-fl"), index.find("-float"));
+        Assert.assertSame(index.findAbbreviated("-verb"), index.find("-log"));
+        // -log and -long are distinct options
+        Assert.assertNull(index.findAbbreviated("-l"));
+        Assert.assertNull(index.findAbbreviated("-nosuchoption"));
+    }
+
+    @Test
+    public void option_index_abbreviated_02() {
+        OptionIndex index = load(AmbiguousOptions.class).getOptionIndex();
+
+        // Ambiguous
+        Assert.assertNull(index.findAbbreviated("--al"));
+        Assert.assertNull(index.findAbbreviated("--"));
+        // Exact match wins over longer names which share the prefix
+        Assert.assertSame(index.findAbbreviated("--alpha"), index.find("-a"));
+        Assert.assertSame(index.findAbbreviated("--alphab"), index.find("--alphabet"));
+        Assert.assertSame(index.findAbbreviated("--b"), index.find("--beta"));
+    }
+
+    @Test
+    public void option_index_of_01() {
+        OptionIndex index = load(Args1.class).getOptionIndex();
+        Assert.assertSame(OptionIndex.of(index), index);
+
+        List<OptionMetadata> copy = new ArrayList<>(index);
+        OptionIndex other = OptionIndex.of(copy);
+        Assert.assertNotSame(other, index);
+        Assert.assertEquals(other, index);
+        Assert.assertEquals(OptionIndex.of(null).size(), 0);
+    }
+
+    @Test
+    public void option_index_cached_01() {
+        CommandMetadata command = load(Args1.class);
+        Assert.assertSame(command.getAllOptions(), command.getAllOptions());
+        Assert.assertSame(command.getAllOptions(), command.getOptionIndex());
+    }
+
+    @Test
+    public void option_index_group_01() {
+        //@formatter:off
+        Cli<Runnable> cli = Cli.<Runnable>builder("git")
+                .withCommand(Git.Add.class)
+                .withGroup("remote")
+                    .withDefaultCommand(Git.RemoteShow.class)
+                    .withCommand(Git.RemoteShow.class)
+                    .withCommand(Git.RemoteAdd.class)
+                    .parent()
+                .build();
+        //@formatter:on
+        GlobalMetadata<Runnable> global = cli.getMetadata();
+        CommandGroupMetadata group = global.getCommandGroups().get(0);
+
+        OptionIndex index = global.getGroupOptionIndex(group);
+        Assert.assertSame(global.getGroupOptionIndex(group), index);
+        List<OptionMetadata> expected = new ArrayList<>(global.getOptions());
+        expected.addAll(group.getOptions());
+        Assert.assertEquals(index, expected);
+        Assert.assertSame(index.find("-v"), global.getOptionIndex().find("-v"));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void option_index_immutable_01() {
+        OptionIndex index = load(Args1.class).getOptionIndex();
+        index.add(index.get(0));
+    }
+}
@@ -0,0 +1,256 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests.parser;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionIndex;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
+import com.github.rvesse.airline.tests.Git;
+import com.github.rvesse.airline.tests.args.Args1;
+
+public class TestOptionOrdinals {
+
+    private static CommandMetadata load(Class<?> cls) {
+        return MetadataLoader.loadCommand(cls, new ParserBuilder<Object>().build());
+    }
+
+    @Test
+    public void option_ordinals_distinct_01() {
+        // Ordinals are dense and start from zero within each index
+        OptionIndex index = load(Args1.class).getOptionIndex();
+        Set<Integer> ordinals = new HashSet<>();
+        for (OptionMetadata option : index) {
+            Assert.assertTrue(ordinals.add(index.ordinalOf(option)), "Duplicate ordinal for " + option);
+        }
+        Assert.assertEquals(index.getOrdinalCount(), index.size());
+        for (int i = 0; i < index.getOrdinalCount(); i++) {
+            Assert.assertTrue(ordinals.contains(i));
+        }
+    }
+
+    @Test
+    public void option_ordinals_scoped_01() {
+        // Ordinals are assigned per index so the global index is sized by the
+        // global options alone
+        Cli<Runnable> cli = Cli.<Runnable> builder("git").withCommands(Git.Add.class, Git.RemoteShow.class).build();
+        OptionIndex global = cli.getMetadata().getOptionIndex();
+        Assert.assertEquals(global.getOrdinalCount(), global.size());
+        Assert.assertEquals(global.ordinalOf(global.get(0)), 0);
+
+        OptionIndex empty = OptionIndex.empty();
+        Assert.assertEquals(empty.getOrdinalCount(), 0);
+        Assert.assertEquals(empty.ordinalOf(global.get(0)), -1);
+    }
+
+    @Test
+    public void option_ordinals_stable_01() {
+        // Reloading the same definitions gives equal options with the same
+        // ordinals
+        OptionIndex a = load(Args1.class).getOptionIndex();
+        OptionIndex b = load(Args1.class).getOptionIndex();
+        Assert.assertEquals(a.size(), b.size());
+        for (int i = 0; i < a.size(); i++) {
+            Assert.assertNotSame(a.get(i), b.get(i));
+            Assert.assertEquals(a.get(i), b.get(i));
+            Assert.assertEquals(a.ordinalOf(a.get(i)), b.ordinalOf(b.get(i)));
+            Assert.assertEquals(a.ordinalOf(b.get(i)), a.ordinalOf(a.get(i)));
+            Assert.assertEquals(a.get(i).hashCode(), b.get(i).hashCode());
+        }
+    }
+
+    @Test
+    public void option_ordinals_global_01() {
+        // Global options are merged into new instances at the CLI level which
+        // resolve to the same ordinal as the commands instances
+        Cli<Runnable> cli = Cli.<Runnable> builder("git").withCommands(Git.Add.class, Git.RemoteShow.class).build();
+        GlobalMetadata<Runnable> global = cli.getMetadata();
+        OptionMetadata verbose = global.getOptionIndex().find("-v");
+        Assert.assertNotNull(verbose);
+
+        for (CommandMetadata command : global.getDefaultGroupCommands()) {
+            OptionIndex index = command.getOptionIndex();
+            OptionMetadata commandVerbose = index.find("-v");
+            Assert.assertNotSame(commandVerbose, verbose);
+            Assert.assertEquals(index.ordinalOf(verbose), index.ordinalOf(commandVerbose));
+            Assert.assertEquals(global.getOptionIndex().ordinalOf(commandVerbose),
+                    global.getOptionIndex().ordinalOf(verbose));
+        }
+    }
+
+    @Test
+    public void option_ordinals_parse_state_scope_01() {
+        // Counts for options parsed before the command is known carry over
+        // into the command scope
+        Cli<Runnable> cli = Cli.<Runnable> builder("git").withCommands(Git.Add.class).build();
+        GlobalMetadata<Runnable> global = cli.getMetadata();
+        CommandMetadata add = global.getDefaultGroupCommands().get(0);
+        OptionMetadata verbose = global.getOptionIndex().find("-v");
+
+        ParseState<Runnable> state = ParseState.<Runnable> newInstance().withGlobal(global)
+                .withOptionValue(verbose, "true").withCommand(add);
+        OptionMetadata commandVerbose = add.getOptionIndex().find("-v");
+        Assert.assertEquals(state.getOptionValuesSeen(commandVerbose), 1);
+        Assert.assertTrue(new ParsedOptionFinder(commandVerbose).evaluate(state.getParsedOptions().get(0)));
+        Assert.assertEquals(state.getOptionValuesSeen(add.getOptionIndex().find("-i")), 0);
+    }
+
+    @Test
+    public void option_ordinals_injection_01() {
+        // Global option values should be injected regardless of whether they
+        // were parsed at the global or command level
+        Cli<Runnable> cli = Cli.<Runnable> builder("git").withCommands(Git.Add.class).build();
+        Git.Add add = (Git.Add) cli.parse("-v", "add", "-i", "a", "b");
+        Assert.assertTrue(add.verbose);
+        Assert.assertTrue(add.interactive);
+        Assert.assertEquals(add.patterns, Arrays.asList("a", "b"));
+
+        add = (Git.Add) cli.parse("add", "-v", "a");
+        Assert.assertTrue(add.verbose);
+        Assert.assertFalse(add.interactive);
+    }
+
+    @Test
+    public void option_ordinals_parse_state_counts_01() {
+        CommandMetadata command = load(Args1.class);
+        OptionMetadata log = command.getOptionIndex().find("-log");
+        OptionMetadata groups = command.getOptionIndex().find("-groups");
+        OptionMetadata debug = command.getOptionIndex().find("-debug");
+
+        ParseState<Object> base = ParseState.<Object> newInstance().withCommand(command);
+        ParseState<Object> state = base.withOptionValue(log, "1").withOptionValue(groups, "a")
+                .withOptionValue(log, "2");
+
+        Assert.assertEquals(state.getOptionValuesSeen(log), 2);
+        Assert.assertEquals(state.getOptionValuesSeen(groups), 1);
+        Assert.assertEquals(state.getOptionValuesSeen(debug), 0);
+        Assert.assertTrue(state.hasOptionValues(groups));
+        Assert.assertFalse(state.hasOptionValues(debug));
+
+        // Earlier states are unaffected
+        Assert.assertEquals(base.getOptionValuesSeen(log), 0);
+        Assert.assertFalse(base.hasOptionValues(log));
+    }
+
+    @Test
+    public void option_ordinals_parse_state_counts_branching_01() {
+        // Counts are shared with later states but states that have been
+        // superseded, e.g. when an option parser rolls back, still see their
+        // own counts and may be extended independently
+        CommandMetadata command = load(Args1.class);
+        OptionMetadata log = command.getOptionIndex().find("-log");
+        OptionMetadata groups = command.getOptionIndex().find("-groups");
+
+        ParseState<Object> base = ParseState.<Object> newInstance().withCommand(command).withOptionValue(log, "1");
+        ParseState<Object> a = base.withOptionValue(log, "2").withOptionValue(log, "3");
+        ParseState<Object> b = base.withOptionValue(groups, "x");
+        ParseState<Object> c = base.withOptionValue(log, "4");
+
+        Assert.assertEquals(base.getOptionValuesSeen(log), 1);
+        Assert.assertEquals(base.getOptionValuesSeen(groups), 0);
+        Assert.assertEquals(a.getOptionValuesSeen(log), 3);
+        Assert.assertEquals(a.getOptionValuesSeen(groups), 0);
+        Assert.assertEquals(b.getOptionValuesSeen(log), 1);
+        Assert.assertEquals(b.getOptionValuesSeen(groups), 1);
+        Assert.assertEquals(c.getOptionValuesSeen(log), 2);
+        Assert.assertEquals(c.getOptionValuesSeen(groups), 0);
+
+        // Extending each branch further does not affect the others
+        ParseState<Object> b2 = b.withOptionValue(groups, "y");
+        ParseState<Object> a2 = a.withOptionValue(groups, "z");
+        Assert.assertEquals(b2.getOptionValuesSeen(groups), 2);
+        Assert.assertEquals(b.getOptionValuesSeen(groups), 1);
+        Assert.assertEquals(a2.getOptionValuesSeen(groups), 1);
+        Assert.assertEquals(a2.getOptionValuesSeen(log), 3);
+        Assert.assertEquals(c.getOptionValuesSeen(log), 2);
+    }
+
+    @Test
+    public void option_ordinals_parse_state_counts_branching_02() {
+        // A superseded state keeps its own counts once read, so it stays
+        // correct however far the states that superseded it go on
+        CommandMetadata command = load(Args1.class);
+        OptionMetadata log = command.getOptionIndex().find("-log");
+        OptionMetadata groups = command.getOptionIndex().find("-groups");
+
+        ParseState<Object> base = ParseState.<Object> newInstance().withCommand(command).withOptionValue(log, "1");
+        ParseState<Object> tip = base;
+        for (int i = 0; i < 100; i++) {
+            tip = tip.withOptionValue(i % 2 == 0 ? log : groups, Integer.toString(i));
+            if (i == 10) {
+                Assert.assertEquals(base.getOptionValuesSeen(log), 1);
+                Assert.assertEquals(base.getOptionValuesSeen(groups), 0);
+            }
+        }
+        Assert.assertEquals(tip.getOptionValuesSeen(log), 51);
+        Assert.assertEquals(tip.getOptionValuesSeen(groups), 50);
+        Assert.assertEquals(base.getOptionValuesSeen(log), 1);
+        Assert.assertEquals(base.getOptionValuesSeen(groups), 0);
+
+        // Extending a superseded state after it has been read
+        ParseState<Object> branch = base.withOptionValue(groups, "x").withOptionValue(groups, "y");
+        Assert.assertEquals(branch.getOptionValuesSeen(log), 1);
+        Assert.assertEquals(branch.getOptionValuesSeen(groups), 2);
+        Assert.assertEquals(base.getOptionValuesSeen(groups), 0);
+        Assert.assertEquals(tip.getOptionValuesSeen(groups), 50);
+    }
+
+    @Test
+    public void option_ordinals_parse_state_counts_02() {
+        // Counts are shared between equal option instances, even when the
+        // option is outside of the current scope
+        OptionMetadata a = load(Args1.class).getOptionIndex().find("-groups");
+        OptionMetadata b = load(Args1.class).getOptionIndex().find("-groups");
+        Assert.assertNotSame(a, b);
+
+        ParseState<Object> state = ParseState.<Object> newInstance().withOptionValue(a, "x");
+        Assert.assertEquals(state.getOptionValuesSeen(b), 1);
+        Assert.assertTrue(new ParsedOptionFinder(b).evaluate(state.getParsedOptions().get(0)));
+        state = state.withOptionValue(b, "y");
+        Assert.assertEquals(state.getOptionValuesSeen(a), 2);
+    }
+
+    @Test
+    public void option_ordinals_including_01() {
+        // Including an option outside of an index extends it, preserving the
+        // existing ordinals, and the extended index is reused
+        OptionIndex index = load(Args1.class).getOptionIndex();
+        OptionMetadata verbose = Cli.<Runnable> builder("git").withCommands(Git.Add.class).build().getMetadata()
+                .getOptionIndex().find("-v");
+        Assert.assertEquals(index.ordinalOf(verbose), -1);
+
+        OptionIndex extended = index.including(verbose);
+        Assert.assertEquals(extended.ordinalOf(verbose), index.getOrdinalCount());
+        for (OptionMetadata option : index) {
+            Assert.assertEquals(extended.ordinalOf(option), index.ordinalOf(option));
+        }
+        Assert.assertSame(index.including(verbose), extended);
+        Assert.assertSame(extended.including(verbose), extended);
+        Assert.assertSame(index.including(index.get(0)), index);
+    }
+}
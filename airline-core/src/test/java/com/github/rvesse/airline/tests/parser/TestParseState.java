@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Context;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.tests.TestingUtil;
+import com.github.rvesse.airline.tests.args.Args1;
+
+public class TestParseState {
+
+    @Test
+    public void parse_state_transitions_are_immutable_01() {
+        ParseState<Object> base = ParseState.newInstance();
+        ParseState<Object> a = base.withUnparsedInput("a");
+        ParseState<Object> ab = a.withUnparsedInput("b");
+
+        Assert.assertEquals(base.getUnparsedInput().size(), 0);
+        Assert.assertEquals(a.getUnparsedInput(), Arrays.asList("a"));
+        Assert.assertEquals(ab.getUnparsedInput(), Arrays.asList("a", "b"));
+    }
+
+    @Test
+    public void parse_state_transitions_are_immutable_02() {
+        // Branching from an older state must not affect states derived from
+        // it previously, this is relied upon by option parsers to roll back
+        ParseState<Object> a = ParseState.<Object> newInstance().withUnparsedInput("a");
+        ParseState<Object> ab = a.withUnparsedInput("b");
+        ParseState<Object> ac = a.withUnparsedInput("c");
+        ParseState<Object> abd = ab.withUnparsedInput("d");
+        ParseState<Object> ace = ac.withUnparsedInput("e");
+
+        Assert.assertEquals(a.getUnparsedInput(), Arrays.asList("a"));
+        Assert.assertEquals(ab.getUnparsedInput(), Arrays.asList("a", "b"));
+        Assert.assertEquals(ac.getUnparsedInput(), Arrays.asList("a", "c"));
+        Assert.assertEquals(abd.getUnparsedInput(), Arrays.asList("a", "b", "d"));
+        Assert.assertEquals(ace.getUnparsedInput(), Arrays.asList("a", "c", "e"));
+    }
+
+    @Test
+    public void parse_state_transitions_are_immutable_03() {
+        ParseState<Object> global = ParseState.<Object> newInstance().pushContext(Context.GLOBAL);
+        ParseState<Object> option = global.pushContext(Context.OPTION);
+        ParseState<Object> popped = option.popContext();
+        ParseState<Object> args = popped.pushContext(Context.ARGS);
+        ParseState<Object> repushed = popped.pushContext(Context.OPTION);
+
+        Assert.assertEquals(global.getLocation(), Context.GLOBAL);
+        Assert.assertEquals(option.getLocation(), Context.OPTION);
+        Assert.assertEquals(popped.getLocation(), Context.GLOBAL);
+        Assert.assertEquals(args.getLocation(), Context.ARGS);
+        Assert.assertEquals(repushed.getLocation(), Context.OPTION);
+    }
+
+    @Test
+    public void parse_state_transitions_are_immutable_04() {
+        ParseState<Object> state = ParseState.newInstance();
+        Assert.assertThrows(UnsupportedOperationException.class, () -> state.getUnparsedInput().add("a"));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> state.getParsedArguments().add("a"));
+    }
+
+    @Test(timeOut = 30000)
+    public void parse_state_many_arguments() {
+        // Previously every transition copied all prior state so this was
+        // quadratic in the number of arguments
+        int count = 200000;
+        List<String> args = new ArrayList<>(count + 2);
+        args.add("-debug");
+        for (int i = 0; i < count; i++) {
+            args.add("file" + i);
+        }
+
+        SingleCommand<Args1> parser = TestingUtil.singleCommandParser(Args1.class);
+        Args1 cmd = parser.parse(args);
+        Assert.assertTrue(cmd.debug);
+        Assert.assertEquals(cmd.parameters.size(), count);
+        Assert.assertEquals(cmd.parameters.get(0), "file0");
+        Assert.assertEquals(cmd.parameters.get(count - 1), "file" + (count - 1));
+    }
+}
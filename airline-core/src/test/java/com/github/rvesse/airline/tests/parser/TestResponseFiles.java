@@ -0,0 +1,257 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Parser;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.ResponseFileIterator;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.tests.Git;
+
+public class TestResponseFiles {
+
+    @Command(name = "paths")
+    public static class Paths {
+        @Arguments
+        public List<String> paths;
+    }
+
+    @com.github.rvesse.airline.annotations.Cli(name = "annotated", commands = {
+            Paths.class }, defaultCommand = Paths.class, parserConfiguration = @Parser(responseFiles = true))
+    public static class AnnotatedCli {
+    }
+
+    private Path dir;
+
+    @BeforeClass
+    public void setup() throws IOException {
+        this.dir = Files.createTempDirectory("airline-response-files");
+    }
+
+    @AfterClass
+    public void teardown() throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.list(this.dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(this.dir);
+    }
+
+    private String responseFile(String name, String contents) throws IOException {
+        Path file = this.dir.resolve(name);
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return "@" + file.toAbsolutePath();
+    }
+
+    private static Cli<Runnable> git(boolean responseFiles) {
+        return git(responseFiles, null);
+    }
+
+    private static Cli<Runnable> git(boolean responseFiles, ParserErrorHandler handler) {
+        //@formatter:off
+        ParserBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                                             .withCommand(Git.Add.class)
+                                             .withParser();
+        //@formatter:on
+        if (responseFiles) {
+            builder.withResponseFiles();
+        }
+        if (handler != null) {
+            builder.withErrorHandler(handler);
+        }
+        return builder.parent().build();
+    }
+
+    private static List<String> expand(String... args) {
+        List<String> expanded = new java.util.ArrayList<>();
+        new ResponseFileIterator(Arrays.asList(args).iterator()).forEachRemaining(expanded::add);
+        return expanded;
+    }
+
+    @Test
+    public void response_files_01() throws IOException {
+        String file = responseFile("add.args", "-i \"a b\"\nc\\ d\n\n  e  ");
+        Runnable cmd = git(true).parse("add", file, "f");
+        Assert.assertTrue(cmd instanceof Git.Add);
+        Git.Add add = (Git.Add) cmd;
+        Assert.assertTrue(add.interactive);
+        Assert.assertEquals(add.patterns, Arrays.asList("a b", "c d", "e", "f"));
+    }
+
+    @Test
+    public void response_files_disabled_01() throws IOException {
+        String file = responseFile("disabled.args", "-i");
+        Git.Add add = (Git.Add) git(false).parse("add", file);
+        Assert.assertFalse(add.interactive);
+        Assert.assertEquals(add.patterns, Arrays.asList(file));
+    }
+
+    @Test
+    public void response_files_escaped_01() {
+        Assert.assertEquals(expand("@@foo", "@", "a@b", "@@"), Arrays.asList("@foo", "@", "a@b", "@"));
+    }
+
+    @Test
+    public void response_files_multiple_01() throws IOException {
+        String first = responseFile("first.args", "a b");
+        String empty = responseFile("empty.args", "   \n");
+        String second = responseFile("second.args", "@nested d");
+        // Response files within response files are not expanded
+        Assert.assertEquals(expand(first, empty, "c", second), Arrays.asList("a", "b", "c", "@nested", "d"));
+    }
+
+    @Test
+    public void response_files_stdin_01() {
+        InputStream original = System.in;
+        try {
+            System.setIn(new ByteArrayInputStream("-i x \"y z\"".getBytes(StandardCharsets.UTF_8)));
+            Git.Add add = (Git.Add) git(true).parse("add", "@-");
+            Assert.assertTrue(add.interactive);
+            Assert.assertEquals(add.patterns, Arrays.asList("x", "y z"));
+        } finally {
+            System.setIn(original);
+        }
+    }
+
+    @Test
+    public void response_files_annotation_01() throws IOException {
+        String file = responseFile("annotated.args", "x y");
+        Paths paths = (Paths) new Cli<Object>(AnnotatedCli.class).parse(file, "z");
+        Assert.assertEquals(paths.paths, Arrays.asList("x", "y", "z"));
+    }
+
+    @Test
+    public void response_files_single_command_01() throws IOException {
+        String file = responseFile("single.args", "x y");
+        Paths paths = SingleCommand.singleCommand(Paths.class,
+                                                  new ParserBuilder<Paths>().withResponseFiles().build())
+                                   .parse(file);
+        Assert.assertEquals(paths.paths, Arrays.asList("x", "y"));
+    }
+
+    @Test(expectedExceptions = ParseException.class, expectedExceptionsMessageRegExp = "Failed to read response file.*")
+    public void response_files_missing_01() {
+        git(true).parse("add", "@" + this.dir.resolve("missing.args"));
+    }
+
+    @Test(expectedExceptions = ParseException.class, expectedExceptionsMessageRegExp = "Mismatched quotes in response file.*")
+    public void response_files_mismatched_quotes_01() throws IOException {
+        git(true).parse("add", responseFile("mismatched.args", "a \"b c"));
+    }
+
+    @Test(expectedExceptions = ParseException.class, expectedExceptionsMessageRegExp = "Failed to read response file.*")
+    public void response_files_read_failure_01() {
+        // A directory can be opened but fails once it is read
+        git(true).parse("add", "@" + this.dir);
+    }
+
+    @Test
+    public void response_files_read_failure_02() {
+        // Failures while reading lazily are collected like any other error
+        ParseResult<Runnable> result = git(true, new CollectAll()).parseWithResult("add", "a", "@" + this.dir);
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getErrors().size(), 1);
+        ParseException error = result.getErrors().iterator().next();
+        Assert.assertEquals(error.getMessage(), "Failed to read response file " + this.dir);
+        Assert.assertTrue(error.getCause() instanceof IOException);
+    }
+
+    @Test
+    public void response_files_mismatched_quotes_02() throws IOException {
+        ParseResult<Runnable> result = git(true, new CollectAll())
+                .parseWithResult("add", responseFile("mismatched2.args", "a \"b c"));
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getErrors().size(), 1);
+        Assert.assertTrue(result.getErrors().iterator().next().getMessage().startsWith("Mismatched quotes"));
+    }
+
+    @Test
+    public void response_files_read_failure_03() {
+        // The iterator itself ends early and records the failure
+        ResponseFileIterator iter = new ResponseFileIterator(Arrays.asList("x", "@" + this.dir, "y").iterator());
+        Assert.assertEquals(iter.next(), "x");
+        Assert.assertFalse(iter.hasNext());
+        Assert.assertNotNull(iter.getError());
+        iter.close();
+    }
+
+    @Test
+    public void response_files_large_01() throws IOException {
+        // Generate a large response file and check it is streamed through as
+        // is without ever needing a list of all the tokens
+        Path file = this.dir.resolve("large.args");
+        int count = 200000;
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                writer.write("/some/path/" + i + "\n");
+            }
+        }
+
+        Iterator<String> iter = new ResponseFileIterator(Arrays.asList("@" + file).iterator());
+        int seen = 0;
+        while (iter.hasNext()) {
+            Assert.assertEquals(iter.next(), "/some/path/" + seen);
+            seen++;
+        }
+        Assert.assertEquals(seen, count);
+        try {
+            iter.next();
+            Assert.fail("Expected NoSuchElementException");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+
+        Git.Add add = (Git.Add) git(true).parse(Arrays.asList("add", "@" + file));
+        Assert.assertEquals(add.patterns.size(), count);
+    }
+
+    @Test
+    public void response_files_lazy_01() throws IOException {
+        // Response files are only opened once the parser reaches them
+        String file = responseFile("lazy.args", "a");
+        ResponseFileIterator iter = new ResponseFileIterator(Arrays.asList("x", file).iterator());
+        Assert.assertEquals(iter.next(), "x");
+        Files.write(this.dir.resolve("lazy.args"), "b c".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(iter.next(), "b");
+        iter.close();
+        Assert.assertFalse(iter.hasNext());
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.MaxLength;
+import com.github.rvesse.airline.annotations.restrictions.MaxOccurrences;
+import com.github.rvesse.airline.annotations.restrictions.NoOptionLikeValues;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+
+public class TestStreamedArguments {
+
+    @Command(name = "sum")
+    public static class Sum {
+        @Option(name = "-v")
+        public boolean verbose;
+
+        @Arguments
+        public Stream<Integer> values;
+    }
+
+    @Command(name = "lines")
+    public static class Lines {
+        @Arguments
+        @Required
+        @MaxLength(length = 5)
+        public Iterator<String> lines;
+    }
+
+    @Command(name = "limited")
+    public static class Limited {
+        @Arguments
+        @MaxOccurrences(occurrences = 2)
+        public Stream<String> values;
+    }
+
+    @Command(name = "strict")
+    @NoOptionLikeValues
+    public static class Strict {
+        @Arguments
+        public Stream<String> values;
+    }
+
+    public static class Parent {
+        @Arguments(title = "values")
+        public Stream<String> values;
+    }
+
+    @Command(name = "clash")
+    public static class Clash extends Parent {
+        @Arguments(title = "values")
+        public Stream<String> others;
+    }
+
+    /**
+     * Arguments that record how many tokens the parser has pulled
+     */
+    private static class CountingArgs implements Iterable<String> {
+        private final List<String> args;
+        private int pulled;
+
+        CountingArgs(String... args) {
+            this.args = Arrays.asList(args);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            Iterator<String> iter = this.args.iterator();
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return iter.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    pulled++;
+                    return iter.next();
+                }
+            };
+        }
+    }
+
+    @Test
+    public void streamed_arguments_01() {
+        Sum sum = SingleCommand.singleCommand(Sum.class).parse("-v", "1", "2", "3");
+        Assert.assertTrue(sum.verbose);
+        Assert.assertEquals(sum.values.mapToInt(Integer::intValue).sum(), 6);
+    }
+
+    @Test
+    public void streamed_arguments_02() {
+        Sum sum = SingleCommand.singleCommand(Sum.class).parse();
+        Assert.assertEquals(sum.values.count(), 0L);
+    }
+
+    @Test
+    public void streamed_arguments_state_01() {
+        ParseResult<Sum> result = SingleCommand.singleCommand(Sum.class).parseWithResult("1", "2");
+        ParseState<Sum> state = result.getState();
+        Assert.assertEquals(state.getArgumentsSeen(), 0);
+
+        Iterator<Integer> values = result.getCommand().values.iterator();
+        values.next();
+        values.next();
+        Assert.assertEquals(state.getArgumentsSeen(), 2);
+        // Values are not retained but the parsed arguments are still a usable
+        // list
+        Assert.assertTrue(state.getParsedArguments().isEmpty());
+        Assert.assertFalse(state.getParsedArguments().iterator().hasNext());
+        Assert.assertEquals(state.getParsedArguments().toString(), "[]");
+    }
+
+    @Test
+    public void streamed_arguments_separator() {
+        Sum sum = SingleCommand.singleCommand(Sum.class).parse("--", "-1", "2");
+        Assert.assertFalse(sum.verbose);
+        Assert.assertEquals(sum.values.collect(Collectors.toList()), Arrays.asList(-1, 2));
+    }
+
+    @Test
+    public void streamed_arguments_options_first() {
+        // Once arguments start everything else is an argument
+        Lines lines = SingleCommand.singleCommand(Lines.class).parse("a", "-v");
+        Assert.assertEquals(lines.lines.next(), "a");
+        Assert.assertEquals(lines.lines.next(), "-v");
+        Assert.assertFalse(lines.lines.hasNext());
+    }
+
+    @Test
+    public void streamed_arguments_lazy() {
+        CountingArgs args = new CountingArgs("-v", "1", "2", "3");
+        Sum sum = SingleCommand.singleCommand(Sum.class).parse(args);
+        // The parser only looked ahead as far as the first argument
+        Assert.assertEquals(args.pulled, 2);
+
+        Iterator<Integer> values = sum.values.iterator();
+        Assert.assertEquals(values.next(), Integer.valueOf(1));
+        Assert.assertEquals(values.next(), Integer.valueOf(2));
+        Assert.assertEquals(args.pulled, 3);
+        Assert.assertEquals(values.next(), Integer.valueOf(3));
+        Assert.assertFalse(values.hasNext());
+        Assert.assertEquals(args.pulled, 4);
+    }
+
+    @Test
+    public void streamed_arguments_conversion_error() {
+        Sum sum = SingleCommand.singleCommand(Sum.class).parse("1", "two", "3");
+        Iterator<Integer> values = sum.values.iterator();
+        Assert.assertEquals(values.next(), Integer.valueOf(1));
+        try {
+            values.next();
+            Assert.fail("Expected a conversion error");
+        } catch (ParseException e) {
+            Assert.assertTrue(e.getMessage().contains("two"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void streamed_arguments_pre_validation() {
+        Lines lines = SingleCommand.singleCommand(Lines.class).parse("short", "too long");
+        Assert.assertEquals(lines.lines.next(), "short");
+        Assert.assertThrows(ParseRestrictionViolatedException.class, () -> lines.lines.next());
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void streamed_arguments_required_01() {
+        // No arguments at all so this is caught by the parser
+        SingleCommand.singleCommand(Lines.class).parse();
+    }
+
+    @Test
+    public void streamed_arguments_required_02() {
+        // With an error handler that collects errors the missing arguments are
+        // reported in the parse result as usual
+        SingleCommand<Lines> parser = SingleCommand.singleCommand(Lines.class,
+                new ParserBuilder<Lines>().withErrorHandler(new CollectAll()).build());
+        ParseResult<Lines> result = parser.parseWithResult();
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getErrors().size(), 1);
+    }
+
+    @Test
+    public void streamed_arguments_max_occurrences() {
+        Limited limited = SingleCommand.singleCommand(Limited.class).parse("a", "b", "c");
+        Iterator<String> values = limited.values.iterator();
+        Assert.assertEquals(values.next(), "a");
+        Assert.assertEquals(values.next(), "b");
+        Assert.assertEquals(values.next(), "c");
+        // Only detectable once the arguments are exhausted
+        Assert.assertThrows(ParseRestrictionViolatedException.class, () -> values.hasNext());
+    }
+
+    @Test
+    public void streamed_arguments_response_file() throws IOException {
+        Path file = Files.createTempFile("airline-streamed", ".txt");
+        try {
+            Files.write(file, "1 2\n3".getBytes(StandardCharsets.UTF_8));
+            SingleCommand<Sum> parser = SingleCommand.singleCommand(Sum.class,
+                    new ParserBuilder<Sum>().withResponseFiles().build());
+            Sum sum = parser.parse("4", "@" + file.toAbsolutePath());
+            List<Integer> values = new ArrayList<>();
+            sum.values.forEach(values::add);
+            Assert.assertEquals(values, Arrays.asList(4, 1, 2, 3));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expectedExceptions = ParseException.class, expectedExceptionsMessageRegExp = "Failed to read response file.*")
+    public void streamed_arguments_response_file_failure() throws IOException {
+        // The parser has finished by the time the response file is read so
+        // the failure is thrown to the command
+        Path dir = Files.createTempDirectory("airline-streamed");
+        try {
+            SingleCommand<Sum> parser = SingleCommand.singleCommand(Sum.class,
+                    new ParserBuilder<Sum>().withResponseFiles().build());
+            Sum sum = parser.parse("4", "@" + dir.toAbsolutePath());
+            sum.values.forEach(v -> {
+            });
+        } finally {
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void streamed_arguments_response_file_close_01() throws Exception {
+        Path file = Files.createTempFile("airline-streamed", ".txt");
+        try {
+            Files.write(file, "1 2 3".getBytes(StandardCharsets.UTF_8));
+            SingleCommand<Sum> parser = SingleCommand.singleCommand(Sum.class,
+                    new ParserBuilder<Sum>().withResponseFiles().build());
+            Sum sum = parser.parse("4", "@" + file.toAbsolutePath(), "5");
+            Iterator<Integer> values = sum.values.iterator();
+            Assert.assertEquals(values.next(), Integer.valueOf(4));
+            Assert.assertEquals(values.next(), Integer.valueOf(1));
+
+            // Closing the stream closes the response file so the rest of it
+            // is never read
+            sum.values.close();
+            Assert.assertEquals(values.next(), Integer.valueOf(5));
+            Assert.assertFalse(values.hasNext());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void streamed_arguments_response_file_close_02() throws Exception {
+        Path file = Files.createTempFile("airline-streamed", ".txt");
+        try {
+            Files.write(file, "a b c".getBytes(StandardCharsets.UTF_8));
+            SingleCommand<Lines> parser = SingleCommand.singleCommand(Lines.class,
+                    new ParserBuilder<Lines>().withResponseFiles().build());
+            Lines lines = parser.parse("@" + file.toAbsolutePath(), "d");
+            Assert.assertEquals(lines.lines.next(), "a");
+
+            // An iterator field may be closed directly
+            Assert.assertTrue(lines.lines instanceof AutoCloseable);
+            ((AutoCloseable) lines.lines).close();
+            Assert.assertEquals(lines.lines.next(), "d");
+            Assert.assertFalse(lines.lines.hasNext());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void streamed_arguments_no_option_like_values() {
+        // A global restriction that needs the values is applied to each one as
+        // it is consumed
+        Strict strict = SingleCommand.singleCommand(Strict.class).parse("a", "-b");
+        Iterator<String> values = strict.values.iterator();
+        Assert.assertEquals(values.next(), "a");
+        Assert.assertThrows(ParseRestrictionViolatedException.class, () -> values.next());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Streamed arguments cannot be bound to more than one field.*")
+    public void streamed_arguments_bad_01() {
+        MetadataLoader.loadCommand(Clash.class, MetadataLoader.loadParser(Clash.class));
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests.types;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.types.DefaultTypeConverter;
+import com.github.rvesse.airline.types.TypeConverter;
+import com.github.rvesse.airline.types.TypeConverterProvider;
+import com.github.rvesse.airline.types.numerics.bases.Hexadecimal;
+
+public class TestTypeConverterCache {
+
+    private static class CountingProvider implements TypeConverterProvider {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final boolean cacheable;
+
+        CountingProvider(boolean cacheable) {
+            this.cacheable = cacheable;
+        }
+
+        @Override
+        public <T> TypeConverter getTypeConverter(OptionMetadata option, ParseState<T> state) {
+            calls.incrementAndGet();
+            return new DefaultTypeConverter();
+        }
+
+        @Override
+        public <T> TypeConverter getTypeConverter(ArgumentsMetadata arguments, ParseState<T> state) {
+            calls.incrementAndGet();
+            return new DefaultTypeConverter();
+        }
+
+        @Override
+        public boolean isCacheable() {
+            return cacheable;
+        }
+    }
+
+    private static OptionMetadata option(TypeConverterProvider provider) throws NoSuchFieldException {
+        return new OptionMetadata(OptionType.COMMAND, Arrays.asList("--normal"), Arrays.asList("normal"), null, 1,
+                false, false, false, null, provider, Collections.singletonList(ArgsRadix.class.getField("normal")));
+    }
+
+    @Test
+    public void numeric_converter_shared_01() {
+        Hexadecimal hex = new Hexadecimal();
+        ParseState<Object> state = ParseState.newInstance();
+        TypeConverter converter = hex.getTypeConverter((OptionMetadata) null, state);
+        Assert.assertSame(hex.getTypeConverter((OptionMetadata) null, state), converter);
+        Assert.assertSame(hex.getTypeConverter((ArgumentsMetadata) null, state), converter);
+        Assert.assertEquals(converter.convert("test", Long.class, "ff"), 255l);
+    }
+
+    @Test
+    public void converter_cache_default_provider_01() {
+        ParserMetadata<Object> config = new ParserBuilder<Object>().build();
+        CommandMetadata command = MetadataLoader.loadCommand(ArgsRadix.class, config);
+        OptionMetadata normal = command.getOptionIndex().find("--normal");
+        OptionMetadata hex = command.getOptionIndex().find("--hex");
+
+        ParseState<Object> state = ParseState.<Object> newInstance().withConfiguration(config);
+        Assert.assertSame(normal.getTypeConverter(state), config.getTypeConverter());
+        Assert.assertSame(normal.getTypeConverter(state.withUnparsedInput("x")), config.getTypeConverter());
+        Assert.assertSame(hex.getTypeConverter(state), hex.getTypeConverter(state.withUnparsedInput("x")));
+        Assert.assertEquals(hex.getTypeConverter(state).convert("hex", Long.class, "10"), 16l);
+    }
+
+    @Test
+    public void converter_cache_per_configuration_01() throws NoSuchFieldException {
+        CountingProvider provider = new CountingProvider(true);
+        OptionMetadata option = option(provider);
+
+        ParseState<Object> a = ParseState.<Object> newInstance().withConfiguration(new ParserBuilder<Object>().build());
+        TypeConverter converter = option.getTypeConverter(a);
+        Assert.assertSame(option.getTypeConverter(a), converter);
+        Assert.assertSame(option.getTypeConverter(a.withUnparsedInput("x")), converter);
+        Assert.assertEquals(provider.calls.get(), 1);
+
+        // A different configuration needs resolving again
+        ParseState<Object> b = ParseState.<Object> newInstance().withConfiguration(new ParserBuilder<Object>().build());
+        Assert.assertNotSame(option.getTypeConverter(b), converter);
+        Assert.assertEquals(provider.calls.get(), 2);
+    }
+
+    @Test
+    public void converter_cache_not_cacheable_01() throws NoSuchFieldException {
+        CountingProvider provider = new CountingProvider(false);
+        OptionMetadata option = option(provider);
+
+        ParseState<Object> state = ParseState.<Object> newInstance()
+                .withConfiguration(new ParserBuilder<Object>().build());
+        for (int i = 1; i <= 3; i++) {
+            option.getTypeConverter(state);
+            Assert.assertEquals(provider.calls.get(), i);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.tests.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.utils.PrefixMatch;
+import com.github.rvesse.airline.utils.PrefixMatch.Kind;
+import com.github.rvesse.airline.utils.PrefixTrie;
+import com.github.rvesse.airline.utils.predicates.AbstractAbbreviationFinder;
+
+public class TestPrefixTrie {
+
+    private static final List<String> NAMES = Arrays.asList("add", "remove", "rename", "rm", "status");
+
+    private static PrefixTrie<String> trie(List<String> names) {
+        return PrefixTrie.of(names, s -> s);
+    }
+
+    @Test
+    public void prefix_trie_exact_01() {
+        PrefixTrie<String> trie = trie(NAMES);
+        for (String name : NAMES) {
+            PrefixMatch<String> match = trie.match(name);
+            Assert.assertEquals(match.getKind(), Kind.EXACT);
+            Assert.assertEquals(match.get(false), name);
+            Assert.assertEquals(trie.get(name), name);
+        }
+    }
+
+    @Test
+    public void prefix_trie_unique_01() {
+        PrefixTrie<String> trie = trie(NAMES);
+        PrefixMatch<String> match = trie.match("ad");
+        Assert.assertEquals(match.getKind(), Kind.UNIQUE);
+        Assert.assertEquals(match.get(true), "add");
+        Assert.assertNull(match.get(false));
+        Assert.assertNull(trie.get("ad"));
+        Assert.assertEquals(match.getCandidates(), Collections.singletonList("add"));
+
+        Assert.assertEquals(trie.match("ren").get(true), "rename");
+        Assert.assertEquals(trie.match("s").get(true), "status");
+    }
+
+    @Test
+    public void prefix_trie_ambiguous_01() {
+        PrefixTrie<String> trie = trie(NAMES);
+        PrefixMatch<String> match = trie.match("re");
+        Assert.assertEquals(match.getKind(), Kind.AMBIGUOUS);
+        Assert.assertNull(match.get(true));
+        Assert.assertEquals(match.getCandidates(), Arrays.asList("remove", "rename"));
+
+        match = trie.match("r");
+        Assert.assertEquals(match.getKind(), Kind.AMBIGUOUS);
+        Assert.assertEquals(match.getCandidates(), Arrays.asList("remove", "rename", "rm"));
+
+        match = trie.match("");
+        Assert.assertEquals(match.getKind(), Kind.AMBIGUOUS);
+        Assert.assertEquals(match.getCandidates(), NAMES);
+    }
+
+    @Test
+    public void prefix_trie_exact_with_candidates_01() {
+        PrefixTrie<String> trie = trie(Arrays.asList("test", "testing", "tester"));
+        PrefixMatch<String> match = trie.match("test");
+        Assert.assertEquals(match.getKind(), Kind.EXACT);
+        Assert.assertEquals(match.get(true), "test");
+        Assert.assertEquals(match.getCandidates(), Arrays.asList("test", "testing", "tester"));
+    }
+
+    @Test
+    public void prefix_trie_none_01() {
+        PrefixTrie<String> trie = trie(NAMES);
+        for (String value : Arrays.asList("x", "adds", "statuses", "rmx")) {
+            PrefixMatch<String> match = trie.match(value);
+            Assert.assertEquals(match.getKind(), Kind.NONE);
+            Assert.assertNull(match.get(true));
+            Assert.assertTrue(match.getCandidates().isEmpty());
+        }
+        Assert.assertEquals(trie(Collections.<String> emptyList()).match("").getKind(), Kind.NONE);
+    }
+
+    @Test
+    public void prefix_trie_multiple_keys_01() {
+        // Multiple keys of the same item are not ambiguous
+        PrefixTrie<List<String>> trie = new PrefixTrie<List<String>>(
+                Arrays.asList(Arrays.asList("--verbose", "--verbosity"), Arrays.asList("--version")), k -> k);
+        Assert.assertEquals(trie.match("--verb").get(true), Arrays.asList("--verbose", "--verbosity"));
+        Assert.assertTrue(trie.match("--ver").isAmbiguous());
+        Assert.assertEquals(trie.match("--vers").get(true), Arrays.asList("--version"));
+    }
+
+    @Test
+    public void prefix_trie_duplicates_01() {
+        // The same key on distinct items makes abbreviations ambiguous and
+        // exact matches resolve to the first item
+        PrefixTrie<String> trie = trie(Arrays.asList("dup", "dup"));
+        Assert.assertTrue(trie.match("du").isAmbiguous());
+        Assert.assertEquals(trie.match("du").getCandidates(), Arrays.asList("dup", "dup"));
+        Assert.assertTrue(trie.match("dup").isExact());
+    }
+
+    @Test
+    public void prefix_trie_matches_finder_01() {
+        // Results should be consistent with the predicate based finder
+        for (String value : Arrays.asList("", "a", "ad", "add", "r", "re", "rem", "rm", "s", "x", "adds")) {
+            StringFinder finder = new StringFinder(value, NAMES);
+            String expected = null;
+            for (String name : NAMES) {
+                if (finder.evaluate(name)) {
+                    expected = name;
+                    break;
+                }
+            }
+            Assert.assertEquals(trie(NAMES).match(value).get(true), expected, "Mismatch for " + value);
+        }
+    }
+
+    private static final class StringFinder extends AbstractAbbreviationFinder<String> {
+
+        StringFinder(String value, List<String> items) {
+            super(value, items);
+        }
+
+        @Override
+        protected boolean isExactNameMatch(String value, String item) {
+            return item.equals(value);
+        }
+
+        @Override
+        protected boolean isPartialNameMatch(String value, String item) {
+            return item.startsWith(value);
+        }
+    }
+}
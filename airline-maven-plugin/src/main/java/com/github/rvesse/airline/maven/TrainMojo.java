@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.maven;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import com.github.rvesse.airline.Training;
+import com.github.rvesse.airline.maven.sources.PreparedSource;
+
+/**
+ * Performs a training run of the configured sources in a forked JVM in order
+ * to produce a class list, AppCDS archive or AOT cache that can be used to
+ * reduce the startup time of the CLI, see {@link Training}
+ *
+ */
+//@formatter:off
+@Mojo(name = "train", 
+      defaultPhase = LifecyclePhase.PACKAGE, 
+      requiresOnline = false, 
+      requiresDependencyResolution = ResolutionScope.RUNTIME,
+      threadSafe = true,
+      requiresProject = true
+)
+//@formatter:on
+public class TrainMojo extends AbstractAirlineMojo {
+
+    /**
+     * Kind of output to produce
+     */
+    @Parameter(defaultValue = "APP_CDS")
+    protected TrainingMode mode = TrainingMode.APP_CDS;
+
+    /**
+     * Location of the output, defaults to a file named after the final name of
+     * the build with an extension appropriate to the mode
+     */
+    @Parameter
+    protected File outputFile;
+
+    /**
+     * Representative arguments that are parsed during the training run
+     */
+    @Parameter
+    protected List<String> arguments;
+
+    /**
+     * Additional JVM arguments for the forked JVM, these should generally
+     * match those the CLI is normally run with
+     */
+    @Parameter
+    protected List<String> jvmArgs;
+
+    /**
+     * Java executable to use for the forked JVM, defaults to the one running
+     * Maven, this <strong>MUST</strong> be the same Java version that the CLI
+     * will be run with
+     */
+    @Parameter
+    protected String javaExecutable;
+
+    @Parameter(defaultValue = "false", property = "airline.train.skip")
+    protected boolean skip = false;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (project == null)
+            throw new MojoFailureException("Maven project was not injected into Mojo");
+        if (pluginDescriptor == null)
+            throw new MojoFailureException("Plugin Descriptor was not injected into Mojo");
+
+        Log log = getLog();
+        if (skip) {
+            log.info("Skipping training as requested");
+            return;
+        }
+
+        // Prepare the class realm
+        prepareClassRealm();
+
+        // Validate the sources before going to the expense of forking a JVM
+        List<PreparedSource> sources = prepareSources(false);
+        if (sources.size() == 0) {
+            log.info("No sources specified so nothing to do");
+            return;
+        }
+
+        File output = this.outputFile != null ? this.outputFile
+                : new File(project.getBuild().getDirectory(),
+                        project.getBuild().getFinalName() + this.mode.getExtension());
+        File parent = output.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs())
+            throw new MojoFailureException(String.format("Failed to create directory %s", parent));
+        if (output.exists() && !output.delete())
+            throw new MojoFailureException(String.format("Failed to delete existing training output %s", output));
+
+        List<String> command = new ArrayList<>();
+        command.add(StringUtils.isNotBlank(this.javaExecutable) ? this.javaExecutable
+                : new File(new File(System.getProperty("java.home"), "bin"), "java").getAbsolutePath());
+        if (this.jvmArgs != null)
+            command.addAll(this.jvmArgs);
+        command.add(this.mode.getJvmOption(output.getAbsolutePath()));
+        command.add("-cp");
+        command.add(StringUtils.join(prepareClasspath(), File.pathSeparator));
+        command.add(Training.class.getName());
+        for (PreparedSource source : sources) {
+            command.add(source.getSourceClass().getName());
+        }
+        if (this.arguments != null && !this.arguments.isEmpty()) {
+            command.add("--");
+            command.addAll(this.arguments);
+        }
+        log.debug(String.format("Forking training JVM with command %s", command));
+
+        int exitCode;
+        try {
+            Process process = new ProcessBuilder(command).directory(project.getBasedir()).redirectErrorStream(true)
+                    .start();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), Charset.defaultCharset()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    log.info(line);
+                }
+            }
+            exitCode = process.waitFor();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to fork training JVM", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for training JVM", e);
+        }
+
+        if (exitCode != 0)
+            throw new MojoFailureException(String.format("Training JVM exited with code %d", exitCode));
+        if (!output.exists())
+            throw new MojoFailureException(String.format(
+                    "Training JVM did not produce %s, check that the Java version supports training mode %s", output,
+                    this.mode));
+        log.info(String.format("Training produced %s", output));
+    }
+
+    /**
+     * Prepares the classpath for the forked JVM
+     * <p>
+     * If the project artifact has already been packaged it is used in
+     * preference to the output directory since CDS archives are only usable
+     * with the same classpath and cannot contain classes loaded from
+     * directories.
+     * </p>
+     * 
+     * @return Classpath elements
+     * @throws MojoFailureException
+     *             Thrown if dependencies cannot be resolved
+     */
+    private Set<String> prepareClasspath() throws MojoFailureException {
+        Set<String> classpath = new LinkedHashSet<>();
+        File artifact = project.getArtifact() != null ? project.getArtifact().getFile() : null;
+        boolean packaged = artifact != null && artifact.isFile();
+        if (packaged)
+            classpath.add(artifact.getAbsolutePath());
+        try {
+            for (String element : project.getRuntimeClasspathElements()) {
+                if (packaged && new File(element).equals(new File(project.getBuild().getOutputDirectory())))
+                    continue;
+                classpath.add(element);
+            }
+        } catch (DependencyResolutionRequiredException e) {
+            throw new MojoFailureException("Failed to resolve dependencies", e);
+        }
+        return classpath;
+    }
+}
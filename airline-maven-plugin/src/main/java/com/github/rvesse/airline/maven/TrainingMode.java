@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.maven;
+
+/**
+ * The kinds of output a training run may produce
+ */
+public enum TrainingMode {
+    /**
+     * Produce a class list via {@code -XX:DumpLoadedClassList}, supported by
+     * all JVMs that Airline supports, the list can be turned into a CDS archive
+     * via {@code -Xshare:dump -XX:SharedClassListFile}
+     */
+    CLASS_LIST("-XX:DumpLoadedClassList=", ".classlist"),
+    /**
+     * Produce a dynamic AppCDS archive via {@code -XX:ArchiveClassesAtExit},
+     * requires JDK 13 or later, the archive is used via
+     * {@code -XX:SharedArchiveFile}
+     */
+    APP_CDS("-XX:ArchiveClassesAtExit=", ".jsa"),
+    /**
+     * Produce an AOT cache via {@code -XX:AOTCacheOutput}, requires JDK 25 or
+     * later, the cache is used via {@code -XX:AOTCache}
+     */
+    AOT_CACHE("-XX:AOTCacheOutput=", ".aot");
+
+    private final String jvmOption, extension;
+
+    private TrainingMode(String jvmOption, String extension) {
+        this.jvmOption = jvmOption;
+        this.extension = extension;
+    }
+
+    /**
+     * Gets the JVM option that produces the output in the given file
+     * 
+     * @param path
+     *            Output file path
+     * @return JVM option
+     */
+    public String getJvmOption(String path) {
+        return this.jvmOption + path;
+    }
+
+    /**
+     * Gets the default file extension for the output
+     * 
+     * @return File extension
+     */
+    public String getExtension() {
+        return this.extension;
+    }
+}
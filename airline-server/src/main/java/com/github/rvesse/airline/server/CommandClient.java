@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A thin client for a {@link CommandServer} which forwards its arguments to the server and copies the command output
+ * to its own standard output and error
+ * <p>
+ * When run via {@link #main(String[])} the server port is given by the {@value #PORT_PROPERTY} system property, and
+ * optionally the host by the {@value #HOST_PROPERTY} system property, and the process exits with the exit code of the
+ * command.
+ * </p>
+ */
+public final class CommandClient {
+
+    /**
+     * System property giving the host the server is listening on, defaults to the loopback address
+     */
+    public static final String HOST_PROPERTY = "airline.server.host";
+    /**
+     * System property giving the port the server is listening on
+     */
+    public static final String PORT_PROPERTY = "airline.server.port";
+
+    private CommandClient() {
+    }
+
+    /**
+     * Runs a command line on the server at the given address
+     * 
+     * @param address
+     *            Server address, any address that {@link SocketChannel#open(SocketAddress)} supports may be used
+     * @param args
+     *            Arguments
+     * @param output
+     *            Stream to copy the command output to
+     * @param error
+     *            Stream to copy the command error output to
+     * @return Exit code of the command
+     * @throws IOException
+     *             Thrown if there is a problem communicating with the server
+     */
+    public static int run(SocketAddress address, List<String> args, OutputStream output, OutputStream error)
+            throws IOException {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            return run(java.nio.channels.Channels.newInputStream(channel),
+                    java.nio.channels.Channels.newOutputStream(channel), args, output, error);
+        }
+    }
+
+    /**
+     * Runs a command line on the server at the other end of the given streams, the streams are not closed so that
+     * further command lines may be sent
+     * 
+     * @param input
+     *            Input from the server
+     * @param output
+     *            Output to the server
+     * @param args
+     *            Arguments
+     * @param commandOutput
+     *            Stream to copy the command output to
+     * @param commandError
+     *            Stream to copy the command error output to
+     * @return Exit code of the command
+     * @throws IOException
+     *             Thrown if there is a problem communicating with the server
+     */
+    public static int run(InputStream input, OutputStream output, List<String> args, OutputStream commandOutput,
+            OutputStream commandError) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        Protocol.writeRequest(out, args);
+
+        // Not buffered since we must not read beyond the end of this response
+        DataInputStream in = new DataInputStream(input);
+        while (true) {
+            int type = in.read();
+            switch (type) {
+            case Protocol.STDOUT:
+                commandOutput.write(Protocol.readData(in));
+                commandOutput.flush();
+                break;
+            case Protocol.STDERR:
+                commandError.write(Protocol.readData(in));
+                commandError.flush();
+                break;
+            case Protocol.EXIT:
+                return in.readInt();
+            case -1:
+                throw new IOException("Server closed the connection before the command completed");
+            default:
+                throw new IOException("Unexpected frame type " + type);
+            }
+        }
+    }
+
+    /**
+     * Entry point for the client
+     * 
+     * @param args
+     *            Arguments to forward to the server
+     */
+    public static void main(String[] args) {
+        String port = System.getProperty(PORT_PROPERTY);
+        if (port == null) {
+            System.err.println("The " + PORT_PROPERTY + " system property must give the server port");
+            System.exit(CommandServer.EXIT_USAGE);
+        }
+        String host = System.getProperty(HOST_PROPERTY);
+        try {
+            InetSocketAddress address = new InetSocketAddress(
+                    host != null ? InetAddress.getByName(host) : InetAddress.getLoopbackAddress(),
+                    Integer.parseInt(port));
+            System.exit(run(address, Arrays.asList(args), System.out, System.err));
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Failed to run command on server: " + e.getMessage());
+            System.exit(CommandServer.EXIT_FAILURE);
+        }
+    }
+}
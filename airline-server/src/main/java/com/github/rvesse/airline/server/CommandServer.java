@@ -0,0 +1,428 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.System.Logger.Level;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.rvesse.airline.ChannelScope;
+import com.github.rvesse.airline.Channels;
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.command.CliParser;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+/**
+ * A server that hosts a {@link Cli} in a long running JVM and runs command lines sent to it by clients
+ * <p>
+ * This amortises the cost of JVM startup and of loading the CLI meta-data across many invocations. Each request is
+ * parsed with the shared CLI, which is safe to use concurrently, and the resulting command is run via
+ * {@link #run(Object)}, by default commands must implement either {@link Runnable} or {@link Callable}. While a request
+ * is being handled the {@link Channels} on the handling thread are bound to that request, so anything the command
+ * writes to {@link Channels#output()} and {@link Channels#error()} is streamed back to the client while
+ * {@link Channels#input()} is empty. The channels are inherited by any threads the command starts. Note that commands
+ * which write directly to {@code System.out} or {@code System.err} will write to the server's own output instead.
+ * </p>
+ * <p>
+ * Clients may connect over any stream based channel, see {@link #listen(int)} for local TCP,
+ * {@link #listen(ServerSocketChannel)} for an already bound channel, e.g. a Unix domain socket on JVMs that support
+ * them, and {@link #serve(InputStream, OutputStream)} for a single connection such as a pair of named pipes.
+ * {@link CommandClient} provides a client, the wire protocol is described in the user guide so that other clients may
+ * be written.
+ * </p>
+ * <p>
+ * <strong>Security:</strong> the server does not authenticate its clients. Commands run with the permissions of the
+ * server process on behalf of anyone who can connect to it, for {@link #listen(int)} that is every user on the local
+ * machine. Where other users share the machine prefer {@link #listen(ServerSocketChannel)} with a channel whose access
+ * is restricted, e.g. a Unix domain socket in a directory only the server user can access.
+ * </p>
+ * <p>
+ * Response files are never expanded for requests, even if the hosted CLI was built with response files enabled,
+ * since they would be read from the server's file system rather than the client's. An argument such as
+ * {@code @file} is passed to the CLI as-is.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public class CommandServer<C> implements AutoCloseable {
+
+    /**
+     * Exit code for a command that completed successfully
+     */
+    public static final int EXIT_SUCCESS = 0;
+    /**
+     * Exit code for a command that failed
+     */
+    public static final int EXIT_FAILURE = 1;
+    /**
+     * Exit code for a command line that could not be parsed
+     */
+    public static final int EXIT_USAGE = 2;
+
+    /**
+     * Initial delay before accepting again after a failure, doubles with each consecutive failure
+     */
+    private static final long ACCEPT_BACKOFF_MILLIS = 10;
+    /**
+     * Maximum delay before accepting again after a failure
+     */
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1000;
+
+    private static final System.Logger LOGGER = System.getLogger(CommandServer.class.getName());
+
+    private final Cli<C> cli;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final List<ServerSocketChannel> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * Creates a new server which handles each connection on its own daemon thread
+     * 
+     * @param cli
+     *            CLI
+     */
+    public CommandServer(Cli<C> cli) {
+        this(cli, Executors.newCachedThreadPool(new DaemonThreadFactory()), true);
+    }
+
+    /**
+     * Creates a new server which handles connections using the given executor, the executor is not shut down when the
+     * server is closed
+     * 
+     * @param cli
+     *            CLI
+     * @param executor
+     *            Executor
+     */
+    public CommandServer(Cli<C> cli, ExecutorService executor) {
+        this(cli, executor, false);
+    }
+
+    private CommandServer(Cli<C> cli, ExecutorService executor, boolean ownsExecutor) {
+        if (cli == null)
+            throw new NullPointerException("cli cannot be null");
+        if (executor == null)
+            throw new NullPointerException("executor cannot be null");
+        this.cli = cli;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Gets the CLI this server hosts
+     * 
+     * @return CLI
+     */
+    public Cli<C> getCli() {
+        return this.cli;
+    }
+
+    /**
+     * Starts listening for clients on the given TCP port of the loopback interface
+     * <p>
+     * <strong>Warning:</strong> the listener is unauthenticated, any local user can connect to it and run commands as
+     * the user the server runs as. Only use this where every local user is trusted, otherwise use
+     * {@link #listen(ServerSocketChannel)} with a permission restricted channel such as a Unix domain socket.
+     * </p>
+     * 
+     * @param port
+     *            Port, may be {@code 0} to use any free port
+     * @return Address the server is listening on
+     * @throws IOException
+     *             Thrown if the port cannot be bound
+     */
+    public InetSocketAddress listen(int port) throws IOException {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return (InetSocketAddress) listen(channel);
+    }
+
+    /**
+     * Starts accepting clients from the given bound channel, the channel is closed when the server is closed
+     * 
+     * @param channel
+     *            Bound server channel
+     * @return Address the server is listening on
+     * @throws IOException
+     *             Thrown if the channel address cannot be determined
+     */
+    public SocketAddress listen(final ServerSocketChannel channel) throws IOException {
+        if (this.closed)
+            throw new IllegalStateException("Server is closed");
+        SocketAddress address = channel.getLocalAddress();
+        this.listeners.add(channel);
+        this.executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                accept(channel);
+            }
+        });
+        return address;
+    }
+
+    private void accept(ServerSocketChannel channel) {
+        int failures = 0;
+        while (!this.closed && channel.isOpen()) {
+            final SocketChannel client;
+            try {
+                client = channel.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (this.closed)
+                    return;
+                // Failures such as running out of file descriptors tend to
+                // persist for a while so back off rather than spinning
+                failures++;
+                if (!backOff(failures))
+                    return;
+                continue;
+            }
+            failures = 0;
+            try {
+                this.executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try (SocketChannel c = client) {
+                            serve(java.nio.channels.Channels.newInputStream(c),
+                                    java.nio.channels.Channels.newOutputStream(c));
+                        } catch (IOException e) {
+                            // Client went away, nothing more to do
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                closeQuietly(client);
+                return;
+            }
+        }
+    }
+
+    private static boolean backOff(int failures) {
+        long delay = Math.min(MAX_ACCEPT_BACKOFF_MILLIS, ACCEPT_BACKOFF_MILLIS << Math.min(failures - 1, 16));
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Serves requests from a single client on the calling thread until the client closes the connection
+     * 
+     * @param input
+     *            Input from the client
+     * @param output
+     *            Output to the client
+     * @throws IOException
+     *             Thrown if there is a problem communicating with the client
+     */
+    public void serve(InputStream input, OutputStream output) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        List<String> args;
+        while (!this.closed && (args = Protocol.readRequest(in)) != null) {
+            PrintStream stdout = printStream(new Protocol.FrameOutputStream(out, Protocol.STDOUT));
+            PrintStream stderr = printStream(new Protocol.FrameOutputStream(out, Protocol.STDERR));
+            int exitCode = execute(args, stdout, stderr);
+            stdout.flush();
+            stderr.flush();
+            if (stdout.checkError() || stderr.checkError())
+                throw new IOException("Failed to send output to the client");
+            Protocol.writeExit(out, exitCode);
+        }
+    }
+
+    private static PrintStream printStream(OutputStream output) {
+        try {
+            return new PrintStream(new BufferedOutputStream(output), true, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Parses and runs a single command line with the {@link Channels} of the calling thread bound to the given
+     * streams
+     * <p>
+     * If the command throws only its message is written to the error stream, the stack trace is logged via the
+     * server's {@link System.Logger}.
+     * </p>
+     * 
+     * @param args
+     *            Arguments
+     * @param output
+     *            Output stream for the command
+     * @param error
+     *            Error stream for the command
+     * @return Exit code
+     */
+    public int execute(List<String> args, PrintStream output, PrintStream error) {
+        try (ChannelScope scope = Channels.scope(output, error, InputStream.nullInputStream())) {
+            ParseResult<C> result;
+            try {
+                result = new RequestParser<C>().parseWithResult(this.cli.getMetadata(), args);
+            } catch (ParseException e) {
+                error.println("Error: " + e.getMessage());
+                return EXIT_USAGE;
+            }
+            if (!result.wasSuccessful()) {
+                for (ParseException e : result.getErrors()) {
+                    error.println("Error: " + e.getMessage());
+                }
+                return EXIT_USAGE;
+            }
+            C command = result.getCommand();
+            if (command == null) {
+                error.println("Error: No command specified");
+                return EXIT_USAGE;
+            }
+            return run(command);
+        } catch (Exception e) {
+            // Only the server gets the stack trace, it would reveal details
+            // of the server's internals to the client
+            LOGGER.log(Level.ERROR, "Command failed", e);
+            error.println("Error: " + e.getMessage());
+            return EXIT_FAILURE;
+        }
+    }
+
+    /**
+     * Parses and runs a single command line with the {@link Channels} of the calling thread bound to the given
+     * streams
+     * 
+     * @param output
+     *            Output stream for the command
+     * @param error
+     *            Error stream for the command
+     * @param args
+     *            Arguments
+     * @return Exit code
+     */
+    public int execute(PrintStream output, PrintStream error, String... args) {
+        return execute(Arrays.asList(args), output, error);
+    }
+
+    /**
+     * Runs a parsed command
+     * <p>
+     * The default implementation supports commands that implement {@link Callable}, where an {@link Integer} result
+     * is used as the exit code, or {@link Runnable}. Derived servers may override this to dispatch commands
+     * differently.
+     * </p>
+     * 
+     * @param command
+     *            Command
+     * @return Exit code
+     * @throws Exception
+     *             Thrown if the command fails
+     */
+    protected int run(C command) throws Exception {
+        if (command instanceof Callable) {
+            Object result = ((Callable<?>) command).call();
+            return result instanceof Integer ? (Integer) result : EXIT_SUCCESS;
+        } else if (command instanceof Runnable) {
+            ((Runnable) command).run();
+            return EXIT_SUCCESS;
+        }
+        Channels.error().println(String.format("Error: Command %s is neither Runnable nor Callable",
+                command.getClass().getName()));
+        return EXIT_FAILURE;
+    }
+
+    /**
+     * Stops accepting new clients and closes all listening channels, if the server created its own executor that is
+     * shut down which interrupts any requests still being handled
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        for (ServerSocketChannel channel : this.listeners) {
+            closeQuietly(channel);
+        }
+        this.listeners.clear();
+        if (this.ownsExecutor) {
+            this.executor.shutdownNow();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * Parser for requests which never expands response files
+     *
+     * @param <C>
+     *            Command type
+     */
+    private static final class RequestParser<C> extends CliParser<C> {
+        @Override
+        protected Iterator<String> expandResponseFiles(ParserMetadata<C> parserConfig, Iterator<String> args) {
+            return args;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "airline-server-" + this.counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The wire protocol spoken between a {@link CommandClient} and a {@link CommandServer}
+ * <p>
+ * All integers are 4 byte big endian and all strings are UTF-8. A client sends a request as the number of arguments
+ * followed by each argument as its length in bytes and then its bytes, several requests may be sent one after another
+ * over a single connection. The server responds to each request with a sequence of frames, each starting with a single
+ * byte frame type. Output ({@value #STDOUT}) and error ({@value #STDERR}) frames are followed by the length in bytes
+ * of the data and then the data, and are sent as the command writes its output. The response ends with an exit
+ * ({@value #EXIT}) frame followed by the exit code.
+ * </p>
+ * <p>
+ * A request may have at most {@value #MAX_ARGUMENTS} arguments totalling at most {@value #MAX_REQUEST} bytes, the
+ * server closes the connection of a client that sends a larger request.
+ * </p>
+ */
+final class Protocol {
+
+    static final int STDOUT = 1;
+    static final int STDERR = 2;
+    static final int EXIT = 3;
+
+    /**
+     * Maximum size of a single frame, guards against allocating huge buffers for a corrupt stream
+     */
+    static final int MAX_LENGTH = 16 * 1024 * 1024;
+
+    /**
+     * Maximum number of arguments in a single request
+     */
+    static final int MAX_ARGUMENTS = 64 * 1024;
+
+    /**
+     * Maximum total size in bytes of the arguments of a single request
+     */
+    static final int MAX_REQUEST = 16 * 1024 * 1024;
+
+    /**
+     * Maximum amount of output sent in a single frame
+     */
+    static final int MAX_FRAME = 64 * 1024;
+
+    private Protocol() {
+    }
+
+    static void writeRequest(DataOutputStream output, List<String> args) throws IOException {
+        output.writeInt(args.size());
+        for (String arg : args) {
+            byte[] data = arg.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(data.length);
+            output.write(data);
+        }
+        output.flush();
+    }
+
+    /**
+     * Reads a request
+     * 
+     * @param input
+     *            Input
+     * @return Request arguments, or {@code null} if the client has closed the connection
+     * @throws IOException
+     *             Thrown if the request cannot be read or exceeds {@link #MAX_ARGUMENTS} or {@link #MAX_REQUEST}
+     */
+    static List<String> readRequest(DataInputStream input) throws IOException {
+        int count;
+        try {
+            count = input.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (count < 0 || count > MAX_ARGUMENTS)
+            throw new IOException("Invalid argument count " + count + ", requests may have at most " + MAX_ARGUMENTS
+                    + " arguments");
+        List<String> args = new ArrayList<>(Math.min(count, 1024));
+        int remaining = MAX_REQUEST;
+        for (int i = 0; i < count; i++) {
+            byte[] data = readData(input, remaining);
+            remaining -= data.length;
+            args.add(new String(data, StandardCharsets.UTF_8));
+        }
+        return args;
+    }
+
+    static byte[] readData(DataInputStream input) throws IOException {
+        return readData(input, MAX_LENGTH);
+    }
+
+    private static byte[] readData(DataInputStream input, int maxLength) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > maxLength)
+            throw new IOException("Invalid length " + length + ", at most " + maxLength + " bytes may be sent");
+        byte[] data = new byte[length];
+        input.readFully(data);
+        return data;
+    }
+
+    static void writeExit(DataOutputStream output, int exitCode) throws IOException {
+        synchronized (output) {
+            output.writeByte(EXIT);
+            output.writeInt(exitCode);
+            output.flush();
+        }
+    }
+
+    /**
+     * An output stream that sends everything written to it as frames of a given type
+     */
+    static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream output;
+        private final int type;
+
+        FrameOutputStream(DataOutputStream output, int type) {
+            this.output = output;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            // Output and error frames share the connection so must not interleave
+            synchronized (this.output) {
+                while (len > 0) {
+                    int chunk = Math.min(len, MAX_FRAME);
+                    this.output.writeByte(this.type);
+                    this.output.writeInt(chunk);
+                    this.output.write(b, off, chunk);
+                    off += chunk;
+                    len -= chunk;
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (this.output) {
+                this.output.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Channels;
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.help.Help;
+
+public class TestCommandServer {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 50;
+
+    @Command(name = "echo")
+    public static class Echo implements Runnable {
+        @Arguments
+        public List<String> words = new ArrayList<>();
+
+        @Override
+        public void run() {
+            Channels.output().println(String.join(" ", this.words));
+        }
+    }
+
+    @Command(name = "exit")
+    public static class Exit implements Callable<Integer> {
+        @Option(name = "--code")
+        public int code;
+
+        @Override
+        public Integer call() {
+            Channels.error().println("exiting with " + this.code);
+            return this.code;
+        }
+    }
+
+    @Command(name = "fail")
+    public static class Fail implements Runnable {
+        @Override
+        public void run() {
+            throw new IllegalStateException("Failed on purpose");
+        }
+    }
+
+    @Command(name = "inert")
+    public static class Inert {
+    }
+
+    private static Cli<Object> cli() {
+        List<Class<? extends Object>> commands = Arrays.<Class<? extends Object>> asList(Echo.class, Exit.class,
+                Fail.class, Inert.class, Help.class);
+        return Cli.<Object> builder("test").withCommands(commands).build();
+    }
+
+    private static Cli<Object> responseFilesCli() {
+        List<Class<? extends Object>> commands = Arrays.<Class<? extends Object>> asList(Echo.class, Help.class);
+        return Cli.<Object> builder("test").withCommands(commands).withParser().withResponseFiles().parent()
+                .build();
+    }
+
+    /**
+     * Output captured from a single request
+     */
+    private static class Captured {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final ByteArrayOutputStream error = new ByteArrayOutputStream();
+        final PrintStream out = new PrintStream(output, true);
+        final PrintStream err = new PrintStream(error, true);
+
+        String output() {
+            return new String(this.output.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        String error() {
+            return new String(this.error.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void server_execute_01() {
+        try (CommandServer<Object> server = new CommandServer<>(cli())) {
+            Captured captured = new Captured();
+            Assert.assertEquals(server.execute(captured.out, captured.err, "echo", "hello", "world"),
+                    CommandServer.EXIT_SUCCESS);
+            Assert.assertEquals(captured.output().trim(), "hello world");
+            Assert.assertEquals(captured.error(), "");
+        }
+    }
+
+    @Test
+    public void server_execute_exit_code() {
+        try (CommandServer<Object> server = new CommandServer<>(cli())) {
+            Captured captured = new Captured();
+            Assert.assertEquals(server.execute(captured.out, captured.err, "exit", "--code", "3"), 3);
+            Assert.assertEquals(captured.error().trim(), "exiting with 3");
+        }
+    }
+
+    @Test
+    public void server_execute_parse_error() {
+        try (CommandServer<Object> server = new CommandServer<>(cli())) {
+            Captured captured = new Captured();
+            Assert.assertEquals(server.execute(captured.out, captured.err, "exit", "--code", "three"),
+                    CommandServer.EXIT_USAGE);
+            Assert.assertTrue(captured.error().startsWith("Error: "), captured.error());
+        }
+    }
+
+    @Test
+    public void server_execute_failure() {
+        try (CommandServer<Object> server = new CommandServer<>(cli())) {
+            Captured captured = new Captured();
+            Assert.assertEquals(server.execute(captured.out, captured.err, "fail"), CommandServer.EXIT_FAILURE);
+            // Stack traces are not sent to the client
+            Assert.assertEquals(captured.error().trim(), "Error: Failed on purpose");
+        }
+    }
+
+    @Test
+    public void server_execute_not_runnable() {
+        try (CommandServer<Object> server = new CommandServer<>(cli())) {
+            Captured captured = new Captured();
+            Assert.assertEquals(server.execute(captured.out, captured.err, "inert"), CommandServer.EXIT_FAILURE);
+            Assert.assertTrue(captured.error().contains("neither Runnable nor Callable"), captured.error());
+        }
+    }
+
+    @Test
+    public void server_execute_help() {
+        try (CommandServer<Object> server = new CommandServer<>(cli())) {
+            Captured captured = new Captured();
+            Assert.assertEquals(server.execute(captured.out, captured.err, "help", "echo"),
+                    CommandServer.EXIT_SUCCESS);
+            // Help is written to the request's channels rather than the server's standard output
+            Assert.assertTrue(captured.output().contains("test echo"), captured.output());
+        }
+    }
+
+    @Test(timeOut = 30000)
+    public void server_tcp_01() throws IOException {
+        try (CommandServer<Object> server = new CommandServer<>(cli())) {
+            InetSocketAddress address = server.listen(0);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ByteArrayOutputStream error = new ByteArrayOutputStream();
+            int exitCode = CommandClient.run(address, Arrays.asList("echo", "over", "tcp"), output, error);
+            Assert.assertEquals(exitCode, CommandServer.EXIT_SUCCESS);
+            Assert.assertEquals(new String(output.toByteArray(), StandardCharsets.UTF_8).trim(), "over tcp");
+
+            error.reset();
+            exitCode = CommandClient.run(address, Arrays.asList("exit", "--code", "5"), output, error);
+            Assert.assertEquals(exitCode, 5);
+            Assert.assertEquals(new String(error.toByteArray(), StandardCharsets.UTF_8).trim(), "exiting with 5");
+        }
+    }
+
+    @Test(timeOut = 30000)
+    public void server_response_files_01() throws IOException {
+        Path secret = Files.createTempFile("secret", ".txt");
+        try (CommandServer<Object> server = new CommandServer<>(responseFilesCli())) {
+            Files.write(secret, Arrays.asList("echo", "top-secret"));
+            // Expanded when parsed locally
+            Object command = server.getCli().parse("@" + secret.toString());
+            Assert.assertEquals(((Echo) command).words, Arrays.asList("top-secret"));
+
+            // Never expanded for requests
+            Captured captured = new Captured();
+            Assert.assertEquals(server.execute(captured.out, captured.err, "echo", "@" + secret.toString()),
+                    CommandServer.EXIT_SUCCESS);
+            Assert.assertEquals(captured.output().trim(), "@" + secret.toString());
+
+            InetSocketAddress address = server.listen(0);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ByteArrayOutputStream error = new ByteArrayOutputStream();
+            int exitCode = CommandClient.run(address, Arrays.asList("@" + secret.toString()), output, error);
+            Assert.assertEquals(exitCode, CommandServer.EXIT_USAGE);
+            String received = new String(output.toByteArray(), StandardCharsets.UTF_8)
+                    + new String(error.toByteArray(), StandardCharsets.UTF_8);
+            Assert.assertFalse(received.contains("top-secret"), received);
+        } finally {
+            Files.delete(secret);
+        }
+    }
+
+    @Test(timeOut = 60000)
+    public void server_tcp_concurrent() throws Exception {
+        try (CommandServer<Object> server = new CommandServer<>(cli())) {
+            final InetSocketAddress address = server.listen(0);
+            final CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    final int thread = t;
+                    futures.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            start.await();
+                            for (int i = 0; i < ITERATIONS; i++) {
+                                String word = "t" + thread + "-i" + i;
+                                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                                ByteArrayOutputStream error = new ByteArrayOutputStream();
+                                Assert.assertEquals(
+                                        CommandClient.run(address, Arrays.asList("echo", word), output, error),
+                                        CommandServer.EXIT_SUCCESS);
+                                // Each client only sees its own output
+                                Assert.assertEquals(new String(output.toByteArray(), StandardCharsets.UTF_8).trim(),
+                                        word);
+                            }
+                            return null;
+                        }
+                    }));
+                }
+
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test(timeOut = 30000)
+    public void server_pipes_01() throws Exception {
+        final PipedOutputStream toServer = new PipedOutputStream();
+        final PipedInputStream serverInput = new PipedInputStream(toServer);
+        final PipedOutputStream serverOutput = new PipedOutputStream();
+        PipedInputStream fromServer = new PipedInputStream(serverOutput);
+
+        final CommandServer<Object> server = new CommandServer<>(cli());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> serving = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    server.serve(serverInput, serverOutput);
+                    serverOutput.close();
+                    return null;
+                }
+            });
+
+            // Several requests over the same connection
+            for (int i = 0; i < 3; i++) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                ByteArrayOutputStream error = new ByteArrayOutputStream();
+                Assert.assertEquals(CommandClient.run(fromServer, toServer, Arrays.asList("echo", "pipe", "" + i),
+                        output, error), CommandServer.EXIT_SUCCESS);
+                Assert.assertEquals(new String(output.toByteArray(), StandardCharsets.UTF_8).trim(), "pipe " + i);
+            }
+
+            // Closing our end ends the connection
+            toServer.close();
+            serving.get(10, TimeUnit.SECONDS);
+        } finally {
+            server.close();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void serve(byte[] request) throws IOException {
+        try (CommandServer<Object> server = new CommandServer<>(cli())) {
+            server.serve(new ByteArrayInputStream(request), new ByteArrayOutputStream());
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Invalid argument count.*")
+    public void server_request_limits_01() throws IOException {
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        new DataOutputStream(request).writeInt(Protocol.MAX_ARGUMENTS + 1);
+        serve(request.toByteArray());
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Invalid length.*")
+    public void server_request_limits_02() throws IOException {
+        // Total size of the arguments is limited, not just each argument
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(request);
+        out.writeInt(2);
+        out.writeInt(Protocol.MAX_REQUEST / 2);
+        out.write(new byte[Protocol.MAX_REQUEST / 2]);
+        out.writeInt(Protocol.MAX_REQUEST / 2 + 1);
+        serve(request.toByteArray());
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void server_closed_01() throws IOException {
+        CommandServer<Object> server = new CommandServer<>(cli());
+        server.close();
+        server.listen(0);
+    }
+}